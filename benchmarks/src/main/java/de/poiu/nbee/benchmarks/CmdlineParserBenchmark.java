@@ -0,0 +1,91 @@
+/*
+ * Copyright 2019-2026 Marco Herrn.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.poiu.nbee.benchmarks;
+
+import de.poiu.nbee.benchmarks.Templates.Template;
+import de.poiu.nbee.parser.CmdlineParser;
+import de.poiu.nbee.parser.CmdlineTemplate;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/**
+ * Benchmarks parsing typical (short) command lines.
+ * <p>
+ * Compares parsing the whole command line string on each call ({@link CmdlineParser#parse},
+ * {@link CmdlineParser#parseDetailed}) to compiling it once and only rendering the compiled
+ * template on each call.
+ *
+ * @author Marco Herrn
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CmdlineParserBenchmark {
+
+  @Param
+  private Template template;
+
+  private Map<String, String> replacements;
+  private CmdlineParser parser;
+  private CmdlineTemplate compiled;
+
+
+  @Setup
+  public void setup() {
+    this.replacements= Templates.replacements("someSelectedText");
+    this.parser= new CmdlineParser(this.replacements);
+    this.compiled= CmdlineParser.compile(this.template.cmdLine);
+  }
+
+
+  @Benchmark
+  public String[] parse() {
+    return this.parser.parse(this.template.cmdLine);
+  }
+
+
+  @Benchmark
+  public CmdlineParser.ParseResult parseDetailed() {
+    return this.parser.parseDetailed(this.template.cmdLine);
+  }
+
+
+  @Benchmark
+  public CmdlineTemplate compile() {
+    return CmdlineParser.compile(this.template.cmdLine);
+  }
+
+
+  @Benchmark
+  public CmdlineParser.ParseResult render() {
+    return this.compiled.render(this.replacements);
+  }
+}
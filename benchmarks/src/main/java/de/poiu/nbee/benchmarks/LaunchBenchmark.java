@@ -0,0 +1,119 @@
+/*
+ * Copyright 2019-2026 Marco Herrn.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.poiu.nbee.benchmarks;
+
+import de.poiu.nbee.launch.SpawnHelperClient;
+import java.io.File;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/**
+ * Benchmarks starting an external command directly from a JVM with a large (and fully touched)
+ * heap against starting it via the {@link SpawnHelperClient spawn helper}.
+ * <p>
+ * The started command is <code>true</code>, so the measured time is dominated by creating the
+ * process. Only starting the command is measured. Waiting for it to exit (to not accumulate
+ * running processes) happens outside of the measurement, since a process started by the helper
+ * is no child of this JVM and can only be waited for by polling.
+ * <p>
+ * The sample mode reports percentiles, which are more interesting here than the average, since
+ * a slow launch is noticed by the user each time.
+ *
+ * @author Marco Herrn
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g", "-XX:+AlwaysPreTouch"})
+@State(Scope.Thread)
+public class LaunchBenchmark {
+
+  private static final List<String> COMMAND= List.of("true");
+
+  private static final File DIRECTORY= new File(System.getProperty("java.io.tmpdir"));
+
+  private SpawnHelperClient spawnHelper;
+
+  /** The process started directly by the last invocation (if any). */
+  private Process startedProcess;
+
+  /** The pid of the process started via the helper by the last invocation (or -1). */
+  private long startedPid= -1;
+
+
+  @Setup
+  public void setup() throws IOException, InterruptedException {
+    this.spawnHelper= new SpawnHelperClient(Duration.ofSeconds(10));
+    // start the helper outside of the measurement
+    this.startViaSpawnHelper();
+    this.awaitExit();
+  }
+
+
+  @TearDown
+  public void tearDown() {
+    this.spawnHelper.close();
+  }
+
+
+  @TearDown(Level.Invocation)
+  public void awaitExit() throws InterruptedException {
+    if (this.startedProcess != null) {
+      this.startedProcess.waitFor();
+      this.startedProcess= null;
+    }
+    if (this.startedPid >= 0) {
+      // the process may already be gone, which is fine
+      ProcessHandle.of(this.startedPid).ifPresent(h -> h.onExit().join());
+      this.startedPid= -1;
+    }
+  }
+
+
+  @Benchmark
+  public Process startDirectly() throws IOException {
+    final Process process= new ProcessBuilder(COMMAND)
+      .directory(DIRECTORY)
+      .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+      .redirectError(ProcessBuilder.Redirect.DISCARD)
+      .start();
+    this.startedProcess= process;
+    return process;
+  }
+
+
+  @Benchmark
+  public long startViaSpawnHelper() throws IOException {
+    this.startedPid= this.spawnHelper.spawn(COMMAND, DIRECTORY);
+    return this.startedPid;
+  }
+}
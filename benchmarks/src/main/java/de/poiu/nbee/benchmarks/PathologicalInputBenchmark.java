@@ -0,0 +1,135 @@
+/*
+ * Copyright 2019-2026 Marco Herrn.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.poiu.nbee.benchmarks;
+
+import de.poiu.nbee.parser.CmdlineParser;
+import de.poiu.nbee.parser.CmdlineTemplate;
+import de.poiu.nbee.parser.IncrementalCmdlineValidator;
+import de.poiu.nbee.parser.ParseException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/**
+ * Benchmarks parsing pathological command lines of increasing size.
+ * <p>
+ * The time and the allocated bytes per operation should grow linearly with the
+ * {@link #size}. The unit test <code>CmdlineParserScalingTest</code> only asserts that for the
+ * allocated bytes, since timing a unit test is not reliable. Check the time here (the
+ * <code>-prof gc</code> profiler reports the allocated bytes as well).
+ *
+ * @author Marco Herrn
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PathologicalInputBenchmark {
+
+  /** The pathological inputs. Each one returns a command line of (approximately) the given length. */
+  public enum Input {
+    /** A single very long argument. */
+    LONG_LINE(n -> "cmd " + "a".repeat(n)),
+    /** Lots of consecutive escaped characters. */
+    CONSECUTIVE_ESCAPES(n -> "cmd " + "\\a".repeat(n / 2)),
+    /** Single and double quotes, each one quoting the other one. */
+    ALTERNATING_QUOTES(n -> "cmd " + "'\"'\"'\"".repeat(n / 6)),
+    /** Lots of placeholders in a single argument. */
+    ADJACENT_PLACEHOLDERS(n -> "cmd " + "${file}".repeat(n / 7)),
+    /** Lots of short arguments. */
+    MANY_ARGUMENTS(n -> "cmd " + "${file} a ".repeat(n / 10)),
+    /** A placeholder that is not closed until the end of the command line (and is therefore invalid). */
+    UNCLOSED_PLACEHOLDER(n -> "cmd ${" + "a".repeat(n)),
+    ;
+
+    private final IntFunction<String> generator;
+
+    Input(final IntFunction<String> generator) {
+      this.generator= generator;
+    }
+  }
+
+
+  @Param
+  private Input input;
+
+  @Param({"1024", "65536", "1048576"})
+  private int size;
+
+  private String cmdLine;
+  private CmdlineParser parser;
+
+  /** The compiled {@link #cmdLine} or <code>null</code> if it is invalid. */
+  private CmdlineTemplate template;
+
+
+  @Setup
+  public void setup() {
+    this.cmdLine= this.input.generator.apply(this.size);
+    this.parser= new CmdlineParser(Map.of("${file}", Templates.FILE_PATH));
+    try {
+      this.template= CmdlineParser.compile(this.cmdLine);
+    } catch (ParseException ex) {
+      this.template= null;
+    }
+  }
+
+
+  @Benchmark
+  public Object parse() {
+    try {
+      return this.parser.parse(this.cmdLine);
+    } catch (ParseException ex) {
+      return ex;
+    }
+  }
+
+
+  @Benchmark
+  public Object compile() {
+    try {
+      return CmdlineParser.compile(this.cmdLine);
+    } catch (ParseException ex) {
+      return ex;
+    }
+  }
+
+
+  @Benchmark
+  public CmdlineParser.ParseResult render() {
+    return this.template != null ? this.template.render(Map.of("${file}", Templates.FILE_PATH)) : null;
+  }
+
+
+  @Benchmark
+  public IncrementalCmdlineValidator.Result validate() {
+    return new IncrementalCmdlineValidator().validate(this.cmdLine);
+  }
+}
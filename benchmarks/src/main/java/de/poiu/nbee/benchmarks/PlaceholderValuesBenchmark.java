@@ -0,0 +1,82 @@
+/*
+ * Copyright 2019-2026 Marco Herrn.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.poiu.nbee.benchmarks;
+
+import de.poiu.nbee.benchmarks.Templates.Template;
+import de.poiu.nbee.parser.CmdlineParser;
+import de.poiu.nbee.parser.CmdlineTemplate;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/**
+ * Benchmarks the whole placeholder handling of a single "edit externally" invocation: building
+ * the placeholder values the way {@code EditExternally} does and rendering the (already
+ * compiled) command line with them.
+ * <p>
+ * The lazily supplied placeholder values are compared to eagerly computing all of them up
+ * front. For the lazy variant only the placeholders referenced by the command line are
+ * computed, which especially avoids copying the selected text if it isn't referenced.
+ *
+ * @author Marco Herrn
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PlaceholderValuesBenchmark {
+
+  @Param
+  private Template template;
+
+  /** The size of the selected text in chars. */
+  @Param({"0", "100", "1048576"})
+  private int selectionSize;
+
+  private String selectedText;
+  private CmdlineTemplate compiled;
+
+
+  @Setup
+  public void setup() {
+    this.selectedText= this.selectionSize > 0 ? Templates.text(this.selectionSize) : null;
+    this.compiled= CmdlineParser.compile(this.template.cmdLine);
+  }
+
+
+  @Benchmark
+  public CmdlineParser.ParseResult eagerReplacementsAndRender() {
+    return this.compiled.render(Templates.replacements(this.selectedText));
+  }
+
+
+  @Benchmark
+  public CmdlineParser.ParseResult lazyPlaceholderValuesAndRender() {
+    return this.compiled.render(Templates.placeholderValues(this.selectedText));
+  }
+}
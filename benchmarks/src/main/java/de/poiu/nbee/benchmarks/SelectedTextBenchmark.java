@@ -0,0 +1,81 @@
+/*
+ * Copyright 2019-2026 Marco Herrn.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.poiu.nbee.benchmarks;
+
+import de.poiu.nbee.parser.CmdlineParser;
+import de.poiu.nbee.parser.CmdlineTemplate;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/**
+ * Benchmarks command lines containing a large <code>${selectedText}</code> value.
+ * <p>
+ * The cost here is dominated by copying the replacement value into the resulting argument,
+ * which makes the bytes allocated per operation (as reported by <code>-prof gc</code>) the more
+ * interesting number.
+ *
+ * @author Marco Herrn
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class SelectedTextBenchmark {
+
+  private static final String CMD_LINE= "tool --file ${file} --line ${line} --text ${selectedText}";
+
+  /** The size of the selected text in megabytes (of chars). */
+  @Param({"1", "4", "16"})
+  private int megabytes;
+
+  private Map<String, String> replacements;
+  private CmdlineParser parser;
+  private CmdlineTemplate compiled;
+
+
+  @Setup
+  public void setup() {
+    this.replacements= Templates.replacements(Templates.text(this.megabytes * 1024 * 1024));
+    this.parser= new CmdlineParser(this.replacements);
+    this.compiled= CmdlineParser.compile(CMD_LINE);
+  }
+
+
+  @Benchmark
+  public String[] parse() {
+    return this.parser.parse(CMD_LINE);
+  }
+
+
+  @Benchmark
+  public CmdlineParser.ParseResult render() {
+    return this.compiled.render(this.replacements);
+  }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2019-2026 Marco Herrn.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.poiu.nbee.benchmarks;
+
+import de.poiu.nbee.parser.PlaceholderValues;
+import de.poiu.nbee.parser.Placeholders;
+import java.util.HashMap;
+import java.util.Map;
+
+
+/**
+ * Realistic command line templates and placeholder values shared by the benchmarks.
+ *
+ * @author Marco Herrn
+ */
+final class Templates {
+
+  /**
+   * The command line templates to benchmark. Each one represents a typical shape of command
+   * line users actually configure.
+   */
+  enum Template {
+    /** A short vim command line in a terminal emulator. */
+    VIM("urxvt -e vim ${file} \"+call cursor(${line}, ${column})\""),
+    /** A short emacsclient command line. */
+    EMACS("emacsclient -n +${line}:${column} ${file}"),
+    /** A command line with lots of quoting and escaping. */
+    QUOTED("\"C:\\\\Program Files\\\\Notepad++\\\\notepad++.exe\" -multiInst '-n${line}' \"-c${column}\""
+           + " 'some \\'quoted\\' \"string\"' \"another \\\"quoted\\\" 'string'\" some\\ escaped\\ spaces \"${file}\""),
+    /** A command line referencing every available placeholder. */
+    MANY_PLACEHOLDERS("tool --file=${file} --name=${fileName} --base=${fileBasename} --ext=${fileExt}"
+                      + " --pos=${line0}:${column0} --pos1=${line}:${column}"
+                      + " --sel=${selectionStart0}-${selectionEnd0} --sel1=${selectionStart}-${selectionEnd}"
+                      + " --selx=${selectionEndExclusive0},${selectionEndExclusive} \"${selectedText}\""),
+    ;
+
+    final String cmdLine;
+
+    Template(final String cmdLine) {
+      this.cmdLine= cmdLine;
+    }
+  }
+
+
+  static final String FILE_PATH= "/home/user/projects/some-project/src/main/java/org/example/SomeClass.java";
+  static final String FILE_NAME= "SomeClass.java";
+  static final String FILE_BASENAME= "SomeClass";
+  static final String FILE_EXT= "java";
+
+  static final int CARET= 48_213;
+  static final int LINE0= 1_234;
+  static final int COLUMN0= 17;
+  static final int SELECTION_START= 48_200;
+  static final int SELECTION_END= 48_213;
+
+
+  private Templates() {
+  }
+
+
+  /**
+   * Returns a text of (approximately) the given size, consisting of lines of source code.
+   *
+   * @param chars the number of characters the text should have
+   * @return the text
+   */
+  static String text(final int chars) {
+    final String line= "    final String someVariable= someObject.someMethod(\"some literal\", 42); // comment\n";
+    final StringBuilder sb= new StringBuilder(chars + line.length());
+    while (sb.length() < chars) {
+      sb.append(line);
+    }
+    sb.setLength(chars);
+    return sb.toString();
+  }
+
+
+  /**
+   * Builds the replacement map for the "edit externally" command by eagerly computing every
+   * value up front, regardless whether the command line references it.
+   * <p>
+   * This serves as the baseline for {@link #placeholderValues}.
+   *
+   * @param selectedText the currently selected text (may be <code>null</code>)
+   * @return the replacement map
+   */
+  static Map<String, String> replacements(final String selectedText) {
+    final Map<String, String> replacements= new HashMap<>();
+    replacements.put(Placeholders.FILE,          FILE_PATH);
+    replacements.put(Placeholders.FILE_NAME,     FILE_NAME);
+    replacements.put(Placeholders.FILE_BASENAME, FILE_BASENAME);
+    replacements.put(Placeholders.FILE_EXT,      FILE_EXT);
+
+    replacements.put(Placeholders.LINE0,                    String.valueOf(LINE0));
+    replacements.put(Placeholders.LINE,                     String.valueOf(LINE0 + 1));
+    replacements.put(Placeholders.COLUMN0,                  String.valueOf(COLUMN0));
+    replacements.put(Placeholders.COLUMN,                   String.valueOf(COLUMN0 + 1));
+    // copy the text like JTextComponent.getSelectedText() does
+    replacements.put(Placeholders.SELECTED_TEXT,            selectedText != null ? new String(selectedText.toCharArray()) : "");
+    replacements.put(Placeholders.SELECTION_START0,         selectedText != null ? String.valueOf(SELECTION_START)     : "-1");
+    replacements.put(Placeholders.SELECTION_START,          selectedText != null ? String.valueOf(SELECTION_START + 1) : "-1");
+    replacements.put(Placeholders.SELECTION_END0,           selectedText != null ? String.valueOf(SELECTION_END - 1)   : "-1");
+    replacements.put(Placeholders.SELECTION_END,            selectedText != null ? String.valueOf(SELECTION_END)       : "-1");
+    replacements.put(Placeholders.SELECTION_END_EXCLUSIVE0, selectedText != null ? String.valueOf(SELECTION_END)       : "-1");
+    replacements.put(Placeholders.SELECTION_END_EXCLUSIVE,  selectedText != null ? String.valueOf(SELECTION_END + 1)   : "-1");
+    return replacements;
+  }
+
+
+  /**
+   * Builds the placeholder values for the "edit externally" command the way {@code EditExternally}
+   * does: each value is only supplied lazily.
+   *
+   * @param selectedText the currently selected text (may be <code>null</code>)
+   * @return the placeholder values
+   */
+  static PlaceholderValues placeholderValues(final String selectedText) {
+    final boolean hasSelection= selectedText != null;
+    return new PlaceholderValues()
+      .supply(Placeholders.FILE,                     () -> FILE_PATH)
+      .supply(Placeholders.FILE_NAME,                () -> FILE_NAME)
+      .supply(Placeholders.FILE_BASENAME,            () -> FILE_BASENAME)
+      .supply(Placeholders.FILE_EXT,                 () -> FILE_EXT)
+      .supply(Placeholders.LINE0,                    () -> String.valueOf(LINE0))
+      .supply(Placeholders.LINE,                     () -> String.valueOf(LINE0 + 1))
+      .supply(Placeholders.COLUMN0,                  () -> String.valueOf(COLUMN0))
+      .supply(Placeholders.COLUMN,                   () -> String.valueOf(COLUMN0 + 1))
+      // copy the text like JTextComponent.getSelectedText() does
+      .supply(Placeholders.SELECTED_TEXT,            () -> hasSelection ? new String(selectedText.toCharArray()) : "")
+      .supply(Placeholders.SELECTION_START0,         () -> hasSelection ? String.valueOf(SELECTION_START)     : "-1")
+      .supply(Placeholders.SELECTION_START,          () -> hasSelection ? String.valueOf(SELECTION_START + 1) : "-1")
+      .supply(Placeholders.SELECTION_END0,           () -> hasSelection ? String.valueOf(SELECTION_END - 1)   : "-1")
+      .supply(Placeholders.SELECTION_END,            () -> hasSelection ? String.valueOf(SELECTION_END)       : "-1")
+      .supply(Placeholders.SELECTION_END_EXCLUSIVE0, () -> hasSelection ? String.valueOf(SELECTION_END)       : "-1")
+      .supply(Placeholders.SELECTION_END_EXCLUSIVE,  () -> hasSelection ? String.valueOf(SELECTION_END + 1)   : "-1")
+      ;
+  }
+}
@@ -15,20 +15,73 @@
  */
 package de.poiu.nbee.actions;
 
+import de.poiu.nbee.config.LargeFileRule;
 import de.poiu.nbee.config.Prefs;
 import de.poiu.nbee.config.Prefs.CmdType;
-import de.poiu.nbee.parser.CmdlineParser;
+import de.poiu.nbee.config.Prefs.StdinContent;
+import de.poiu.nbee.jfr.LaunchEvents.EditorLookupEvent;
+import de.poiu.nbee.jfr.LaunchEvents.PrefsLoadEvent;
+import de.poiu.nbee.jfr.LaunchEvents.ProcessExitEvent;
+import de.poiu.nbee.jfr.LaunchEvents.ProcessSpawnEvent;
+import de.poiu.nbee.jfr.LaunchEvents.ResolveFileEvent;
+import de.poiu.nbee.jfr.LaunchEvents.TemplateParseEvent;
+import de.poiu.nbee.jfr.LaunchTrace;
+import de.poiu.nbee.launch.CommandBatcher;
+import de.poiu.nbee.launch.EditorServerChannel;
+import de.poiu.nbee.launch.EditorServerException;
+import de.poiu.nbee.launch.EditorServerTimeoutException;
+import de.poiu.nbee.launch.LaunchedProcess;
+import de.poiu.nbee.launch.MaterializationCache;
+import de.poiu.nbee.launch.ModifiedDocumentSaver;
+import de.poiu.nbee.launch.OutputPump;
+import de.poiu.nbee.launch.OutputRingBuffer;
+import de.poiu.nbee.launch.OutputSink;
+import de.poiu.nbee.launch.OutputWindowWriter;
+import de.poiu.nbee.launch.ProcessRegistry;
+import de.poiu.nbee.launch.SpawnHelper;
+import de.poiu.nbee.launch.SpawnHelperClient;
+import de.poiu.nbee.launch.SpawnHelperNoResponseException;
+import de.poiu.nbee.launch.StdinFeeder;
+import de.poiu.nbee.parser.CmdlineTemplate;
 import de.poiu.nbee.parser.ParseException;
+import de.poiu.nbee.parser.PlaceholderValues;
 import de.poiu.nbee.parser.Placeholders;
+import de.poiu.nbee.reload.ContentFingerprint;
+import de.poiu.nbee.reload.ExternalChangeRefresher;
+import de.poiu.nbee.text.CaretTracker;
+import de.poiu.nbee.text.CaretTracker.CaretSnapshot;
+import de.poiu.nbee.text.DocumentStreamer;
+import java.awt.Font;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.swing.JEditorPane;
+import javax.swing.JScrollPane;
+import javax.swing.JTextArea;
+import javax.swing.SwingUtilities;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Caret;
+import javax.swing.text.Document;
 import javax.swing.text.JTextComponent;
 import javax.swing.text.StyledDocument;
 import org.netbeans.api.options.OptionsDisplayer;
@@ -44,14 +97,22 @@ import org.openide.filesystems.FileObject;
 import org.openide.filesystems.FileUtil;
 import org.openide.loaders.DataObject;
 import org.openide.loaders.DataShadow;
-import org.openide.text.NbDocument;
 import org.openide.util.Exceptions;
 import org.openide.util.Lookup;
 import org.openide.util.NbBundle.Messages;
+import org.openide.util.RequestProcessor;
 
+import static de.poiu.nbee.config.Prefs.CAPTURE_OUTPUT;
+import static de.poiu.nbee.config.Prefs.CmdType.EDITOR_SERVER_MSG;
 import static de.poiu.nbee.config.Prefs.CmdType.EDIT_EXTERNALLY_CMD;
+import static de.poiu.nbee.config.Prefs.CmdType.LARGE_FILE_CMD;
 import static de.poiu.nbee.config.Prefs.CmdType.OPEN_EXTERNALLY_CMD;
+import static de.poiu.nbee.config.Prefs.EDITOR_SERVER_ADDRESS;
 import static de.poiu.nbee.config.Prefs.NETBEANS_PREFS_ID;
+import static de.poiu.nbee.config.Prefs.RELOAD_EXTERNAL_CHANGES;
+import static de.poiu.nbee.config.Prefs.SAVE_BEFORE_LAUNCH;
+import static de.poiu.nbee.config.Prefs.SHOW_OUTPUT;
+import static de.poiu.nbee.config.Prefs.USE_SPAWN_HELPER;
 
 
 /**
@@ -66,6 +127,24 @@ import static de.poiu.nbee.config.Prefs.NETBEANS_PREFS_ID;
  * If the cursor position is not known for the current file, the "open externally" command is used
  * that doesn't support location information to be configured.
  * <p>
+ * Instead of starting the "edit externally" command, a message can be sent to an already running
+ * editor server (see {@link EditorServerChannel}). The command is then only started if the
+ * editor server cannot be reached.
+ * <p>
+ * Each command can be configured to get the selected text or the whole document written into
+ * its standard input (see {@link StdinFeeder}).
+ * <p>
+ * Files that don't exist on disk (like entries of JAR files) are copied into the
+ * {@link MaterializationCache} first and the command is started for that copy.
+ * <p>
+ * If multiple files are selected, the "open externally" command is used for all of them (see
+ * {@link #launchBatch}).
+ * <p>
+ * Files that are larger than the configured threshold are opened with the "large file" command
+ * instead (if configured), regardless which of the above would be used otherwise (see
+ * {@link LargeFileRule}). This allows using a pager or an editor capable of handling huge files
+ * for them.
+ * <p>
  * Implementation note: this uses NetBeans' declarative context-action recipe (a constructor
  * taking a {@code List<DataObject>} plus implementing plain {@link ActionListener}) instead of
  * hand-rolling {@code AbstractAction implements ContextAwareAction, LookupListener}. The
@@ -100,20 +179,93 @@ import static de.poiu.nbee.config.Prefs.NETBEANS_PREFS_ID;
 @Messages({
   "CTL_EditExternally=Edit Externally",
   "# {0} - the file to be edited",
+  "CTL_Launching_Status=Starting external editor for {0}...",
+  "# {0} - the file to be edited",
   "CTL_Editing_Status=Editing file {0} in external editor",
+  "# {0} - the number of files to be opened",
+  "CTL_Launching_Batch_Status=Starting external editor for {0} files...",
+  "# {0} - the number of files to be opened",
+  "CTL_Editing_Batch_Status=Editing {0} files in external editor",
   "# {0} - the file to be opened",
   "# {1} - the reason for error",
   "CTL_Editing_Error=Error opening external editor for {0}: {1}",
+  "# {0} - the file to be edited",
+  "CTL_EditorServer_NoResponse=Sent {0} to editor server, but it didn't respond in time",
+  "# {0} - the file to be saved",
+  "# {1} - the reason for error",
+  "CTL_Saving_Error=Error saving {0} before opening it in external editor: {1}",
   "MSG_NoCommand_Edit=<html>No command to edit file externally is defined yet.<br/>Open configuration panel now?</html>",
   "MSG_NoCommand_Open=<html>No command to open file externally is defined yet.<br/>Open configuration panel now?</html>",
   "# {0} - the reason the configured command could not be parsed",
   "MSG_InvalidCommand_Edit=<html>The configured command to edit file externally is invalid:<br/>{0}<br/>Open configuration panel now?</html>",
   "# {0} - the reason the configured command could not be parsed",
-  "MSG_InvalidCommand_Open=<html>The configured command to open file externally is invalid:<br/>{0}<br/>Open configuration panel now?</html>"})
+  "MSG_InvalidCommand_Open=<html>The configured command to open file externally is invalid:<br/>{0}<br/>Open configuration panel now?</html>",
+  "# {0} - the reason the configured command could not be parsed",
+  "MSG_InvalidCommand_LargeFile=<html>The configured command to open large files is invalid:<br/>{0}<br/>Open configuration panel now?</html>",
+  "# {0} - the started command",
+  "# {1} - the exit value of the command",
+  "CTL_Command_Failed=External command {0} failed with exit value {1}",
+  "# {0} - the started command",
+  "# {1} - the exit value of the command",
+  "MSG_Command_Failed=External command {0} failed with exit value {1}. Its last output was:",
+  "# {0} - the started command",
+  "# {1} - the file the command was started for",
+  "LBL_OutputTab={0} ({1})",
+  "# {0} - the started command",
+  "# {1} - the number of files the command was started for",
+  "LBL_OutputTab_Batch={0} ({1} files)"})
 public final class EditExternally implements ActionListener {
 
   private static final Logger LOGGER= Logger.getLogger(EditExternally.class.getName());
 
+  /**
+   * The RequestProcessor to launch the external commands on.
+   * <p>
+   * Starting a process may take quite some time (forking a large JVM, slow network file
+   * systems, etc.), therefore this must never be done on the EDT. This allows a few launches in
+   * parallel, so that a single slow launch doesn't block all others.
+   */
+  private static final RequestProcessor LAUNCHER= new RequestProcessor(EditExternally.class.getName(), 4);
+
+  /** The timeout for connecting to an editor server and waiting for its response. */
+  private static final Duration EDITOR_SERVER_TIMEOUT= Duration.ofSeconds(2);
+
+  /** The (persistent) connections to the editor servers, by their configured address. */
+  private static final Map<String, EditorServerChannel> EDITOR_SERVERS= new ConcurrentHashMap<>();
+
+  /**
+   * The helper process for starting the commands (if configured). It is only started on first
+   * use and exits by itself when NetBeans exits.
+   */
+  private static final SpawnHelperClient SPAWN_HELPER= new SpawnHelperClient(Duration.ofSeconds(5));
+
+  /**
+   * The time after starting a command in which its failure is reported to the user (if its
+   * output is captured). A command failing later was obviously started successfully (and
+   * probably just closed by the user in some unusual way), so its failure is not reported.
+   */
+  private static final Duration EARLY_FAILURE_WINDOW= Duration.ofSeconds(10);
+
+  /**
+   * The maximum time to wait for the rest of the output of a command after it exited. The
+   * output may stay open for much longer if the command started other processes in the
+   * background.
+   */
+  private static final Duration OUTPUT_DRAIN_TIMEOUT= Duration.ofMillis(500);
+
+  /** The number of bytes of the (most recent) output to capture for each command. */
+  private static final int OUTPUT_CAPTURE_SIZE= 64 * 1024;
+
+  /**
+   * The time to keep the temporary files for a command after it exited. Many commands (like
+   * <code>gvim</code> or <code>emacsclient -n</code>) exit immediately while the actual editor
+   * only reads the files afterwards.
+   */
+  private static final Duration TEMP_FILE_GRACE_PERIOD= Duration.ofSeconds(30);
+
+  /** The maximum time to wait for saving the modified files before starting the command. */
+  private static final Duration SAVE_TIMEOUT= Duration.ofSeconds(30);
+
   /**
    * The currently selected DataObjects this action was invoked on. NetBeans only enables (and
    * thus only ever invokes) this action when this list is non-empty; see the class-level note.
@@ -130,99 +282,731 @@ public final class EditExternally implements ActionListener {
   public void actionPerformed(ActionEvent ev) {
     LOGGER.entering("EditExternally", "actionPerformed", ev);
 
-    final DataObject dataObject= this.context.isEmpty() ? null : this.context.get(0);
-    final FileObject file      = this.getFileObjectFrom(dataObject);
+    final LaunchTrace trace= new LaunchTrace();
+    final ResolveFileEvent resolveEvent= new ResolveFileEvent();
+    resolveEvent.begin();
+
+    DataObject dataObject= this.context.isEmpty() ? null : this.context.get(0);
+    if (this.context.size() > 1) {
+      final List<FileObject> files= new ArrayList<>(this.context.size());
+      DataObject firstFileDataObject= null;
+      for (final DataObject selected : this.context) {
+        final FileObject file= this.getFileObjectFrom(selected);
+        if (file != null && !file.isFolder()) {
+          files.add(file);
+          if (firstFileDataObject == null) {
+            firstFileDataObject= selected;
+          }
+        }
+      }
+      if (files.size() > 1) {
+        trace.file(files.get(0));
+        trace.commit(resolveEvent);
+        StatusDisplayer.getDefault().setStatusText(Bundle.CTL_Launching_Batch_Status(files.size()));
+        LAUNCHER.post(() -> this.launchBatch(files, trace));
+        return;
+      }
+      if (firstFileDataObject != null) {
+        // only a single file (besides some folders) is selected
+        dataObject= firstFileDataObject;
+      }
+    }
+
+    final FileObject file= this.getFileObjectFrom(dataObject);
+    trace.file(file);
+    trace.commit(resolveEvent);
     if (file == null) {
       LOGGER.log(Level.INFO, "Ignoring execution request, since no current file was found");
       return;
     }
 
-    final JTextComponent editor   = getCurrentEditor(dataObject);
-    final StyledDocument sdocument= editor != null ? (StyledDocument) editor.getDocument() : null;
+    // Only take a snapshot of the current editor state here on the EDT. Everything else
+    // (reading the preferences, computing the placeholder values and especially starting the
+    // process, which may take quite some time when forking a large JVM) is done in the background.
+    final EditorLookupEvent editorEvent= new EditorLookupEvent();
+    editorEvent.begin();
+    final JTextComponent editor  = getCurrentEditor(dataObject);
+    final EditorSnapshot snapshot= EditorSnapshot.of(editor);
 
     final CmdType cmdType;
     if (editor == null) {
       LOGGER.log(Level.INFO, "Calling 'open external' command since no current editor was found.");
       cmdType= OPEN_EXTERNALLY_CMD;
-    } else if (sdocument == null) {
+    } else if (snapshot == null) {
       LOGGER.log(Level.INFO, "Calling 'open external' command since the current editor's document is not a StyledDocument.");
       cmdType= OPEN_EXTERNALLY_CMD;
     } else {
       LOGGER.log(Level.INFO, "Calling 'edit external' command with location information of current editor");
       cmdType= EDIT_EXTERNALLY_CMD;
     }
+    trace.cmdType(cmdType);
+    trace.commit(editorEvent);
 
-    final Prefs  prefs  = Lookup.getDefault().lookup(Prefs.class);
-    final String cmdLine= prefs.load(cmdType.name());
+    StatusDisplayer.getDefault().setStatusText(Bundle.CTL_Launching_Status(file.getPath()));
+    LAUNCHER.post(() -> this.launch(file, cmdType, snapshot, trace));
+  }
 
-    if (cmdLine == null || cmdLine.trim().isEmpty()) {
-      this.openOptionsPanel(cmdType);
-    } else {
-      final File actualFile= FileUtil.toFile(file);
 
-      final CmdlineParser cmdlineParser= new CmdlineParser();
+  /**
+   * Starts the configured command of the given type for the given file.
+   * <p>
+   * This is called on the {@link #LAUNCHER}, not on the EDT. All feedback to the user (status
+   * messages and dialogs) is passed back to the EDT.
+   * <p>
+   * If the file is large enough to be opened with the "large file" command, that one is
+   * started instead of the given one.
+   *
+   * @param file the file to edit or open
+   * @param requestedCmdType the type of command to start for files that are not too large
+   * @param snapshot the state of the editor of the file when the action was invoked or
+   *                  <code>null</code> if there is no such editor (only when opening the file)
+   * @param trace the attributes of the JFR events of this launch
+   */
+  private void launch(final FileObject file, final CmdType requestedCmdType, final EditorSnapshot snapshot, final LaunchTrace trace) {
+    final PrefsLoadEvent prefsEvent= new PrefsLoadEvent();
+    prefsEvent.begin();
+    final Prefs prefs= Prefs.getDefault();
+    trace.commit(prefsEvent);
+
+    final CmdType cmdType= isLargeFile(prefs.loadLargeFileRule(), file) ? LARGE_FILE_CMD : requestedCmdType;
+    trace.cmdType(cmdType);
+
+    final TemplateParseEvent parseEvent= new TemplateParseEvent();
+    parseEvent.begin();
+    final CmdlineTemplate template;
+    try {
+      template= prefs.loadTemplate(cmdType);
+    } catch (ParseException ex) {
+      trace.commit(parseEvent);
+      SwingUtilities.invokeLater(() -> this.openOptionsPanelForInvalidCommand(cmdType, ex));
+      return;
+    }
+    trace.template(prefs, template);
+    trace.commit(parseEvent);
+
+    if (template == null) {
+      SwingUtilities.invokeLater(() -> this.openOptionsPanel(cmdType));
+      return;
+    }
+
+    if (prefs.loadBoolean(SAVE_BEFORE_LAUNCH, false) && !saveModified(List.of(file))) {
+      return;
+    }
 
-      cmdlineParser
-        .replace(Placeholders.FILE,          actualFile.getAbsolutePath())
-        .replace(Placeholders.FILE_NAME,     file.getNameExt())
-        .replace(Placeholders.FILE_BASENAME, file.getName())
-        .replace(Placeholders.FILE_EXT,      file.getExt())
+    final File actualFile;
+    try {
+      actualFile= toLocalFile(file);
+    } catch (IOException ex) {
+      setStatusText(Bundle.CTL_Editing_Error(file.getPath(), ex.getLocalizedMessage()));
+      Exceptions.printStackTrace(ex);
+      return;
+    }
+
+    // Only the values of the placeholders actually referenced in the configured command are
+    // computed. Especially copying the selected text may be expensive for large selections.
+    final List<Path> tempFiles= new ArrayList<>(1);
+    final PlaceholderValues values= new PlaceholderValues()
+      .supply(Placeholders.FILE,          () -> actualFile.getAbsolutePath())
+      .supply(Placeholders.FILE_NAME,     () -> file.getNameExt())
+      .supply(Placeholders.FILE_BASENAME, () -> file.getName())
+      .supply(Placeholders.FILE_EXT,      () -> file.getExt())
+      .supply(Placeholders.FILES,         () -> actualFile.getAbsolutePath())
+      ;
+
+    // the location information is also available to the large file command if the file is
+    // currently opened in an editor
+    if (snapshot != null) {
+      final StyledDocument sdocument     = snapshot.document();
+      final CaretSnapshot  location      = snapshot.location();
+      // the tracker caches the computed location, so the line and the column are computed at most once
+      final IntSupplier    line0         = location != null
+                                             ? location::line0
+                                             : () -> snapshot.tracker().locate(sdocument, snapshot.caret(), snapshot.mark()).line0();
+      final IntSupplier    column0       = location != null
+                                             ? location::column0
+                                             : () -> snapshot.tracker().locate(sdocument, snapshot.caret(), snapshot.mark()).column0();
+      final int            selectionStart= snapshot.selectionStart();
+      final int            selectionEnd  = snapshot.selectionEnd();
+      final boolean        hasSelection  = selectionStart != selectionEnd;
+
+      values
+        .supply(Placeholders.LINE0,                    () -> String.valueOf(line0.getAsInt()))
+        .supply(Placeholders.LINE,                     () -> String.valueOf(line0.getAsInt() + 1))
+        .supply(Placeholders.COLUMN0,                  () -> String.valueOf(column0.getAsInt()))
+        .supply(Placeholders.COLUMN,                   () -> String.valueOf(column0.getAsInt() + 1))
+        .supply(Placeholders.SELECTED_TEXT,            () -> hasSelection ? getText(sdocument, selectionStart, selectionEnd - selectionStart) : "")
+        .supply(Placeholders.SELECTED_TEXT_FILE,       () -> hasSelection ? writeToTempFile(sdocument, selectionStart, selectionEnd - selectionStart, file.getExt(), tempFiles) : "")
+        .supply(Placeholders.SELECTION_START0,         () -> hasSelection ? String.valueOf(selectionStart)     : "-1")
+        .supply(Placeholders.SELECTION_START,          () -> hasSelection ? String.valueOf(selectionStart + 1) : "-1")
+        .supply(Placeholders.SELECTION_END0,           () -> hasSelection ? String.valueOf(selectionEnd - 1)   : "-1")
+        .supply(Placeholders.SELECTION_END,            () -> hasSelection ? String.valueOf(selectionEnd)       : "-1")
+        .supply(Placeholders.SELECTION_END_EXCLUSIVE0, () -> hasSelection ? String.valueOf(selectionEnd)       : "-1")
+        .supply(Placeholders.SELECTION_END_EXCLUSIVE,  () -> hasSelection ? String.valueOf(selectionEnd + 1)   : "-1")
         ;
+    }
+
+    final String[] command;
+    try {
+      if (cmdType == EDIT_EXTERNALLY_CMD && this.sendToEditorServer(prefs, values, file)) {
+        // there is no process to wait for, so give the editor server the grace period to read
+        // the temporary files (regardless of whether it answered)
+        deleteTempFilesAfterExit(List.of(), tempFiles);
+        return;
+      }
+      command= template.render(values).command();
+    } catch (UncheckedIOException ex) {
+      deleteTempFiles(tempFiles);
+      setStatusText(Bundle.CTL_Editing_Error(file.getPath(), ex.getCause().getLocalizedMessage()));
+      Exceptions.printStackTrace(ex);
+      return;
+    }
+
+    final StdinFeeder.Content stdin= stdinOf(prefs.loadStdinContent(cmdType), file, snapshot);
+    try {
+      final List<LaunchedProcess> launched= startAndWatch(prefs, command, List.of(actualFile), stdin, cmdType != LARGE_FILE_CMD, trace);
+      deleteTempFilesAfterExit(launched, tempFiles);
+      setStatusText(Bundle.CTL_Editing_Status(file.getPath()));
+    } catch (IOException ex) {
+      deleteTempFiles(tempFiles);
+      setStatusText(Bundle.CTL_Editing_Error(file.getPath(), ex.getLocalizedMessage()));
+      Exceptions.printStackTrace(ex);
+    }
+  }
+
+
+  /**
+   * Deletes the given temporary files after the given process exited (plus the
+   * {@link #TEMP_FILE_GRACE_PERIOD}).
+   *
+   * @param launched the registered process (for each of its files) or an empty list if it
+   *                  already exited (or the request was sent to an editor server)
+   * @param tempFiles the temporary files written for the process
+   */
+  private static void deleteTempFilesAfterExit(final List<LaunchedProcess> launched, final List<Path> tempFiles) {
+    if (tempFiles.isEmpty()) {
+      return;
+    }
+    final CompletableFuture<?> exit= launched.isEmpty()
+      ? CompletableFuture.completedFuture(null)
+      : launched.get(0).onExit();
+    exit.thenRun(() -> LAUNCHER.post(() -> deleteTempFiles(tempFiles), (int) TEMP_FILE_GRACE_PERIOD.toMillis()));
+  }
 
-      if (cmdType == EDIT_EXTERNALLY_CMD) {
-        final int    caret          = editor.getCaretPosition();
-        final int    line0          = NbDocument.findLineNumber(sdocument, caret);
-        final int    column0        = NbDocument.findLineColumn(sdocument, caret);
-        final String selectedText   = editor.getSelectedText();
-        final int    selectionStart = editor.getSelectionStart();
-        final int    selectionEnd   = editor.getSelectionEnd();
-
-        cmdlineParser
-          .replace(Placeholders.LINE0,                    String.valueOf(line0))
-          .replace(Placeholders.LINE,                     String.valueOf(line0 + 1))
-          .replace(Placeholders.COLUMN0,                  String.valueOf(column0))
-          .replace(Placeholders.COLUMN,                   String.valueOf(column0 + 1))
-          .replace(Placeholders.SELECTED_TEXT,            selectedText != null ? selectedText : "")
-          .replace(Placeholders.SELECTION_START0,         selectedText != null ? String.valueOf(selectionStart)     : "-1")
-          .replace(Placeholders.SELECTION_START,          selectedText != null ? String.valueOf(selectionStart + 1) : "-1")
-          .replace(Placeholders.SELECTION_END0,           selectedText != null ? String.valueOf(selectionEnd - 1)   : "-1")
-          .replace(Placeholders.SELECTION_END,            selectedText != null ? String.valueOf(selectionEnd)       : "-1")
-          .replace(Placeholders.SELECTION_END_EXCLUSIVE0, selectedText != null ? String.valueOf(selectionEnd)       : "-1")
-          .replace(Placeholders.SELECTION_END_EXCLUSIVE,  selectedText != null ? String.valueOf(selectionEnd + 1)   : "-1")
-          ;
+
+  /**
+   * Deletes the given temporary files. Failures are only logged, since the files are deleted
+   * when NetBeans exits anyway.
+   *
+   * @param tempFiles the temporary files to delete
+   */
+  private static void deleteTempFiles(final List<Path> tempFiles) {
+    for (final Path tempFile : tempFiles) {
+      try {
+        Files.deleteIfExists(tempFile);
+      } catch (IOException ex) {
+        LOGGER.log(Level.FINE, "Could not delete temporary file " + tempFile, ex);
       }
+    }
+  }
+
+
+  /**
+   * Starts the configured "open externally" command for multiple files.
+   * <p>
+   * If the command references the placeholder <code>${files}</code>, it is started once for
+   * all files (or as few times as the maximum length of a command line allows, see
+   * {@link CommandBatcher}). All other placeholders then refer to the first file.
+   * <p>
+   * Otherwise the command is started once per file. These are started on the
+   * {@link #LAUNCHER}, so at most as many of them are started in parallel as the LAUNCHER allows.
+   * <p>
+   * This is called on the {@link #LAUNCHER}, not on the EDT.
+   *
+   * @param files the files to open
+   * @param trace the attributes of the JFR events of this launch
+   */
+  private void launchBatch(final List<FileObject> files, final LaunchTrace trace) {
+    trace.cmdType(OPEN_EXTERNALLY_CMD);
+
+    final PrefsLoadEvent prefsEvent= new PrefsLoadEvent();
+    prefsEvent.begin();
+    final Prefs prefs= Prefs.getDefault();
+    trace.commit(prefsEvent);
+
+    final TemplateParseEvent parseEvent= new TemplateParseEvent();
+    parseEvent.begin();
+    final CmdlineTemplate template;
+    try {
+      template= prefs.loadTemplate(OPEN_EXTERNALLY_CMD);
+    } catch (ParseException ex) {
+      trace.commit(parseEvent);
+      SwingUtilities.invokeLater(() -> this.openOptionsPanelForInvalidCommand(OPEN_EXTERNALLY_CMD, ex));
+      return;
+    }
+    trace.template(prefs, template);
+    trace.commit(parseEvent);
+
+    if (template == null) {
+      SwingUtilities.invokeLater(() -> this.openOptionsPanel(OPEN_EXTERNALLY_CMD));
+      return;
+    }
+
+    if (!template.placeholders().contains(Placeholders.FILES)) {
+      // each of these launches saves its own file (if configured)
+      for (final FileObject file : files) {
+        this.postLaunch(file);
+      }
+      return;
+    }
+
+    // large files are not part of the batch, but opened individually with the large file command
+    final LargeFileRule largeFileRule= prefs.loadLargeFileRule();
+    final List<FileObject> batchedFiles= new ArrayList<>(files.size());
+    for (final FileObject file : files) {
+      if (isLargeFile(largeFileRule, file)) {
+        this.postLaunch(file);
+      } else {
+        batchedFiles.add(file);
+      }
+    }
 
-      final String[] command;
+    if (batchedFiles.isEmpty()) {
+      return;
+    }
+
+    // saving must happen before copying non-local files, so that their copies are up to date
+    if (prefs.loadBoolean(SAVE_BEFORE_LAUNCH, false) && !saveModified(batchedFiles)) {
+      return;
+    }
+
+    // the placeholders for a single file refer to the first file that is actually opened
+    final Map<String, File> actualFiles= new LinkedHashMap<>();
+    FileObject firstObject= null;
+    for (final FileObject file : batchedFiles) {
       try {
-        command= cmdlineParser.parse(cmdLine.trim());
-      } catch (ParseException ex) {
-        this.openOptionsPanelForInvalidCommand(cmdType, ex);
-        return;
+        final File actualFile= toLocalFile(file);
+        actualFiles.put(actualFile.getAbsolutePath(), actualFile);
+        if (firstObject == null) {
+          firstObject= file;
+        }
+      } catch (IOException ex) {
+        LOGGER.log(Level.WARNING, "Ignoring " + file.getPath() + ", since it cannot be copied to a local file", ex);
       }
+    }
+    if (actualFiles.isEmpty()) {
+      return;
+    }
 
-      LOGGER.log(Level.INFO, "Calling command {0}", Arrays.toString(command));
+    final FileObject first= firstObject;
+    final File firstFile= actualFiles.values().iterator().next();
+    final PlaceholderValues values= new PlaceholderValues()
+      .supply(Placeholders.FILE,          () -> firstFile.getAbsolutePath())
+      .supply(Placeholders.FILE_NAME,     () -> first.getNameExt())
+      .supply(Placeholders.FILE_BASENAME, () -> first.getName())
+      .supply(Placeholders.FILE_EXT,      () -> first.getExt())
+      ;
 
+    final List<CommandBatcher.Batch> batches= CommandBatcher.forCurrentPlatform()
+      .split(template, values, Placeholders.FILES, List.copyOf(actualFiles.keySet()));
+    if (batches.size() > 1) {
+      LOGGER.log(Level.INFO, "Splitting command for {0} files into {1} invocations", new Object[]{actualFiles.size(), batches.size()});
+    }
+
+    for (final CommandBatcher.Batch batch : batches) {
+      final List<File> batchFiles= new ArrayList<>(batch.items().size());
+      for (final String path : batch.items()) {
+        batchFiles.add(actualFiles.get(path));
+      }
       try {
-        final String msg= Bundle.CTL_Editing_Status(file.getPath());
-        StatusDisplayer.getDefault().setStatusText(msg);
-
-        // Use ProcessBuilder instead of Runtime.exec() and explicitly discard stdout/stderr.
-        // Otherwise, if the started editor writes a nontrivial amount of output (e.g. a
-        // terminal-based editor), the OS pipe buffer can fill up and block the child process
-        // without any indication to the user, since nothing in NetBeans ever reads that output.
-        //
-        // The working directory is explicitly set to the edited file's directory instead of
-        // leaving it at NetBeans' own (platform-dependent, effectively undefined) working directory.
-        new ProcessBuilder(command)
-          .directory(actualFile.getParentFile())
-          .redirectOutput(ProcessBuilder.Redirect.DISCARD)
-          .redirectError(ProcessBuilder.Redirect.DISCARD)
-          .start();
+        startAndWatch(prefs, batch.command(), batchFiles, null, false, trace);
       } catch (IOException ex) {
-        final String msg = Bundle.CTL_Editing_Error(file.getPath(), ex.getLocalizedMessage());
-        StatusDisplayer.getDefault().setStatusText(msg);
+        setStatusText(Bundle.CTL_Editing_Error(batchFiles.get(0).getPath(), ex.getLocalizedMessage()));
         Exceptions.printStackTrace(ex);
+        return;
+      }
+    }
+    setStatusText(Bundle.CTL_Editing_Batch_Status(actualFiles.size()));
+  }
+
+
+  /**
+   * Starts the configured "open externally" command (or the "large file" command) for a single
+   * file of a batch on the {@link #LAUNCHER}.
+   *
+   * @param file the file to open
+   */
+  private void postLaunch(final FileObject file) {
+    final LaunchTrace fileTrace= new LaunchTrace();
+    fileTrace.file(file);
+    fileTrace.cmdType(OPEN_EXTERNALLY_CMD);
+    LAUNCHER.post(() -> this.launch(file, OPEN_EXTERNALLY_CMD, null, fileTrace));
+  }
+
+
+  /**
+   * Returns whether the given file is to be opened with the "large file" command.
+   *
+   * @param rule the rule for using the large file command or <code>null</code> if it is not
+   *              used at all
+   * @param file the file to check
+   * @return whether the given file is to be opened with the large file command
+   */
+  private static boolean isLargeFile(final LargeFileRule rule, final FileObject file) {
+    if (rule == null || !rule.matches(file)) {
+      return false;
+    }
+    LOGGER.log(Level.INFO, "Calling ''large file'' command since {0} is larger than {1} bytes.", new Object[]{file.getPath(), rule.threshold()});
+    return true;
+  }
+
+
+  /**
+   * Starts the given command for the given files and watches these files for modifications
+   * (if configured).
+   *
+   * @param prefs the preferences to read the configuration from
+   * @param command the command to start
+   * @param files the files the command is started for (at least one)
+   * @param stdin the content to write into the standard input of the command or
+   *               <code>null</code> to leave it alone
+   * @param fingerprint whether to compute the fingerprints of the files before starting the
+   *                     command (to detect rewrites with the same content). This reads the
+   *                     whole files and is therefore skipped for large files and batches.
+   * @param trace the attributes of the JFR events of this launch
+   * @return the registered process for each of the given files (in the same order) or an empty
+   *          list if it was started via the spawn helper and already exited again
+   * @throws IOException if the command cannot be started
+   */
+  private static List<LaunchedProcess> startAndWatch(final Prefs prefs, final String[] command, final List<File> files,
+                                                     final StdinFeeder.Content stdin, final boolean fingerprint,
+                                                     final LaunchTrace trace) throws IOException {
+    LOGGER.log(Level.INFO, "Calling command {0}", Arrays.toString(command));
+
+    // the fingerprints must be computed before starting the process, since the started editor
+    // may modify the files immediately
+    final boolean reload= prefs.loadBoolean(RELOAD_EXTERNAL_CHANGES, true);
+    final List<ContentFingerprint> fingerprints= new ArrayList<>(files.size());
+    if (reload) {
+      for (final File file : files) {
+        fingerprints.add(fingerprint ? fingerprintOf(file) : null);
+      }
+    }
+
+    final List<LaunchedProcess> launched= start(prefs, Arrays.asList(command), files, stdin, trace);
+    if (reload) {
+      final ExternalChangeRefresher refresher= Lookup.getDefault().lookup(ExternalChangeRefresher.class);
+      for (int i= 0; i < launched.size(); i++) {
+        refresher.watch(launched.get(i), fingerprints.get(i));
+      }
+    }
+    return launched;
+  }
+
+
+  /**
+   * Starts the given command for the given files and registers it in the {@link ProcessRegistry}
+   * for each of these files.
+   * <p>
+   * If configured, the command is started via the {@link SpawnHelper}. If that fails, it is
+   * started directly instead. A command that gets content written into its standard input is
+   * always started directly, since the spawn helper cannot pass on the standard input. The same
+   * applies if the output of the commands is to be captured or shown in the Output window.
+   *
+   * @param prefs the preferences to read whether to use the spawn helper from
+   * @param command the command to start
+   * @param files the files the command is started for (at least one). The command is started
+   *               in the directory of the first one.
+   * @param stdin the content to write into the standard input of the command or
+   *               <code>null</code> to leave it alone
+   * @param trace the attributes of the JFR events of this launch
+   * @return the registered process for each of the given files (in the same order) or an empty
+   *          list if it was started via the spawn helper and already exited again
+   * @throws IOException if the command cannot be started
+   */
+  private static List<LaunchedProcess> start(final Prefs prefs, final List<String> command, final List<File> files,
+                                             final StdinFeeder.Content stdin, final LaunchTrace trace) throws IOException {
+    final ProcessRegistry registry= Lookup.getDefault().lookup(ProcessRegistry.class);
+    final File directory= files.get(0).getParentFile();
+    final List<LaunchedProcess> launched= new ArrayList<>(files.size());
+
+    final ProcessSpawnEvent spawnEvent= new ProcessSpawnEvent();
+    final ProcessExitEvent exitEvent= new ProcessExitEvent();
+    spawnEvent.begin();
+    exitEvent.begin();
+
+    final boolean captureOutput= prefs.loadBoolean(CAPTURE_OUTPUT, false);
+    final boolean showOutput= prefs.loadBoolean(SHOW_OUTPUT, false);
+    if (stdin == null && !captureOutput && !showOutput && prefs.loadBoolean(USE_SPAWN_HELPER, false)) {
+      try {
+        final long pid= SPAWN_HELPER.spawn(command, directory);
+        spawnEvent.spawnHelper(true);
+        spawnEvent.pid(pid);
+        trace.commit(spawnEvent);
+
+        final ProcessHandle handle= ProcessHandle.of(pid).orElse(null);
+        if (handle != null) {
+          for (final File file : files) {
+            launched.add(registry.register(file.toPath(), handle, command));
+          }
+        }
+        traceExit(launched, exitEvent, trace);
+        return launched;
+      } catch (SpawnHelperNoResponseException ex) {
+        // the helper may have started the command already. Starting it again could open the
+        // file twice.
+        throw ex;
+      } catch (IOException ex) {
+        LOGGER.log(Level.WARNING, "Cannot start command via spawn helper. Starting it directly instead.", ex);
+      }
+    }
+
+    // Use ProcessBuilder instead of Runtime.exec() and explicitly discard stdout/stderr.
+    // Otherwise, if the started editor writes a nontrivial amount of output (e.g. a
+    // terminal-based editor), the OS pipe buffer can fill up and block the child process
+    // without any indication to the user, since nothing in NetBeans ever reads that output.
+    // If the output is captured or shown instead, it is always drained in the background for
+    // the same reason. If it is only captured, stderr is merged into stdout, so a single reader
+    // drains both in the order they were written. The Output window shows stderr separately.
+    //
+    // The working directory is explicitly set to the edited file's directory instead of
+    // leaving it at NetBeans' own (platform-dependent, effectively undefined) working directory.
+    final ProcessBuilder processBuilder= new ProcessBuilder(command).directory(directory);
+    if (captureOutput && !showOutput) {
+      processBuilder.redirectErrorStream(true);
+    } else if (!captureOutput && !showOutput) {
+      processBuilder
+        .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+        .redirectError(ProcessBuilder.Redirect.DISCARD);
+    }
+    final long startTime= System.nanoTime();
+    final Process process= processBuilder.start();
+    spawnEvent.pid(process.pid());
+    trace.commit(spawnEvent);
+
+    if (captureOutput || showOutput) {
+      drainOutput(process, command, files, captureOutput, showOutput, startTime);
+    }
+
+    if (stdin != null) {
+      StdinFeeder.feed(process.getOutputStream(), stdin).whenComplete((written, ex) -> {
+        if (ex != null) {
+          LOGGER.log(Level.FINE, "Could not write the whole standard input of " + command, ex);
+        }
+      });
+    }
+
+    for (final File file : files) {
+      launched.add(registry.register(file.toPath(), process, command));
+    }
+    traceExit(launched, exitEvent, trace);
+    return launched;
+  }
+
+
+  /**
+   * Drains the output of the given process in the background into the sinks for the requested
+   * purposes.
+   *
+   * @param process the started process
+   * @param command the started command
+   * @param files the files the command was started for
+   * @param captureOutput whether to capture the output to report an early failure
+   * @param showOutput whether to show the output in the Output window. If not, stderr must be
+   *                    merged into stdout.
+   * @param startTime the time (as returned by {@link System#nanoTime()}) the process was started
+   */
+  private static void drainOutput(final Process process, final List<String> command, final List<File> files,
+                                  final boolean captureOutput, final boolean showOutput, final long startTime) {
+    final OutputRingBuffer buffer= captureOutput ? new OutputRingBuffer(OUTPUT_CAPTURE_SIZE) : null;
+    final List<OutputSink> outSinks= new ArrayList<>(2);
+    final List<OutputSink> errSinks= new ArrayList<>(2);
+    if (buffer != null) {
+      outSinks.add(buffer);
+      errSinks.add(buffer);
+    }
+    if (showOutput) {
+      final String commandName= new File(command.get(0)).getName();
+      final OutputWindowWriter window= new OutputWindowWriter(files.size() == 1
+        ? Bundle.LBL_OutputTab(commandName, files.get(0).getName())
+        : Bundle.LBL_OutputTab_Batch(commandName, files.size()));
+      outSinks.add(window.out(Charset.defaultCharset()));
+      errSinks.add(window.err(Charset.defaultCharset()));
+    }
+
+    final CompletableFuture<Void> stdoutDrained= OutputPump.start(process.getInputStream(), outSinks);
+    final CompletableFuture<Void> drained= showOutput
+      ? CompletableFuture.allOf(stdoutDrained, OutputPump.start(process.getErrorStream(), errSinks))
+      : stdoutDrained;
+
+    if (buffer != null) {
+      reportEarlyFailure(process, buffer, drained, command, startTime);
+    }
+  }
+
+
+  /**
+   * Reports the failure of the given process to the user if it exits with a non-zero exit
+   * value within the {@link #EARLY_FAILURE_WINDOW} after it was started. The failure is shown
+   * in the status bar and, if the process wrote any output, in a dialog showing the last output.
+   *
+   * @param process the started process
+   * @param buffer the buffer the output of the process is captured in
+   * @param drained the future completing when the output of the process is drained completely
+   * @param command the started command
+   * @param startTime the time (as returned by {@link System#nanoTime()}) the process was started
+   */
+  private static void reportEarlyFailure(final Process process, final OutputRingBuffer buffer, final CompletableFuture<Void> drained,
+                                         final List<String> command, final long startTime) {
+    process.onExit()
+      .thenCompose(p -> drained.copy().completeOnTimeout(null, OUTPUT_DRAIN_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS))
+      .thenRun(() -> {
+        final long runtime= System.nanoTime() - startTime;
+        final int exitValue= process.exitValue();
+        if (exitValue == 0 || runtime > EARLY_FAILURE_WINDOW.toNanos()) {
+          return;
+        }
+
+        final String output= buffer.tail(Charset.defaultCharset()).strip();
+        LOGGER.log(Level.WARNING, "Command {0} failed with exit value {1}. Its last output was:\n{2}",
+                   new Object[]{command, exitValue, output});
+        setStatusText(Bundle.CTL_Command_Failed(command.get(0), exitValue));
+        if (!output.isEmpty()) {
+          showOutput(Bundle.MSG_Command_Failed(command.get(0), exitValue), output, buffer);
+        }
+      });
+  }
+
+
+  /**
+   * Shows the given output of a failed command in a dialog.
+   *
+   * @param message the message to show above the output
+   * @param output the output to show
+   * @param buffer the buffer the output was read from
+   */
+  private static void showOutput(final String message, final String output, final OutputRingBuffer buffer) {
+    final String text= buffer.totalWritten() > buffer.capacity() ? "[...]\n" + output : output;
+    SwingUtilities.invokeLater(() -> {
+      final JTextArea textArea= new JTextArea(text, 15, 80);
+      textArea.setEditable(false);
+      textArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, textArea.getFont().getSize()));
+      textArea.setCaretPosition(text.length());
+      DialogDisplayer.getDefault().notifyLater(new NotifyDescriptor.Message(
+        new Object[]{message, new JScrollPane(textArea)}, NotifyDescriptor.WARNING_MESSAGE));
+    });
+  }
+
+
+  /**
+   * Commits the given event as soon as the given process exits (if the event is enabled).
+   *
+   * @param launched the registered process (for each of its files)
+   * @param exitEvent the already begun exit event
+   * @param trace the attributes of the JFR events of this launch
+   */
+  private static void traceExit(final List<LaunchedProcess> launched, final ProcessExitEvent exitEvent, final LaunchTrace trace) {
+    if (launched.isEmpty() || !exitEvent.isEnabled()) {
+      return;
+    }
+    final LaunchedProcess process= launched.get(0);
+    exitEvent.pid(process.pid());
+    process.onExit().thenRun(() -> trace.commit(exitEvent));
+  }
+
+
+  /**
+   * Sends the configured message to the configured editor server (if any).
+   * <p>
+   * The connection to each editor server is kept open, so that only the first request has to
+   * pay for establishing it.
+   *
+   * @param prefs the preferences to read the editor server configuration from
+   * @param values the values of the placeholders for the message
+   * @param file the file to edit
+   * @return <code>true</code> if the request was sent to the editor server (regardless of whether
+   *          it was successful or answered at all), <code>false</code> if no editor server is
+   *          configured or it cannot be reached and the configured command should be started
+   *          instead
+   */
+  private boolean sendToEditorServer(final Prefs prefs, final PlaceholderValues values, final FileObject file) {
+    final String address= prefs.load(EDITOR_SERVER_ADDRESS).trim();
+    if (address.isEmpty()) {
+      return false;
+    }
+
+    final CmdlineTemplate msgTemplate;
+    final EditorServerChannel channel;
+    try {
+      msgTemplate= prefs.loadTemplate(EDITOR_SERVER_MSG);
+      channel= EDITOR_SERVERS.computeIfAbsent(address,
+        a -> new EditorServerChannel(EditorServerChannel.parseAddress(a), EDITOR_SERVER_TIMEOUT));
+    } catch (ParseException | IllegalArgumentException ex) {
+      LOGGER.log(Level.WARNING, "Invalid editor server configuration. Starting the edit externally command instead.", ex);
+      return false;
+    }
+    if (msgTemplate == null) {
+      LOGGER.log(Level.WARNING, "No message for editor server {0} configured. Starting the edit externally command instead.", address);
+      return false;
+    }
+
+    final String[] msg= msgTemplate.render(values).command();
+    LOGGER.log(Level.INFO, "Sending {0} to editor server {1}", new Object[]{Arrays.toString(msg), address});
+    try {
+      channel.send(msg);
+      setStatusText(Bundle.CTL_Editing_Status(file.getPath()));
+    } catch (EditorServerException ex) {
+      setStatusText(Bundle.CTL_Editing_Error(file.getPath(), ex.getLocalizedMessage()));
+    } catch (EditorServerTimeoutException ex) {
+      // the server may still open the file. Starting the command as well could open it twice.
+      LOGGER.log(Level.INFO, "Editor server " + address + " didn't respond in time", ex);
+      setStatusText(Bundle.CTL_EditorServer_NoResponse(file.getPath()));
+    } catch (IOException ex) {
+      LOGGER.log(Level.INFO, "Editor server " + address + " cannot be reached. Starting the edit externally command instead.", ex);
+      return false;
+    }
+    return true;
+  }
+
+
+  /**
+   * The state of the current editor at the time this action was invoked.
+   * <p>
+   * This is taken on the EDT, so that the background part of this action doesn't need to access
+   * the editor component itself. The document is never locked on the EDT. Only if the line and
+   * column of the caret are actually needed and not already cached by the {@link CaretTracker}
+   * of the editor, they are computed in the background (under the read lock of the document).
+   *
+   * @param document the document of the editor
+   * @param caret the position of the caret
+   * @param mark the other end of the selection (same as <code>caret</code> if nothing is selected)
+   * @param selectionStart the start offset of the selection (same as <code>selectionEnd</code> if nothing is selected)
+   * @param selectionEnd the end offset (exclusive) of the selection
+   * @param location the line and column of the caret or <code>null</code> if they are not cached
+   * @param tracker the tracker of the editor for computing the location if it is not cached
+   */
+  private static record EditorSnapshot(StyledDocument document, int caret, int mark, int selectionStart, int selectionEnd,
+                                       CaretSnapshot location, CaretTracker tracker) {
+    /**
+     * Takes a snapshot of the given editor.
+     *
+     * @param editor the editor (may be <code>null</code>)
+     * @return the snapshot of the given editor or <code>null</code> if there is no editor or
+     *          its document is not a StyledDocument
+     */
+    static EditorSnapshot of(final JTextComponent editor) {
+      if (editor == null || !(editor.getDocument() instanceof StyledDocument)) {
+        return null;
       }
+      final StyledDocument document= (StyledDocument) editor.getDocument();
+      final Caret caret= editor.getCaret();
+      final CaretTracker tracker= CaretTracker.install(editor);
+      return new EditorSnapshot(document,
+                                caret.getDot(),
+                                caret.getMark(),
+                                editor.getSelectionStart(),
+                                editor.getSelectionEnd(),
+                                tracker.cached(document, caret.getDot(), caret.getMark()),
+                                tracker);
     }
   }
 
@@ -259,9 +1043,9 @@ public final class EditExternally implements ActionListener {
    */
   private void openOptionsPanelForInvalidCommand(final CmdType cmdType, final ParseException ex) {
     LOGGER.log(Level.WARNING, "Configured command for " + cmdType + " could not be parsed", ex);
-    final String msg= cmdType == EDIT_EXTERNALLY_CMD
-      ? Bundle.MSG_InvalidCommand_Edit(ex.getLocalizedMessage())
-      : Bundle.MSG_InvalidCommand_Open(ex.getLocalizedMessage());
+    final String msg= cmdType == EDIT_EXTERNALLY_CMD ? Bundle.MSG_InvalidCommand_Edit(ex.getLocalizedMessage())
+                    : cmdType == LARGE_FILE_CMD      ? Bundle.MSG_InvalidCommand_LargeFile(ex.getLocalizedMessage())
+                    :                                  Bundle.MSG_InvalidCommand_Open(ex.getLocalizedMessage());
     this.confirmAndOpenOptionsPanel(msg);
   }
 
@@ -325,4 +1109,157 @@ public final class EditExternally implements ActionListener {
       return editorPanes[0];
     }
   }
+
+
+  /**
+   * Writes the given range of the given document into a new temporary file and returns the
+   * absolute path of that file.
+   * <p>
+   * The content is streamed directly from the document into the file (see {@link DocumentStreamer}),
+   * so even very large selections are never copied into a String. It is always written in UTF-8.
+   * <p>
+   * The written file is added to the given list, so that it can be deleted after the started
+   * command exited or it was sent to an editor server (see {@link #deleteTempFilesAfterExit}).
+   * It is deleted when NetBeans exits at the latest.
+   *
+   * @param document the document to write
+   * @param offset the offset of the first char to write
+   * @param length the number of chars to write
+   * @param ext the extension to give the temporary file (to allow the external editor to
+   *             recognize the file type), may be empty
+   * @param tempFiles the list to add the written file to
+   * @return the absolute path of the written file
+   * @throws UncheckedIOException if the file could not be written
+   */
+  private static String writeToTempFile(final Document document, final int offset, final int length, final String ext,
+                                        final List<Path> tempFiles) {
+    try {
+      final Path tempFile= Files.createTempFile("nbee-selection-", ext.isEmpty() ? "" : "." + ext);
+      tempFile.toFile().deleteOnExit();
+      tempFiles.add(tempFile);
+      try (final FileChannel channel= FileChannel.open(tempFile, StandardOpenOption.WRITE)) {
+        new DocumentStreamer(document, StandardCharsets.UTF_8).writeTo(offset, length, channel);
+      }
+      return tempFile.toAbsolutePath().toString();
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    } catch (BadLocationException ex) {
+      throw new UncheckedIOException(new IOException("Selection is not valid anymore", ex));
+    }
+  }
+
+
+  /**
+   * Saves the given files if they are modified and waits (at most {@link #SAVE_TIMEOUT}) until
+   * they are saved.
+   *
+   * @param files the files to save
+   * @return whether the command can be started (because all modified files were saved)
+   */
+  private static boolean saveModified(final List<FileObject> files) {
+    try {
+      ModifiedDocumentSaver.saveModified(files, SAVE_TIMEOUT);
+      return true;
+    } catch (IOException ex) {
+      LOGGER.log(Level.WARNING, "Not starting the command, since the modified files could not be saved", ex);
+      setStatusText(Bundle.CTL_Saving_Error(files.get(0).getPath(), ex.getLocalizedMessage()));
+      return false;
+    }
+  }
+
+
+  /**
+   * Returns the file on disk for the given file. If it is not a file on disk (like an entry of a
+   * JAR file), a local copy is returned instead (see {@link MaterializationCache}).
+   *
+   * @param file the file
+   * @return the file on disk or its local copy
+   * @throws IOException if the local copy cannot be created
+   */
+  private static File toLocalFile(final FileObject file) throws IOException {
+    final File localFile= FileUtil.toFile(file);
+    if (localFile != null) {
+      return localFile;
+    }
+    LOGGER.log(Level.INFO, "Using local copy of {0}, since it is not a file on disk", file.getPath());
+    return MaterializationCache.getDefault().materialize(file).toFile();
+  }
+
+
+  /**
+   * Returns the content to write into the standard input of a command.
+   * <p>
+   * If there is no editor for the file, its content on disk is written instead of the
+   * document (regardless whether the selection or the whole document is requested).
+   *
+   * @param stdinContent what to write into the standard input
+   * @param file the file the command is started for
+   * @param snapshot the state of the editor of the file or <code>null</code> if there is no editor
+   * @return the content to write or <code>null</code> if nothing is to be written
+   */
+  private static StdinFeeder.Content stdinOf(final StdinContent stdinContent, final FileObject file, final EditorSnapshot snapshot) {
+    if (stdinContent == StdinContent.NONE) {
+      return null;
+    }
+    if (snapshot == null) {
+      return StdinFeeder.of(file);
+    }
+    if (stdinContent == StdinContent.SELECTION && snapshot.selectionStart() != snapshot.selectionEnd()) {
+      return StdinFeeder.of(snapshot.document(), snapshot.selectionStart(), snapshot.selectionEnd() - snapshot.selectionStart(), StandardCharsets.UTF_8);
+    }
+    return StdinFeeder.of(snapshot.document(), StandardCharsets.UTF_8);
+  }
+
+
+  /**
+   * Computes the fingerprint of the content of the given file.
+   *
+   * @param file the file
+   * @return the fingerprint of the given file or <code>null</code> if it cannot be read
+   */
+  private static ContentFingerprint fingerprintOf(final File file) {
+    try {
+      return ContentFingerprint.of(file.toPath());
+    } catch (IOException ex) {
+      LOGGER.log(Level.FINE, "Cannot compute fingerprint of " + file, ex);
+      return null;
+    }
+  }
+
+
+  /**
+   * Sets the given text in the status bar. This may be called from any thread; the text is
+   * always set on the EDT.
+   *
+   * @param text the text to show
+   */
+  private static void setStatusText(final String text) {
+    SwingUtilities.invokeLater(() -> StatusDisplayer.getDefault().setStatusText(text));
+  }
+
+
+  /**
+   * Returns the given range of the given document, reading it under the read lock of the document.
+   *
+   * @param document the document to read
+   * @param offset the offset of the first char to return
+   * @param length the number of chars to return
+   * @return the given range of the document
+   * @throws UncheckedIOException if the range is not valid (anymore)
+   */
+  private static String getText(final Document document, final int offset, final int length) {
+    final String[] text= new String[1];
+    final BadLocationException[] error= new BadLocationException[1];
+    document.render(() -> {
+      try {
+        text[0]= document.getText(offset, length);
+      } catch (BadLocationException ex) {
+        error[0]= ex;
+      }
+    });
+    if (error[0] != null) {
+      throw new UncheckedIOException(new IOException("Selection is not valid anymore", error[0]));
+    }
+    return text[0];
+  }
 }
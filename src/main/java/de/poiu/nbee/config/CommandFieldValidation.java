@@ -0,0 +1,218 @@
+/*
+ * Copyright 2019-2026 Marco Herrn.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.poiu.nbee.config;
+
+import de.poiu.nbee.parser.IncrementalCmdlineValidator;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import javax.swing.SwingUtilities;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.text.Segment;
+import org.openide.util.RequestProcessor;
+
+
+/**
+ * Validates the command line in the document of a command field in the background.
+ * <p>
+ * Each change to the document schedules a validation after a short {@link #DEBOUNCE_DELAY delay}.
+ * Further changes within that delay postpone the validation again, so that fast typing or
+ * pasting only leads to a single validation. A validation that is already running when the
+ * document changes again is cancelled, as its result would be outdated anyway.
+ * <p>
+ * The result of a validation is only published (on the EDT) if the document didn't change in
+ * the meantime. Therefore the published result always belongs to the current content of the
+ * document.
+ * <p>
+ * The validation itself runs on a {@link RequestProcessor}, never on the EDT. Currently it
+ * only checks the syntax of the command line (incrementally, see
+ * {@link IncrementalCmdlineValidator}). More expensive checks (like resolving the executable)
+ * belong into {@link #runValidation()} as well, checking {@link #isOutdated} between the single
+ * steps.
+ *
+ * @author Marco Herrn
+ */
+final class CommandFieldValidation implements DocumentListener {
+
+  /** The delay in milliseconds after the last change before the document is validated. */
+  static final int DEBOUNCE_DELAY= 200;
+
+  /** The RequestProcessor to run the validations on (interrupting cancelled validations). */
+  private static final RequestProcessor RP= new RequestProcessor(CommandFieldValidation.class.getName(), 1, true);
+
+  /** The document of the command field to validate. */
+  private final Document document;
+
+  /** Receives the result of each validation on the EDT. */
+  private final Consumer<IncrementalCmdlineValidator.Result> publisher;
+
+  /**
+   * The validator of the command line. Guarded by <code>this</code>, since the edits are
+   * reported from the thread modifying the document while the validation runs on the RequestProcessor.
+   */
+  private final IncrementalCmdlineValidator validator= new IncrementalCmdlineValidator();
+
+  /** The segment to read the content of the document into. Guarded by <code>this</code>. */
+  private final Segment segment= new Segment();
+
+  /** The number of changes to the document. Used to detect outdated validation results. */
+  private final AtomicLong generation= new AtomicLong();
+
+  /** The task running the validation. */
+  private final RequestProcessor.Task task= RP.create(this::runValidation);
+
+  /** The last published result (only accessed on the EDT). */
+  private IncrementalCmdlineValidator.Result publishedResult;
+
+  /** The generation of the document the last published result belongs to (only accessed on the EDT). */
+  private long publishedGeneration= -1;
+
+
+  /**
+   * Creates a new CommandFieldValidation for the given document and registers it as a listener
+   * on that document.
+   *
+   * @param document the document of the command field to validate
+   * @param publisher receives the result of each validation on the EDT
+   */
+  CommandFieldValidation(final Document document, final Consumer<IncrementalCmdlineValidator.Result> publisher) {
+    this.document= document;
+    this.publisher= publisher;
+    document.addDocumentListener(this);
+  }
+
+
+  @Override
+  public void insertUpdate(final DocumentEvent e) {
+    synchronized (this) {
+      this.validator.inserted(e.getOffset(), e.getLength());
+    }
+    this.changed();
+  }
+
+
+  @Override
+  public void removeUpdate(final DocumentEvent e) {
+    synchronized (this) {
+      this.validator.removed(e.getOffset(), e.getLength());
+    }
+    this.changed();
+  }
+
+
+  @Override
+  public void changedUpdate(final DocumentEvent e) {
+    // only attributes changed, but not the text itself
+  }
+
+
+  /** Marks all running validations as outdated and schedules a new one. */
+  private void changed() {
+    this.generation.incrementAndGet();
+    this.task.cancel();
+    this.task.schedule(DEBOUNCE_DELAY);
+  }
+
+
+  /**
+   * Schedules a validation of the current content of the document without waiting for further
+   * changes.
+   */
+  void validateSoon() {
+    this.task.schedule(0);
+  }
+
+
+  /**
+   * Returns the validation result for the current content of the document.
+   * <p>
+   * If the last published result is not up-to-date, the syntax of the command line is validated
+   * synchronously. This must be called on the EDT.
+   *
+   * @return the validation result for the current content of the document
+   */
+  IncrementalCmdlineValidator.Result currentResult() {
+    if (this.publishedResult != null && this.publishedGeneration == this.generation.get()) {
+      return this.publishedResult;
+    }
+    return this.validateSyntax().result();
+  }
+
+
+  /**
+   * Validates the current content of the document and publishes the result on the EDT, unless
+   * the document was changed in the meantime.
+   */
+  private void runValidation() {
+    final Validated validated= this.validateSyntax();
+    if (this.isOutdated(validated.generation())) {
+      return;
+    }
+
+    SwingUtilities.invokeLater(() -> {
+      if (this.isOutdated(validated.generation())) {
+        return;
+      }
+      this.publishedResult= validated.result();
+      this.publishedGeneration= validated.generation();
+      this.publisher.accept(validated.result());
+    });
+  }
+
+
+  /**
+   * Returns whether a validation of the given generation of the document is outdated, either
+   * because the document changed in the meantime or because the validation was cancelled.
+   *
+   * @param validatedGeneration the generation of the document that was validated
+   * @return whether the validation is outdated
+   */
+  private boolean isOutdated(final long validatedGeneration) {
+    return validatedGeneration != this.generation.get()
+      || (!SwingUtilities.isEventDispatchThread() && Thread.currentThread().isInterrupted());
+  }
+
+
+  /** A validation result together with the generation of the document it belongs to. */
+  private static record Validated(long generation, IncrementalCmdlineValidator.Result result) {
+  }
+
+
+  /**
+   * Validates the syntax of the current content of the document.
+   * <p>
+   * The document is read under its read lock, so it cannot change while it is validated.
+   *
+   * @return the result of the validation together with the validated generation of the document
+   */
+  private Validated validateSyntax() {
+    final Validated[] validated= new Validated[1];
+    this.document.render(() -> {
+      synchronized (this) {
+        try {
+          this.document.getText(0, this.document.getLength(), this.segment);
+        } catch (BadLocationException ex) {
+          // cannot happen, since we read exactly the whole document under its read lock
+          throw new IllegalStateException(ex);
+        }
+        validated[0]= new Validated(this.generation.get(), this.validator.validate(this.segment));
+      }
+    });
+    return validated[0];
+  }
+}
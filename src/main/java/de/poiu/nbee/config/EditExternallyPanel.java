@@ -15,21 +15,43 @@
  */
 package de.poiu.nbee.config;
 
-import de.poiu.nbee.parser.CmdlineParser;
-import de.poiu.nbee.parser.ParseException;
+import de.poiu.nbee.config.Prefs.StdinContent;
+import de.poiu.nbee.parser.IncrementalCmdlineValidator;
 import de.poiu.nbee.parser.Placeholders;
 import java.awt.Color;
+import java.awt.Component;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.logging.Logger;
+import javax.swing.DefaultComboBoxModel;
+import javax.swing.DefaultListCellRenderer;
 import javax.swing.Icon;
+import javax.swing.JComboBox;
 import javax.swing.JLabel;
+import javax.swing.JList;
 import javax.swing.event.DocumentEvent;
 import javax.swing.event.DocumentListener;
 import javax.swing.text.JTextComponent;
-import org.openide.util.Lookup;
 import org.openide.util.NbBundle.Messages;
 
+import static de.poiu.nbee.config.Prefs.APPLY_CHANGES_INCREMENTALLY;
+import static de.poiu.nbee.config.Prefs.CAPTURE_OUTPUT;
+import static de.poiu.nbee.config.Prefs.CmdType.EDITOR_SERVER_MSG;
 import static de.poiu.nbee.config.Prefs.CmdType.EDIT_EXTERNALLY_CMD;
+import static de.poiu.nbee.config.Prefs.CmdType.LARGE_FILE_CMD;
 import static de.poiu.nbee.config.Prefs.CmdType.OPEN_EXTERNALLY_CMD;
+import static de.poiu.nbee.config.Prefs.DEFAULT_RELOAD_COALESCE_WINDOW;
+import static de.poiu.nbee.config.Prefs.EDITOR_SERVER_ADDRESS;
+import static de.poiu.nbee.config.Prefs.LARGE_FILE_THRESHOLD;
+import static de.poiu.nbee.config.Prefs.LARGE_FILE_TYPES;
+import static de.poiu.nbee.config.Prefs.RELOAD_COALESCE_WINDOW;
+import static de.poiu.nbee.config.Prefs.RELOAD_EXTERNAL_CHANGES;
+import static de.poiu.nbee.config.Prefs.SAVE_BEFORE_LAUNCH;
+import static de.poiu.nbee.config.Prefs.SHOW_OUTPUT;
+import static de.poiu.nbee.config.Prefs.TERMINATE_ON_SHUTDOWN;
+import static de.poiu.nbee.config.Prefs.USE_SPAWN_HELPER;
 
 
 /**
@@ -41,40 +63,28 @@ import static de.poiu.nbee.config.Prefs.CmdType.OPEN_EXTERNALLY_CMD;
   "# {0} - the comma-separated list of unknown placeholders found",
   "MSG_UnknownPlaceholders=Unknown placeholder(s), will be included literally: {0}",
   "LBL_EditExternallyField=Edit externally",
-  "LBL_OpenExternallyField=Open externally"})
+  "LBL_OpenExternallyField=Open externally",
+  "LBL_LargeFileField=Large files",
+  "LBL_EditorServerMsgField=Editor server message",
+  "LBL_Stdin_NONE=Nothing",
+  "LBL_Stdin_SELECTION=Selection (or whole document)",
+  "LBL_Stdin_DOCUMENT=Whole document"})
 final class EditExternallyPanel extends javax.swing.JPanel {
 
   private static final Logger LOGGER= Logger.getLogger(EditExternallyPanel.class.getName());
 
   private final EditExternallyOptionsPanelController controller;
 
-  /**
-   * Parser to use for validating the command strings.
-   * <p>
-   * This is only ever used to check for syntax errors (via {@link CmdlineParser#parse}), never
-   * to build an actually executable command. So every known placeholder (see
-   * {@link Placeholders}) is mapped to an arbitrary dummy value here. Otherwise every valid,
-   * known placeholder would be logged as "unmapped" on every keystroke, drowning out the one
-   * case that log message is actually meant to catch: a real, misspelled placeholder in the
-   * command as configured for actual execution in {@code EditExternally}.
-   */
-  private final CmdlineParser cmdlineParser= newValidatingCmdlineParser();
-
-  private static CmdlineParser newValidatingCmdlineParser() {
-    final CmdlineParser parser= new CmdlineParser();
-    for (final String placeholder : Placeholders.ALWAYS_AVAILABLE) {
-      parser.replace(placeholder, "dummyValue");
-    }
-    for (final String placeholder : Placeholders.EDITOR_ONLY) {
-      parser.replace(placeholder, "dummyValue");
-    }
-    return parser;
-  }
+  /** The (background) validation of each command field. */
+  private final Map<JTextComponent, CommandFieldValidation> validations= new HashMap<>();
 
 
   EditExternallyPanel(EditExternallyOptionsPanelController controller) {
     this.controller = controller;
     initComponents();
+    this.initStdinComboBox(this.cbxEditExternallyStdin);
+    this.initStdinComboBox(this.cbxOpenExternallyStdin);
+    this.initStdinComboBox(this.cbxLargeFileStdin);
     // listen to changes in form fields and call controller.changed()
     addListeners();
     // Establish the reserved-height "no problem" state immediately, rather than relying on a
@@ -85,61 +95,147 @@ final class EditExternallyPanel extends javax.swing.JPanel {
   }
 
   private void addListeners() {
-    for (final JTextComponent c : new JTextComponent[]{
-      this.tfEditExternallyCmd,
-      this.tfOpenExternallyCmd,
-    }) {
-      c.getDocument().addDocumentListener(new DocumentListener() {
-        @Override
-        public void insertUpdate(DocumentEvent e) {
-          controller.changed();
-          updateErrorMessages();
-        }
-
-        @Override
-        public void removeUpdate(DocumentEvent e) {
-          controller.changed();
-          updateErrorMessages();
-        }
-
-        @Override
-        public void changedUpdate(DocumentEvent e) {
-          controller.changed();
-          updateErrorMessages();
-        }
-      });
-    }
+    this.addChangeListener(this.tfEditExternallyCmd);
+    this.addChangeListener(this.tfOpenExternallyCmd);
+    this.addChangeListener(this.tfLargeFileCmd);
+    this.addChangeListener(this.tfLargeFileTypes);
+    this.addChangeListener(this.tfEditorServerAddress);
+    this.addChangeListener(this.tfEditorServerMsg);
+    this.cbReloadExternalChanges.addItemListener(e -> {
+      this.spReloadCoalesceWindow.setEnabled(this.cbReloadExternalChanges.isSelected());
+      this.cbApplyChangesIncrementally.setEnabled(this.cbReloadExternalChanges.isSelected());
+      controller.changed();
+    });
+    this.spLargeFileThreshold.addChangeListener(e -> controller.changed());
+    this.cbxEditExternallyStdin.addItemListener(e -> controller.changed());
+    this.cbxOpenExternallyStdin.addItemListener(e -> controller.changed());
+    this.cbxLargeFileStdin.addItemListener(e -> controller.changed());
+    this.spReloadCoalesceWindow.addChangeListener(e -> controller.changed());
+    this.cbSaveBeforeLaunch.addItemListener(e -> controller.changed());
+    this.cbApplyChangesIncrementally.addItemListener(e -> controller.changed());
+    this.cbUseSpawnHelper.addItemListener(e -> controller.changed());
+    this.cbTerminateOnShutdown.addItemListener(e -> controller.changed());
+    this.cbCaptureOutput.addItemListener(e -> controller.changed());
+    this.cbShowOutput.addItemListener(e -> controller.changed());
+    this.addValidation(this.tfEditExternallyCmd, this.lblErrorMessageEditExternally, Bundle.LBL_EditExternallyField());
+    this.addValidation(this.tfOpenExternallyCmd, this.lblErrorMessageOpenExternally, Bundle.LBL_OpenExternallyField());
+    this.addValidation(this.tfLargeFileCmd,      this.lblErrorMessageLargeFile,      Bundle.LBL_LargeFileField());
+    this.addValidation(this.tfEditorServerMsg,   this.lblErrorMessageEditorServer,   Bundle.LBL_EditorServerMsgField());
   }
 
 
-  private void updateErrorMessages() {
-    //FIXME: Run error checks in background and trigger validation here?
-    this.updateErrorMessage(this.tfEditExternallyCmd, this.lblErrorMessageEditExternally, Bundle.LBL_EditExternallyField());
-    this.updateErrorMessage(this.tfOpenExternallyCmd, this.lblErrorMessageOpenExternally, Bundle.LBL_OpenExternallyField());
+  /**
+   * Fills the given combo box with all possible values for the standard input of a command and
+   * displays them with their localized names.
+   *
+   * @param comboBox the combo box to initialize
+   */
+  private void initStdinComboBox(final JComboBox<StdinContent> comboBox) {
+    comboBox.setModel(new DefaultComboBoxModel<>(StdinContent.values()));
+    comboBox.setRenderer(new DefaultListCellRenderer() {
+      @Override
+      public Component getListCellRendererComponent(final JList<?> list, final Object value, final int index, final boolean isSelected, final boolean cellHasFocus) {
+        final Object displayValue= value instanceof StdinContent ? displayName((StdinContent) value) : value;
+        return super.getListCellRendererComponent(list, displayValue, index, isSelected, cellHasFocus);
+      }
+    });
+  }
+
+
+  /**
+   * Returns the localized name of the given value for the standard input of a command.
+   *
+   * @param stdinContent the value to return the name for
+   * @return the localized name of the given value
+   */
+  private static String displayName(final StdinContent stdinContent) {
+    return stdinContent == StdinContent.SELECTION ? Bundle.LBL_Stdin_SELECTION()
+      : stdinContent == StdinContent.DOCUMENT ? Bundle.LBL_Stdin_DOCUMENT()
+      : Bundle.LBL_Stdin_NONE();
   }
 
 
   /**
-   * Validates the command configured in {@code field} and updates {@code messageLabel}
-   * accordingly: cleared if the command is fine, or an icon plus a colored message if it's
-   * either a real syntax error or contains an unknown placeholder.
+   * Adds a listener to the given field that notifies the controller about each change.
+   *
+   * @param field the field to listen to
+   */
+  private void addChangeListener(final JTextComponent field) {
+    field.getDocument().addDocumentListener(new DocumentListener() {
+      @Override
+      public void insertUpdate(DocumentEvent e) {
+        controller.changed();
+      }
+
+      @Override
+      public void removeUpdate(DocumentEvent e) {
+        controller.changed();
+      }
+
+      @Override
+      public void changedUpdate(DocumentEvent e) {
+        controller.changed();
+      }
+    });
+  }
+
+
+  /**
+   * Starts validating the given command field on each change.
    *
    * @param field the command field to validate
    * @param messageLabel the label to show the validation result of {@code field} in
-   * @param fieldLabel the human-readable name of {@code field}, shown as a bold prefix so it's
-   *                    unambiguous which field a message refers to
+   * @param fieldLabel the human-readable name of {@code field}
    */
-  private void updateErrorMessage(final JTextComponent field, final JLabel messageLabel, final String fieldLabel) {
-    try {
-      final CmdlineParser.ParseResult result= this.cmdlineParser.parseDetailed(field.getText().trim());
-      if (result.unmappedPlaceholders().isEmpty()) {
-        this.clearMessage(messageLabel);
-      } else {
-        this.showMessage(messageLabel, MessageStyle.ICON_WARNING, MessageStyle.COLOR_WARNING, fieldLabel,
-          Bundle.MSG_UnknownPlaceholders(String.join(", ", result.unmappedPlaceholders())));
+  private void addValidation(final JTextComponent field, final JLabel messageLabel, final String fieldLabel) {
+    this.validations.put(field, new CommandFieldValidation(field.getDocument(),
+      result -> this.updateErrorMessage(result, messageLabel, fieldLabel)));
+  }
+
+
+  /**
+   * Triggers the validation of all command fields. The validation runs in the background and
+   * updates the message labels when it is finished.
+   */
+  private void updateErrorMessages() {
+    this.clearMessage(this.lblErrorMessageEditExternally);
+    this.clearMessage(this.lblErrorMessageOpenExternally);
+    this.clearMessage(this.lblErrorMessageLargeFile);
+    this.clearMessage(this.lblErrorMessageEditorServer);
+    for (final CommandFieldValidation validation : this.validations.values()) {
+      validation.validateSoon();
+    }
+  }
+
+
+  /**
+   * Updates {@code messageLabel} according to the validation result of a command field:
+   * cleared if the command is fine, or an icon plus a colored message if it's either a real
+   * syntax error or contains an unknown placeholder.
+   *
+   * @param result the validation result of the command field
+   * @param messageLabel the label to show the validation result in
+   * @param fieldLabel the human-readable name of the command field, shown as a bold prefix so
+   *                    it's unambiguous which field a message refers to
+   */
+  private void updateErrorMessage(final IncrementalCmdlineValidator.Result result, final JLabel messageLabel, final String fieldLabel) {
+    if (!result.isValid()) {
+      this.showMessage(messageLabel, MessageStyle.ICON_ERROR, MessageStyle.COLOR_ERROR, fieldLabel, result.error());
+      return;
+    }
+
+    final List<String> unknownPlaceholders= new ArrayList<>();
+    for (final String placeholder : result.placeholders()) {
+      if (!Placeholders.isKnown(placeholder)) {
+        unknownPlaceholders.add(placeholder);
       }
-    } catch (Exception ex) {
-      this.showMessage(messageLabel, MessageStyle.ICON_ERROR, MessageStyle.COLOR_ERROR, fieldLabel, ex.getMessage());
+    }
+
+    if (unknownPlaceholders.isEmpty()) {
+      this.clearMessage(messageLabel);
+    } else {
+      this.showMessage(messageLabel, MessageStyle.ICON_WARNING, MessageStyle.COLOR_WARNING, fieldLabel,
+        Bundle.MSG_UnknownPlaceholders(String.join(", ", unknownPlaceholders)));
     }
   }
 
@@ -185,24 +281,118 @@ final class EditExternallyPanel extends javax.swing.JPanel {
 
     lblEditExternallyCmd = new javax.swing.JLabel();
     tfEditExternallyCmd = new javax.swing.JTextField();
+    lblEditExternallyStdin = new javax.swing.JLabel();
+    cbxEditExternallyStdin = new javax.swing.JComboBox<>();
     lblOpenExternallyCmd = new javax.swing.JLabel();
     tfOpenExternallyCmd = new javax.swing.JTextField();
+    lblOpenExternallyStdin = new javax.swing.JLabel();
+    cbxOpenExternallyStdin = new javax.swing.JComboBox<>();
+    lblLargeFileCmd = new javax.swing.JLabel();
+    tfLargeFileCmd = new javax.swing.JTextField();
+    lblLargeFileThreshold = new javax.swing.JLabel();
+    spLargeFileThreshold = new javax.swing.JSpinner();
+    lblLargeFileTypes = new javax.swing.JLabel();
+    tfLargeFileTypes = new javax.swing.JTextField();
+    lblLargeFileStdin = new javax.swing.JLabel();
+    cbxLargeFileStdin = new javax.swing.JComboBox<>();
+    lblEditorServerAddress = new javax.swing.JLabel();
+    tfEditorServerAddress = new javax.swing.JTextField();
+    lblEditorServerMsg = new javax.swing.JLabel();
+    tfEditorServerMsg = new javax.swing.JTextField();
+    cbSaveBeforeLaunch = new javax.swing.JCheckBox();
+    cbReloadExternalChanges = new javax.swing.JCheckBox();
+    lblReloadCoalesceWindow = new javax.swing.JLabel();
+    spReloadCoalesceWindow = new javax.swing.JSpinner();
+    cbApplyChangesIncrementally = new javax.swing.JCheckBox();
+    cbUseSpawnHelper = new javax.swing.JCheckBox();
+    cbTerminateOnShutdown = new javax.swing.JCheckBox();
+    cbCaptureOutput = new javax.swing.JCheckBox();
+    cbShowOutput = new javax.swing.JCheckBox();
     pnlErrorMessages = new javax.swing.JPanel();
     lblErrorMessageEditExternally = new javax.swing.JLabel();
     lblErrorMessageOpenExternally = new javax.swing.JLabel();
+    lblErrorMessageLargeFile = new javax.swing.JLabel();
+    lblErrorMessageEditorServer = new javax.swing.JLabel();
 
     org.openide.awt.Mnemonics.setLocalizedText(lblEditExternallyCmd, org.openide.util.NbBundle.getMessage(EditExternallyPanel.class, "EditExternallyPanel.lblEditExternallyCmd.text")); // NOI18N
 
     tfEditExternallyCmd.setText(org.openide.util.NbBundle.getMessage(EditExternallyPanel.class, "EditExternallyPanel.tfEditExternallyCmd.text")); // NOI18N
 
+    org.openide.awt.Mnemonics.setLocalizedText(lblEditExternallyStdin, org.openide.util.NbBundle.getMessage(EditExternallyPanel.class, "EditExternallyPanel.lblEditExternallyStdin.text")); // NOI18N
+
+    cbxEditExternallyStdin.setToolTipText(org.openide.util.NbBundle.getMessage(EditExternallyPanel.class, "EditExternallyPanel.cbxEditExternallyStdin.toolTipText")); // NOI18N
+
     org.openide.awt.Mnemonics.setLocalizedText(lblOpenExternallyCmd, org.openide.util.NbBundle.getMessage(EditExternallyPanel.class, "EditExternallyPanel.lblOpenExternallyCmd.text")); // NOI18N
 
     tfOpenExternallyCmd.setText(org.openide.util.NbBundle.getMessage(EditExternallyPanel.class, "EditExternallyPanel.tfOpenExternallyCmd.text")); // NOI18N
 
+    org.openide.awt.Mnemonics.setLocalizedText(lblOpenExternallyStdin, org.openide.util.NbBundle.getMessage(EditExternallyPanel.class, "EditExternallyPanel.lblOpenExternallyStdin.text")); // NOI18N
+
+    cbxOpenExternallyStdin.setToolTipText(org.openide.util.NbBundle.getMessage(EditExternallyPanel.class, "EditExternallyPanel.cbxOpenExternallyStdin.toolTipText")); // NOI18N
+
+    org.openide.awt.Mnemonics.setLocalizedText(lblLargeFileCmd, org.openide.util.NbBundle.getMessage(EditExternallyPanel.class, "EditExternallyPanel.lblLargeFileCmd.text")); // NOI18N
+
+    tfLargeFileCmd.setText(org.openide.util.NbBundle.getMessage(EditExternallyPanel.class, "EditExternallyPanel.tfLargeFileCmd.text")); // NOI18N
+    tfLargeFileCmd.setToolTipText(org.openide.util.NbBundle.getMessage(EditExternallyPanel.class, "EditExternallyPanel.tfLargeFileCmd.toolTipText")); // NOI18N
+
+    org.openide.awt.Mnemonics.setLocalizedText(lblLargeFileThreshold, org.openide.util.NbBundle.getMessage(EditExternallyPanel.class, "EditExternallyPanel.lblLargeFileThreshold.text")); // NOI18N
+
+    spLargeFileThreshold.setModel(new javax.swing.SpinnerNumberModel(0, 0, 1048576, 10));
+    spLargeFileThreshold.setToolTipText(org.openide.util.NbBundle.getMessage(EditExternallyPanel.class, "EditExternallyPanel.spLargeFileThreshold.toolTipText")); // NOI18N
+
+    org.openide.awt.Mnemonics.setLocalizedText(lblLargeFileTypes, org.openide.util.NbBundle.getMessage(EditExternallyPanel.class, "EditExternallyPanel.lblLargeFileTypes.text")); // NOI18N
+
+    tfLargeFileTypes.setText(org.openide.util.NbBundle.getMessage(EditExternallyPanel.class, "EditExternallyPanel.tfLargeFileTypes.text")); // NOI18N
+    tfLargeFileTypes.setToolTipText(org.openide.util.NbBundle.getMessage(EditExternallyPanel.class, "EditExternallyPanel.tfLargeFileTypes.toolTipText")); // NOI18N
+
+    org.openide.awt.Mnemonics.setLocalizedText(lblLargeFileStdin, org.openide.util.NbBundle.getMessage(EditExternallyPanel.class, "EditExternallyPanel.lblLargeFileStdin.text")); // NOI18N
+
+    cbxLargeFileStdin.setToolTipText(org.openide.util.NbBundle.getMessage(EditExternallyPanel.class, "EditExternallyPanel.cbxLargeFileStdin.toolTipText")); // NOI18N
+
+    org.openide.awt.Mnemonics.setLocalizedText(lblEditorServerAddress, org.openide.util.NbBundle.getMessage(EditExternallyPanel.class, "EditExternallyPanel.lblEditorServerAddress.text")); // NOI18N
+
+    tfEditorServerAddress.setText(org.openide.util.NbBundle.getMessage(EditExternallyPanel.class, "EditExternallyPanel.tfEditorServerAddress.text")); // NOI18N
+    tfEditorServerAddress.setToolTipText(org.openide.util.NbBundle.getMessage(EditExternallyPanel.class, "EditExternallyPanel.tfEditorServerAddress.toolTipText")); // NOI18N
+
+    org.openide.awt.Mnemonics.setLocalizedText(lblEditorServerMsg, org.openide.util.NbBundle.getMessage(EditExternallyPanel.class, "EditExternallyPanel.lblEditorServerMsg.text")); // NOI18N
+
+    tfEditorServerMsg.setText(org.openide.util.NbBundle.getMessage(EditExternallyPanel.class, "EditExternallyPanel.tfEditorServerMsg.text")); // NOI18N
+    tfEditorServerMsg.setToolTipText(org.openide.util.NbBundle.getMessage(EditExternallyPanel.class, "EditExternallyPanel.tfEditorServerMsg.toolTipText")); // NOI18N
+
+    org.openide.awt.Mnemonics.setLocalizedText(cbSaveBeforeLaunch, org.openide.util.NbBundle.getMessage(EditExternallyPanel.class, "EditExternallyPanel.cbSaveBeforeLaunch.text")); // NOI18N
+    cbSaveBeforeLaunch.setToolTipText(org.openide.util.NbBundle.getMessage(EditExternallyPanel.class, "EditExternallyPanel.cbSaveBeforeLaunch.toolTipText")); // NOI18N
+
+    org.openide.awt.Mnemonics.setLocalizedText(cbReloadExternalChanges, org.openide.util.NbBundle.getMessage(EditExternallyPanel.class, "EditExternallyPanel.cbReloadExternalChanges.text")); // NOI18N
+    cbReloadExternalChanges.setToolTipText(org.openide.util.NbBundle.getMessage(EditExternallyPanel.class, "EditExternallyPanel.cbReloadExternalChanges.toolTipText")); // NOI18N
+
+    org.openide.awt.Mnemonics.setLocalizedText(lblReloadCoalesceWindow, org.openide.util.NbBundle.getMessage(EditExternallyPanel.class, "EditExternallyPanel.lblReloadCoalesceWindow.text")); // NOI18N
+
+    spReloadCoalesceWindow.setModel(new javax.swing.SpinnerNumberModel(300, 0, 10000, 50));
+    spReloadCoalesceWindow.setToolTipText(org.openide.util.NbBundle.getMessage(EditExternallyPanel.class, "EditExternallyPanel.spReloadCoalesceWindow.toolTipText")); // NOI18N
+
+    org.openide.awt.Mnemonics.setLocalizedText(cbApplyChangesIncrementally, org.openide.util.NbBundle.getMessage(EditExternallyPanel.class, "EditExternallyPanel.cbApplyChangesIncrementally.text")); // NOI18N
+    cbApplyChangesIncrementally.setToolTipText(org.openide.util.NbBundle.getMessage(EditExternallyPanel.class, "EditExternallyPanel.cbApplyChangesIncrementally.toolTipText")); // NOI18N
+
+    org.openide.awt.Mnemonics.setLocalizedText(cbUseSpawnHelper, org.openide.util.NbBundle.getMessage(EditExternallyPanel.class, "EditExternallyPanel.cbUseSpawnHelper.text")); // NOI18N
+    cbUseSpawnHelper.setToolTipText(org.openide.util.NbBundle.getMessage(EditExternallyPanel.class, "EditExternallyPanel.cbUseSpawnHelper.toolTipText")); // NOI18N
+
+    org.openide.awt.Mnemonics.setLocalizedText(cbTerminateOnShutdown, org.openide.util.NbBundle.getMessage(EditExternallyPanel.class, "EditExternallyPanel.cbTerminateOnShutdown.text")); // NOI18N
+    cbTerminateOnShutdown.setToolTipText(org.openide.util.NbBundle.getMessage(EditExternallyPanel.class, "EditExternallyPanel.cbTerminateOnShutdown.toolTipText")); // NOI18N
+
+    org.openide.awt.Mnemonics.setLocalizedText(cbCaptureOutput, org.openide.util.NbBundle.getMessage(EditExternallyPanel.class, "EditExternallyPanel.cbCaptureOutput.text")); // NOI18N
+    cbCaptureOutput.setToolTipText(org.openide.util.NbBundle.getMessage(EditExternallyPanel.class, "EditExternallyPanel.cbCaptureOutput.toolTipText")); // NOI18N
+
+    org.openide.awt.Mnemonics.setLocalizedText(cbShowOutput, org.openide.util.NbBundle.getMessage(EditExternallyPanel.class, "EditExternallyPanel.cbShowOutput.text")); // NOI18N
+    cbShowOutput.setToolTipText(org.openide.util.NbBundle.getMessage(EditExternallyPanel.class, "EditExternallyPanel.cbShowOutput.toolTipText")); // NOI18N
+
     org.openide.awt.Mnemonics.setLocalizedText(lblErrorMessageEditExternally, org.openide.util.NbBundle.getMessage(EditExternallyPanel.class, "EditExternallyPanel.lblErrorMessageEditExternally.text")); // NOI18N
 
     org.openide.awt.Mnemonics.setLocalizedText(lblErrorMessageOpenExternally, org.openide.util.NbBundle.getMessage(EditExternallyPanel.class, "EditExternallyPanel.lblErrorMessageOpenExternally.text")); // NOI18N
 
+    org.openide.awt.Mnemonics.setLocalizedText(lblErrorMessageLargeFile, org.openide.util.NbBundle.getMessage(EditExternallyPanel.class, "EditExternallyPanel.lblErrorMessageLargeFile.text")); // NOI18N
+
+    org.openide.awt.Mnemonics.setLocalizedText(lblErrorMessageEditorServer, org.openide.util.NbBundle.getMessage(EditExternallyPanel.class, "EditExternallyPanel.lblErrorMessageEditorServer.text")); // NOI18N
+
     javax.swing.GroupLayout pnlErrorMessagesLayout = new javax.swing.GroupLayout(pnlErrorMessages);
     pnlErrorMessages.setLayout(pnlErrorMessagesLayout);
     pnlErrorMessagesLayout.setHorizontalGroup(
@@ -211,7 +401,9 @@ final class EditExternallyPanel extends javax.swing.JPanel {
         .addContainerGap()
         .addGroup(pnlErrorMessagesLayout.createParallelGroup(javax.swing.GroupLayout.Alignment.LEADING)
           .addComponent(lblErrorMessageEditExternally, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
-          .addComponent(lblErrorMessageOpenExternally, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE))
+          .addComponent(lblErrorMessageOpenExternally, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
+          .addComponent(lblErrorMessageLargeFile, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
+          .addComponent(lblErrorMessageEditorServer, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE))
         .addContainerGap())
     );
     pnlErrorMessagesLayout.setVerticalGroup(
@@ -221,6 +413,10 @@ final class EditExternallyPanel extends javax.swing.JPanel {
         .addComponent(lblErrorMessageEditExternally)
         .addGap(18, 18, 18)
         .addComponent(lblErrorMessageOpenExternally)
+        .addGap(18, 18, 18)
+        .addComponent(lblErrorMessageLargeFile)
+        .addGap(18, 18, 18)
+        .addComponent(lblErrorMessageEditorServer)
         .addContainerGap(javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE))
     );
 
@@ -232,14 +428,39 @@ final class EditExternallyPanel extends javax.swing.JPanel {
         .addContainerGap()
         .addGroup(layout.createParallelGroup(javax.swing.GroupLayout.Alignment.TRAILING)
           .addComponent(pnlErrorMessages, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
+          .addComponent(cbSaveBeforeLaunch, javax.swing.GroupLayout.Alignment.LEADING, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
+          .addComponent(cbReloadExternalChanges, javax.swing.GroupLayout.Alignment.LEADING, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
+          .addComponent(cbApplyChangesIncrementally, javax.swing.GroupLayout.Alignment.LEADING, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
+          .addComponent(cbUseSpawnHelper, javax.swing.GroupLayout.Alignment.LEADING, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
+          .addComponent(cbTerminateOnShutdown, javax.swing.GroupLayout.Alignment.LEADING, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
+          .addComponent(cbCaptureOutput, javax.swing.GroupLayout.Alignment.LEADING, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
+          .addComponent(cbShowOutput, javax.swing.GroupLayout.Alignment.LEADING, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
           .addGroup(layout.createSequentialGroup()
             .addGroup(layout.createParallelGroup(javax.swing.GroupLayout.Alignment.TRAILING, false)
+              .addComponent(lblReloadCoalesceWindow, javax.swing.GroupLayout.Alignment.LEADING, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
+              .addComponent(lblEditorServerMsg, javax.swing.GroupLayout.Alignment.LEADING, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
+              .addComponent(lblEditorServerAddress, javax.swing.GroupLayout.Alignment.LEADING, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
+              .addComponent(lblLargeFileStdin, javax.swing.GroupLayout.Alignment.LEADING, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
+              .addComponent(lblLargeFileTypes, javax.swing.GroupLayout.Alignment.LEADING, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
+              .addComponent(lblLargeFileThreshold, javax.swing.GroupLayout.Alignment.LEADING, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
+              .addComponent(lblLargeFileCmd, javax.swing.GroupLayout.Alignment.LEADING, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
+              .addComponent(lblOpenExternallyStdin, javax.swing.GroupLayout.Alignment.LEADING, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
               .addComponent(lblOpenExternallyCmd, javax.swing.GroupLayout.Alignment.LEADING, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
+              .addComponent(lblEditExternallyStdin, javax.swing.GroupLayout.Alignment.LEADING, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
               .addComponent(lblEditExternallyCmd, javax.swing.GroupLayout.Alignment.LEADING, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE))
             .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
             .addGroup(layout.createParallelGroup(javax.swing.GroupLayout.Alignment.LEADING)
               .addComponent(tfEditExternallyCmd, javax.swing.GroupLayout.DEFAULT_SIZE, 312, Short.MAX_VALUE)
-              .addComponent(tfOpenExternallyCmd))))
+              .addComponent(cbxEditExternallyStdin, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE)
+              .addComponent(tfOpenExternallyCmd)
+              .addComponent(cbxOpenExternallyStdin, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE)
+              .addComponent(tfLargeFileCmd)
+              .addComponent(spLargeFileThreshold, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE)
+              .addComponent(tfLargeFileTypes)
+              .addComponent(cbxLargeFileStdin, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE)
+              .addComponent(tfEditorServerAddress)
+              .addComponent(tfEditorServerMsg)
+              .addComponent(spReloadCoalesceWindow, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE))))
         .addContainerGap())
     );
     layout.setVerticalGroup(
@@ -250,9 +471,59 @@ final class EditExternallyPanel extends javax.swing.JPanel {
           .addComponent(lblEditExternallyCmd)
           .addComponent(tfEditExternallyCmd, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE))
         .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+        .addGroup(layout.createParallelGroup(javax.swing.GroupLayout.Alignment.BASELINE)
+          .addComponent(lblEditExternallyStdin)
+          .addComponent(cbxEditExternallyStdin, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE))
+        .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
         .addGroup(layout.createParallelGroup(javax.swing.GroupLayout.Alignment.BASELINE)
           .addComponent(lblOpenExternallyCmd)
           .addComponent(tfOpenExternallyCmd, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE))
+        .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+        .addGroup(layout.createParallelGroup(javax.swing.GroupLayout.Alignment.BASELINE)
+          .addComponent(lblOpenExternallyStdin)
+          .addComponent(cbxOpenExternallyStdin, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE))
+        .addGap(18, 18, 18)
+        .addGroup(layout.createParallelGroup(javax.swing.GroupLayout.Alignment.BASELINE)
+          .addComponent(lblLargeFileCmd)
+          .addComponent(tfLargeFileCmd, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE))
+        .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+        .addGroup(layout.createParallelGroup(javax.swing.GroupLayout.Alignment.BASELINE)
+          .addComponent(lblLargeFileThreshold)
+          .addComponent(spLargeFileThreshold, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE))
+        .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+        .addGroup(layout.createParallelGroup(javax.swing.GroupLayout.Alignment.BASELINE)
+          .addComponent(lblLargeFileTypes)
+          .addComponent(tfLargeFileTypes, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE))
+        .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+        .addGroup(layout.createParallelGroup(javax.swing.GroupLayout.Alignment.BASELINE)
+          .addComponent(lblLargeFileStdin)
+          .addComponent(cbxLargeFileStdin, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE))
+        .addGap(18, 18, 18)
+        .addGroup(layout.createParallelGroup(javax.swing.GroupLayout.Alignment.BASELINE)
+          .addComponent(lblEditorServerAddress)
+          .addComponent(tfEditorServerAddress, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE))
+        .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+        .addGroup(layout.createParallelGroup(javax.swing.GroupLayout.Alignment.BASELINE)
+          .addComponent(lblEditorServerMsg)
+          .addComponent(tfEditorServerMsg, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE))
+        .addGap(18, 18, 18)
+        .addComponent(cbSaveBeforeLaunch)
+        .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+        .addComponent(cbReloadExternalChanges)
+        .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+        .addGroup(layout.createParallelGroup(javax.swing.GroupLayout.Alignment.BASELINE)
+          .addComponent(lblReloadCoalesceWindow)
+          .addComponent(spReloadCoalesceWindow, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE))
+        .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+        .addComponent(cbApplyChangesIncrementally)
+        .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+        .addComponent(cbUseSpawnHelper)
+        .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+        .addComponent(cbTerminateOnShutdown)
+        .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+        .addComponent(cbCaptureOutput)
+        .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+        .addComponent(cbShowOutput)
         .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED, 9, Short.MAX_VALUE)
         .addComponent(pnlErrorMessages, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE)
         .addContainerGap())
@@ -261,36 +532,96 @@ final class EditExternallyPanel extends javax.swing.JPanel {
 
 
   void load() {
-    final Prefs prefs= Lookup.getDefault().lookup(Prefs.class);
+    final Prefs prefs= Prefs.getDefault();
     this.tfEditExternallyCmd.setText(prefs.load(EDIT_EXTERNALLY_CMD));
     this.tfOpenExternallyCmd.setText(prefs.load(OPEN_EXTERNALLY_CMD));
+    this.cbxEditExternallyStdin.setSelectedItem(prefs.loadStdinContent(EDIT_EXTERNALLY_CMD));
+    this.cbxOpenExternallyStdin.setSelectedItem(prefs.loadStdinContent(OPEN_EXTERNALLY_CMD));
+    this.tfLargeFileCmd.setText(prefs.load(LARGE_FILE_CMD));
+    this.spLargeFileThreshold.setValue(prefs.loadInt(LARGE_FILE_THRESHOLD, 0));
+    this.tfLargeFileTypes.setText(prefs.load(LARGE_FILE_TYPES));
+    this.cbxLargeFileStdin.setSelectedItem(prefs.loadStdinContent(LARGE_FILE_CMD));
+    this.tfEditorServerAddress.setText(prefs.load(EDITOR_SERVER_ADDRESS));
+    this.tfEditorServerMsg.setText(prefs.load(EDITOR_SERVER_MSG));
+    this.cbSaveBeforeLaunch.setSelected(prefs.loadBoolean(SAVE_BEFORE_LAUNCH, false));
+    this.cbReloadExternalChanges.setSelected(prefs.loadBoolean(RELOAD_EXTERNAL_CHANGES, true));
+    this.spReloadCoalesceWindow.setValue(prefs.loadInt(RELOAD_COALESCE_WINDOW, DEFAULT_RELOAD_COALESCE_WINDOW));
+    this.spReloadCoalesceWindow.setEnabled(this.cbReloadExternalChanges.isSelected());
+    this.cbApplyChangesIncrementally.setSelected(prefs.loadBoolean(APPLY_CHANGES_INCREMENTALLY, false));
+    this.cbApplyChangesIncrementally.setEnabled(this.cbReloadExternalChanges.isSelected());
+    this.cbUseSpawnHelper.setSelected(prefs.loadBoolean(USE_SPAWN_HELPER, false));
+    this.cbTerminateOnShutdown.setSelected(prefs.loadBoolean(TERMINATE_ON_SHUTDOWN, false));
+    this.cbCaptureOutput.setSelected(prefs.loadBoolean(CAPTURE_OUTPUT, false));
+    this.cbShowOutput.setSelected(prefs.loadBoolean(SHOW_OUTPUT, false));
   }
 
 
   void store() {
-    final Prefs prefs= Lookup.getDefault().lookup(Prefs.class);
+    final Prefs prefs= Prefs.getDefault();
     prefs.store(EDIT_EXTERNALLY_CMD, this.tfEditExternallyCmd.getText());
     prefs.store(OPEN_EXTERNALLY_CMD, this.tfOpenExternallyCmd.getText());
+    prefs.store(EDIT_EXTERNALLY_CMD, (StdinContent) this.cbxEditExternallyStdin.getSelectedItem());
+    prefs.store(OPEN_EXTERNALLY_CMD, (StdinContent) this.cbxOpenExternallyStdin.getSelectedItem());
+    prefs.store(LARGE_FILE_CMD, this.tfLargeFileCmd.getText());
+    prefs.store(LARGE_FILE_THRESHOLD, (Integer) this.spLargeFileThreshold.getValue());
+    prefs.store(LARGE_FILE_TYPES, this.tfLargeFileTypes.getText());
+    prefs.store(LARGE_FILE_CMD, (StdinContent) this.cbxLargeFileStdin.getSelectedItem());
+    prefs.store(EDITOR_SERVER_ADDRESS, this.tfEditorServerAddress.getText());
+    prefs.store(EDITOR_SERVER_MSG, this.tfEditorServerMsg.getText());
+    prefs.store(SAVE_BEFORE_LAUNCH, this.cbSaveBeforeLaunch.isSelected());
+    prefs.store(RELOAD_EXTERNAL_CHANGES, this.cbReloadExternalChanges.isSelected());
+    prefs.store(RELOAD_COALESCE_WINDOW, (Integer) this.spReloadCoalesceWindow.getValue());
+    prefs.store(APPLY_CHANGES_INCREMENTALLY, this.cbApplyChangesIncrementally.isSelected());
+    prefs.store(USE_SPAWN_HELPER, this.cbUseSpawnHelper.isSelected());
+    prefs.store(TERMINATE_ON_SHUTDOWN, this.cbTerminateOnShutdown.isSelected());
+    prefs.store(CAPTURE_OUTPUT, this.cbCaptureOutput.isSelected());
+    prefs.store(SHOW_OUTPUT, this.cbShowOutput.isSelected());
   }
 
 
   boolean valid() {
-    try {
-      this.cmdlineParser.parse(this.tfEditExternallyCmd.getText().trim());
-      this.cmdlineParser.parse(this.tfOpenExternallyCmd.getText().trim());
-      return true;
-    } catch (ParseException ex) {
-      return false;
+    for (final CommandFieldValidation validation : this.validations.values()) {
+      if (!validation.currentResult().isValid()) {
+        return false;
+      }
     }
+    return true;
   }
 
   // Variables declaration - do not modify//GEN-BEGIN:variables
+  private javax.swing.JCheckBox cbApplyChangesIncrementally;
+  private javax.swing.JCheckBox cbCaptureOutput;
+  private javax.swing.JCheckBox cbReloadExternalChanges;
+  private javax.swing.JCheckBox cbSaveBeforeLaunch;
+  private javax.swing.JCheckBox cbShowOutput;
+  private javax.swing.JCheckBox cbTerminateOnShutdown;
+  private javax.swing.JCheckBox cbUseSpawnHelper;
+  private javax.swing.JComboBox<de.poiu.nbee.config.Prefs.StdinContent> cbxEditExternallyStdin;
+  private javax.swing.JComboBox<de.poiu.nbee.config.Prefs.StdinContent> cbxLargeFileStdin;
+  private javax.swing.JComboBox<de.poiu.nbee.config.Prefs.StdinContent> cbxOpenExternallyStdin;
   private javax.swing.JLabel lblEditExternallyCmd;
+  private javax.swing.JLabel lblEditExternallyStdin;
+  private javax.swing.JLabel lblEditorServerAddress;
+  private javax.swing.JLabel lblEditorServerMsg;
   private javax.swing.JLabel lblErrorMessageEditExternally;
+  private javax.swing.JLabel lblErrorMessageEditorServer;
+  private javax.swing.JLabel lblErrorMessageLargeFile;
   private javax.swing.JLabel lblErrorMessageOpenExternally;
+  private javax.swing.JLabel lblLargeFileCmd;
+  private javax.swing.JLabel lblLargeFileStdin;
+  private javax.swing.JLabel lblLargeFileThreshold;
+  private javax.swing.JLabel lblLargeFileTypes;
   private javax.swing.JLabel lblOpenExternallyCmd;
+  private javax.swing.JLabel lblOpenExternallyStdin;
+  private javax.swing.JLabel lblReloadCoalesceWindow;
   private javax.swing.JPanel pnlErrorMessages;
+  private javax.swing.JSpinner spLargeFileThreshold;
+  private javax.swing.JSpinner spReloadCoalesceWindow;
   private javax.swing.JTextField tfEditExternallyCmd;
+  private javax.swing.JTextField tfEditorServerAddress;
+  private javax.swing.JTextField tfEditorServerMsg;
+  private javax.swing.JTextField tfLargeFileCmd;
+  private javax.swing.JTextField tfLargeFileTypes;
   private javax.swing.JTextField tfOpenExternallyCmd;
   // End of variables declaration//GEN-END:variables
 
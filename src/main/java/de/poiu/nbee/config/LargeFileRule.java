@@ -0,0 +1,171 @@
+/*
+ * Copyright 2019-2026 Marco Herrn.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.poiu.nbee.config;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Supplier;
+import org.openide.filesystems.FileObject;
+
+
+/**
+ * The rule deciding which files are opened with the
+ * {@link Prefs.CmdType#LARGE_FILE_CMD large file command} instead of the usual one.
+ * <p>
+ * A file matches this rule if it is larger than the configured threshold and (if any types are
+ * configured) its extension or MIME type is one of the configured types.
+ * <p>
+ * The configured types are parsed only once when the rule is {@link #compile compiled} (which
+ * {@link Prefs} does when taking a snapshot of the settings). Checking a file then only needs
+ * its size and, only for files that are actually large enough, its extension. The MIME type is
+ * only determined if the extension alone doesn't match and MIME types are configured at all,
+ * since this may require reading the file.
+ * <p>
+ * A LargeFileRule is immutable and can be shared freely between threads.
+ *
+ * @author Marco Herrn
+ */
+public final class LargeFileRule {
+
+  private static final long BYTES_PER_MB= 1024 * 1024;
+
+  /** Files strictly larger than this (in bytes) match this rule. */
+  private final long threshold;
+
+  /** The configured extensions (lower case, without leading dot). */
+  private final Set<String> extensions;
+
+  /** The configured complete MIME types (lower case). */
+  private final Set<String> mimeTypes;
+
+  /** The configured MIME type wildcards (lower case, including the slash, like <code>text/</code>). */
+  private final List<String> mimeTypePrefixes;
+
+
+  private LargeFileRule(final long threshold, final Set<String> extensions, final Set<String> mimeTypes, final List<String> mimeTypePrefixes) {
+    this.threshold= threshold;
+    this.extensions= extensions;
+    this.mimeTypes= mimeTypes;
+    this.mimeTypePrefixes= mimeTypePrefixes;
+  }
+
+
+  /**
+   * Compiles a new LargeFileRule.
+   * <p>
+   * The given types are separated by commas and/or whitespace. Each type containing a slash is
+   * a MIME type (which may end with <code>/*</code> to match all subtypes), every other one is a
+   * file extension (optionally prefixed by <code>*.</code> or <code>.</code>). All types are
+   * matched case-insensitively. If no types are given, all files match that exceed the
+   * threshold.
+   *
+   * @param thresholdMb the size (in MB) a file must exceed to match the rule
+   * @param types the types of files the rule is restricted to (may be empty)
+   * @return the compiled rule or <code>null</code> if the given threshold is not positive, which
+   *          means that no file ever matches
+   */
+  public static LargeFileRule compile(final int thresholdMb, final String types) {
+    if (thresholdMb <= 0) {
+      return null;
+    }
+
+    final Set<String> extensions= new HashSet<>();
+    final Set<String> mimeTypes= new HashSet<>();
+    final List<String> mimeTypePrefixes= new ArrayList<>();
+    for (final String token : types.trim().split("[,\\s]+")) {
+      final String type= token.toLowerCase(Locale.ROOT);
+      if (type.isEmpty()) {
+        continue;
+      }
+      if (type.endsWith("/*")) {
+        mimeTypePrefixes.add(type.substring(0, type.length() - 1));
+      } else if (type.contains("/")) {
+        mimeTypes.add(type);
+      } else if (type.startsWith("*.")) {
+        extensions.add(type.substring(2));
+      } else if (type.startsWith(".")) {
+        extensions.add(type.substring(1));
+      } else {
+        extensions.add(type);
+      }
+    }
+
+    return new LargeFileRule(thresholdMb * BYTES_PER_MB, Set.copyOf(extensions), Set.copyOf(mimeTypes), List.copyOf(mimeTypePrefixes));
+  }
+
+
+  /**
+   * Returns whether the given file matches this rule.
+   *
+   * @param file the file to check
+   * @return whether the given file should be opened with the large file command
+   */
+  public boolean matches(final FileObject file) {
+    return this.matches(file.getSize(), file.getExt(), file::getMIMEType);
+  }
+
+
+  /**
+   * Returns whether a file with the given properties matches this rule.
+   *
+   * @param size the size of the file (in bytes)
+   * @param ext the extension of the file (may be empty)
+   * @param mimeType supplies the MIME type of the file; only called if actually needed
+   * @return whether the file should be opened with the large file command
+   */
+  public boolean matches(final long size, final String ext, final Supplier<String> mimeType) {
+    if (size <= this.threshold) {
+      return false;
+    }
+    if (this.extensions.isEmpty() && this.mimeTypes.isEmpty() && this.mimeTypePrefixes.isEmpty()) {
+      return true;
+    }
+    if (!this.extensions.isEmpty() && this.extensions.contains(ext.toLowerCase(Locale.ROOT))) {
+      return true;
+    }
+    if (this.mimeTypes.isEmpty() && this.mimeTypePrefixes.isEmpty()) {
+      return false;
+    }
+
+    final String type= mimeType.get();
+    if (type == null) {
+      return false;
+    }
+    final String lowerType= type.toLowerCase(Locale.ROOT);
+    if (this.mimeTypes.contains(lowerType)) {
+      return true;
+    }
+    for (final String prefix : this.mimeTypePrefixes) {
+      if (lowerType.startsWith(prefix)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+
+  /**
+   * Returns the size (in bytes) a file must exceed to match this rule.
+   *
+   * @return the threshold of this rule in bytes
+   */
+  public long threshold() {
+    return this.threshold;
+  }
+}
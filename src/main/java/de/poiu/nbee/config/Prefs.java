@@ -15,34 +15,216 @@
  */
 package de.poiu.nbee.config;
 
+import de.poiu.nbee.parser.CmdlineParser;
+import de.poiu.nbee.parser.CmdlineTemplate;
+import de.poiu.nbee.parser.ParseException;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.prefs.BackingStoreException;
+import java.util.prefs.Preferences;
+import org.openide.util.Lookup;
 import org.openide.util.NbPreferences;
 import org.openide.util.lookup.ServiceProvider;
 
 
 /**
  * Helper for loading and storing information in the Netbeans properties.
+ * <p>
+ * All settings of this plugin are read from an immutable snapshot, so that reading a setting
+ * never accesses the preferences node itself. The snapshot is invalidated on each change of a
+ * setting (regardless whether it was changed via this class or not) and taken again on the
+ * next read. The configured command lines are compiled when the snapshot is taken.
  *
  * @author Marco Herrn
  */
 @ServiceProvider(service = Prefs.class)
 public class Prefs {
 
+  private static final Logger LOGGER= Logger.getLogger(Prefs.class.getName());
+
   /** ID for the Netbeans Preferences for this plugin. */
   public static final String NETBEANS_PREFS_ID= "de.poiu.nbee.EditExternallyOptions";
 
   /** Common prefix for all settings of this plugin */
   public static final String PREFS_PREFIX= "EditExternally-";
 
+  /**
+   * Key for the address of an already running editor server (see
+   * {@link de.poiu.nbee.launch.EditorServerChannel#parseAddress}). If not configured, no editor
+   * server is used.
+   */
+  public static final String EDITOR_SERVER_ADDRESS= "EDITOR_SERVER_ADDRESS";
+
+  /**
+   * Key for whether to save the modified document of a file before starting a command for it.
+   * Defaults to <code>false</code>.
+   */
+  public static final String SAVE_BEFORE_LAUNCH= "SAVE_BEFORE_LAUNCH";
+
+  /**
+   * Key for whether to terminate all still running external commands (see
+   * {@link de.poiu.nbee.launch.ProcessRegistry}) when NetBeans exits. Defaults to <code>false</code>.
+   */
+  public static final String TERMINATE_ON_SHUTDOWN= "TERMINATE_ON_SHUTDOWN";
+
+  /**
+   * Key for whether to watch files for modifications while the command started for them is
+   * running (see {@link de.poiu.nbee.reload.ExternalChangeRefresher}). Defaults to <code>true</code>.
+   */
+  public static final String RELOAD_EXTERNAL_CHANGES= "RELOAD_EXTERNAL_CHANGES";
+
+  /**
+   * Key for the time (in milliseconds) to wait for further modifications of a watched file
+   * before refreshing it. Defaults to {@link #DEFAULT_RELOAD_COALESCE_WINDOW}.
+   */
+  public static final String RELOAD_COALESCE_WINDOW= "RELOAD_COALESCE_WINDOW";
+
+  /** The default value for {@link #RELOAD_COALESCE_WINDOW}. */
+  public static final int DEFAULT_RELOAD_COALESCE_WINDOW= 300;
+
+  /**
+   * Key for whether to apply the modifications of a watched file to its open editor
+   * incrementally instead of reloading the whole document. Defaults to <code>false</code>.
+   */
+  public static final String APPLY_CHANGES_INCREMENTALLY= "APPLY_CHANGES_INCREMENTALLY";
+
+  /**
+   * Key for whether to start the external commands via a small helper process (see
+   * {@link de.poiu.nbee.launch.SpawnHelper}) instead of directly from NetBeans. Defaults to
+   * <code>false</code>.
+   */
+  public static final String USE_SPAWN_HELPER= "USE_SPAWN_HELPER";
+
+  /**
+   * Key for whether to capture the (last) output of the started commands to show it if they
+   * fail right after starting. Defaults to <code>false</code>.
+   */
+  public static final String CAPTURE_OUTPUT= "CAPTURE_OUTPUT";
+
+  /**
+   * Key for whether to show the output of the started commands in the NetBeans Output window.
+   * Defaults to <code>false</code>.
+   */
+  public static final String SHOW_OUTPUT= "SHOW_OUTPUT";
+
+  /**
+   * Key for the size (in MB) a file must exceed to be opened with the
+   * {@link CmdType#LARGE_FILE_CMD} instead of the usual command. Defaults to <code>0</code>,
+   * which disables the large file command.
+   */
+  public static final String LARGE_FILE_THRESHOLD= "LARGE_FILE_THRESHOLD";
+
+  /**
+   * Key for the file extensions and MIME types the {@link CmdType#LARGE_FILE_CMD} is restricted
+   * to (see {@link LargeFileRule#compile}). If not configured, it is used for all large files.
+   */
+  public static final String LARGE_FILE_TYPES= "LARGE_FILE_TYPES";
+
   /** The of the command */
   public static enum CmdType {
     /** Command to edit a file with an external editor at a specific cursor location */
     EDIT_EXTERNALLY_CMD,
     /** Command to open a file with an external editor */
     OPEN_EXTERNALLY_CMD,
+    /**
+     * Message to send to an already running editor server (instead of calling
+     * {@link #EDIT_EXTERNALLY_CMD}) to edit a file at a specific cursor location
+     */
+    EDITOR_SERVER_MSG,
+    /**
+     * Command to open a file that is larger than the configured {@link #LARGE_FILE_THRESHOLD}
+     * (instead of {@link #EDIT_EXTERNALLY_CMD} or {@link #OPEN_EXTERNALLY_CMD})
+     */
+    LARGE_FILE_CMD,
+    ;
+  }
+
+  /** What to write into the standard input of a started command */
+  public static enum StdinContent {
+    /** Nothing (the standard input is left alone) */
+    NONE,
+    /**
+     * The selected text of the editor (or the whole document if nothing is selected or no
+     * editor is open)
+     */
+    SELECTION,
+    /** The whole document (including unsaved modifications if an editor is open) */
+    DOCUMENT,
     ;
   }
 
 
+  /**
+   * A command line string together with its compiled form (or the reason it cannot be compiled).
+   *
+   * @param cmdLine the command line string
+   * @param template the compiled command line or <code>null</code> if it is empty or invalid
+   * @param error the reason the command line cannot be compiled or <code>null</code> if it is valid
+   */
+  private static record CompiledCmd(String cmdLine, CmdlineTemplate template, ParseException error) {
+  }
+
+
+  /**
+   * An immutable snapshot of all settings of this plugin.
+   *
+   * @param generation the value of {@link #generation} this snapshot was taken at
+   * @param values the stored values by their key (without the {@link #PREFS_PREFIX})
+   * @param compiledCmds the compiled command line of each configured command type
+   * @param largeFileRule the rule for using the {@link CmdType#LARGE_FILE_CMD} or <code>null</code>
+   *                       if it is not used at all
+   */
+  private static record Snapshot(long generation, Map<String, String> values, Map<CmdType, CompiledCmd> compiledCmds,
+                                 LargeFileRule largeFileRule) {
+  }
+
+
+  /** Lazily initialized holder of the instance registered in the default Lookup. */
+  private static final class DefaultHolder {
+    private static final Prefs INSTANCE= Lookup.getDefault().lookup(Prefs.class);
+  }
+
+
+  /** The preferences node this plugin stores its settings in. */
+  private final Preferences node= NbPreferences.forModule(Prefs.class);
+
+  /**
+   * The number of changes of the stored settings. A {@link Snapshot} is only valid as long as
+   * this still has the value it was taken at.
+   */
+  private final AtomicLong generation= new AtomicLong();
+
+  /** The current snapshot of the settings or <code>null</code> if none was taken yet. */
+  private volatile Snapshot snapshot;
+
+
+  public Prefs() {
+    this.node.addPreferenceChangeListener(evt -> {
+      if (evt.getKey() != null && evt.getKey().startsWith(PREFS_PREFIX) && this.isOutdated(evt.getKey())) {
+        this.invalidate();
+      }
+    });
+  }
+
+
+  /**
+   * Returns the instance of this class registered in the default Lookup.
+   * <p>
+   * The lookup is only done once.
+   *
+   * @return the default instance of this class
+   */
+  public static Prefs getDefault() {
+    return DefaultHolder.INSTANCE;
+  }
+
+
   /**
    * Loads the currently stored value of the given key.
    * <p>
@@ -79,7 +261,44 @@ public class Prefs {
    * @return the value for the given command type or the given default value if not configured.
    */
   public String load(final String key, final String defaultValue) {
-    return NbPreferences.forModule(Prefs.class).get(PREFS_PREFIX + key, defaultValue);
+    return this.snapshot().values().getOrDefault(key, defaultValue);
+  }
+
+
+  /**
+   * Loads the currently stored boolean value of the given key.
+   * <p>
+   * If the given key is not configured yet (or not a valid boolean), this returns the given
+   * default value.
+   *
+   * @param key the key to look up
+   * @param defaultValue the default value to return if the given <code>key</code> is not configured
+   * @return the value for the given key or the given default value if not configured.
+   */
+  public boolean loadBoolean(final String key, final boolean defaultValue) {
+    final String value= this.load(key, null);
+    if ("true".equalsIgnoreCase(value)) {
+      return true;
+    } else if ("false".equalsIgnoreCase(value)) {
+      return false;
+    } else {
+      return defaultValue;
+    }
+  }
+
+
+  /**
+   * Loads the currently stored int value of the given key.
+   * <p>
+   * If the given key is not configured yet (or not a valid int), this returns the given default
+   * value.
+   *
+   * @param key the key to look up
+   * @param defaultValue the default value to return if the given <code>key</code> is not configured
+   * @return the value for the given key or the given default value if not configured.
+   */
+  public int loadInt(final String key, final int defaultValue) {
+    return parseInt(this.load(key, null), defaultValue);
   }
 
 
@@ -93,7 +312,92 @@ public class Prefs {
    * @return the value for the given command type or the given default value if not configured.
    */
   public String load(final CmdType cmdType, final String defaultValue) {
-    return NbPreferences.forModule(Prefs.class).get(PREFS_PREFIX + cmdType.name(), defaultValue);
+    return this.load(cmdType.name(), defaultValue);
+  }
+
+
+  /**
+   * Loads the currently stored command line of the given command type in its compiled form.
+   * <p>
+   * The command lines are compiled when the snapshot of the settings is taken, so this never
+   * compiles anything itself.
+   * <p>
+   * If the given command type is not configured yet (or only consists of whitespace), this
+   * returns <code>null</code>.
+   *
+   * @param cmdType the command type to look up
+   * @return the compiled command line of the given command type or <code>null</code> if not configured
+   * @throws ParseException if the stored command line cannot be parsed as a valid command line
+   */
+  public CmdlineTemplate loadTemplate(final CmdType cmdType) {
+    final CompiledCmd compiled= this.snapshot().compiledCmds().get(cmdType);
+    if (compiled == null) {
+      return null;
+    }
+    if (compiled.error() != null) {
+      throw compiled.error();
+    }
+    return compiled.template();
+  }
+
+
+  /**
+   * Loads what to write into the standard input of the given command type.
+   * <p>
+   * If not configured yet (or not a valid value), this returns {@link StdinContent#NONE}.
+   *
+   * @param cmdType the command type to look up
+   * @return what to write into the standard input of the given command type
+   */
+  public StdinContent loadStdinContent(final CmdType cmdType) {
+    final String value= this.load(stdinKey(cmdType), null);
+    if (value == null) {
+      return StdinContent.NONE;
+    }
+    try {
+      return StdinContent.valueOf(value);
+    } catch (IllegalArgumentException ex) {
+      return StdinContent.NONE;
+    }
+  }
+
+
+  /**
+   * Stores what to write into the standard input of the given command type.
+   *
+   * @param cmdType the command type to store
+   * @param value what to write into the standard input of the given command type
+   */
+  public void store(final CmdType cmdType, final StdinContent value) {
+    this.store(stdinKey(cmdType), value.name());
+  }
+
+
+  /**
+   * Returns the key for what to write into the standard input of the given command type.
+   *
+   * @param cmdType the command type
+   * @return the key for the standard input of the given command type
+   */
+  public static String stdinKey(final CmdType cmdType) {
+    return cmdType.name() + "_STDIN";
+  }
+
+
+  /**
+   * Loads the rule deciding which files are opened with the {@link CmdType#LARGE_FILE_CMD}.
+   * <p>
+   * The rule is compiled when the snapshot of the settings is taken, so this never compiles
+   * anything itself.
+   * <p>
+   * If the large file command is not used at all (because no threshold or no command is
+   * configured), this returns <code>null</code>. Therefore checking for a large file costs
+   * nothing if the large file command is not configured.
+   *
+   * @return the rule for using the large file command or <code>null</code> if it is not used
+   */
+  public LargeFileRule loadLargeFileRule() {
+    return this.snapshot().largeFileRule();
   }
 
 
@@ -104,7 +408,32 @@ public class Prefs {
    * @param value the value store for the given key
    */
   public void store(final String key, final String value) {
-    NbPreferences.forModule(Prefs.class).put(PREFS_PREFIX + key, value);
+    this.node.put(PREFS_PREFIX + key, value);
+    this.invalidate();
+  }
+
+
+  /**
+   * Stores the given boolean value for the given key.
+   *
+   * @param key the key to store
+   * @param value the value store for the given key
+   */
+  public void store(final String key, final boolean value) {
+    this.node.putBoolean(PREFS_PREFIX + key, value);
+    this.invalidate();
+  }
+
+
+  /**
+   * Stores the given int value for the given key.
+   *
+   * @param key the key to store
+   * @param value the value store for the given key
+   */
+  public void store(final String key, final int value) {
+    this.node.putInt(PREFS_PREFIX + key, value);
+    this.invalidate();
   }
 
 
@@ -115,6 +444,132 @@ public class Prefs {
    * @param value the value store for the given command type
    */
   public void store(final CmdType cmdType, final String value) {
-    NbPreferences.forModule(Prefs.class).put(PREFS_PREFIX + cmdType.name(), value);
+    this.store(cmdType.name(), value);
+  }
+
+
+  /**
+   * Returns the current snapshot of the settings, taking a new one if the settings were changed
+   * since the last one was taken.
+   * <p>
+   * Storing multiple settings (like the options panel does) therefore only leads to a single
+   * new snapshot, taken on the next read. Only taking a new snapshot is synchronized; reading
+   * a valid snapshot never blocks.
+   *
+   * @return the current snapshot of the settings
+   */
+  private Snapshot snapshot() {
+    final Snapshot current= this.snapshot;
+    if (current != null && current.generation() == this.generation.get()) {
+      return current;
+    }
+
+    synchronized (this) {
+      // another thread may have taken a new snapshot in the meantime
+      final Snapshot recent= this.snapshot;
+      if (recent != null && recent.generation() == this.generation.get()) {
+        return recent;
+      }
+
+      final Snapshot taken= this.takeSnapshot();
+      this.snapshot= taken;
+      return taken;
+    }
+  }
+
+
+  /**
+   * Invalidates the current snapshot. Called for each changed setting, regardless whether it was
+   * changed via this class or directly in the preferences node.
+   */
+  private void invalidate() {
+    this.generation.incrementAndGet();
+  }
+
+
+  /**
+   * Returns whether the current snapshot is still considered valid, but doesn't contain the
+   * currently stored value of the given key.
+   * <p>
+   * The change events of the preferences node are delivered asynchronously, usually after the
+   * changed value was already read into a new snapshot (since storing a value via this class
+   * invalidates the snapshot immediately). Such an event doesn't need to invalidate the snapshot
+   * again. If there is no valid snapshot, the next read takes a new one anyway, which then
+   * contains the changed value.
+   * <p>
+   * The stored value is compared instead of the value of the event, since the event may be
+   * outdated by a later change already. This is synchronized with taking a snapshot, so that a
+   * snapshot being taken is either seen as the current one or reads the changed value.
+   *
+   * @param prefixedKey the key of the changed setting (including the {@link #PREFS_PREFIX})
+   * @return whether the current snapshot needs to be invalidated
+   */
+  private synchronized boolean isOutdated(final String prefixedKey) {
+    final Snapshot current= this.snapshot;
+    return current != null
+      && current.generation() == this.generation.get()
+      && !Objects.equals(current.values().get(prefixedKey.substring(PREFS_PREFIX.length())), this.node.get(prefixedKey, null));
+  }
+
+
+  private Snapshot takeSnapshot() {
+    // the generation must be read before the values, so that a concurrent change invalidates
+    // the snapshot taken here
+    final long currentGeneration= this.generation.get();
+
+    final Map<String, String> values= new HashMap<>();
+    try {
+      for (final String key : this.node.keys()) {
+        if (key.startsWith(PREFS_PREFIX)) {
+          final String value= this.node.get(key, null);
+          if (value != null) {
+            values.put(key.substring(PREFS_PREFIX.length()), value);
+          }
+        }
+      }
+    } catch (BackingStoreException ex) {
+      LOGGER.log(Level.WARNING, "Cannot read the settings of this plugin", ex);
+    }
+
+    final Map<CmdType, CompiledCmd> compiledCmds= new EnumMap<>(CmdType.class);
+    for (final CmdType cmdType : CmdType.values()) {
+      final String cmdLine= values.getOrDefault(cmdType.name(), "");
+      if (cmdLine.trim().isEmpty()) {
+        continue;
+      }
+      try {
+        compiledCmds.put(cmdType, new CompiledCmd(cmdLine, CmdlineParser.compile(cmdLine.trim()), null));
+      } catch (ParseException ex) {
+        compiledCmds.put(cmdType, new CompiledCmd(cmdLine, null, ex));
+      }
+    }
+
+    // an invalid large file command still results in a rule, so that the user is informed
+    // about the invalid command when opening a large file
+    final LargeFileRule largeFileRule= compiledCmds.containsKey(CmdType.LARGE_FILE_CMD)
+      ? LargeFileRule.compile(parseInt(values.get(LARGE_FILE_THRESHOLD), 0), values.getOrDefault(LARGE_FILE_TYPES, ""))
+      : null;
+
+    LOGGER.log(Level.FINE, "Took snapshot of {0} settings", values.size());
+    return new Snapshot(currentGeneration, Map.copyOf(values), Collections.unmodifiableMap(compiledCmds), largeFileRule);
+  }
+
+
+  /**
+   * Parses the given stored value as an int.
+   *
+   * @param value the stored value (may be <code>null</code>)
+   * @param defaultValue the value to return if the given value is not a valid int
+   * @return the parsed value or the given default value
+   */
+  private static int parseInt(final String value, final int defaultValue) {
+    if (value == null) {
+      return defaultValue;
+    }
+    try {
+      return Integer.parseInt(value.trim());
+    } catch (NumberFormatException ex) {
+      return defaultValue;
+    }
   }
 }
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2019-2026 Marco Herrn.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.poiu.nbee.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+
+/**
+ * The JFR events emitted for the stages of launching an external command.
+ * <p>
+ * All events are disabled by default. They can be enabled in a custom JFR configuration (or
+ * with <code>-XX:StartFlightRecording:...,settings=&lt;file&gt;</code>) by their names, e.g.
+ * <code>de.poiu.nbee.ProcessSpawn#enabled=true</code>. As long as they are disabled, their
+ * cost is negligible: creating, beginning and ending an event is optimized away by the JIT
+ * and the common attributes (see {@link LaunchEvent}) are only collected for events that are
+ * actually committed (see {@link LaunchTrace#commit}).
+ *
+ * @author Marco Herrn
+ */
+public final class LaunchEvents {
+
+  private LaunchEvents() {
+  }
+
+
+  /**
+   * The attributes common to all launch events.
+   */
+  @Category({"NetBeans", "Edit Externally"})
+  @Enabled(false)
+  @StackTrace(false)
+  public abstract static class LaunchEvent extends Event {
+    @Label("File")
+    String file;
+
+    @Label("File Size")
+    @DataAmount
+    long fileSize;
+
+    @Label("Command Type")
+    String cmdType;
+
+    @Label("Template Length")
+    @Description("The length of the configured command line")
+    int templateLength;
+
+    @Label("Placeholder Count")
+    @Description("The number of distinct placeholders in the configured command line")
+    int placeholderCount;
+  }
+
+
+  @Name("de.poiu.nbee.ResolveFile")
+  @Label("Resolve File")
+  @Description("Resolving the file of the selected DataObject")
+  public static final class ResolveFileEvent extends LaunchEvent {
+  }
+
+
+  @Name("de.poiu.nbee.EditorLookup")
+  @Label("Editor Lookup")
+  @Description("Looking up the editor of the file and taking a snapshot of its caret and selection")
+  public static final class EditorLookupEvent extends LaunchEvent {
+  }
+
+
+  @Name("de.poiu.nbee.PrefsLoad")
+  @Label("Preferences Load")
+  @Description("Loading the preferences of this plugin")
+  public static final class PrefsLoadEvent extends LaunchEvent {
+  }
+
+
+  @Name("de.poiu.nbee.TemplateParse")
+  @Label("Template Parse")
+  @Description("Loading and (if not already cached) compiling the configured command line")
+  public static final class TemplateParseEvent extends LaunchEvent {
+  }
+
+
+  @Name("de.poiu.nbee.ProcessSpawn")
+  @Label("Process Spawn")
+  @Description("Starting the external command")
+  public static final class ProcessSpawnEvent extends LaunchEvent {
+    @Label("Spawn Helper")
+    @Description("Whether the command was started via the spawn helper")
+    boolean spawnHelper;
+
+    @Label("PID")
+    long pid;
+
+    public void spawnHelper(final boolean spawnHelper) {
+      this.spawnHelper= spawnHelper;
+    }
+
+    public void pid(final long pid) {
+      this.pid= pid;
+    }
+  }
+
+
+  @Name("de.poiu.nbee.ProcessExit")
+  @Label("Process Exit")
+  @Description("The lifetime of a started command, from starting it until it exited")
+  public static final class ProcessExitEvent extends LaunchEvent {
+    @Label("PID")
+    long pid;
+
+    public void pid(final long pid) {
+      this.pid= pid;
+    }
+  }
+}
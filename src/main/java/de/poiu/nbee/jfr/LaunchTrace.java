@@ -0,0 +1,111 @@
+/*
+ * Copyright 2019-2026 Marco Herrn.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.poiu.nbee.jfr;
+
+import de.poiu.nbee.config.Prefs;
+import de.poiu.nbee.config.Prefs.CmdType;
+import de.poiu.nbee.jfr.LaunchEvents.LaunchEvent;
+import de.poiu.nbee.parser.CmdlineTemplate;
+import org.openide.filesystems.FileObject;
+
+
+/**
+ * Collects the attributes common to all {@link LaunchEvent LaunchEvents} of a single launch as
+ * they become known and adds them to the events that are committed.
+ * <p>
+ * A LaunchTrace is filled while the launch progresses (first on the EDT, then in the
+ * background). It is only handed over between these threads, but never accessed concurrently.
+ * Only the {@link LaunchEvents.ProcessExitEvent} may be committed later from another thread,
+ * after all attributes are set.
+ *
+ * @author Marco Herrn
+ */
+public final class LaunchTrace {
+
+  private FileObject file;
+  private CmdType cmdType;
+  private CmdlineTemplate template;
+
+  /** The length of the launched command line or -1 if not known (yet). */
+  private int templateLength= -1;
+
+
+  /**
+   * Sets the file that is launched (or the first one, if multiple files are launched).
+   *
+   * @param file the launched file
+   */
+  public void file(final FileObject file) {
+    this.file= file;
+  }
+
+
+  /**
+   * Sets the type of the launched command.
+   *
+   * @param cmdType the type of the launched command
+   */
+  public void cmdType(final CmdType cmdType) {
+    this.cmdType= cmdType;
+  }
+
+
+  /**
+   * Sets the compiled command line and the preferences it was loaded from.
+   * <p>
+   * The length of the configured command line (of the {@link #cmdType type} set before) is
+   * taken right now, so that events committed later (even after the configuration was changed)
+   * still refer to the launched one.
+   *
+   * @param prefs the preferences the command line was loaded from
+   * @param template the compiled command line
+   */
+  public void template(final Prefs prefs, final CmdlineTemplate template) {
+    this.template= template;
+    if (this.cmdType != null) {
+      this.templateLength= prefs.load(this.cmdType).length();
+    }
+  }
+
+
+  /**
+   * Ends the given event and commits it with the attributes known so far (if it is enabled and
+   * exceeds its threshold).
+   *
+   * @param event the event to commit
+   */
+  public void commit(final LaunchEvent event) {
+    event.end();
+    if (!event.shouldCommit()) {
+      return;
+    }
+
+    if (this.file != null) {
+      event.file= this.file.getPath();
+      event.fileSize= this.file.getSize();
+    }
+    if (this.cmdType != null) {
+      event.cmdType= this.cmdType.name();
+    }
+    if (this.templateLength >= 0) {
+      event.templateLength= this.templateLength;
+    }
+    if (this.template != null) {
+      event.placeholderCount= this.template.placeholders().size();
+    }
+    event.commit();
+  }
+}
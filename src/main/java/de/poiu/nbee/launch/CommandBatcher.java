@@ -0,0 +1,189 @@
+/*
+ * Copyright 2019-2026 Marco Herrn.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.poiu.nbee.launch;
+
+import de.poiu.nbee.parser.CmdlineTemplate;
+import de.poiu.nbee.parser.PlaceholderValues;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+
+/**
+ * Splits a command line with a placeholder that has multiple values (like
+ * <code>${files}</code>) into several command lines, each of which stays below the maximum
+ * length of a command line supported by the operating system.
+ * <p>
+ * The length of a command line is estimated the way the operating system counts it on Unix:
+ * each argument needs its bytes in UTF-8, a terminating NUL byte and a pointer in the argument
+ * vector. This is more than enough for Windows, where the limit is the number of (UTF-16)
+ * characters of the whole command line string.
+ *
+ * @author Marco Herrn
+ */
+public final class CommandBatcher {
+
+  /**
+   * The limit on Windows (the maximum length of the command line string for CreateProcess)
+   * minus a little safety margin for the quoting of the arguments.
+   */
+  private static final long WINDOWS_MAX_LENGTH= 32_767 - 767;
+
+  /** The (conservative) limit on macOS (ARG_MAX of older versions). */
+  private static final long MACOS_MAX_LENGTH= 256 * 1024;
+
+  /** The (conservative) limit on other systems (the default ARG_MAX of Linux). */
+  private static final long UNIX_MAX_LENGTH= 2 * 1024 * 1024;
+
+  /** The space reserved for the auxiliary data the kernel stores together with the arguments. */
+  private static final long SAFETY_MARGIN= 4 * 1024;
+
+  /** The size of a pointer in the argument vector. */
+  private static final int POINTER_SIZE= 8;
+
+
+  /**
+   * A single command line to start, together with the values of the list placeholder it contains.
+   *
+   * @param items the values of the list placeholder this command line contains
+   * @param command the command line to start
+   */
+  public static record Batch(List<String> items, String[] command) {
+  }
+
+
+  /** The maximum length of a command line (as computed by {@link #length}). */
+  private final long maxLength;
+
+
+  /**
+   * Creates a new CommandBatcher with the given maximum length of a command line.
+   *
+   * @param maxLength the maximum length of a command line (as computed by {@link #length})
+   */
+  public CommandBatcher(final long maxLength) {
+    this.maxLength= maxLength;
+  }
+
+
+  /**
+   * Creates a new CommandBatcher with the maximum length of a command line of the current
+   * operating system.
+   * <p>
+   * On Unix this also subtracts the size of the current environment, since the environment is
+   * passed to the started process in the same space as the arguments.
+   *
+   * @return a CommandBatcher for the current operating system
+   */
+  public static CommandBatcher forCurrentPlatform() {
+    final String os= System.getProperty("os.name", "").toLowerCase(Locale.ROOT);
+    if (os.startsWith("windows")) {
+      return new CommandBatcher(WINDOWS_MAX_LENGTH);
+    }
+
+    long environmentLength= 0;
+    for (final Map.Entry<String, String> e : System.getenv().entrySet()) {
+      environmentLength+= length(e.getKey() + "=" + e.getValue());
+    }
+    final long limit= os.startsWith("mac") ? MACOS_MAX_LENGTH : UNIX_MAX_LENGTH;
+    return new CommandBatcher(limit - environmentLength - SAFETY_MARGIN);
+  }
+
+
+  /**
+   * Returns the maximum length of a command line.
+   *
+   * @return the maximum length of a command line
+   */
+  public long maxLength() {
+    return this.maxLength;
+  }
+
+
+  /**
+   * Renders the given template with the given values, splitting the values of the given list
+   * placeholder into as many batches as necessary to keep each command line below the
+   * {@link #maxLength() maximum length}.
+   * <p>
+   * The values are kept in the given order. Each batch contains at least one value, even if
+   * that alone already exceeds the maximum length (in that case starting it will most likely
+   * fail). If there are no values at all, a single batch without any values is returned.
+   * <p>
+   * If the template doesn't reference the list placeholder at all, a single batch containing
+   * all values is returned.
+   *
+   * @param template the template to render
+   * @param values the values of the other placeholders
+   * @param listPlaceholder the placeholder with multiple values
+   * @param items the values of the list placeholder
+   * @return the batches to start
+   * @see CmdlineTemplate#render(PlaceholderValues, String, List)
+   */
+  public List<Batch> split(final CmdlineTemplate template, final PlaceholderValues values,
+                           final String listPlaceholder, final List<String> items) {
+    if (items.isEmpty() || !template.placeholders().contains(listPlaceholder)) {
+      return List.of(new Batch(List.copyOf(items), template.render(values, listPlaceholder, items).command()));
+    }
+
+    final long baseLength= length(template.render(values, listPlaceholder, List.of()).command());
+
+    final List<Batch> batches= new ArrayList<>();
+    List<String> current= new ArrayList<>();
+    long currentLength= baseLength;
+    for (final String item : items) {
+      // the arguments added by a single value don't depend on the other values
+      final long itemLength= length(template.render(values, listPlaceholder, List.of(item)).command()) - baseLength;
+      if (!current.isEmpty() && currentLength + itemLength > this.maxLength) {
+        batches.add(new Batch(List.copyOf(current), template.render(values, listPlaceholder, current).command()));
+        current= new ArrayList<>();
+        currentLength= baseLength;
+      }
+      current.add(item);
+      currentLength+= itemLength;
+    }
+    batches.add(new Batch(List.copyOf(current), template.render(values, listPlaceholder, current).command()));
+
+    return batches;
+  }
+
+
+  /**
+   * Returns the length of the given command line.
+   *
+   * @param command the command line
+   * @return the length of the command line
+   */
+  public static long length(final String[] command) {
+    long length= 0;
+    for (final String arg : command) {
+      length+= length(arg);
+    }
+    return length;
+  }
+
+
+  /**
+   * Returns the length of a single argument.
+   *
+   * @param arg the argument
+   * @return the length of the argument
+   */
+  private static long length(final String arg) {
+    return arg.getBytes(StandardCharsets.UTF_8).length + 1 + POINTER_SIZE;
+  }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2019-2026 Marco Herrn.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.poiu.nbee.launch;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.util.function.Consumer;
+
+
+/**
+ * An {@link OutputSink} that decodes the output into text and passes it on.
+ * <p>
+ * The output is read in chunks of arbitrary size, which may end in the middle of the encoding
+ * of a character. The bytes of such an incomplete character are kept until the next chunk
+ * arrives, so that each character is decoded correctly. Bytes that are not valid in the given
+ * charset are decoded as replacement characters.
+ * <p>
+ * Like all sinks this is only written by a single thread and therefore not thread-safe.
+ *
+ * @author Marco Herrn
+ */
+public final class DecodingOutputSink implements OutputSink {
+
+  private static final ByteBuffer EMPTY= ByteBuffer.allocate(0);
+
+  private final CharsetDecoder decoder;
+  private final Consumer<CharSequence> text;
+  private final Runnable onClose;
+
+  /** The bytes of an incomplete character at the end of the previous chunk. */
+  private ByteBuffer leftover= EMPTY;
+
+
+  /**
+   * Creates a new DecodingOutputSink.
+   *
+   * @param charset the charset of the output
+   * @param text receives the decoded text of each chunk (only valid during the call)
+   * @param onClose called after the end of the output was reached and all text was passed on
+   */
+  public DecodingOutputSink(final Charset charset, final Consumer<CharSequence> text, final Runnable onClose) {
+    this.decoder= charset.newDecoder()
+      .onMalformedInput(CodingErrorAction.REPLACE)
+      .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    this.text= text;
+    this.onClose= onClose;
+  }
+
+
+  @Override
+  public void write(final byte[] bytes, final int offset, final int length) {
+    final ByteBuffer in;
+    if (this.leftover.hasRemaining()) {
+      in= ByteBuffer.allocate(this.leftover.remaining() + length).put(this.leftover).put(bytes, offset, length).flip();
+    } else {
+      in= ByteBuffer.wrap(bytes, offset, length);
+    }
+    this.decode(in, false);
+  }
+
+
+  @Override
+  public void close() {
+    this.decode(this.leftover, true);
+    final CharBuffer out= CharBuffer.allocate(16);
+    this.decoder.flush(out);
+    this.pass(out);
+    this.onClose.run();
+  }
+
+
+  private void decode(final ByteBuffer in, final boolean endOfInput) {
+    final CharBuffer out= CharBuffer.allocate((int) (in.remaining() * this.decoder.maxCharsPerByte()) + 1);
+    this.decoder.decode(in, out, endOfInput);
+    this.leftover= in.hasRemaining() ? ByteBuffer.allocate(in.remaining()).put(in).flip() : EMPTY;
+    this.pass(out);
+  }
+
+
+  private void pass(final CharBuffer out) {
+    out.flip();
+    if (out.hasRemaining()) {
+      this.text.accept(out);
+    }
+  }
+}
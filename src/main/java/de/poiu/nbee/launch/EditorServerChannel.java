@@ -0,0 +1,331 @@
+/*
+ * Copyright 2019-2026 Marco Herrn.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.poiu.nbee.launch;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.SocketTimeoutException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+
+/**
+ * A persistent connection to an editor server, i.e. an already running editor (or a small
+ * adapter in front of it) that accepts requests to open files.
+ * <p>
+ * Sending a single request over an already established connection is much faster than starting
+ * a new editor process (or even a client process like <code>emacsclient</code>) each time.
+ * <p>
+ * The connection is established on the first request and then kept open. If the server closed
+ * the connection in the meantime (e.g. because it was restarted), a new connection is
+ * established transparently. Only if that fails as well (i.e. the server is not running
+ * anymore), {@link #send} throws an IOException, so that the caller can fall back to starting
+ * the configured command instead. If the request was sent, but the server didn't respond in
+ * time, an {@link EditorServerTimeoutException} is thrown instead, since the server may still
+ * process the request.
+ * <p>
+ * The protocol is line-based and uses UTF-8:
+ * <ul>
+ *   <li>A request is a single line containing the arguments of the rendered server message,
+ *       separated by a single space and terminated by a newline. Backslashes, spaces, tabs,
+ *       newlines and carriage returns inside an argument are escaped as <code>\\</code>,
+ *       <code>\ </code>, <code>\t</code>, <code>\n</code> and <code>\r</code>
+ *       (see {@link #encode}).</li>
+ *   <li>The server answers each request with a single line. If this line starts with
+ *       <code>OK</code> the request was successful. Otherwise the line describes the error.</li>
+ * </ul>
+ * <p>
+ * The server is either addressed via TCP (<code>host:port</code>) or via a Unix domain socket
+ * (the path of the socket file), see {@link #parseAddress}.
+ * <p>
+ * Instances of this class are thread-safe. Concurrent requests are sent one after the other.
+ *
+ * @author Marco Herrn
+ */
+public final class EditorServerChannel implements Closeable {
+
+  private static final Logger LOGGER= Logger.getLogger(EditorServerChannel.class.getName());
+
+  /** The pattern of a TCP address (<code>host:port</code>). */
+  private static final Pattern TCP_ADDRESS= Pattern.compile("([^/\\\\]+):(\\d{1,5})");
+
+  /** The maximum length of a response line. Longer lines are considered a protocol error. */
+  private static final int MAX_RESPONSE_LENGTH= 64 * 1024;
+
+  /** The address of the server. */
+  private final SocketAddress address;
+
+  /** The timeout for connecting to the server and for waiting for a response. */
+  private final Duration timeout;
+
+  /** The buffer for reading the responses. */
+  private final ByteBuffer readBuffer= ByteBuffer.allocate(8 * 1024);
+
+  /** The current connection or <code>null</code> if not connected. */
+  private SocketChannel channel;
+
+  /** The selector for waiting on the current connection or <code>null</code> if not connected. */
+  private Selector selector;
+
+
+  /**
+   * Creates a new EditorServerChannel for the server at the given address. This does not connect
+   * to the server yet.
+   *
+   * @param address the address of the server
+   * @param timeout the timeout for connecting to the server and for waiting for a response
+   */
+  public EditorServerChannel(final SocketAddress address, final Duration timeout) {
+    this.address= address;
+    this.timeout= timeout;
+  }
+
+
+  /**
+   * Parses the given address of an editor server.
+   * <p>
+   * An address of the form <code>host:port</code> (where <code>host</code> doesn't contain any
+   * slashes or backslashes) denotes a TCP address. Everything else denotes the path of a Unix
+   * domain socket.
+   *
+   * @param address the address to parse
+   * @return the parsed address
+   * @throws IllegalArgumentException if the given address is empty or an invalid path
+   */
+  public static SocketAddress parseAddress(final String address) {
+    final String trimmed= address.trim();
+    if (trimmed.isEmpty()) {
+      throw new IllegalArgumentException("No editor server address given");
+    }
+
+    final Matcher matcher= TCP_ADDRESS.matcher(trimmed);
+    if (matcher.matches()) {
+      final int port= Integer.parseInt(matcher.group(2));
+      if (port > 0 && port <= 0xFFFF) {
+        return new InetSocketAddress(matcher.group(1), port);
+      }
+    }
+
+    return UnixDomainSocketAddress.of(trimmed);
+  }
+
+
+  /**
+   * Encodes the given arguments into a request line (without the terminating newline).
+   *
+   * @param args the arguments to encode
+   * @return the request line
+   */
+  public static String encode(final String[] args) {
+    final StringBuilder sb= new StringBuilder();
+    for (int i= 0; i < args.length; i++) {
+      if (i > 0) {
+        sb.append(' ');
+      }
+      final String arg= args[i];
+      for (int j= 0; j < arg.length(); j++) {
+        final char c= arg.charAt(j);
+        switch (c) {
+          case '\\': sb.append("\\\\"); break;
+          case ' ':  sb.append("\\ "); break;
+          case '\t': sb.append("\\t"); break;
+          case '\n': sb.append("\\n"); break;
+          case '\r': sb.append("\\r"); break;
+          default:   sb.append(c);
+        }
+      }
+    }
+    return sb.toString();
+  }
+
+
+  /**
+   * Sends a request with the given arguments to the server and waits for its response.
+   * <p>
+   * If the current connection turns out to be closed by the server, the request is sent again
+   * over a new connection.
+   *
+   * @param args the arguments of the request
+   * @return the response of the server (including the leading <code>OK</code>)
+   * @throws EditorServerException if the server responded with an error
+   * @throws EditorServerTimeoutException if the request was sent, but the server didn't respond
+   *                                       in time
+   * @throws IOException if the server cannot be reached or the request cannot be sent
+   */
+  public synchronized String send(final String[] args) throws IOException {
+    final byte[] request= (encode(args) + "\n").getBytes(StandardCharsets.UTF_8);
+
+    final boolean reused= this.channel != null;
+    String response;
+    try {
+      response= this.roundTrip(request);
+    } catch (EditorServerTimeoutException ex) {
+      // the server may still process the request, therefore it must not be sent again
+      this.closeConnection();
+      throw ex;
+    } catch (IOException ex) {
+      this.closeConnection();
+      if (!reused) {
+        throw ex;
+      }
+      LOGGER.log(Level.FINE, "Connection to editor server " + this.address + " was closed. Reconnecting.", ex);
+      try {
+        response= this.roundTrip(request);
+      } catch (IOException ex2) {
+        this.closeConnection();
+        throw ex2;
+      }
+    }
+
+    if (!response.startsWith("OK")) {
+      throw new EditorServerException(response);
+    }
+    return response;
+  }
+
+
+  /**
+   * Closes the connection to the server (if connected). A subsequent request establishes a new
+   * connection.
+   */
+  @Override
+  public synchronized void close() {
+    this.closeConnection();
+  }
+
+
+  /** Sends the given request over the current connection (connecting if necessary) and reads the response. */
+  private String roundTrip(final byte[] request) throws IOException {
+    if (this.channel == null) {
+      this.connect();
+    }
+    final long deadline= System.nanoTime() + this.timeout.toNanos();
+    this.write(ByteBuffer.wrap(request), deadline);
+    try {
+      return this.readLine(deadline);
+    } catch (SocketTimeoutException ex) {
+      throw new EditorServerTimeoutException(ex.getMessage());
+    }
+  }
+
+
+  private void connect() throws IOException {
+    final SocketChannel newChannel= this.address instanceof UnixDomainSocketAddress
+      ? SocketChannel.open(StandardProtocolFamily.UNIX)
+      : SocketChannel.open();
+    final Selector newSelector;
+    try {
+      newChannel.configureBlocking(false);
+      newSelector= Selector.open();
+    } catch (IOException ex) {
+      newChannel.close();
+      throw ex;
+    }
+    this.channel= newChannel;
+    this.selector= newSelector;
+    this.readBuffer.clear().flip();
+
+    final long deadline= System.nanoTime() + this.timeout.toNanos();
+    if (!this.channel.connect(this.address)) {
+      while (!this.channel.finishConnect()) {
+        this.await(SelectionKey.OP_CONNECT, deadline);
+      }
+    }
+    LOGGER.log(Level.FINE, "Connected to editor server {0}", this.address);
+  }
+
+
+  private void write(final ByteBuffer buffer, final long deadline) throws IOException {
+    while (buffer.hasRemaining()) {
+      if (this.channel.write(buffer) == 0) {
+        this.await(SelectionKey.OP_WRITE, deadline);
+      }
+    }
+  }
+
+
+  /** Reads a single line (without the line terminator) from the current connection. */
+  private String readLine(final long deadline) throws IOException {
+    final ByteArrayOutputStream line= new ByteArrayOutputStream(64);
+    while (true) {
+      while (this.readBuffer.hasRemaining()) {
+        final byte b= this.readBuffer.get();
+        if (b == '\n') {
+          final String s= line.toString(StandardCharsets.UTF_8);
+          return s.endsWith("\r") ? s.substring(0, s.length() - 1) : s;
+        }
+        if (line.size() >= MAX_RESPONSE_LENGTH) {
+          throw new IOException("Response of editor server " + this.address + " too long");
+        }
+        line.write(b);
+      }
+
+      this.readBuffer.clear();
+      final int read= this.channel.read(this.readBuffer);
+      this.readBuffer.flip();
+      if (read < 0) {
+        throw new ClosedChannelException();
+      } else if (read == 0) {
+        this.await(SelectionKey.OP_READ, deadline);
+      }
+    }
+  }
+
+
+  /** Waits until the current connection is ready for the given operation. */
+  private void await(final int op, final long deadline) throws IOException {
+    final long remainingMillis= (deadline - System.nanoTime()) / 1_000_000;
+    if (remainingMillis <= 0) {
+      throw new SocketTimeoutException("Editor server " + this.address + " didn't respond within " + this.timeout.toMillis() + " ms");
+    }
+    final SelectionKey key= this.channel.register(this.selector, op);
+    try {
+      this.selector.select(remainingMillis);
+      this.selector.selectedKeys().clear();
+    } finally {
+      key.interestOps(0);
+    }
+  }
+
+
+  private void closeConnection() {
+    if (this.channel == null) {
+      return;
+    }
+    try {
+      this.selector.close();
+      this.channel.close();
+    } catch (IOException ex) {
+      LOGGER.log(Level.FINE, "Error closing connection to editor server " + this.address, ex);
+    }
+    this.channel= null;
+    this.selector= null;
+  }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2019-2026 Marco Herrn.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.poiu.nbee.launch;
+
+import java.io.IOException;
+
+
+/**
+ * An exception that indicates that an editor server was reached, but responded with an error.
+ * <p>
+ * This is in contrast to any other IOException thrown by {@link EditorServerChannel#send},
+ * which indicates that the editor server could not be reached at all.
+ *
+ * @author Marco Herrn
+ */
+public class EditorServerException extends IOException {
+
+  /**
+   * Creates a new EditorServerException for the given response of the editor server.
+   *
+   * @param response the response line of the editor server
+   */
+  public EditorServerException(final String response) {
+    super(response);
+  }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2019-2026 Marco Herrn.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.poiu.nbee.launch;
+
+import java.net.SocketTimeoutException;
+
+
+/**
+ * An exception that indicates that a request was sent to an editor server, but the server
+ * didn't respond in time.
+ * <p>
+ * The server may still process the request. Therefore it must not be sent again and the
+ * request should not be handled otherwise (e.g. by starting the configured command instead).
+ * This is in contrast to a timeout when connecting to the server or writing the request.
+ *
+ * @author Marco Herrn
+ */
+public class EditorServerTimeoutException extends SocketTimeoutException {
+
+  /**
+   * Creates a new EditorServerTimeoutException with the given message.
+   *
+   * @param message the detail message
+   */
+  public EditorServerTimeoutException(final String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright 2019-2026 Marco Herrn.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.poiu.nbee.launch;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.concurrent.CompletableFuture;
+
+
+/**
+ * An external command started by this plugin for a specific file, as tracked by the
+ * {@link ProcessRegistry}.
+ * <p>
+ * Be aware that many editors (like <code>gvim</code> or <code>emacsclient -n</code>) fork
+ * the actual editor into the background and exit immediately. In that case the tracked process
+ * is only that short-lived launcher, not the editor itself.
+ * <p>
+ * A process started by the {@link SpawnHelper} is not a child of NetBeans and is therefore
+ * only known by its {@link ProcessHandle}. Its exit value is not available.
+ *
+ * @author Marco Herrn
+ */
+public final class LaunchedProcess {
+
+  private final Path file;
+  private final ProcessHandle handle;
+  private final Process process;
+  private final List<String> command;
+  private final Instant startTime;
+  private final CompletableFuture<LaunchedProcess> onExit= new CompletableFuture<>();
+
+
+  LaunchedProcess(final Path file, final Process process, final List<String> command) {
+    this(file, process.toHandle(), process, command);
+  }
+
+
+  LaunchedProcess(final Path file, final ProcessHandle handle, final List<String> command) {
+    this(file, handle, null, command);
+  }
+
+
+  private LaunchedProcess(final Path file, final ProcessHandle handle, final Process process, final List<String> command) {
+    this.file= file;
+    this.handle= handle;
+    this.process= process;
+    this.command= List.copyOf(command);
+    this.startTime= Instant.now();
+  }
+
+
+  /**
+   * Returns the file this process was started for.
+   *
+   * @return the file this process was started for
+   */
+  public Path file() {
+    return this.file;
+  }
+
+
+  /**
+   * Returns the command line this process was started with.
+   *
+   * @return the command line this process was started with
+   */
+  public List<String> command() {
+    return this.command;
+  }
+
+
+  /**
+   * Returns the time this process was registered (which is immediately after it was started).
+   *
+   * @return the start time of this process
+   */
+  public Instant startTime() {
+    return this.startTime;
+  }
+
+
+  /**
+   * Returns the native process ID of this process.
+   *
+   * @return the native process ID of this process
+   */
+  public long pid() {
+    return this.handle.pid();
+  }
+
+
+  /**
+   * Returns whether this process is still running.
+   *
+   * @return whether this process is still running
+   */
+  public boolean isAlive() {
+    return this.handle.isAlive();
+  }
+
+
+  /**
+   * Returns the exit value of this process.
+   * <p>
+   * The exit value is only known for processes started by NetBeans itself, not for those
+   * started by the {@link SpawnHelper}.
+   *
+   * @return the exit value of this process or an empty OptionalInt if it is still running or
+   *          its exit value is unknown
+   */
+  public OptionalInt exitValue() {
+    if (this.process == null || this.process.isAlive()) {
+      return OptionalInt.empty();
+    }
+    return OptionalInt.of(this.process.exitValue());
+  }
+
+
+  /**
+   * Returns a CompletableFuture that is completed with this LaunchedProcess when the process
+   * exits. When it is completed, this process is already removed from the {@link ProcessRegistry}.
+   * <p>
+   * This doesn't need a thread waiting for the process. The JDK already waits for each started
+   * process anyway and completes this future from there. Therefore the dependent actions
+   * should be short. Long running actions should be passed to a separate executor.
+   *
+   * @return a CompletableFuture completed when the process exits
+   */
+  public CompletableFuture<LaunchedProcess> onExit() {
+    return this.onExit;
+  }
+
+
+  /**
+   * Returns the exit of the underlying process (as opposed to {@link #onExit()}, which is only
+   * completed after the {@link ProcessRegistry} has processed the exit).
+   *
+   * @return a CompletableFuture completed when the underlying process exits
+   */
+  CompletableFuture<?> processExit() {
+    return this.process != null ? this.process.onExit() : this.handle.onExit();
+  }
+
+
+  /**
+   * Completes the future returned by {@link #onExit()}.
+   */
+  void exited() {
+    this.onExit.complete(this);
+  }
+
+
+  /**
+   * Requests the termination of this process and all processes it has started itself (and
+   * which are still running).
+   * <p>
+   * The descendants are terminated first, since they may be reparented (and therefore not be
+   * found as descendants anymore) when this process exits.
+   */
+  public void terminate() {
+    this.handle.descendants().forEach(ProcessHandle::destroy);
+    this.handle.destroy();
+  }
+
+
+  @Override
+  public String toString() {
+    return "LaunchedProcess{" + "pid=" + this.handle.pid() + ", file=" + this.file + ", command=" + this.command + '}';
+  }
+}
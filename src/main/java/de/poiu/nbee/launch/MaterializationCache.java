@@ -0,0 +1,520 @@
+/*
+ * Copyright 2019-2026 Marco Herrn.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.poiu.nbee.launch;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+import org.openide.filesystems.FileObject;
+import org.openide.modules.Places;
+import org.openide.util.Lookup;
+
+
+/**
+ * A local copy of files that don't exist as a file on disk (like entries of JAR or ZIP files or
+ * files on remote filesystems), so that an external command can be started for them.
+ * <p>
+ * The copies are stored content-addressed: each distinct content is stored exactly once in a
+ * directory named after the SHA-256 hash of the content. Inside that directory the copy keeps
+ * the name of the original file (to allow the external command to recognize its type). If the
+ * same content is requested under a different name, the existing copy is hard linked (or copied
+ * if that is not supported).
+ * <p>
+ * Each file that was already copied is remembered by its URL, modification time and size, so
+ * requesting it again only needs a lookup instead of reading its content again. Only a file
+ * not copied before (or modified since) is read, streaming its content into the cache while
+ * computing its hash.
+ * <p>
+ * The total size of the cache is bounded. If it is exceeded, the least recently used copies are
+ * evicted. Copies that are still opened by a running external command (as known to the
+ * {@link ProcessRegistry}) are skipped; they are evicted on a later occasion. The cache is kept
+ * on disk between sessions; the existing copies are picked up on first use (in the order of
+ * their last use).
+ * <p>
+ * The copies are made read-only, since modifications to them would not be written back to the
+ * original file anyway.
+ * <p>
+ * This class is thread-safe. The content of a file is read without holding a lock, so multiple
+ * files can be copied in parallel.
+ *
+ * @author Marco Herrn
+ */
+public final class MaterializationCache {
+
+  private static final Logger LOGGER= Logger.getLogger(MaterializationCache.class.getName());
+
+  /** The default maximum size of the cache (in bytes). */
+  public static final long DEFAULT_MAX_SIZE= 256L * 1024 * 1024;
+
+  /** The prefix of the files content is streamed into before its hash is known. */
+  private static final String TEMP_PREFIX= ".tmp-";
+
+  /** The size of the buffer for copying the content of a file. */
+  private static final int BUFFER_SIZE= 64 * 1024;
+
+  /** The name of a directory holding a cached content (its SHA-256 hash). */
+  private static final Pattern HASH_PATTERN= Pattern.compile("[0-9a-f]{64}");
+
+
+  /**
+   * Supplies the content of a file to cache.
+   */
+  @FunctionalInterface
+  public interface ContentSource {
+    /**
+     * Opens the content to cache.
+     *
+     * @return the stream to read the content from
+     * @throws IOException if the content cannot be read
+     */
+    InputStream open() throws IOException;
+  }
+
+
+  /**
+   * A cached content.
+   *
+   * @param directory the directory holding the copies of the content
+   * @param content one of the copies of the content
+   * @param size the disk space used by the copies of the content
+   */
+  private static record Entry(Path directory, Path content, long size) {
+  }
+
+
+  /** Lazily initialized holder of the default instance. */
+  private static final class DefaultHolder {
+    private static final MaterializationCache INSTANCE= new MaterializationCache(
+      Places.getCacheSubdirectory("de.poiu.nbee/materialized").toPath(), DEFAULT_MAX_SIZE);
+  }
+
+
+  /** The directory to store the copies in. */
+  private final Path directory;
+
+  /** The maximum total size of the copies. */
+  private final long maxSize;
+
+  /** Whether a copy is still in use (and therefore must not be evicted). */
+  private final Predicate<Path> inUse;
+
+  /** The hashes of the already cached files by their key (see {@link #keyOf}). */
+  private final Map<String, String> hashesByKey= new HashMap<>();
+
+  /** The cached contents by their hash, from least to most recently used. */
+  private final LinkedHashMap<String, Entry> entries= new LinkedHashMap<>(16, 0.75f, true);
+
+  /** The sum of the sizes of all {@link #entries}. */
+  private long totalSize;
+
+  /** Whether the copies already existing in {@link #directory} were picked up. */
+  private boolean loaded;
+
+
+  /**
+   * Creates a new MaterializationCache.
+   *
+   * @param directory the directory to store the copies in (created if necessary)
+   * @param maxSize the maximum total size of the copies (in bytes). The most recently requested
+   *                 copy is never evicted, even if it alone exceeds this size.
+   */
+  public MaterializationCache(final Path directory, final long maxSize) {
+    this(directory, maxSize, MaterializationCache::isOpenedExternally);
+  }
+
+
+  /**
+   * Creates a new MaterializationCache.
+   *
+   * @param directory the directory to store the copies in (created if necessary)
+   * @param maxSize the maximum total size of the copies (in bytes). The most recently requested
+   *                 copy is never evicted, even if it alone exceeds this size.
+   * @param inUse whether a copy is still in use. Copies in use are never evicted.
+   */
+  public MaterializationCache(final Path directory, final long maxSize, final Predicate<Path> inUse) {
+    this.directory= directory;
+    this.maxSize= maxSize;
+    this.inUse= inUse;
+  }
+
+
+  /**
+   * Returns the cache used by this plugin. It is stored in the cache directory of NetBeans.
+   *
+   * @return the default instance of this class
+   */
+  public static MaterializationCache getDefault() {
+    return DefaultHolder.INSTANCE;
+  }
+
+
+  /**
+   * Returns a local copy of the given file, copying it into the cache if necessary.
+   *
+   * @param file the file to copy
+   * @return the path of the local copy
+   * @throws IOException if the file cannot be read or copied
+   */
+  public Path materialize(final FileObject file) throws IOException {
+    return this.materialize(keyOf(file), file.getNameExt(), file::getInputStream);
+  }
+
+
+  /**
+   * Returns a local copy of a file, copying it into the cache if necessary.
+   *
+   * @param key identifies the current version of the file. As long as a copy for this key is
+   *             cached, the content is not read again.
+   * @param name the file name to give the copy
+   * @param source supplies the content of the file
+   * @return the path of the local copy
+   * @throws IOException if the file cannot be read or copied
+   */
+  public Path materialize(final String key, final String name, final ContentSource source) throws IOException {
+    final String fileName= safeName(name);
+
+    synchronized (this) {
+      this.ensureLoaded();
+      final String hash= this.hashesByKey.get(key);
+      if (hash != null) {
+        final Path cached= this.lookup(hash, fileName);
+        if (cached != null) {
+          return cached;
+        }
+      }
+    }
+
+    final Path temp= Files.createTempFile(this.directory, TEMP_PREFIX, null);
+    final String hash;
+    try {
+      hash= copy(source, temp);
+    } catch (IOException | RuntimeException ex) {
+      Files.deleteIfExists(temp);
+      throw ex;
+    }
+
+    synchronized (this) {
+      final Path result= this.store(hash, fileName, temp);
+      this.hashesByKey.put(key, hash);
+      this.evict(hash);
+      return result;
+    }
+  }
+
+
+  /**
+   * Returns the copy with the given name of the given content, creating it from another copy if
+   * necessary. Marks the content as most recently used.
+   *
+   * @param hash the hash of the content
+   * @param fileName the name of the copy
+   * @return the path of the copy or <code>null</code> if the content is not cached (anymore)
+   * @throws IOException if creating the copy fails
+   */
+  private Path lookup(final String hash, final String fileName) throws IOException {
+    final Entry entry= this.entries.get(hash);
+    if (entry == null) {
+      return null;
+    }
+    if (!Files.exists(entry.content())) {
+      LOGGER.log(Level.FINE, "Cached copy {0} was removed externally", entry.content());
+      this.remove(hash, entry);
+      return null;
+    }
+
+    touch(entry.directory());
+    final Path target= entry.directory().resolve(fileName);
+    if (Files.exists(target)) {
+      return target;
+    }
+
+    long size= 0;
+    try {
+      Files.createLink(target, entry.content());
+    } catch (IOException | UnsupportedOperationException ex) {
+      LOGGER.log(Level.FINE, "Cannot link " + target + ". Copying it instead.", ex);
+      Files.copy(entry.content(), target);
+      target.toFile().setReadOnly();
+      size= Files.size(target);
+    }
+    this.entries.put(hash, new Entry(entry.directory(), entry.content(), entry.size() + size));
+    this.totalSize+= size;
+    return target;
+  }
+
+
+  /**
+   * Stores the given temporary file as a copy of the content with the given hash, unless that
+   * content is already cached.
+   *
+   * @param hash the hash of the content
+   * @param fileName the name of the copy
+   * @param temp the file containing the content (deleted or moved by this method)
+   * @return the path of the copy
+   * @throws IOException if storing the copy fails
+   */
+  private Path store(final String hash, final String fileName, final Path temp) throws IOException {
+    final Path existing= this.lookup(hash, fileName);
+    if (existing != null) {
+      LOGGER.log(Level.FINE, "Content of {0} is already cached", fileName);
+      Files.delete(temp);
+      return existing;
+    }
+
+    final Path entryDirectory= this.directory.resolve(hash);
+    Files.createDirectories(entryDirectory);
+    final Path target= entryDirectory.resolve(fileName);
+    Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+    target.toFile().setReadOnly();
+
+    final long size= Files.size(target);
+    this.entries.put(hash, new Entry(entryDirectory, target, size));
+    this.totalSize+= size;
+    return target;
+  }
+
+
+  /**
+   * Evicts the least recently used contents until the total size doesn't exceed the maximum size.
+   *
+   * @param keep the hash of the content to never evict (may be <code>null</code>)
+   */
+  private void evict(final String keep) {
+    final Iterator<Map.Entry<String, Entry>> it= this.entries.entrySet().iterator();
+    while (this.totalSize > this.maxSize && it.hasNext()) {
+      final Map.Entry<String, Entry> e= it.next();
+      if (e.getKey().equals(keep)) {
+        continue;
+      }
+      if (this.isInUse(e.getValue())) {
+        LOGGER.log(Level.FINE, "Not evicting cached copy {0}, since it is still in use", e.getValue().directory());
+        continue;
+      }
+      LOGGER.log(Level.FINE, "Evicting cached copy {0}", e.getValue().directory());
+      it.remove();
+      this.forget(e.getKey(), e.getValue());
+      deleteRecursively(e.getValue().directory());
+    }
+  }
+
+
+  /** Returns whether any of the copies of the given content is still in use. */
+  private boolean isInUse(final Entry entry) {
+    try (final DirectoryStream<Path> stream= Files.newDirectoryStream(entry.directory())) {
+      for (final Path path : stream) {
+        if (this.inUse.test(path)) {
+          return true;
+        }
+      }
+    } catch (IOException ex) {
+      LOGGER.log(Level.FINE, "Cannot list cached copies in " + entry.directory(), ex);
+    }
+    return false;
+  }
+
+
+  /** Returns whether an external command started for the given file is still running. */
+  private static boolean isOpenedExternally(final Path file) {
+    final ProcessRegistry registry= Lookup.getDefault().lookup(ProcessRegistry.class);
+    return registry != null && registry.isRunning(file);
+  }
+
+
+  private void remove(final String hash, final Entry entry) {
+    this.entries.remove(hash);
+    this.forget(hash, entry);
+    deleteRecursively(entry.directory());
+  }
+
+
+  /** Removes the given (already removed) content from the accounting and the key index. */
+  private void forget(final String hash, final Entry entry) {
+    this.totalSize-= entry.size();
+    this.hashesByKey.values().removeIf(hash::equals);
+  }
+
+
+  /**
+   * Picks up the copies already existing in the cache directory (on first use only) and
+   * removes any leftover temporary files.
+   */
+  private void ensureLoaded() throws IOException {
+    if (this.loaded) {
+      return;
+    }
+    this.loaded= true;
+    Files.createDirectories(this.directory);
+
+    final List<Path> entryDirectories= new ArrayList<>();
+    try (final DirectoryStream<Path> stream= Files.newDirectoryStream(this.directory)) {
+      for (final Path path : stream) {
+        final String name= path.getFileName().toString();
+        if (name.startsWith(TEMP_PREFIX)) {
+          Files.deleteIfExists(path);
+        } else if (HASH_PATTERN.matcher(name).matches() && Files.isDirectory(path)) {
+          entryDirectories.add(path);
+        }
+      }
+    }
+
+    entryDirectories.sort(Comparator.comparing(MaterializationCache::lastModified));
+    for (final Path entryDirectory : entryDirectories) {
+      Path content= null;
+      long size= 0;
+      try (final DirectoryStream<Path> stream= Files.newDirectoryStream(entryDirectory)) {
+        for (final Path path : stream) {
+          content= content != null ? content : path;
+          size+= Files.size(path);
+        }
+      }
+      if (content == null) {
+        deleteRecursively(entryDirectory);
+        continue;
+      }
+      this.entries.put(entryDirectory.getFileName().toString(), new Entry(entryDirectory, content, size));
+      this.totalSize+= size;
+    }
+
+    LOGGER.log(Level.FINE, "Found {0} cached copies with {1} bytes in {2}", new Object[]{this.entries.size(), this.totalSize, this.directory});
+    this.evict(null);
+  }
+
+
+  /**
+   * Streams the content of the given source into the given file and computes its hash on the way.
+   *
+   * @param source the source of the content
+   * @param target the file to write to
+   * @return the SHA-256 hash of the content (hex encoded)
+   * @throws IOException if reading or writing the content fails
+   */
+  private static String copy(final ContentSource source, final Path target) throws IOException {
+    final MessageDigest digest= sha256();
+    final InputStream stream= source.open();
+    if (stream == null) {
+      throw new FileNotFoundException("Content of " + target.getFileName() + " cannot be read");
+    }
+
+    try (final ReadableByteChannel in= Channels.newChannel(stream);
+         final FileChannel out= FileChannel.open(target, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      final ByteBuffer buffer= ByteBuffer.allocate(BUFFER_SIZE);
+      while (in.read(buffer) != -1) {
+        buffer.flip();
+        digest.update(buffer.array(), 0, buffer.limit());
+        while (buffer.hasRemaining()) {
+          out.write(buffer);
+        }
+        buffer.clear();
+      }
+    }
+
+    return HexFormat.of().formatHex(digest.digest());
+  }
+
+
+  /**
+   * Returns the key identifying the current version of the given file.
+   *
+   * @param file the file
+   * @return the key of the given file
+   */
+  private static String keyOf(final FileObject file) {
+    return file.toURL() + "|" + file.lastModified().getTime() + "|" + file.getSize();
+  }
+
+
+  /**
+   * Returns the given file name if it can be used as the name of a copy. Otherwise (if it would
+   * refer to a different directory) a generic name is returned.
+   */
+  private static String safeName(final String name) {
+    if (name == null || name.isEmpty() || name.equals(".") || name.equals("..")
+      || name.indexOf('/') >= 0 || name.indexOf('\\') >= 0 || name.startsWith(TEMP_PREFIX)) {
+      return "file";
+    }
+    return name;
+  }
+
+
+  private static MessageDigest sha256() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException ex) {
+      // every Java implementation is required to support SHA-256
+      throw new IllegalStateException(ex);
+    }
+  }
+
+
+  /** Marks the given directory as recently used, so that this survives a restart. */
+  private static void touch(final Path path) {
+    try {
+      Files.setLastModifiedTime(path, FileTime.fromMillis(System.currentTimeMillis()));
+    } catch (IOException ex) {
+      LOGGER.log(Level.FINE, "Cannot update modification time of " + path, ex);
+    }
+  }
+
+
+  private static FileTime lastModified(final Path path) {
+    try {
+      return Files.getLastModifiedTime(path);
+    } catch (IOException ex) {
+      return FileTime.fromMillis(0);
+    }
+  }
+
+
+  /**
+   * Deletes the given directory including its content. Failures are only logged, since a copy
+   * may still be opened by an external command (which prevents its deletion on some systems).
+   */
+  private static void deleteRecursively(final Path directory) {
+    try (final DirectoryStream<Path> stream= Files.newDirectoryStream(directory)) {
+      for (final Path path : stream) {
+        path.toFile().setWritable(true);
+        Files.deleteIfExists(path);
+      }
+      Files.deleteIfExists(directory);
+    } catch (IOException ex) {
+      LOGGER.log(Level.INFO, "Cannot delete cached copy " + directory, ex);
+    }
+  }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2019-2026 Marco Herrn.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.poiu.nbee.launch;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.openide.cookies.SaveCookie;
+import org.openide.filesystems.FileObject;
+import org.openide.loaders.DataObject;
+import org.openide.loaders.DataObjectNotFoundException;
+import org.openide.util.RequestProcessor;
+
+
+/**
+ * Saves the modified documents of files before an external command is started for them, so that
+ * the command doesn't see stale content on disk.
+ * <p>
+ * Files whose DataObject is not modified are skipped without any further cost. The modified
+ * ones are saved in parallel via their {@link SaveCookie} on a separate RequestProcessor (never
+ * on the EDT), and only these saves are waited for.
+ *
+ * @author Marco Herrn
+ */
+public final class ModifiedDocumentSaver {
+
+  private static final Logger LOGGER= Logger.getLogger(ModifiedDocumentSaver.class.getName());
+
+  /** The RequestProcessor to save the documents on. */
+  private static final RequestProcessor SAVER= new RequestProcessor(ModifiedDocumentSaver.class.getName(), 4);
+
+
+  private ModifiedDocumentSaver() {
+  }
+
+
+  /**
+   * Saves the modified documents of the given files and waits until they are saved.
+   * <p>
+   * If saving doesn't finish within the given timeout, an IOException is thrown. Saving the
+   * documents is not aborted in that case, but continues in the background.
+   *
+   * @param files the files to save (if modified)
+   * @param timeout the maximum time to wait for all saves to finish
+   * @return the number of saved files
+   * @throws IOException if saving a document fails or doesn't finish in time
+   */
+  public static int saveModified(final Collection<FileObject> files, final Duration timeout) throws IOException {
+    final List<CompletableFuture<Void>> saves= new ArrayList<>();
+    for (final FileObject file : files) {
+      final SaveCookie saveCookie= modifiedSaveCookie(file);
+      if (saveCookie != null) {
+        LOGGER.log(Level.FINE, "Saving {0} before starting the command", file.getPath());
+        saves.add(CompletableFuture.runAsync(() -> save(saveCookie), SAVER));
+      }
+    }
+
+    if (saves.isEmpty()) {
+      return 0;
+    }
+
+    try {
+      CompletableFuture.allOf(saves.toArray(new CompletableFuture<?>[saves.size()]))
+        .get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+      return saves.size();
+    } catch (TimeoutException ex) {
+      throw new IOException("Saving the modified files didn't finish within " + timeout.toMillis() + " ms", ex);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while saving the modified files");
+    } catch (ExecutionException ex) {
+      if (ex.getCause() instanceof UncheckedIOException) {
+        throw ((UncheckedIOException) ex.getCause()).getCause();
+      }
+      throw new IOException("Saving the modified files failed", ex.getCause());
+    }
+  }
+
+
+  /**
+   * Returns the SaveCookie of the given file if its DataObject is modified.
+   *
+   * @param file the file
+   * @return the SaveCookie of the given file or <code>null</code> if it is not modified (or
+   *          cannot be saved at all)
+   */
+  private static SaveCookie modifiedSaveCookie(final FileObject file) {
+    try {
+      final DataObject dataObject= DataObject.find(file);
+      if (dataObject == null || !dataObject.isModified()) {
+        return null;
+      }
+      return dataObject.getLookup().lookup(SaveCookie.class);
+    } catch (DataObjectNotFoundException ex) {
+      return null;
+    }
+  }
+
+
+  private static void save(final SaveCookie saveCookie) {
+    try {
+      saveCookie.save();
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+  }
+}
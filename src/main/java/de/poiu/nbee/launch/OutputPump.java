@@ -0,0 +1,99 @@
+/*
+ * Copyright 2019-2026 Marco Herrn.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.poiu.nbee.launch;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.openide.util.RequestProcessor;
+
+
+/**
+ * Drains the output of a started process into one or more {@link OutputSink}s.
+ * <p>
+ * Each stream is read by its own thread in the background for as long as the process keeps it
+ * open. The sinks only ever receive bytes; they never slow down reading (as long as they don't
+ * block themselves). Therefore the process never blocks on a full pipe.
+ *
+ * @author Marco Herrn
+ */
+public final class OutputPump {
+
+  private static final Logger LOGGER= Logger.getLogger(OutputPump.class.getName());
+
+  /**
+   * The RequestProcessor to drain the output on. Draining the output of a process takes as long
+   * as the process runs (which is usually as long as the file is being edited), so the number
+   * of parallel tasks must not be limited. Otherwise the output of a process started later may
+   * not be drained at all.
+   */
+  private static final RequestProcessor DRAINER= new RequestProcessor(OutputPump.class.getName(), Integer.MAX_VALUE);
+
+  /** The size of the buffer for reading the output. */
+  private static final int READ_BUFFER_SIZE= 8 * 1024;
+
+
+  private OutputPump() {
+  }
+
+
+  /**
+   * Starts draining the given output of a process into the given sinks in the background.
+   * <p>
+   * The returned future completes when the end of the output was reached (or reading it failed),
+   * after all sinks were {@link OutputSink#close() closed}. Be aware that this may happen
+   * considerably later than the exit of the process, since the output stays open for as long as
+   * any process started by it (like an editor forked into the background) still has it open.
+   *
+   * @param output the output of the process (like {@link Process#getInputStream()})
+   * @param sinks the sinks to write the output to
+   * @return the future completing when the output is drained completely
+   */
+  public static CompletableFuture<Void> start(final InputStream output, final List<? extends OutputSink> sinks) {
+    final CompletableFuture<Void> drained= new CompletableFuture<>();
+    DRAINER.execute(() -> {
+      try {
+        drain(output, sinks);
+      } finally {
+        drained.complete(null);
+      }
+    });
+    return drained;
+  }
+
+
+  private static void drain(final InputStream output, final List<? extends OutputSink> sinks) {
+    final byte[] bytes= new byte[READ_BUFFER_SIZE];
+    try (output) {
+      int read;
+      while ((read= output.read(bytes)) != -1) {
+        for (final OutputSink sink : sinks) {
+          sink.write(bytes, 0, read);
+        }
+      }
+    } catch (IOException ex) {
+      // this happens if the stream is closed while reading (e.g. because the process was destroyed)
+      LOGGER.log(Level.FINE, "Reading the output of the process failed", ex);
+    } finally {
+      for (final OutputSink sink : sinks) {
+        sink.close();
+      }
+    }
+  }
+}
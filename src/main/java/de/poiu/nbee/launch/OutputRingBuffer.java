@@ -0,0 +1,139 @@
+/*
+ * Copyright 2019-2026 Marco Herrn.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.poiu.nbee.launch;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+
+/**
+ * A buffer of fixed size that keeps only the most recently written bytes.
+ * <p>
+ * The memory for the buffer is allocated once (outside of the Java heap) when creating it.
+ * Writing never allocates anything and never blocks for longer than copying the written bytes.
+ * If more bytes are written than fit into the buffer, the oldest bytes are overwritten.
+ * <p>
+ * This class is thread-safe.
+ *
+ * @author Marco Herrn
+ */
+public final class OutputRingBuffer implements OutputSink {
+
+  private final ByteBuffer buffer;
+
+  /** The total number of bytes ever written into this buffer (including overwritten ones). */
+  private long totalWritten= 0;
+
+
+  /**
+   * Creates a new OutputRingBuffer.
+   *
+   * @param capacity the maximum number of bytes to keep
+   * @throws IllegalArgumentException if the given capacity is not positive
+   */
+  public OutputRingBuffer(final int capacity) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+    }
+    this.buffer= ByteBuffer.allocateDirect(capacity);
+  }
+
+
+  /**
+   * Returns the maximum number of bytes this buffer keeps.
+   *
+   * @return the capacity of this buffer
+   */
+  public int capacity() {
+    return this.buffer.capacity();
+  }
+
+
+  /**
+   * Appends the given bytes to this buffer, overwriting the oldest bytes if necessary.
+   *
+   * @param bytes the array containing the bytes to write
+   * @param offset the offset of the first byte to write
+   * @param length the number of bytes to write
+   */
+  @Override
+  public synchronized void write(final byte[] bytes, final int offset, final int length) {
+    final int capacity= this.buffer.capacity();
+    this.totalWritten+= length;
+
+    // only the last bytes can survive anyway
+    int from= length > capacity ? offset + length - capacity : offset;
+    int remaining= length > capacity ? capacity : length;
+
+    while (remaining > 0) {
+      if (!this.buffer.hasRemaining()) {
+        this.buffer.clear();
+      }
+      final int chunk= Math.min(remaining, this.buffer.remaining());
+      this.buffer.put(bytes, from, chunk);
+      from+= chunk;
+      remaining-= chunk;
+    }
+  }
+
+
+  /**
+   * Returns the total number of bytes written into this buffer, including the ones that were
+   * already overwritten.
+   *
+   * @return the total number of bytes written into this buffer
+   */
+  public synchronized long totalWritten() {
+    return this.totalWritten;
+  }
+
+
+  /**
+   * Returns the bytes currently kept in this buffer, oldest first.
+   *
+   * @return the bytes currently kept in this buffer
+   */
+  public synchronized byte[] tail() {
+    final int capacity= this.buffer.capacity();
+    final int position= this.buffer.position();
+    final boolean wrapped= this.totalWritten > position;
+
+    final byte[] result= new byte[wrapped ? capacity : position];
+    if (wrapped) {
+      // the bytes after the current position are older than the ones before it
+      this.buffer.get(position, result, 0, capacity - position);
+      this.buffer.get(0, result, capacity - position, position);
+    } else {
+      this.buffer.get(0, result, 0, position);
+    }
+    return result;
+  }
+
+
+  /**
+   * Returns the bytes currently kept in this buffer as text.
+   * <p>
+   * If older bytes were already overwritten, the text may start in the middle of a line (or
+   * even with the incomplete encoding of a character, which is decoded as a replacement
+   * character).
+   *
+   * @param charset the charset to decode the bytes with
+   * @return the bytes currently kept in this buffer as text
+   */
+  public String tail(final Charset charset) {
+    return new String(this.tail(), charset);
+  }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2019-2026 Marco Herrn.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.poiu.nbee.launch;
+
+
+/**
+ * Receives the output of a started process as drained by the {@link OutputPump}.
+ * <p>
+ * The methods of a sink are only called by the thread draining a single stream, but a sink
+ * receiving multiple streams (like stdout and stderr of the same process) must be thread-safe.
+ * Writing must never block for long, since the process would block on a full pipe otherwise.
+ *
+ * @author Marco Herrn
+ */
+@FunctionalInterface
+public interface OutputSink {
+
+  /**
+   * Receives the next bytes of the output.
+   *
+   * @param bytes the array containing the bytes
+   * @param offset the offset of the first byte
+   * @param length the number of bytes
+   */
+  void write(byte[] bytes, int offset, int length);
+
+
+  /**
+   * Called after the end of the output was reached (or reading it failed). No more bytes are
+   * written after this was called.
+   */
+  default void close() {
+  }
+}
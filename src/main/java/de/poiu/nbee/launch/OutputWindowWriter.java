@@ -0,0 +1,163 @@
+/*
+ * Copyright 2019-2026 Marco Herrn.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.poiu.nbee.launch;
+
+import java.nio.charset.Charset;
+import org.openide.util.RequestProcessor;
+import org.openide.windows.IOProvider;
+import org.openide.windows.InputOutput;
+import org.openide.windows.OutputWriter;
+
+
+/**
+ * Writes the output of a started process into its own tab of the NetBeans Output window.
+ * <p>
+ * The output is not written into the Output window immediately. Instead it is collected and
+ * written in batches at most every {@link #FLUSH_INTERVAL} milliseconds, so that commands
+ * writing lots of small lines don't cause a repaint of the Output window for each of them.
+ * Collecting the output never waits for the Output window, so the process is never slowed down
+ * by it (regardless whether the Output window is visible or not).
+ * <p>
+ * The tab is only opened when the process writes its first output. A process that doesn't
+ * write any output at all (like most GUI editors) doesn't get a tab.
+ * <p>
+ * The sinks for all streams of the process must be created before any of them is drained,
+ * since the streams of the tab are closed as soon as all created sinks are closed.
+ * <p>
+ * This class is thread-safe.
+ *
+ * @author Marco Herrn
+ */
+public final class OutputWindowWriter {
+
+  /** The interval (in milliseconds) for writing the collected output into the Output window. */
+  private static final int FLUSH_INTERVAL= 200;
+
+  /** The RequestProcessor to write the collected output into the Output window on. */
+  private static final RequestProcessor FLUSHER= new RequestProcessor(OutputWindowWriter.class.getName(), 1);
+
+  private final String name;
+  private final RequestProcessor.Task flushTask= FLUSHER.create(this::flush);
+
+  /** The collected output of stdout that is not written into the Output window yet. */
+  private final StringBuilder pendingOut= new StringBuilder();
+  /** The collected output of stderr that is not written into the Output window yet. */
+  private final StringBuilder pendingErr= new StringBuilder();
+
+  /** Whether the flush task is already scheduled for the collected output. */
+  private boolean flushScheduled= false;
+  /** The number of streams that are not closed yet. */
+  private int openStreams= 0;
+
+  /** The tab in the Output window. Only accessed by the flush task. */
+  private InputOutput io;
+
+
+  /**
+   * Creates a new OutputWindowWriter.
+   *
+   * @param name the name of the tab in the Output window
+   */
+  public OutputWindowWriter(final String name) {
+    this.name= name;
+  }
+
+
+  /**
+   * Returns the sink for the standard output of the process.
+   *
+   * @param charset the charset of the output
+   * @return the sink for the standard output
+   */
+  public synchronized OutputSink out(final Charset charset) {
+    this.openStreams++;
+    return new DecodingOutputSink(charset, text -> this.append(this.pendingOut, text), this::streamClosed);
+  }
+
+
+  /**
+   * Returns the sink for the error output of the process.
+   *
+   * @param charset the charset of the output
+   * @return the sink for the error output
+   */
+  public synchronized OutputSink err(final Charset charset) {
+    this.openStreams++;
+    return new DecodingOutputSink(charset, text -> this.append(this.pendingErr, text), this::streamClosed);
+  }
+
+
+  private synchronized void append(final StringBuilder pending, final CharSequence text) {
+    pending.append(text);
+    this.scheduleFlush();
+  }
+
+
+  private synchronized void streamClosed() {
+    this.openStreams--;
+    this.scheduleFlush();
+  }
+
+
+  private void scheduleFlush() {
+    if (!this.flushScheduled) {
+      this.flushScheduled= true;
+      this.flushTask.schedule(FLUSH_INTERVAL);
+    }
+  }
+
+
+  /**
+   * Writes the collected output into the Output window. The tab is opened on the first call
+   * with any output and its streams are closed after all streams of the process were closed.
+   */
+  private void flush() {
+    final String out;
+    final String err;
+    final boolean finished;
+    synchronized (this) {
+      out= this.pendingOut.toString();
+      err= this.pendingErr.toString();
+      this.pendingOut.setLength(0);
+      this.pendingErr.setLength(0);
+      this.flushScheduled= false;
+      finished= this.openStreams == 0;
+    }
+
+    if (this.io == null && (!out.isEmpty() || !err.isEmpty())) {
+      this.io= IOProvider.getDefault().getIO(this.name, true);
+      this.io.select();
+    }
+    if (this.io == null) {
+      return;
+    }
+
+    write(this.io.getOut(), out);
+    write(this.io.getErr(), err);
+    if (finished) {
+      this.io.getOut().close();
+      this.io.getErr().close();
+    }
+  }
+
+
+  private static void write(final OutputWriter writer, final String text) {
+    if (!text.isEmpty()) {
+      writer.write(text);
+      writer.flush();
+    }
+  }
+}
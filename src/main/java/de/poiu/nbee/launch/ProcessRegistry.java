@@ -0,0 +1,178 @@
+/*
+ * Copyright 2019-2026 Marco Herrn.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.poiu.nbee.launch;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.openide.util.lookup.ServiceProvider;
+
+
+/**
+ * The registry of all external commands started by this plugin that are still running.
+ * <p>
+ * Each process is registered for the file it was started for and automatically removed from
+ * the registry when it exits (via {@link Process#onExit()}, so there is no thread waiting for
+ * each process). Only for processes started by the {@link SpawnHelper} the JDK has to poll
+ * (via {@link ProcessHandle#onExit()}), since they are no child processes of NetBeans.
+ * <p>
+ * The processes are stored in a {@link ConcurrentHashMap} by their file. The processes of a
+ * single file are stored in an immutable list that is replaced on each change. Therefore
+ * querying the registry never blocks and only costs a single map lookup, regardless how many
+ * processes are running.
+ * <p>
+ * This class is thread-safe.
+ *
+ * @author Marco Herrn
+ */
+@ServiceProvider(service = ProcessRegistry.class)
+public class ProcessRegistry {
+
+  private static final Logger LOGGER= Logger.getLogger(ProcessRegistry.class.getName());
+
+  /** The running processes by the file they were started for. */
+  private final Map<Path, List<LaunchedProcess>> processes= new ConcurrentHashMap<>();
+
+
+  /**
+   * Registers a newly started process for the given file.
+   * <p>
+   * The process is removed from this registry as soon as it exits. If it already exited, it is
+   * removed immediately.
+   *
+   * @param file the file the process was started for
+   * @param process the started process
+   * @param command the command line the process was started with
+   * @return the registered process
+   */
+  public LaunchedProcess register(final Path file, final Process process, final List<String> command) {
+    return this.register(new LaunchedProcess(normalize(file), process, command));
+  }
+
+
+  /**
+   * Registers a newly started process for the given file that is not a child process of NetBeans
+   * (because it was started by the {@link SpawnHelper}).
+   * <p>
+   * The process is removed from this registry as soon as it exits. If it already exited, it is
+   * removed immediately.
+   *
+   * @param file the file the process was started for
+   * @param handle the handle of the started process
+   * @param command the command line the process was started with
+   * @return the registered process
+   */
+  public LaunchedProcess register(final Path file, final ProcessHandle handle, final List<String> command) {
+    return this.register(new LaunchedProcess(normalize(file), handle, command));
+  }
+
+
+  private LaunchedProcess register(final LaunchedProcess launched) {
+    final Path key= launched.file();
+    this.processes.compute(key, (k, list) -> {
+      if (list == null) {
+        return List.of(launched);
+      }
+      final List<LaunchedProcess> newList= new ArrayList<>(list.size() + 1);
+      newList.addAll(list);
+      newList.add(launched);
+      return List.copyOf(newList);
+    });
+    LOGGER.log(Level.FINE, "Registered {0}", launched);
+
+    // must be done after adding the process, since it is called immediately if the process
+    // already exited
+    launched.processExit().thenRun(() -> {
+      this.unregister(launched);
+      launched.exited();
+    });
+
+    return launched;
+  }
+
+
+  /**
+   * Returns the running processes that were started for the given file.
+   *
+   * @param file the file whose processes to return
+   * @return the running processes for the given file (may be empty, but never <code>null</code>)
+   */
+  public List<LaunchedProcess> getProcesses(final Path file) {
+    return this.processes.getOrDefault(normalize(file), List.of());
+  }
+
+
+  /**
+   * Returns whether there is at least one running process that was started for the given file.
+   *
+   * @param file the file to check
+   * @return whether there is a running process for the given file
+   */
+  public boolean isRunning(final Path file) {
+    return this.processes.containsKey(normalize(file));
+  }
+
+
+  /**
+   * Returns all running processes.
+   *
+   * @return all running processes
+   */
+  public Collection<LaunchedProcess> getAll() {
+    final List<LaunchedProcess> result= new ArrayList<>();
+    this.processes.values().forEach(result::addAll);
+    return result;
+  }
+
+
+  /**
+   * Requests the termination of all running processes (including the processes they started
+   * themselves).
+   *
+   * @see LaunchedProcess#terminate()
+   */
+  public void terminateAll() {
+    for (final LaunchedProcess process : this.getAll()) {
+      LOGGER.log(Level.INFO, "Terminating {0}", process);
+      process.terminate();
+    }
+  }
+
+
+  /**
+   * Removes the given (exited) process from this registry.
+   *
+   * @param launched the process to remove
+   */
+  private void unregister(final LaunchedProcess launched) {
+    this.processes.computeIfPresent(launched.file(), (k, list) -> {
+      final List<LaunchedProcess> newList= new ArrayList<>(list);
+      newList.remove(launched);
+      return newList.isEmpty() ? null : List.copyOf(newList);
+    });
+    LOGGER.log(Level.FINE, "Unregistered {0}", launched);
+  }
+
+
+  private static Path normalize(final Path file) {
+    return file.toAbsolutePath().normalize();
+  }
+}
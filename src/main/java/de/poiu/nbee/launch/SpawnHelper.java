@@ -0,0 +1,128 @@
+/*
+ * Copyright 2019-2026 Marco Herrn.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.poiu.nbee.launch;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * A tiny, long-lived helper process that starts the external commands on behalf of NetBeans.
+ * <p>
+ * Starting a process from a JVM with a very large heap (like NetBeans) may be slow, since the
+ * operating system has to duplicate (or at least reserve) the address space of the JVM first.
+ * This helper runs in a separate JVM with a minimal heap instead, so starting a process from
+ * there is cheap. See {@link SpawnHelperClient} for the NetBeans side.
+ * <p>
+ * The helper reads requests from stdin and writes the responses to stdout, both as binary data:
+ * <ul>
+ *   <li>A request consists of the number of arguments of the command (an <code>int</code>),
+ *       each argument and the working directory (an empty string for the working directory of
+ *       the helper). Each string is written as the number of bytes (an <code>int</code>)
+ *       followed by the bytes in UTF-8.</li>
+ *   <li>The response is the PID of the started process (a <code>long</code>) or
+ *       <code>-1</code> followed by an error message if the process could not be started.</li>
+ * </ul>
+ * <p>
+ * The output of the started processes is discarded. The helper exits as soon as its stdin is
+ * closed (i.e. when NetBeans exits).
+ *
+ * @author Marco Herrn
+ */
+public final class SpawnHelper {
+
+  /** The maximum length of a string in a request. Longer strings are considered a protocol error. */
+  private static final int MAX_STRING_LENGTH= 64 * 1024 * 1024;
+
+
+  private SpawnHelper() {
+  }
+
+
+  public static void main(final String[] args) throws IOException {
+    final DataInputStream in= new DataInputStream(new BufferedInputStream(System.in));
+    final DataOutputStream out= new DataOutputStream(new BufferedOutputStream(System.out));
+
+    while (true) {
+      final int argc;
+      try {
+        argc= in.readInt();
+      } catch (EOFException ex) {
+        // NetBeans closed the connection
+        return;
+      }
+
+      final List<String> command= new ArrayList<>(argc);
+      for (int i= 0; i < argc; i++) {
+        command.add(readString(in));
+      }
+      final String directory= readString(in);
+
+      try {
+        final Process process= new ProcessBuilder(command)
+          .directory(directory.isEmpty() ? null : new File(directory))
+          .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+          .redirectError(ProcessBuilder.Redirect.DISCARD)
+          .start();
+        out.writeLong(process.pid());
+      } catch (IOException | RuntimeException ex) {
+        out.writeLong(-1);
+        writeString(out, String.valueOf(ex.getMessage()));
+      }
+      out.flush();
+    }
+  }
+
+
+  /**
+   * Writes the given string in the format expected by {@link #readString}.
+   *
+   * @param out the stream to write to
+   * @param s the string to write
+   * @throws IOException if writing fails
+   */
+  static void writeString(final DataOutputStream out, final String s) throws IOException {
+    final byte[] bytes= s.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+
+  /**
+   * Reads a string written by {@link #writeString}.
+   *
+   * @param in the stream to read from
+   * @return the read string
+   * @throws IOException if reading fails
+   */
+  static String readString(final DataInputStream in) throws IOException {
+    final int length= in.readInt();
+    if (length < 0 || length > MAX_STRING_LENGTH) {
+      throw new IOException("Invalid string length " + length);
+    }
+    final byte[] bytes= new byte[length];
+    in.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+}
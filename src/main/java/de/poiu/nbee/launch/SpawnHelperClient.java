@@ -0,0 +1,210 @@
+/*
+ * Copyright 2019-2026 Marco Herrn.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.poiu.nbee.launch;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Path;
+import java.security.CodeSource;
+import java.time.Duration;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.openide.util.RequestProcessor;
+
+
+/**
+ * Starts processes via a {@link SpawnHelper} process.
+ * <p>
+ * The helper is started on the first request and then kept running. If it died in the
+ * meantime, it is started again. If the communication with the helper fails (or it doesn't
+ * respond in time), the helper is terminated and an IOException is thrown. If the request could
+ * not be sent, the caller can start the process directly instead. If it was sent, but not
+ * answered, a {@link SpawnHelperNoResponseException} is thrown, since the helper may have
+ * started the process already.
+ * <p>
+ * Instances of this class are thread-safe. Concurrent requests are sent one after the other.
+ *
+ * @author Marco Herrn
+ */
+public final class SpawnHelperClient implements Closeable {
+
+  private static final Logger LOGGER= Logger.getLogger(SpawnHelperClient.class.getName());
+
+  /** The RequestProcessor for terminating a helper that doesn't respond in time. */
+  private static final RequestProcessor WATCHDOG= new RequestProcessor(SpawnHelperClient.class.getName(), 1);
+
+  /** The command line to start the helper with. */
+  private final List<String> helperCommand;
+
+  /** The maximum time to wait for the response to a request. */
+  private final Duration timeout;
+
+  private Process helper;
+  private DataOutputStream out;
+  private DataInputStream in;
+
+
+  /**
+   * Creates a new SpawnHelperClient that starts the helper with the java executable of the
+   * running JVM.
+   *
+   * @param timeout the maximum time to wait for the response to a request
+   */
+  public SpawnHelperClient(final Duration timeout) {
+    this(defaultHelperCommand(), timeout);
+  }
+
+
+  /**
+   * Creates a new SpawnHelperClient.
+   *
+   * @param helperCommand the command line to start the helper with (or <code>null</code> if
+   *                       the helper cannot be started)
+   * @param timeout the maximum time to wait for the response to a request
+   */
+  SpawnHelperClient(final List<String> helperCommand, final Duration timeout) {
+    this.helperCommand= helperCommand;
+    this.timeout= timeout;
+  }
+
+
+  /**
+   * Starts the given command via the helper.
+   * <p>
+   * The output of the started process is discarded.
+   *
+   * @param command the command to start
+   * @param directory the working directory of the command
+   * @return the PID of the started process
+   * @throws SpawnHelperNoResponseException if the request was sent, but the helper didn't
+   *                                          respond (in time)
+   * @throws IOException if the helper cannot be started, the request cannot be sent or the helper
+   *                      reports an error starting the command
+   */
+  public synchronized long spawn(final List<String> command, final File directory) throws IOException {
+    this.ensureStarted();
+
+    final Process currentHelper= this.helper;
+    final RequestProcessor.Task watchdog= WATCHDOG.post(currentHelper::destroyForcibly, (int) this.timeout.toMillis());
+    final long pid;
+    final String error;
+    try {
+      try {
+        this.out.writeInt(command.size());
+        for (final String arg : command) {
+          SpawnHelper.writeString(this.out, arg);
+        }
+        SpawnHelper.writeString(this.out, directory != null ? directory.getAbsolutePath() : "");
+        this.out.flush();
+      } catch (IOException ex) {
+        // the helper is in an unknown state now, therefore start a new one on the next request
+        this.destroyHelper();
+        throw ex;
+      }
+
+      try {
+        pid= this.in.readLong();
+        error= pid < 0 ? SpawnHelper.readString(this.in) : null;
+      } catch (IOException ex) {
+        this.destroyHelper();
+        throw new SpawnHelperNoResponseException("Spawn helper didn't respond to starting " + command, ex);
+      }
+    } finally {
+      watchdog.cancel();
+    }
+
+    if (error != null) {
+      // the helper itself is still fine, only the command could not be started
+      throw new IOException(error);
+    }
+    return pid;
+  }
+
+
+  /**
+   * Terminates the helper.
+   */
+  @Override
+  public synchronized void close() {
+    this.destroyHelper();
+  }
+
+
+  private void ensureStarted() throws IOException {
+    if (this.helper != null && this.helper.isAlive()) {
+      return;
+    }
+    if (this.helperCommand == null) {
+      throw new IOException("Spawn helper cannot be started");
+    }
+
+    this.destroyHelper();
+    LOGGER.log(Level.INFO, "Starting spawn helper {0}", this.helperCommand);
+    this.helper= new ProcessBuilder(this.helperCommand)
+      .redirectError(ProcessBuilder.Redirect.DISCARD)
+      .start();
+    this.out= new DataOutputStream(new BufferedOutputStream(this.helper.getOutputStream()));
+    this.in= new DataInputStream(new BufferedInputStream(this.helper.getInputStream()));
+  }
+
+
+  private void destroyHelper() {
+    if (this.helper != null) {
+      this.helper.destroyForcibly();
+      this.helper= null;
+      this.out= null;
+      this.in= null;
+    }
+  }
+
+
+  /**
+   * Returns the command line to start the helper with the java executable of the running JVM
+   * and a minimal heap.
+   *
+   * @return the command line to start the helper or <code>null</code> if the location of the
+   *          helper class cannot be determined
+   */
+  private static List<String> defaultHelperCommand() {
+    final CodeSource codeSource= SpawnHelper.class.getProtectionDomain().getCodeSource();
+    if (codeSource == null || codeSource.getLocation() == null) {
+      LOGGER.log(Level.WARNING, "Location of {0} unknown. Spawn helper cannot be used.", SpawnHelper.class.getName());
+      return null;
+    }
+
+    final String classpath;
+    try {
+      classpath= Path.of(codeSource.getLocation().toURI()).toString();
+    } catch (URISyntaxException | IllegalArgumentException ex) {
+      LOGGER.log(Level.WARNING, "Location of " + SpawnHelper.class.getName() + " is not a local file. Spawn helper cannot be used.", ex);
+      return null;
+    }
+
+    final String java= Path.of(System.getProperty("java.home"), "bin", "java").toString();
+    return List.of(java,
+                   "-Xms8m", "-Xmx16m", "-Xss256k",
+                   "-XX:+UseSerialGC", "-XX:TieredStopAtLevel=1", "-Xshare:auto",
+                   "-cp", classpath,
+                   SpawnHelper.class.getName());
+  }
+}
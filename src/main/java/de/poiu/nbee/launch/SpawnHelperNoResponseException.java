@@ -0,0 +1,42 @@
+/*
+ * Copyright 2019-2026 Marco Herrn.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.poiu.nbee.launch;
+
+import java.io.IOException;
+
+
+/**
+ * An exception that indicates that a request was sent to the {@link SpawnHelper}, but it didn't
+ * respond (in time).
+ * <p>
+ * The helper may have started the command already. Therefore the command must not be started
+ * again (e.g. directly instead of via the helper). This is in contrast to any other IOException
+ * thrown by {@link SpawnHelperClient#spawn}, which indicates that the command was not started.
+ *
+ * @author Marco Herrn
+ */
+public class SpawnHelperNoResponseException extends IOException {
+
+  /**
+   * Creates a new SpawnHelperNoResponseException.
+   *
+   * @param message the detail message
+   * @param cause the reason why no response was received
+   */
+  public SpawnHelperNoResponseException(final String message, final IOException cause) {
+    super(message, cause);
+  }
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2019-2026 Marco Herrn.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.poiu.nbee.launch;
+
+import de.poiu.nbee.text.DocumentStreamer;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import org.openide.filesystems.FileObject;
+import org.openide.util.RequestProcessor;
+
+
+/**
+ * Writes content into the standard input of a started process.
+ * <p>
+ * The content is written in the background (never on the thread starting the process) in
+ * chunks of a fixed size. Each chunk is only read when the previous one was accepted by the
+ * pipe, so a process that reads its input slowly (or not at all) only blocks the writing thread,
+ * and the memory needed is bounded by the chunk size regardless how large the content is. The
+ * content of a document is never copied into a single String (see {@link DocumentStreamer}).
+ * <p>
+ * The standard input of the process is closed after all content was written, so the process
+ * sees the end of its input.
+ *
+ * @author Marco Herrn
+ */
+public final class StdinFeeder {
+
+  private static final Logger LOGGER= Logger.getLogger(StdinFeeder.class.getName());
+
+  /**
+   * The RequestProcessor to write the content on. Each write may block for as long as the
+   * process doesn't read its input (e.g. a pager waiting for the user to scroll down), so the
+   * number of parallel tasks must not be limited. Otherwise the input of a process started later
+   * may not be written at all.
+   */
+  private static final RequestProcessor FEEDER= new RequestProcessor(StdinFeeder.class.getName(), Integer.MAX_VALUE);
+
+  /** The size of the buffer for copying the content of a file. */
+  private static final int BUFFER_SIZE= 64 * 1024;
+
+
+  /**
+   * Content to write into the standard input of a process.
+   */
+  @FunctionalInterface
+  public interface Content {
+    /**
+     * Writes this content into the given channel. The channel must not be closed.
+     *
+     * @param channel the channel to write to
+     * @return the number of bytes written
+     * @throws IOException if reading the content or writing it to the channel fails
+     */
+    long writeTo(WritableByteChannel channel) throws IOException;
+  }
+
+
+  private StdinFeeder() {
+  }
+
+
+  /**
+   * Returns the given range of the given document as content.
+   *
+   * @param document the document
+   * @param offset the offset of the first char to write
+   * @param length the number of chars to write
+   * @param charset the charset to encode the content with
+   * @return the given range of the given document as content
+   */
+  public static Content of(final Document document, final int offset, final int length, final Charset charset) {
+    return channel -> {
+      try {
+        return new DocumentStreamer(document, charset).writeTo(offset, length, channel);
+      } catch (BadLocationException ex) {
+        throw new IOException("The range to write is not valid anymore", ex);
+      }
+    };
+  }
+
+
+  /**
+   * Returns the whole content of the given document as content. The length of the document is
+   * only determined when the content is actually written.
+   *
+   * @param document the document
+   * @param charset the charset to encode the content with
+   * @return the whole given document as content
+   */
+  public static Content of(final Document document, final Charset charset) {
+    return channel -> of(document, 0, document.getLength(), charset).writeTo(channel);
+  }
+
+
+  /**
+   * Returns the content of the given file (as stored on disk) as content.
+   *
+   * @param file the file
+   * @return the given file as content
+   */
+  public static Content of(final FileObject file) {
+    return channel -> {
+      final InputStream stream= file.getInputStream();
+      if (stream == null) {
+        throw new FileNotFoundException(file.getPath());
+      }
+      long written= 0;
+      try (final ReadableByteChannel in= Channels.newChannel(stream)) {
+        final ByteBuffer buffer= ByteBuffer.allocate(BUFFER_SIZE);
+        while (in.read(buffer) != -1) {
+          buffer.flip();
+          while (buffer.hasRemaining()) {
+            written+= channel.write(buffer);
+          }
+          buffer.clear();
+        }
+      }
+      return written;
+    };
+  }
+
+
+  /**
+   * Writes the given content into the given standard input of a process in the background and
+   * closes it afterwards.
+   * <p>
+   * The returned future completes exceptionally if the content cannot be written. This is
+   * expected if the process exits (or closes its input) before reading all content, like a
+   * pager that is quit before the end of its input.
+   *
+   * @param stdin the standard input of the process
+   * @param content the content to write
+   * @return the future completing with the number of written bytes
+   */
+  public static CompletableFuture<Long> feed(final OutputStream stdin, final Content content) {
+    return CompletableFuture.supplyAsync(() -> {
+      try (final WritableByteChannel channel= Channels.newChannel(stdin)) {
+        final long written= content.writeTo(channel);
+        LOGGER.log(Level.FINE, "Wrote {0} bytes to standard input of command", written);
+        return written;
+      } catch (IOException ex) {
+        throw new UncheckedIOException(ex);
+      }
+    }, FEEDER);
+  }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2019-2026 Marco Herrn.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.poiu.nbee.launch;
+
+import de.poiu.nbee.config.Prefs;
+import org.openide.modules.OnStop;
+import org.openide.util.Lookup;
+
+import static de.poiu.nbee.config.Prefs.TERMINATE_ON_SHUTDOWN;
+
+
+/**
+ * Terminates all still running external commands when NetBeans exits, if configured so.
+ *
+ * @author Marco Herrn
+ */
+@OnStop
+public final class TerminateOnShutdown implements Runnable {
+
+  @Override
+  public void run() {
+    final Prefs prefs= Prefs.getDefault();
+    if (prefs.loadBoolean(TERMINATE_ON_SHUTDOWN, false)) {
+      Lookup.getDefault().lookup(ProcessRegistry.class).terminateAll();
+    }
+  }
+}
@@ -15,10 +15,10 @@
  */
 package de.poiu.nbee.parser;
 
-import java.util.List;
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
@@ -57,15 +57,17 @@ import java.util.logging.Logger;
  * {@link #parseDetailed}, which -- unlike {@link #parse} -- returns that information directly
  * alongside the parsed command line, rather than as separate, order-dependent state on this
  * object.
+ * <p>
+ * A command line string that is executed repeatedly should be {@link #compile compiled} only once
+ * into a {@link CmdlineTemplate}. That template can then be rendered with the actual replacement
+ * values of each execution without parsing the command line string again.
  *
  * @author Marco Herrn
  */
 public class CmdlineParser {
 
-  private static final Logger LOGGER= Logger.getLogger(CmdlineParser.class.getName());
-
   /**
-   * The result of {@link #parseDetailed}: the parsed command line, together with the
+   * The result of {@link #parseDetailed} and {@link CmdlineTemplate#render}: the parsed command line, together with the
    * placeholders (if any) for which no replacement mapping was defined, in the order they were
    * first encountered. Immutable.
    *
@@ -90,18 +92,21 @@ public class CmdlineParser {
     }
   }
 
-  private static enum Mode {
-    /** The normal parse mode. */
-    PARSE,
-    /** A placeholder was found. While in this mode the placeholder will be read until its end is found. */
-    REPLACE,
-    ;
-  }
+  private static final Logger LOGGER= Logger.getLogger(CmdlineParser.class.getName());
+
+  /** The renderer of each thread, reused for every {@link #parse} on that thread. */
+  private static final ThreadLocal<Renderer> RENDERERS= ThreadLocal.withInitial(Renderer::new);
 
 
   /** The mappings to use to replace placeholders. */
   private final Map<String, String> replacements= new HashMap<>();
 
+  /**
+   * The {@link #replacements} in a form that can be looked up without allocating a String for
+   * each placeholder. Created lazily and discarded whenever {@link #replacements} changes.
+   */
+  private volatile PlaceholderTable placeholderTable;
+
 
 
   /**
@@ -159,6 +164,7 @@ public class CmdlineParser {
     Objects.requireNonNull(placeholder);
     Objects.requireNonNull(replacement);
     this.replacements.put(placeholder, replacement);
+    this.placeholderTable= null;
     return this;
   }
 
@@ -177,7 +183,13 @@ public class CmdlineParser {
    * @throws ParseException if the given string cannot be parsed in as a valid command line
    */
   public String[] parse(final CharSequence cmdLine) {
-    return this.parseDetailed(cmdLine).command();
+    final Renderer renderer= Renderer.acquire(this.placeholderTable());
+    try {
+      CmdlineScanner.scan(cmdLine, renderer);
+      return renderer.command();
+    } finally {
+      renderer.release();
+    }
   }
 
 
@@ -189,133 +201,163 @@ public class CmdlineParser {
    * This method has no side effects on this CmdlineParser beyond reading its configured
    * {@link #replace replacement mappings} -- calling it repeatedly, including concurrently from
    * different threads, never changes what a later call returns for the same input.
+   * <p>
+   * Callers that parse the same command line string repeatedly should {@link #compile} it once
+   * and only {@link CmdlineTemplate#render render} the resulting template each time instead.
    *
    * @param cmdLine the command line string to pares
    * @return the parsed command line together with any unmapped placeholders found while parsing it
    * @throws ParseException if the given string cannot be parsed in as a valid command line
    */
   public ParseResult parseDetailed(final CharSequence cmdLine) {
-    final List<String> parsedCmdLine= new ArrayList<>();
-    final Set<String> unmappedPlaceholders= new LinkedHashSet<>();
-
-    final StringBuilder sb= new StringBuilder();
-    Character quoteChar= null;
-    final StringBuilder sbPlaceholder= new StringBuilder();
-
-    // start in parse mode
-    Mode mode= Mode.PARSE;
-
-    for (int i= 0; i< cmdLine.length(); i++) {
-      final char c= cmdLine.charAt(i);
-
-      switch (c) {
-        case '\\':
-          if (cmdLine.length() < i + 2) {
-            throw new ParseException("Escape char at end of string", cmdLine);
-          }
-          sb.append(cmdLine.charAt(++i));
-          break;
-        case '"':
-        case '\'':
-          if (quoteChar != null) {
-            if (quoteChar.charValue() == c) {
-              quoteChar= null;
-            } else {
-              sb.append(c);
-            }
-          } else {
-            quoteChar= c;
-          }
-          break;
-        case ' ':
-        case '\t':
-        case '\n':
-        case '\r':
-          if (quoteChar != null) {
-            sb.append(c);
-          } else {
-            if (sb.length() > 0) {
-              parsedCmdLine.add(sb.toString());
-              sb.delete(0, sb.length());
-            } else {
-              // ignore multiple consecutive whitespaces
-            }
-          }
-          break;
-        case '$':
-          if (mode == Mode.REPLACE) {
-            throw new ParseException("Invalid character " + c + " found in placeholder " + sbPlaceholder.toString(), cmdLine);
-          } else if (cmdLine.length() < i + 2) {
-            // a single $ at the end of the command line is used literally
-            sb.append(c);
-          } else if (cmdLine.charAt(i + 1) == '{') {
-            // switch to REPLACE mode
-            mode= Mode.REPLACE;
-            sbPlaceholder
-              .append(c)
-              .append(cmdLine.charAt(++i));
-          } else {
-            // a $ not starting a "${" placeholder is used literally
-            sb.append(c);
-          }
-          break;
-        case '}':
-          if (mode == Mode.REPLACE) {
-            // end REPLACE mode
-            sbPlaceholder.append(c);
-            mode= Mode.PARSE;
-            sb.append(replace(sbPlaceholder.toString(), unmappedPlaceholders));
-            sbPlaceholder.delete(0, sbPlaceholder.length());
-          } else {
-            sb.append(c);
-          }
-          break;
-        default:
-          if (mode == Mode.REPLACE) {
-            sbPlaceholder.append(c);
-          } else {
-            sb.append(c);
-          }
-      }
+    final Renderer renderer= Renderer.acquire(this.placeholderTable());
+    try {
+      CmdlineScanner.scan(cmdLine, renderer);
+      return new ParseResult(renderer.command(), renderer.unmappedPlaceholders());
+    } finally {
+      renderer.release();
     }
+  }
 
-    // if a placeholder wasn't closed, it means we could not parse the commandline correctly
-    if (sbPlaceholder.length() != 0) {
-      throw new ParseException("Unclosed placeholder: "+sbPlaceholder.toString(), cmdLine);
-    }
 
-    // an unclosed quote means we could not parse the commandline correctly
-    if (quoteChar != null) {
-      throw new ParseException("Unclosed quote: "+quoteChar.charValue(), cmdLine);
-    }
+  /**
+   * Compiles a command line string into a {@link CmdlineTemplate}.
+   * <p>
+   * The returned template has all quoting and escaping already resolved and split the command
+   * line into its arguments, but still contains all placeholders as slots to be filled when
+   * {@link CmdlineTemplate#render rendering} it. Therefore the (immutable) template can be
+   * reused for any number of executions of the same command line string with different
+   * replacement values.
+   *
+   * @param cmdLine the command line string to compile
+   * @return the compiled command line
+   * @throws ParseException if the given string cannot be parsed in as a valid command line
+   */
+  public static CmdlineTemplate compile(final CharSequence cmdLine) {
+    final CmdlineTemplate.Builder builder= new CmdlineTemplate.Builder();
+    CmdlineScanner.scan(cmdLine, builder);
+    return builder.build();
+  }
 
-    if (sb.length() > 0) {
-      parsedCmdLine.add(sb.toString());
-    }
 
-    return new ParseResult(parsedCmdLine.toArray(new String[parsedCmdLine.size()]), List.copyOf(unmappedPlaceholders));
+  /**
+   * Returns the {@link #placeholderTable}, creating it if necessary.
+   *
+   * @return the current replacement mappings as PlaceholderTable
+   */
+  private PlaceholderTable placeholderTable() {
+    PlaceholderTable table= this.placeholderTable;
+    if (table == null) {
+      table= new PlaceholderTable(this.replacements);
+      this.placeholderTable= table;
+    }
+    return table;
   }
 
 
   /**
-   * Returns the replacement string for the given placeholder.
+   * Builds the parsed command line directly while it is being {@link CmdlineScanner scanned}.
    * <p>
-   * If no replacement is defined in the {@link #replacements replacements map} of this
-   * CmdlineParser, the placeholder will be returned as given (to be included literally in the
-   * parsed command line, and added to <code>unmappedPlaceholders</code>).
-   *
-   * @param placeholder the placeholder for which to return the replacement string
-   * @param unmappedPlaceholders the (call-local) collection to add {@code placeholder} to if no
-   *                              replacement mapping is defined for it
-   * @return the replacement string or the placeholder itself if not replacement mapping is defined
+   * A Renderer keeps its buffers between calls to avoid allocating them anew for each parsed
+   * command line. Therefore each thread reuses its own instance (see {@link #RENDERERS}), which
+   * makes the resulting command line (and the list of unmapped placeholders, if there are any)
+   * the only objects allocated per call in the usual case.
    */
-  private CharSequence replace(final String placeholder, final Set<String> unmappedPlaceholders) {
-    if (this.replacements.containsKey(placeholder)) {
-      return this.replacements.get(placeholder);
-    } else {
-      LOGGER.log(Level.WARNING, "No replacement mapping found for placeholder {0}. Including it literally in the command.", placeholder);
-      unmappedPlaceholders.add(placeholder);
-      return placeholder;
+  private static final class Renderer implements CmdlineScanner.Listener {
+
+    /**
+     * The maximum capacity of the buffer to keep for the next call. A larger buffer (e.g. after
+     * parsing a command line containing a huge replacement string) is discarded after use to
+     * not hold on to the memory indefinitely.
+     */
+    private static final int MAX_RETAINED_CAPACITY= 64 * 1024;
+
+    private StringBuilder sb= new StringBuilder(256);
+    private String[] args= new String[16];
+    private int count;
+    private PlaceholderTable placeholderTable;
+    private Set<String> unmappedPlaceholders;
+    private boolean inUse;
+
+
+    /**
+     * Returns the Renderer of the current thread, prepared for rendering with the given
+     * replacement mappings.
+     * <p>
+     * Must be {@link #release() released} after use.
+     */
+    static Renderer acquire(final PlaceholderTable placeholderTable) {
+      Renderer renderer= RENDERERS.get();
+      if (renderer.inUse) {
+        // Only possible for a reentrant call (e.g. from a logging handler) on the same thread.
+        renderer= new Renderer();
+      }
+      renderer.inUse= true;
+      renderer.placeholderTable= placeholderTable;
+      return renderer;
+    }
+
+
+    /** Resets this Renderer to be reused by the next call on the same thread. */
+    void release() {
+      if (this.sb.capacity() > MAX_RETAINED_CAPACITY) {
+        this.sb= new StringBuilder(256);
+      } else {
+        this.sb.setLength(0);
+      }
+      Arrays.fill(this.args, 0, this.count, null);
+      this.count= 0;
+      this.placeholderTable= null;
+      this.unmappedPlaceholders= null;
+      this.inUse= false;
+    }
+
+
+    @Override
+    public void literal(final CharSequence cmdLine, final int start, final int end) {
+      this.sb.append(cmdLine, start, end);
+    }
+
+
+    @Override
+    public void placeholder(final CharSequence cmdLine, final int start, final int end) {
+      final String replacement= this.placeholderTable.get(cmdLine, start, end);
+      if (replacement != null) {
+        this.sb.append(replacement);
+      } else {
+        final String placeholder= cmdLine.subSequence(start, end).toString();
+        LOGGER.log(Level.WARNING, "No replacement mapping found for placeholder {0}. Including it literally in the command.", placeholder);
+        if (this.unmappedPlaceholders == null) {
+          this.unmappedPlaceholders= new LinkedHashSet<>();
+        }
+        this.unmappedPlaceholders.add(placeholder);
+        this.sb.append(placeholder);
+      }
+    }
+
+
+    @Override
+    public void endArgument() {
+      // ignore empty arguments, e.g. from multiple consecutive whitespaces
+      if (this.sb.length() > 0) {
+        if (this.count == this.args.length) {
+          this.args= Arrays.copyOf(this.args, this.count * 2);
+        }
+        this.args[this.count++]= this.sb.toString();
+        this.sb.setLength(0);
+      }
+    }
+
+
+    /** Returns the parsed command line. */
+    String[] command() {
+      return Arrays.copyOf(this.args, this.count);
+    }
+
+
+    /** Returns the unmapped placeholders found while parsing, in the order they were first encountered. */
+    List<String> unmappedPlaceholders() {
+      return this.unmappedPlaceholders != null ? List.copyOf(this.unmappedPlaceholders) : List.of();
     }
   }
 }
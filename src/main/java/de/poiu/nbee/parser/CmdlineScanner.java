@@ -0,0 +1,291 @@
+/*
+ * Copyright 2019-2026 Marco Herrn.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.poiu.nbee.parser;
+
+
+/**
+ * The tokenizer shared by {@link CmdlineParser#parseDetailed} and {@link CmdlineParser#compile}.
+ * <p>
+ * This implements the actual parsing rules described in {@link CmdlineParser}, but doesn't build
+ * any result itself. Instead it reports what it finds to a {@link Listener} as index ranges into
+ * the scanned command line. Therefore scanning doesn't allocate anything by itself (apart from
+ * the exception for an invalid command line).
+ * <p>
+ * The only exception is a placeholder that is interrupted by characters that are not part of
+ * the placeholder name (like <code>${fi\le}</code>, which is a weird, but valid, way of writing
+ * the placeholder <code>${fie}</code> followed by a literal <code>l</code>). Only such a
+ * placeholder is collected into a separate buffer, since it is not a contiguous range anymore.
+ *
+ * @author Marco Herrn
+ */
+final class CmdlineScanner {
+
+  /** Marker for {@link #scan} that no placeholder is currently being read. */
+  private static final int NO_PLACEHOLDER= -1;
+
+  /** Marker for {@link #scan} that no quote is currently open. */
+  private static final char NO_QUOTE= 0;
+
+  /**
+   * The maximum number of characters of a placeholder to include in an error message. The rest
+   * is abbreviated, so that the message stays short, even for an unclosed placeholder at the
+   * start of a very long command line.
+   */
+  static final int MAX_PLACEHOLDER_LENGTH_IN_MESSAGE= 64;
+
+
+  /**
+   * Receives the tokens found while {@link #scan scanning} a command line.
+   * <p>
+   * The given ranges are only valid during the call, since the given CharSequence may be a
+   * mutable buffer.
+   */
+  interface Listener {
+    /**
+     * Called for literal text that belongs to the current argument.
+     *
+     * @param cmdLine the CharSequence containing the literal text
+     * @param start the start index of the literal text
+     * @param end the end index (exclusive) of the literal text
+     */
+    void literal(CharSequence cmdLine, int start, int end);
+
+    /**
+     * Called for a placeholder that belongs to the current argument.
+     *
+     * @param cmdLine the CharSequence containing the placeholder
+     * @param start the start index of the placeholder (pointing to its <code>$</code>)
+     * @param end the end index (exclusive) of the placeholder (pointing after its <code>}</code>)
+     */
+    void placeholder(CharSequence cmdLine, int start, int end);
+
+    /**
+     * Called when the current argument ends. This is called for each sequence of unquoted
+     * whitespace and at the end of the command line, even if the argument is empty.
+     */
+    void endArgument();
+  }
+
+
+  private CmdlineScanner() {
+  }
+
+
+  /**
+   * Scans the given command line and reports all tokens found to the given listener.
+   *
+   * @param cmdLine the command line to scan
+   * @param listener the listener to report the found tokens to
+   * @throws ParseException if the given string cannot be parsed in as a valid command line
+   */
+  static void scan(final CharSequence cmdLine, final Listener listener) {
+    scan(cmdLine, 0, cmdLine.length(), listener, false);
+  }
+
+
+  /**
+   * Scans a single chunk of the given command line, starting at the given index, and reports
+   * all tokens found to the given listener.
+   * <p>
+   * A chunk ends at the first whitespace character that is neither quoted nor inside a
+   * placeholder. At such a position no state of the scanner is carried over to the following
+   * characters, so the rest of the command line can be scanned independently of the chunk
+   * (see {@link IncrementalCmdlineValidator}).
+   * <p>
+   * The given start index must be such a position as well (or the start of the command line).
+   *
+   * @param cmdLine the command line to scan
+   * @param start the index to start scanning at
+   * @param end the end index (exclusive) of the command line
+   * @param listener the listener to report the found tokens to
+   * @return the index of the whitespace character ending the chunk or <code>end</code> if the
+   *          chunk extends to the end of the command line
+   * @throws ParseException if the chunk cannot be parsed in as a valid command line
+   */
+  static int scanChunk(final CharSequence cmdLine, final int start, final int end, final Listener listener) {
+    return scan(cmdLine, start, end, listener, true);
+  }
+
+
+  /**
+   * Scans the given range of the given command line.
+   *
+   * @param cmdLine the command line to scan
+   * @param start the index to start scanning at
+   * @param length the end index (exclusive) of the command line
+   * @param listener the listener to report the found tokens to
+   * @param stopAtChunkEnd whether to stop at the end of the first chunk (see {@link #scanChunk})
+   * @return the index scanning stopped at
+   * @throws ParseException if the given string cannot be parsed in as a valid command line
+   */
+  private static int scan(final CharSequence cmdLine, final int start, final int length,
+                          final Listener listener, final boolean stopAtChunkEnd) {
+
+    char quoteChar= NO_QUOTE;
+
+    // the start of the current run of literal characters (only used outside of placeholders)
+    int literalStart= start;
+
+    // the start of the current placeholder or NO_PLACEHOLDER if outside of a placeholder
+    int placeholderStart= NO_PLACEHOLDER;
+    // the end of the contiguous range of characters of the current placeholder
+    int placeholderEnd= NO_PLACEHOLDER;
+    // the characters of the current placeholder if it is not a contiguous range
+    StringBuilder scatteredPlaceholder= null;
+
+    for (int i= start; i < length; i++) {
+      final char c= cmdLine.charAt(i);
+      final boolean inPlaceholder= placeholderStart != NO_PLACEHOLDER;
+
+      switch (c) {
+        case '\\':
+          if (length < i + 2) {
+            throw new ParseException("Escape char at end of string", cmdLine);
+          }
+          flushLiteral(cmdLine, literalStart, i, inPlaceholder, listener);
+          listener.literal(cmdLine, i + 1, i + 2);
+          i++;
+          literalStart= i + 1;
+          break;
+        case '"':
+        case '\'':
+          if (quoteChar != NO_QUOTE && quoteChar != c) {
+            // the other quote char inside quotes is just a literal character
+            if (inPlaceholder) {
+              listener.literal(cmdLine, i, i + 1);
+            }
+          } else {
+            flushLiteral(cmdLine, literalStart, i, inPlaceholder, listener);
+            quoteChar= quoteChar == NO_QUOTE ? c : NO_QUOTE;
+            literalStart= i + 1;
+          }
+          break;
+        case ' ':
+        case '\t':
+        case '\n':
+        case '\r':
+          if (quoteChar != NO_QUOTE) {
+            // quoted whitespace is just a literal character
+            if (inPlaceholder) {
+              listener.literal(cmdLine, i, i + 1);
+            }
+          } else {
+            flushLiteral(cmdLine, literalStart, i, inPlaceholder, listener);
+            listener.endArgument();
+            if (stopAtChunkEnd && !inPlaceholder) {
+              return i;
+            }
+            literalStart= i + 1;
+          }
+          break;
+        case '$':
+          if (inPlaceholder) {
+            throw new ParseException("Invalid character " + c + " found in placeholder "
+              + placeholderSoFar(cmdLine, placeholderStart, placeholderEnd, scatteredPlaceholder), cmdLine);
+          } else if (length >= i + 2 && cmdLine.charAt(i + 1) == '{') {
+            flushLiteral(cmdLine, literalStart, i, false, listener);
+            placeholderStart= i;
+            placeholderEnd= i + 2;
+            i++;
+          } else {
+            // a $ not starting a "${" placeholder (including a single $ at the end of the
+            // command line) is used literally
+          }
+          break;
+        case '}':
+          if (inPlaceholder) {
+            if (scatteredPlaceholder == null && placeholderEnd == i) {
+              listener.placeholder(cmdLine, placeholderStart, i + 1);
+            } else {
+              scatteredPlaceholder= scattered(cmdLine, placeholderStart, placeholderEnd, scatteredPlaceholder).append(c);
+              listener.placeholder(scatteredPlaceholder, 0, scatteredPlaceholder.length());
+              scatteredPlaceholder= null;
+            }
+            placeholderStart= NO_PLACEHOLDER;
+            placeholderEnd= NO_PLACEHOLDER;
+            literalStart= i + 1;
+          }
+          break;
+        default:
+          if (inPlaceholder) {
+            if (scatteredPlaceholder == null && placeholderEnd == i) {
+              placeholderEnd++;
+            } else {
+              scatteredPlaceholder= scattered(cmdLine, placeholderStart, placeholderEnd, scatteredPlaceholder).append(c);
+            }
+          }
+      }
+    }
+
+    // if a placeholder wasn't closed, it means we could not parse the commandline correctly
+    if (placeholderStart != NO_PLACEHOLDER) {
+      throw new ParseException("Unclosed placeholder: "
+        + placeholderSoFar(cmdLine, placeholderStart, placeholderEnd, scatteredPlaceholder), cmdLine);
+    }
+
+    // an unclosed quote means we could not parse the commandline correctly
+    if (quoteChar != NO_QUOTE) {
+      throw new ParseException("Unclosed quote: " + quoteChar, cmdLine);
+    }
+
+    flushLiteral(cmdLine, literalStart, length, false, listener);
+    listener.endArgument();
+    return length;
+  }
+
+
+  /**
+   * Reports the current run of literal characters (if any) to the listener.
+   * <p>
+   * Inside a placeholder there is never a run of literal characters, since all characters
+   * there either belong to the placeholder or are reported individually.
+   */
+  private static void flushLiteral(final CharSequence cmdLine, final int start, final int end,
+                                   final boolean inPlaceholder, final Listener listener) {
+    if (!inPlaceholder && start < end) {
+      listener.literal(cmdLine, start, end);
+    }
+  }
+
+
+  /**
+   * Returns the buffer for collecting a placeholder that is not a contiguous range, creating it
+   * with the contiguous range read so far if necessary.
+   */
+  private static StringBuilder scattered(final CharSequence cmdLine, final int start, final int end,
+                                         final StringBuilder scatteredPlaceholder) {
+    if (scatteredPlaceholder != null) {
+      return scatteredPlaceholder;
+    }
+    return new StringBuilder(end - start + 16).append(cmdLine, start, end);
+  }
+
+
+  /**
+   * Returns the part of the current placeholder read so far (for error messages), abbreviated to
+   * {@link #MAX_PLACEHOLDER_LENGTH_IN_MESSAGE} characters.
+   */
+  private static String placeholderSoFar(final CharSequence cmdLine, final int start, final int end,
+                                         final StringBuilder scatteredPlaceholder) {
+    final CharSequence chars= scatteredPlaceholder != null ? scatteredPlaceholder : cmdLine;
+    final int from= scatteredPlaceholder != null ? 0 : start;
+    final int to= scatteredPlaceholder != null ? scatteredPlaceholder.length() : end;
+    if (to - from <= MAX_PLACEHOLDER_LENGTH_IN_MESSAGE) {
+      return chars.subSequence(from, to).toString();
+    }
+    return chars.subSequence(from, from + MAX_PLACEHOLDER_LENGTH_IN_MESSAGE) + "...";
+  }
+}
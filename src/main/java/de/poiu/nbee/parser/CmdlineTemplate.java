@@ -0,0 +1,356 @@
+/*
+ * Copyright 2019-2026 Marco Herrn.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.poiu.nbee.parser;
+
+import de.poiu.nbee.parser.CmdlineParser.ParseResult;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+
+/**
+ * A command line that has already been tokenized by {@link CmdlineParser#compile}, but whose
+ * placeholders are not yet replaced.
+ * <p>
+ * All quoting and escaping is already resolved in a CmdlineTemplate. Each argument of the
+ * command line is stored as a sequence of literal parts and placeholder slots, so that
+ * {@link #render rendering} an actual command line only needs to concatenate these parts in a
+ * single pass instead of scanning the original command line string again.
+ * <p>
+ * A CmdlineTemplate is immutable and can therefore be shared freely between threads and cached
+ * for as long as the command line string it was compiled from doesn't change.
+ *
+ * @author Marco Herrn
+ */
+public final class CmdlineTemplate {
+
+  private static final Logger LOGGER= Logger.getLogger(CmdlineTemplate.class.getName());
+
+  /**
+   * The arguments of this command line. Each argument consists of one or more parts.
+   * A part is either a literal string or a placeholder; which one is stored in the
+   * corresponding entry of {@link #placeholderFlags}.
+   */
+  private final String[][] args;
+
+  /** Whether the part with the same indexes in {@link #args} is a placeholder. */
+  private final boolean[][] placeholderFlags;
+
+  /** All placeholders referenced in this command line, in the order they were first encountered. */
+  private final List<String> placeholders;
+
+
+  private CmdlineTemplate(final String[][] args, final boolean[][] placeholderFlags, final List<String> placeholders) {
+    this.args= args;
+    this.placeholderFlags= placeholderFlags;
+    this.placeholders= placeholders;
+  }
+
+
+  /**
+   * Returns all placeholders referenced in this command line, in the order they were first
+   * encountered. Each placeholder is only contained once, regardless how often it is referenced.
+   *
+   * @return the placeholders referenced in this command line
+   */
+  public List<String> placeholders() {
+    return this.placeholders;
+  }
+
+
+  /**
+   * Returns whether this command line contains no argument at all (e.g. because it was compiled
+   * from a string only containing whitespace).
+   *
+   * @return whether this command line is empty
+   */
+  public boolean isEmpty() {
+    return this.args.length == 0;
+  }
+
+
+  /**
+   * Renders this command line into a String array suitable to be feeded to
+   * {@link ProcessBuilder} by replacing each placeholder with its value in the given
+   * replacement mappings.
+   * <p>
+   * Placeholders without a replacement mapping are included literally and returned as
+   * {@link ParseResult#unmappedPlaceholders() unmapped placeholders}.
+   * <p>
+   * Arguments that are empty after replacing their placeholders are omitted, exactly as if the
+   * replacement strings had been written into the command line string before parsing it.
+   *
+   * @param replacements the replacement strings for the placeholders (including the surrounding
+   *                      <code>${}</code>)
+   * @return the rendered command line together with any unmapped placeholders
+   */
+  public ParseResult render(final Map<String, String> replacements) {
+    return this.render(replacements::get);
+  }
+
+
+  /**
+   * Renders this command line into a String array suitable to be feeded to
+   * {@link ProcessBuilder} by replacing each placeholder with its value in the given
+   * placeholder values.
+   * <p>
+   * Only the values of the placeholders actually referenced in this command line are requested
+   * from the given placeholder values.
+   * <p>
+   * Apart from that, this method behaves exactly like {@link #render(java.util.Map)}.
+   *
+   * @param values the values of the placeholders
+   * @return the rendered command line together with any unmapped placeholders
+   */
+  public ParseResult render(final PlaceholderValues values) {
+    return this.render(values::get);
+  }
+
+
+  /**
+   * Renders this command line like {@link #render(PlaceholderValues)}, but with a placeholder
+   * that has multiple values.
+   * <p>
+   * Each argument referencing the given list placeholder is repeated once for each of the given
+   * list values, with the list placeholder replaced by that value. For an argument consisting
+   * only of the list placeholder this results in exactly one argument per value. An argument
+   * like <code>--file=${files}</code> results in <code>--file=a --file=b</code>. If there
+   * are no list values at all, such arguments are omitted.
+   *
+   * @param values the values of the other placeholders
+   * @param listPlaceholder the placeholder with multiple values (including the surrounding
+   *                         <code>${}</code>)
+   * @param listValues the values of the list placeholder
+   * @return the rendered command line together with any unmapped placeholders
+   */
+  public ParseResult render(final PlaceholderValues values, final String listPlaceholder, final List<String> listValues) {
+    final List<String> command= new ArrayList<>(this.args.length + listValues.size());
+    final Set<String> unmappedPlaceholders= new LinkedHashSet<>();
+
+    for (int i= 0; i < this.args.length; i++) {
+      final String[] parts= this.args[i];
+      final boolean[] flags= this.placeholderFlags[i];
+
+      if (!references(parts, flags, listPlaceholder)) {
+        addIfNotEmpty(command, concat(parts, flags, values::get, unmappedPlaceholders));
+        continue;
+      }
+
+      for (final String listValue : listValues) {
+        final Function<String, String> lookup= p -> p.equals(listPlaceholder) ? listValue : values.get(p);
+        addIfNotEmpty(command, concat(parts, flags, lookup, unmappedPlaceholders));
+      }
+    }
+
+    return new ParseResult(command.toArray(new String[command.size()]), List.copyOf(unmappedPlaceholders));
+  }
+
+
+  /**
+   * Renders this command line by replacing each placeholder with the value returned for it by
+   * the given lookup function.
+   *
+   * @param lookup returns the value of a placeholder or <code>null</code> if no value is defined for it
+   * @return the rendered command line together with any unmapped placeholders
+   */
+  private ParseResult render(final Function<String, String> lookup) {
+    final String[] command= new String[this.args.length];
+    int count= 0;
+    Set<String> unmappedPlaceholders= null;
+
+    for (int i= 0; i < this.args.length; i++) {
+      final String[] parts= this.args[i];
+      final boolean[] flags= this.placeholderFlags[i];
+
+      final String arg;
+      if (parts.length == 1 && !flags[0]) {
+        // the common case of a single literal part doesn't need any concatenation
+        arg= parts[0];
+      } else if (parts.length == 1) {
+        // a placeholder being the whole argument can be used as is, without copying its value
+        final String value= lookup.apply(parts[0]);
+        if (value != null) {
+          arg= value;
+        } else {
+          unmappedPlaceholders= addUnmapped(unmappedPlaceholders, parts[0]);
+          arg= parts[0];
+        }
+      } else {
+        final StringBuilder sb= new StringBuilder();
+        for (int j= 0; j < parts.length; j++) {
+          if (flags[j]) {
+            final String value= lookup.apply(parts[j]);
+            if (value != null) {
+              sb.append(value);
+            } else {
+              unmappedPlaceholders= addUnmapped(unmappedPlaceholders, parts[j]);
+              sb.append(parts[j]);
+            }
+          } else {
+            sb.append(parts[j]);
+          }
+        }
+        arg= sb.toString();
+      }
+
+      if (!arg.isEmpty()) {
+        command[count++]= arg;
+      }
+    }
+
+    return new ParseResult(
+      count == command.length ? command : Arrays.copyOf(command, count),
+      unmappedPlaceholders != null ? List.copyOf(unmappedPlaceholders) : List.of());
+  }
+
+
+  /**
+   * Returns whether the given argument references the given placeholder.
+   */
+  private static boolean references(final String[] parts, final boolean[] flags, final String placeholder) {
+    for (int j= 0; j < parts.length; j++) {
+      if (flags[j] && parts[j].equals(placeholder)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+
+  /**
+   * Concatenates the given parts of an argument, replacing each placeholder with the value
+   * returned for it by the given lookup function. Placeholders without a value are included
+   * literally and added to the given set of unmapped placeholders.
+   */
+  private static String concat(final String[] parts, final boolean[] flags,
+                               final Function<String, String> lookup, final Set<String> unmappedPlaceholders) {
+    final StringBuilder sb= new StringBuilder();
+    for (int j= 0; j < parts.length; j++) {
+      final String value= flags[j] ? lookup.apply(parts[j]) : parts[j];
+      if (value != null) {
+        sb.append(value);
+      } else {
+        if (unmappedPlaceholders.add(parts[j])) {
+          LOGGER.log(Level.WARNING, "No replacement mapping found for placeholder {0}. Including it literally in the command.", parts[j]);
+        }
+        sb.append(parts[j]);
+      }
+    }
+    return sb.toString();
+  }
+
+
+  private static void addIfNotEmpty(final List<String> command, final String arg) {
+    if (!arg.isEmpty()) {
+      command.add(arg);
+    }
+  }
+
+
+  /**
+   * Adds the given placeholder to the given set of unmapped placeholders, creating that set if
+   * it doesn't exist yet.
+   *
+   * @param unmappedPlaceholders the unmapped placeholders found so far or <code>null</code> if none
+   * @param placeholder the placeholder without a replacement mapping
+   * @return the unmapped placeholders including the given one
+   */
+  private static Set<String> addUnmapped(final Set<String> unmappedPlaceholders, final String placeholder) {
+    LOGGER.log(Level.WARNING, "No replacement mapping found for placeholder {0}. Including it literally in the command.", placeholder);
+    final Set<String> result= unmappedPlaceholders != null ? unmappedPlaceholders : new LinkedHashSet<>();
+    result.add(placeholder);
+    return result;
+  }
+
+
+  /**
+   * Collects the arguments and their parts while a command line is being compiled.
+   * <p>
+   * This is only used by {@link CmdlineParser#compile} (as the listener of the
+   * {@link CmdlineScanner}) and not thread-safe.
+   */
+  static final class Builder implements CmdlineScanner.Listener {
+    private final List<String[]> args= new ArrayList<>();
+    private final List<boolean[]> placeholderFlags= new ArrayList<>();
+    private final Set<String> placeholders= new LinkedHashSet<>();
+
+    private final List<String> currentParts= new ArrayList<>();
+    private final List<Boolean> currentFlags= new ArrayList<>();
+    private final StringBuilder currentLiteral= new StringBuilder();
+
+
+    @Override
+    public void literal(final CharSequence cmdLine, final int start, final int end) {
+      this.currentLiteral.append(cmdLine, start, end);
+    }
+
+
+    @Override
+    public void placeholder(final CharSequence cmdLine, final int start, final int end) {
+      final String placeholder= cmdLine.subSequence(start, end).toString();
+      this.flushLiteral();
+      this.currentParts.add(placeholder);
+      this.currentFlags.add(Boolean.TRUE);
+      this.placeholders.add(placeholder);
+    }
+
+
+    /**
+     * Finishes the current argument. Does nothing if the current argument has no parts at all
+     * (to handle multiple consecutive whitespace characters like a single one).
+     */
+    @Override
+    public void endArgument() {
+      this.flushLiteral();
+      if (this.currentParts.isEmpty()) {
+        return;
+      }
+
+      final boolean[] flags= new boolean[this.currentFlags.size()];
+      for (int i= 0; i < flags.length; i++) {
+        flags[i]= this.currentFlags.get(i);
+      }
+      this.args.add(this.currentParts.toArray(new String[this.currentParts.size()]));
+      this.placeholderFlags.add(flags);
+      this.currentParts.clear();
+      this.currentFlags.clear();
+    }
+
+
+    CmdlineTemplate build() {
+      this.endArgument();
+      return new CmdlineTemplate(
+        this.args.toArray(new String[this.args.size()][]),
+        this.placeholderFlags.toArray(new boolean[this.placeholderFlags.size()][]),
+        List.copyOf(this.placeholders));
+    }
+
+
+    private void flushLiteral() {
+      if (this.currentLiteral.length() > 0) {
+        this.currentParts.add(this.currentLiteral.toString());
+        this.currentFlags.add(Boolean.FALSE);
+        this.currentLiteral.setLength(0);
+      }
+    }
+  }
+}
@@ -0,0 +1,359 @@
+/*
+ * Copyright 2019-2026 Marco Herrn.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.poiu.nbee.parser;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+
+/**
+ * Validates a command line that is edited in small steps (like while typing it into a text
+ * field) without scanning the whole command line again after each step.
+ * <p>
+ * The result of {@link #validate} is always the same as if the trimmed command line was
+ * {@link CmdlineParser#compile compiled}: either the message of the {@link ParseException} or
+ * the placeholders the command line references.
+ * <p>
+ * To achieve this the command line is split into <i>chunks</i>. A chunk ends at a whitespace
+ * character that is neither quoted nor inside a placeholder. Since no state of the scanner is
+ * carried over such a whitespace character, each chunk can be validated independently of the
+ * others. After an edit only the chunks starting at the edit are scanned again, up to the first
+ * chunk that starts at the same (shifted) position as before and lies completely behind the
+ * edit. All chunks before and after that are reused from the previous validation.
+ * <p>
+ * The edits must be reported via {@link #inserted} and {@link #removed} (usually from a
+ * {@link javax.swing.event.DocumentListener}) before validating the command line again. If the
+ * command line changes in any other way, {@link #reset} must be called.
+ * <p>
+ * The command line is given as a {@link CharSequence}, so it can be validated directly from a
+ * {@link javax.swing.text.Segment} without copying it into a String.
+ * <p>
+ * This class is not thread-safe.
+ *
+ * @author Marco Herrn
+ */
+public final class IncrementalCmdlineValidator {
+
+  /**
+   * The result of validating a command line.
+   *
+   * @param error the message of the ParseException if the command line is invalid or
+   *               <code>null</code> if it is valid
+   * @param placeholders the placeholders referenced in the command line, in the order they were
+   *                      first encountered (always empty for an invalid command line)
+   */
+  public static record Result(String error, List<String> placeholders) {
+    /**
+     * Returns whether the command line is valid.
+     * @return whether the command line is valid
+     */
+    public boolean isValid() {
+      return this.error == null;
+    }
+  }
+
+
+  /**
+   * A chunk of the command line.
+   *
+   * @param start the index of the first character of this chunk
+   * @param end the index of the whitespace character ending this chunk or the end of the
+   *             (trimmed) command line if this is the last chunk
+   * @param placeholders the placeholders referenced in this chunk
+   * @param error the message of the ParseException for this chunk or <code>null</code> if this
+   *               chunk is valid. An invalid chunk is always the last chunk.
+   */
+  private static record Chunk(int start, int end, String[] placeholders, String error) {
+    Chunk shift(final int delta) {
+      return delta == 0 ? this : new Chunk(this.start + delta, this.end + delta, this.placeholders, this.error);
+    }
+  }
+
+
+  /** The chunks of the last validated command line or <code>null</code> if there is none. */
+  private List<Chunk> chunks;
+
+  /** The length of the last validated command line (including leading and trailing whitespace). */
+  private int length;
+
+  /** The start of the trimmed range of the last validated command line. */
+  private int trimmedStart;
+
+  /** The end (exclusive) of the trimmed range of the last validated command line. */
+  private int trimmedEnd;
+
+  /** Whether any edits were reported since the last validation. */
+  private boolean dirty;
+
+  /** The start of the range affected by the edits since the last validation (same in the old and the new command line). */
+  private int dirtyStart;
+
+  /** The end (exclusive) of the range affected by the edits since the last validation in the new command line. */
+  private int dirtyEnd;
+
+  /** The number of characters the command line grew (or shrank, if negative) since the last validation. */
+  private int delta;
+
+
+  /**
+   * Reports that characters were inserted into the command line.
+   *
+   * @param offset the offset the characters were inserted at
+   * @param count the number of inserted characters
+   */
+  public void inserted(final int offset, final int count) {
+    this.edited(offset, offset, count);
+  }
+
+
+  /**
+   * Reports that characters were removed from the command line.
+   *
+   * @param offset the offset of the first removed character
+   * @param count the number of removed characters
+   */
+  public void removed(final int offset, final int count) {
+    this.edited(offset, offset + count, -count);
+  }
+
+
+  /**
+   * Forgets everything about the last validated command line, so that the next validation
+   * scans the whole command line.
+   */
+  public void reset() {
+    this.chunks= null;
+    this.dirty= false;
+  }
+
+
+  /**
+   * Extends the range affected by the edits since the last validation by the given edit.
+   *
+   * @param offset the offset of the edit
+   * @param end the end (exclusive) of the range replaced by the edit (before the edit)
+   * @param count the number of characters the command line grew (or shrank) by the edit
+   */
+  private void edited(final int offset, final int end, final int count) {
+    if (this.chunks == null) {
+      return;
+    }
+    if (!this.dirty) {
+      this.dirty= true;
+      this.dirtyStart= offset;
+      this.dirtyEnd= offset;
+      this.delta= 0;
+    }
+    this.dirtyStart= Math.min(this.dirtyStart, offset);
+    this.dirtyEnd= Math.max(this.dirtyEnd, end) + count;
+    this.delta+= count;
+  }
+
+
+  /**
+   * Validates the given command line.
+   * <p>
+   * The command line must be the last validated one with all edits reported since then applied.
+   *
+   * @param cmdLine the command line to validate
+   * @return the result of the validation
+   */
+  public Result validate(final CharSequence cmdLine) {
+    final int newLength= cmdLine.length();
+    int start= 0;
+    while (start < newLength && cmdLine.charAt(start) <= ' ') {
+      start++;
+    }
+    int end= newLength;
+    while (end > start && cmdLine.charAt(end - 1) <= ' ') {
+      end--;
+    }
+
+    final List<Chunk> newChunks;
+    if (this.chunks == null
+      || newLength != this.length + (this.dirty ? this.delta : 0)
+      || start != this.trimmedStart
+      || (!this.dirty && end != this.trimmedEnd)) {
+      // nothing known (or leading whitespace changed, so all positions shifted), scan everything
+      newChunks= new ArrayList<>();
+      scanChunks(cmdLine, start, end, newChunks);
+    } else if (!this.dirty) {
+      newChunks= this.chunks;
+    } else {
+      newChunks= this.rescan(cmdLine, start, end);
+    }
+
+    this.chunks= newChunks;
+    this.length= newLength;
+    this.trimmedStart= start;
+    this.trimmedEnd= end;
+    this.dirty= false;
+
+    return toResult(newChunks);
+  }
+
+
+  /**
+   * Scans the chunks affected by the edits since the last validation again and reuses all
+   * other chunks.
+   */
+  private List<Chunk> rescan(final CharSequence cmdLine, final int start, final int end) {
+    // keep all chunks before the edit, but never the last one, since that may depend on the
+    // end of the command line (e.g. an escape char directly before it)
+    int kept= 0;
+    while (kept < this.chunks.size() - 1 && this.chunks.get(kept).end() < this.dirtyStart) {
+      kept++;
+    }
+    final List<Chunk> result= new ArrayList<>(this.chunks.size() + 4);
+    result.addAll(this.chunks.subList(0, kept));
+
+    // the part behind the edit can only be reused if the end of the command line is unchanged
+    final boolean tailReusable= end - this.delta == this.trimmedEnd;
+
+    int pos= kept > 0 ? this.chunks.get(kept - 1).end() : start;
+    final ChunkListener listener= new ChunkListener();
+    while ((pos= skipWhitespace(cmdLine, pos, end)) < end) {
+      if (tailReusable && pos >= this.dirtyEnd) {
+        final int reusable= this.indexOfChunk(pos - this.delta, kept);
+        if (reusable >= 0) {
+          for (int i= reusable; i < this.chunks.size(); i++) {
+            result.add(this.chunks.get(i).shift(this.delta));
+          }
+          return result;
+        }
+      }
+
+      final Chunk chunk= scanChunk(cmdLine, pos, end, listener);
+      result.add(chunk);
+      if (chunk.error() != null) {
+        break;
+      }
+      pos= chunk.end();
+    }
+
+    return result;
+  }
+
+
+  /**
+   * Returns the index of the chunk of the last validated command line that starts at the given
+   * position.
+   *
+   * @param start the start position to search for
+   * @param fromIndex the index of the first chunk to consider
+   * @return the index of the chunk or -1 if no chunk starts at the given position
+   */
+  private int indexOfChunk(final int start, final int fromIndex) {
+    int low= fromIndex;
+    int high= this.chunks.size() - 1;
+    while (low <= high) {
+      final int mid= (low + high) >>> 1;
+      final int midStart= this.chunks.get(mid).start();
+      if (midStart < start) {
+        low= mid + 1;
+      } else if (midStart > start) {
+        high= mid - 1;
+      } else {
+        return mid;
+      }
+    }
+    return -1;
+  }
+
+
+  /** Scans all chunks in the given range and adds them to the given list. */
+  private static void scanChunks(final CharSequence cmdLine, final int start, final int end, final List<Chunk> chunks) {
+    final ChunkListener listener= new ChunkListener();
+    int pos= start;
+    while ((pos= skipWhitespace(cmdLine, pos, end)) < end) {
+      final Chunk chunk= scanChunk(cmdLine, pos, end, listener);
+      chunks.add(chunk);
+      if (chunk.error() != null) {
+        break;
+      }
+      pos= chunk.end();
+    }
+  }
+
+
+  /** Scans the single chunk starting at the given position. */
+  private static Chunk scanChunk(final CharSequence cmdLine, final int start, final int end, final ChunkListener listener) {
+    listener.placeholders.clear();
+    try {
+      final int chunkEnd= CmdlineScanner.scanChunk(cmdLine, start, end, listener);
+      return new Chunk(start, chunkEnd, listener.placeholders.toArray(new String[listener.placeholders.size()]), null);
+    } catch (ParseException ex) {
+      // the end of an invalid chunk is unknown, so it extends to the end of the command line
+      return new Chunk(start, end, new String[0], ex.getMessage());
+    }
+  }
+
+
+  /**
+   * Returns the index of the first character at or after the given position that is not
+   * unquoted whitespace (which can only occur between chunks).
+   */
+  private static int skipWhitespace(final CharSequence cmdLine, final int pos, final int end) {
+    int i= pos;
+    while (i < end) {
+      final char c= cmdLine.charAt(i);
+      if (c != ' ' && c != '\t' && c != '\n' && c != '\r') {
+        break;
+      }
+      i++;
+    }
+    return i;
+  }
+
+
+  private static Result toResult(final List<Chunk> chunks) {
+    if (!chunks.isEmpty()) {
+      final String error= chunks.get(chunks.size() - 1).error();
+      if (error != null) {
+        return new Result(error, List.of());
+      }
+    }
+
+    final Set<String> placeholders= new LinkedHashSet<>();
+    for (final Chunk chunk : chunks) {
+      for (final String placeholder : chunk.placeholders()) {
+        placeholders.add(placeholder);
+      }
+    }
+    return new Result(null, List.copyOf(placeholders));
+  }
+
+
+  /** Collects the placeholders found in a single chunk. */
+  private static final class ChunkListener implements CmdlineScanner.Listener {
+    private final List<String> placeholders= new ArrayList<>();
+
+    @Override
+    public void literal(final CharSequence cmdLine, final int start, final int end) {
+    }
+
+    @Override
+    public void placeholder(final CharSequence cmdLine, final int start, final int end) {
+      this.placeholders.add(cmdLine.subSequence(start, end).toString());
+    }
+
+    @Override
+    public void endArgument() {
+    }
+  }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2019-2026 Marco Herrn.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.poiu.nbee.parser;
+
+import java.util.Map;
+
+
+/**
+ * An immutable lookup table from placeholders to their replacement strings that can be queried
+ * with a range of a CharSequence instead of a String.
+ * <p>
+ * A {@link java.util.HashMap} would require the placeholder to be copied into a new String for
+ * each lookup. This table computes the hash code directly over the given range (the same way
+ * {@link String#hashCode()} does) and compares the candidates char by char, so a lookup never
+ * allocates anything.
+ *
+ * @author Marco Herrn
+ */
+final class PlaceholderTable {
+
+  /** The placeholders, stored at the slot of their hash code (open addressing, linear probing). */
+  private final String[] keys;
+
+  /** The replacement strings, stored at the same slot as their placeholder in {@link #keys}. */
+  private final String[] values;
+
+  /** The bit mask to apply to a hash code to get its slot. */
+  private final int mask;
+
+
+  /**
+   * Creates a new PlaceholderTable with the given replacement mappings.
+   *
+   * @param replacements the placeholders (including the surrounding <code>${}</code>) mapped to
+   *                      their replacement strings
+   */
+  PlaceholderTable(final Map<String, String> replacements) {
+    // keep the table at most half full to keep the probe sequences short
+    final int capacity= Integer.highestOneBit(Math.max(4, replacements.size() * 2) - 1) << 1;
+    this.keys= new String[capacity];
+    this.values= new String[capacity];
+    this.mask= capacity - 1;
+
+    for (final Map.Entry<String, String> e : replacements.entrySet()) {
+      if (e.getKey() == null || e.getValue() == null) {
+        continue;
+      }
+      int slot= spread(e.getKey().hashCode()) & this.mask;
+      while (this.keys[slot] != null) {
+        slot= (slot + 1) & this.mask;
+      }
+      this.keys[slot]= e.getKey();
+      this.values[slot]= e.getValue();
+    }
+  }
+
+
+  /**
+   * Returns the replacement string for the placeholder in the given range.
+   *
+   * @param seq the CharSequence containing the placeholder
+   * @param start the start index of the placeholder
+   * @param end the end index (exclusive) of the placeholder
+   * @return the replacement string or <code>null</code> if no replacement mapping is defined
+   */
+  String get(final CharSequence seq, final int start, final int end) {
+    int hash= 0;
+    for (int i= start; i < end; i++) {
+      hash= 31 * hash + seq.charAt(i);
+    }
+
+    int slot= spread(hash) & this.mask;
+    String key;
+    while ((key= this.keys[slot]) != null) {
+      if (regionEquals(key, seq, start, end)) {
+        return this.values[slot];
+      }
+      slot= (slot + 1) & this.mask;
+    }
+    return null;
+  }
+
+
+  private static boolean regionEquals(final String key, final CharSequence seq, final int start, final int end) {
+    if (key.length() != end - start) {
+      return false;
+    }
+    for (int i= 0; i < key.length(); i++) {
+      if (key.charAt(i) != seq.charAt(start + i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+
+  /** Mixes the higher bits of a hash code into the lower bits used for selecting the slot. */
+  private static int spread(final int hash) {
+    return hash ^ (hash >>> 16);
+  }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2019-2026 Marco Herrn.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.poiu.nbee.parser;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+
+/**
+ * The values of the placeholders for a single execution of a command line.
+ * <p>
+ * The values are not given directly, but via a {@link Supplier} for each placeholder. A value
+ * is only computed when a {@link CmdlineTemplate} that is {@link CmdlineTemplate#render(PlaceholderValues)
+ * rendered} with these values actually references its placeholder, and then at most once,
+ * regardless how often the placeholder is referenced.
+ * <p>
+ * This allows defining all available placeholders, even if some of their values are expensive
+ * to compute (like the currently selected text), without paying for those that the configured
+ * command line doesn't use.
+ * <p>
+ * Instances of this class are meant to be used for a single execution only and are not
+ * thread-safe.
+ *
+ * @author Marco Herrn
+ */
+public final class PlaceholderValues {
+
+  /** The suppliers of the placeholders whose values have not been computed yet. */
+  private final Map<String, Supplier<String>> suppliers= new HashMap<>();
+
+  /** The already computed values. */
+  private final Map<String, String> values= new HashMap<>();
+
+
+  /**
+   * Defines the supplier of the value of a given placeholder.
+   * <p>
+   * The placeholder <i>must</i> contain the surrounding <code>${}</code>.
+   * <p>
+   * The supplier is only called when the value is actually needed and then at most once. It must
+   * not return <code>null</code>.
+   * <p>
+   * For convenience this method returns this PlaceholderValues instance to be able to chain the
+   * method calls.
+   *
+   * @param placeholder the placeholder to define the value for
+   * @param supplier the supplier of the value
+   * @return this PlaceholderValues
+   */
+  public PlaceholderValues supply(final String placeholder, final Supplier<String> supplier) {
+    Objects.requireNonNull(placeholder);
+    Objects.requireNonNull(supplier);
+    this.values.remove(placeholder);
+    this.suppliers.put(placeholder, supplier);
+    return this;
+  }
+
+
+  /**
+   * Defines the (already known) value of a given placeholder.
+   * <p>
+   * The placeholder <i>must</i> contain the surrounding <code>${}</code>.
+   * <p>
+   * For convenience this method returns this PlaceholderValues instance to be able to chain the
+   * method calls.
+   *
+   * @param placeholder the placeholder to define the value for
+   * @param value the value
+   * @return this PlaceholderValues
+   */
+  public PlaceholderValues put(final String placeholder, final String value) {
+    Objects.requireNonNull(placeholder);
+    Objects.requireNonNull(value);
+    this.suppliers.remove(placeholder);
+    this.values.put(placeholder, value);
+    return this;
+  }
+
+
+  /**
+   * Returns the value of the given placeholder, computing it if that didn't happen yet.
+   *
+   * @param placeholder the placeholder whose value to return
+   * @return the value of the placeholder or <code>null</code> if no value is defined for it
+   */
+  public String get(final String placeholder) {
+    final String value= this.values.get(placeholder);
+    if (value != null) {
+      return value;
+    }
+
+    final Supplier<String> supplier= this.suppliers.remove(placeholder);
+    if (supplier == null) {
+      return null;
+    }
+
+    final String computed= Objects.requireNonNull(supplier.get(), () -> "Supplier for " + placeholder + " returned null");
+    this.values.put(placeholder, computed);
+    return computed;
+  }
+
+
+  /**
+   * Returns whether a value is defined for the given placeholder. This never computes the value.
+   *
+   * @param placeholder the placeholder to check
+   * @return whether a value is defined for the given placeholder
+   */
+  public boolean isDefined(final String placeholder) {
+    return this.values.containsKey(placeholder) || this.suppliers.containsKey(placeholder);
+  }
+}
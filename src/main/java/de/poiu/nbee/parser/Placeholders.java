@@ -32,11 +32,13 @@ public final class Placeholders {
   public static final String FILE_NAME                = "${fileName}";
   public static final String FILE_BASENAME            = "${fileBasename}";
   public static final String FILE_EXT                 = "${fileExt}";
+  public static final String FILES                    = "${files}";
   public static final String LINE0                    = "${line0}";
   public static final String LINE                     = "${line}";
   public static final String COLUMN0                  = "${column0}";
   public static final String COLUMN                   = "${column}";
   public static final String SELECTED_TEXT            = "${selectedText}";
+  public static final String SELECTED_TEXT_FILE       = "${selectedTextFile}";
   public static final String SELECTION_START0         = "${selectionStart0}";
   public static final String SELECTION_START          = "${selectionStart}";
   public static final String SELECTION_END0           = "${selectionEnd0}";
@@ -53,6 +55,7 @@ public final class Placeholders {
     FILE_NAME,
     FILE_BASENAME,
     FILE_EXT,
+    FILES,
   };
 
   /**
@@ -65,6 +68,7 @@ public final class Placeholders {
     COLUMN0,
     COLUMN,
     SELECTED_TEXT,
+    SELECTED_TEXT_FILE,
     SELECTION_START0,
     SELECTION_START,
     SELECTION_END0,
@@ -76,4 +80,26 @@ public final class Placeholders {
 
   private Placeholders() {
   }
+
+
+  /**
+   * Returns whether the given placeholder is one of the placeholders supported by this plugin
+   * (regardless of command type).
+   *
+   * @param placeholder the placeholder to check (including the surrounding <code>${}</code>)
+   * @return whether the given placeholder is supported by this plugin
+   */
+  public static boolean isKnown(final String placeholder) {
+    for (final String known : ALWAYS_AVAILABLE) {
+      if (known.equals(placeholder)) {
+        return true;
+      }
+    }
+    for (final String known : EDITOR_ONLY) {
+      if (known.equals(placeholder)) {
+        return true;
+      }
+    }
+    return false;
+  }
 }
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2019-2026 Marco Herrn.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.poiu.nbee.reload;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+
+/**
+ * A fingerprint of the content of a file to quickly find out whether a modified file actually
+ * has a different content.
+ * <p>
+ * The fingerprint consists of the size of the file and a CRC32C checksum of its content. The
+ * checksum is not cryptographically secure, but very fast (it is implemented with special
+ * CPU instructions on most platforms) and more than sufficient for detecting whether a file
+ * was really modified or only rewritten with the same content.
+ * <p>
+ * The content is read via memory-mapping the file, so it is not copied into the Java heap,
+ * regardless how large it is.
+ *
+ * @param size the size of the file
+ * @param checksum the CRC32C checksum of the content of the file
+ * @author Marco Herrn
+ */
+public record ContentFingerprint(long size, long checksum) {
+
+  /** The size of the regions of a file that are mapped at once. */
+  private static final long MAPPING_SIZE= 64L * 1024 * 1024;
+
+
+  /**
+   * Computes the fingerprint of the given file.
+   *
+   * @param file the file to compute the fingerprint of
+   * @return the fingerprint of the given file
+   * @throws IOException if the file cannot be read
+   */
+  public static ContentFingerprint of(final Path file) throws IOException {
+    final CRC32C crc= new CRC32C();
+    try (final FileChannel channel= FileChannel.open(file, StandardOpenOption.READ)) {
+      final long size= channel.size();
+      for (long position= 0; position < size; position+= MAPPING_SIZE) {
+        final MappedByteBuffer buffer= channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(MAPPING_SIZE, size - position));
+        crc.update(buffer);
+      }
+      return new ContentFingerprint(size, crc.getValue());
+    }
+  }
+}
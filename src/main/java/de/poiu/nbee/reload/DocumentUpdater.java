@@ -0,0 +1,233 @@
+/*
+ * Copyright 2019-2026 Marco Herrn.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.poiu.nbee.reload;
+
+import de.poiu.nbee.text.DocumentPatcher;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.swing.JEditorPane;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.StyledDocument;
+import org.openide.cookies.EditorCookie;
+import org.openide.filesystems.FileObject;
+import org.openide.loaders.DataObject;
+import org.openide.loaders.DataObjectNotFoundException;
+import org.openide.text.NbDocument;
+
+
+/**
+ * Applies the modifications of a file on disk to its open editor incrementally (see
+ * {@link DocumentPatcher}) instead of letting NetBeans reload the whole document.
+ * <p>
+ * This keeps the undo history, the caret and folds of the editor. All modifications are
+ * applied as a single undoable edit.
+ *
+ * @author Marco Herrn
+ */
+final class DocumentUpdater {
+
+  private static final Logger LOGGER= Logger.getLogger(DocumentUpdater.class.getName());
+
+
+  private DocumentUpdater() {
+  }
+
+
+  /**
+   * Returns whether the document of the given file is loaded and has no unsaved modifications.
+   * This is only a quick check (callable from any thread) to avoid reading the file in vain.
+   * {@link #prepare} and {@link #update} check it again.
+   *
+   * @param fileObject the modified file
+   * @return whether the document of the given file may be updated
+   */
+  static boolean canUpdate(final FileObject fileObject) {
+    final EditorCookie editorCookie= findEditorCookie(fileObject);
+    return editorCookie != null && editorCookie.getDocument() != null;
+  }
+
+
+  /**
+   * Computes the modifications necessary to change the content of the open editor of the given
+   * file to the given content.
+   * <p>
+   * This must <i>not</i> be called on the EDT, since computing the modifications of a large
+   * document may take a while. The document is only read-locked in the meantime. The returned
+   * update must be passed to {@link #update} (on the EDT) afterwards.
+   *
+   * @param fileObject the modified file
+   * @param content the new content of the file
+   * @return the computed update or <code>null</code> if the document of the given file may not
+   *          be updated
+   */
+  static PreparedUpdate prepare(final FileObject fileObject, final String content) {
+    final EditorCookie editorCookie= findEditorCookie(fileObject);
+    if (editorCookie == null) {
+      return null;
+    }
+    final StyledDocument document= editorCookie.getDocument();
+    if (document == null) {
+      return null;
+    }
+
+    // documents always use \n as line separator
+    final String newText= content.replace("\r\n", "\n").replace('\r', '\n');
+
+    // registered before reading the document, so that every modification after the snapshot
+    // invalidates the update
+    final PreparedUpdate update= new PreparedUpdate(fileObject, document);
+    document.addDocumentListener(update);
+    update.patch= DocumentPatcher.compute(document, newText);
+    return update;
+  }
+
+
+  /**
+   * Applies the given update to the open editor of its file.
+   * <p>
+   * This is only done if the file is still opened in an editor, the document has no unsaved
+   * modifications and it was not modified since the update was computed. Otherwise NetBeans'
+   * usual handling of external modifications should apply.
+   * <p>
+   * This must be called on the EDT. Only the precomputed modifications are applied while
+   * holding the write lock of the document.
+   *
+   * @param update the update computed via {@link #prepare}
+   * @return whether the document was updated
+   */
+  static boolean update(final PreparedUpdate update) {
+    final FileObject fileObject= update.fileObject;
+    final StyledDocument document= update.document;
+    try {
+      final DataObject dataObject= findDataObject(fileObject);
+      final EditorCookie editorCookie= findEditorCookie(fileObject);
+      if (editorCookie == null || editorCookie.getDocument() != document) {
+        return false;
+      }
+      final JEditorPane[] panes= editorCookie.getOpenedPanes();
+      if (panes == null || panes.length == 0) {
+        return false;
+      }
+
+      final int[] carets= new int[panes.length];
+      for (int i= 0; i < panes.length; i++) {
+        carets[i]= panes[i].getCaretPosition();
+      }
+
+      final boolean[] applied= new boolean[1];
+      try {
+        NbDocument.runAtomicAsUser(document, () -> {
+          if (update.documentModified) {
+            return;
+          }
+          try {
+            DocumentPatcher.apply(document, update.patch);
+            applied[0]= true;
+          } catch (BadLocationException ex) {
+            throw new IllegalStateException("Document modified while holding its lock", ex);
+          }
+        });
+      } catch (BadLocationException ex) {
+        // a guarded section would be modified
+        LOGGER.log(Level.INFO, "Cannot update " + fileObject.getPath() + " incrementally", ex);
+        return false;
+      }
+
+      if (!applied[0]) {
+        LOGGER.log(Level.FINE, "Not updating {0}, since its document was modified in the meantime", fileObject.getPath());
+        return false;
+      }
+
+      for (int i= 0; i < panes.length; i++) {
+        panes[i].setCaretPosition(Math.min(update.patch.mapOffset(carets[i]), document.getLength()));
+      }
+
+      // the document is now equal to the file again
+      dataObject.setModified(false);
+
+      LOGGER.log(Level.FINE, "Updated {0} with {1} edits", new Object[]{fileObject.getPath(), update.patch.edits().size()});
+      return true;
+    } finally {
+      document.removeDocumentListener(update);
+    }
+  }
+
+
+  /**
+   * Returns the EditorCookie of the given file if it has no unsaved modifications.
+   *
+   * @param fileObject the file
+   * @return the EditorCookie of the given file or <code>null</code> if it has none or it has unsaved modifications
+   */
+  private static EditorCookie findEditorCookie(final FileObject fileObject) {
+    final DataObject dataObject= findDataObject(fileObject);
+    if (dataObject == null) {
+      return null;
+    }
+    if (dataObject.isModified()) {
+      LOGGER.log(Level.FINE, "Not updating {0}, since it has unsaved modifications", fileObject.getPath());
+      return null;
+    }
+    return dataObject.getLookup().lookup(EditorCookie.class);
+  }
+
+
+  private static DataObject findDataObject(final FileObject fileObject) {
+    try {
+      return DataObject.find(fileObject);
+    } catch (DataObjectNotFoundException ex) {
+      return null;
+    }
+  }
+
+
+  /**
+   * An update of a document computed via {@link #prepare}.
+   * <p>
+   * It listens to the document to detect modifications after the update was computed.
+   */
+  static final class PreparedUpdate implements DocumentListener {
+    private final FileObject fileObject;
+    private final StyledDocument document;
+    private DocumentPatcher.Patch patch;
+    private volatile boolean documentModified;
+
+    private PreparedUpdate(final FileObject fileObject, final StyledDocument document) {
+      this.fileObject= fileObject;
+      this.document= document;
+    }
+
+
+    @Override
+    public void insertUpdate(final DocumentEvent e) {
+      this.documentModified= true;
+    }
+
+
+    @Override
+    public void removeUpdate(final DocumentEvent e) {
+      this.documentModified= true;
+    }
+
+
+    @Override
+    public void changedUpdate(final DocumentEvent e) {
+      // attribute changes don't change the text
+    }
+  }
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright 2019-2026 Marco Herrn.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.poiu.nbee.reload;
+
+import de.poiu.nbee.config.Prefs;
+import de.poiu.nbee.launch.LaunchedProcess;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.swing.SwingUtilities;
+import org.openide.filesystems.FileObject;
+import org.openide.filesystems.FileUtil;
+import org.openide.util.RequestProcessor;
+import org.openide.util.lookup.ServiceProvider;
+
+import static de.poiu.nbee.config.Prefs.APPLY_CHANGES_INCREMENTALLY;
+import static de.poiu.nbee.config.Prefs.DEFAULT_RELOAD_COALESCE_WINDOW;
+import static de.poiu.nbee.config.Prefs.RELOAD_COALESCE_WINDOW;
+
+
+/**
+ * Makes NetBeans notice modifications of files by external commands immediately instead of
+ * only on its next filesystem refresh.
+ * <p>
+ * Each file is {@link FileWatcher watched} as long as the command started for it is running.
+ * When the file is modified, only its FileObject is refreshed (never the whole filesystem).
+ * When the command exits, the file is refreshed once more, since it is likely that it was
+ * saved just before.
+ * <p>
+ * If configured, the modifications are applied to an open editor of the file incrementally
+ * (see {@link DocumentUpdater}).
+ * <p>
+ * Many tools rewrite files without actually changing their content. To avoid reloading such
+ * files, the {@link ContentFingerprint fingerprint} of each watched file is compared to the one
+ * before the modification. If it is equal, the file is only refreshed as an expected change,
+ * which doesn't reload its document.
+ *
+ * @author Marco Herrn
+ */
+@ServiceProvider(service = ExternalChangeRefresher.class)
+public class ExternalChangeRefresher {
+
+  private static final Logger LOGGER= Logger.getLogger(ExternalChangeRefresher.class.getName());
+
+  /** The RequestProcessor for refreshing a file after its command exited. */
+  private static final RequestProcessor REFRESHER= new RequestProcessor(ExternalChangeRefresher.class.getName(), 1);
+
+  private final FileWatcher watcher= new FileWatcher(Duration.ofMillis(DEFAULT_RELOAD_COALESCE_WINDOW),
+                                                     this::refresh);
+
+  /** The fingerprints of the current contents of the watched files. */
+  private final Map<Path, ContentFingerprint> fingerprints= new ConcurrentHashMap<>();
+
+
+  /**
+   * Watches the file of the given process for modifications until the process exits.
+   *
+   * @param process the process whose file to watch
+   * @param fingerprint the fingerprint of the file before the process was started or
+   *                     <code>null</code> if unknown
+   */
+  public void watch(final LaunchedProcess process, final ContentFingerprint fingerprint) {
+    final Prefs prefs= Prefs.getDefault();
+    this.watcher.setCoalesceWindow(Duration.ofMillis(prefs.loadInt(RELOAD_COALESCE_WINDOW, DEFAULT_RELOAD_COALESCE_WINDOW)));
+
+    final Path file= process.file();
+    try {
+      this.watcher.watch(file);
+    } catch (IOException ex) {
+      LOGGER.log(Level.WARNING, "Cannot watch " + file + " for modifications", ex);
+      return;
+    }
+    if (fingerprint != null) {
+      this.fingerprints.put(file, fingerprint);
+    }
+
+    process.onExit().thenRun(() -> {
+      this.watcher.unwatch(file);
+      REFRESHER.post(() -> {
+        this.refresh(file);
+        if (!this.watcher.isWatched(file)) {
+          this.fingerprints.remove(file);
+        }
+      });
+    });
+  }
+
+
+  /**
+   * Refreshes the FileObject of the given file (if NetBeans knows about it at all).
+   * <p>
+   * If configured, the modifications are applied to the open editor of the file incrementally
+   * (see {@link DocumentUpdater}) instead of letting NetBeans reload the whole document.
+   *
+   * @param file the file to refresh
+   */
+  private void refresh(final Path file) {
+    final FileObject fileObject= FileUtil.toFileObject(FileUtil.normalizeFile(file.toFile()));
+    if (fileObject == null) {
+      return;
+    }
+
+    if (this.isUnchanged(file)) {
+      LOGGER.log(Level.FINE, "Content of {0} is unchanged. Not reloading it.", file);
+      fileObject.refresh(true);
+      return;
+    }
+
+    final Prefs prefs= Prefs.getDefault();
+    if (prefs.loadBoolean(APPLY_CHANGES_INCREMENTALLY, false) && updateOpenDocument(fileObject)) {
+      // the document is equal to the file already. Refreshing it as an expected change
+      // prevents NetBeans from reloading it again.
+      LOGGER.log(Level.FINE, "Refreshing {0} after updating its document", file);
+      fileObject.refresh(true);
+      return;
+    }
+
+    LOGGER.log(Level.FINE, "Refreshing {0}", file);
+    fileObject.refresh();
+  }
+
+
+  /**
+   * Returns whether the content of the given file is still equal to the last known content.
+   * Also records the current content as the last known content.
+   *
+   * @param file the file to check
+   * @return whether the content of the given file is unchanged
+   */
+  private boolean isUnchanged(final Path file) {
+    final ContentFingerprint known= this.fingerprints.get(file);
+    if (known == null) {
+      return false;
+    }
+
+    final ContentFingerprint current;
+    try {
+      current= ContentFingerprint.of(file);
+    } catch (IOException ex) {
+      LOGGER.log(Level.FINE, "Cannot compute fingerprint of " + file, ex);
+      this.fingerprints.remove(file);
+      return false;
+    }
+
+    // only replaced if still watched
+    this.fingerprints.replace(file, current);
+    return known.equals(current);
+  }
+
+
+  /**
+   * Applies the current content of the given file to its open editor.
+   *
+   * @param fileObject the modified file
+   * @return whether the document of the editor was updated
+   */
+  private static boolean updateOpenDocument(final FileObject fileObject) {
+    if (!DocumentUpdater.canUpdate(fileObject)) {
+      return false;
+    }
+
+    final String content;
+    try {
+      content= fileObject.asText();
+    } catch (IOException ex) {
+      LOGGER.log(Level.WARNING, "Cannot read " + fileObject.getPath(), ex);
+      return false;
+    }
+
+    // the modifications are computed on this thread. Only applying them blocks the EDT.
+    final DocumentUpdater.PreparedUpdate update= DocumentUpdater.prepare(fileObject, content);
+    if (update == null) {
+      return false;
+    }
+
+    final boolean[] updated= new boolean[1];
+    try {
+      SwingUtilities.invokeAndWait(() -> updated[0]= DocumentUpdater.update(update));
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      return false;
+    } catch (InvocationTargetException ex) {
+      LOGGER.log(Level.WARNING, "Cannot update the document of " + fileObject.getPath(), ex.getCause());
+      return false;
+    }
+    return updated[0];
+  }
+}
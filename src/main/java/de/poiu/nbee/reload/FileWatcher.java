@@ -0,0 +1,288 @@
+/*
+ * Copyright 2019-2026 Marco Herrn.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.poiu.nbee.reload;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.openide.util.RequestProcessor;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+
+/**
+ * Watches single files for modifications and reports them to a listener.
+ * <p>
+ * Only the directories of the watched files are registered with a {@link WatchService} (and
+ * only non-recursively). A directory is unregistered again as soon as the last watched file in
+ * it is {@link #unwatch unwatched}. Events for other files in these directories are ignored.
+ * <p>
+ * Since many editors write a file in several steps (or write a temporary file and rename it
+ * afterwards), a single save usually leads to a burst of events. Therefore the events of each
+ * file are coalesced: The listener is only called when no further event for that file occurred
+ * within the coalesce window.
+ * <p>
+ * The WatchService and the thread waiting for its events only exist as long as at least one
+ * file is watched.
+ * <p>
+ * This class is thread-safe. The listener is called on a background thread, but never
+ * concurrently.
+ *
+ * @author Marco Herrn
+ */
+public final class FileWatcher implements Closeable {
+
+  private static final Logger LOGGER= Logger.getLogger(FileWatcher.class.getName());
+
+  /** The RequestProcessor waiting for the events of the WatchService. */
+  private final RequestProcessor eventLoop= new RequestProcessor(FileWatcher.class.getName() + ".events", 1, true);
+
+  /** The RequestProcessor calling the listener. */
+  private final RequestProcessor notifier= new RequestProcessor(FileWatcher.class.getName() + ".notifier", 1);
+
+  /** The listener to call with the modified file. */
+  private final Consumer<Path> listener;
+
+  /** The time to wait for further events of a file before calling the listener. */
+  private volatile int coalesceWindowMillis;
+
+  /** The WatchService all directories are registered with or <code>null</code> if no file is watched. */
+  private WatchService watchService;
+
+  /** The watched directories. */
+  private final Map<Path, WatchedDirectory> directories= new HashMap<>();
+
+
+  /** A directory registered with the WatchService. */
+  private static final class WatchedDirectory {
+    final WatchKey key;
+    /** The watched files in this directory by their file name. */
+    final Map<Path, WatchedFile> files= new HashMap<>();
+
+    WatchedDirectory(final WatchKey key) {
+      this.key= key;
+    }
+  }
+
+
+  /** A watched file. */
+  private static final class WatchedFile {
+    /** The (coalescing) notification of the listener. */
+    final RequestProcessor.Task notification;
+    /** How often this file was {@link #watch watched} without being unwatched again. */
+    int refCount;
+
+    WatchedFile(final RequestProcessor.Task notification) {
+      this.notification= notification;
+    }
+  }
+
+
+  /**
+   * Creates a new FileWatcher.
+   *
+   * @param coalesceWindow the time to wait for further events of a file before calling the listener
+   * @param listener the listener to call with the (absolute, normalized) path of a modified file
+   */
+  public FileWatcher(final Duration coalesceWindow, final Consumer<Path> listener) {
+    this.listener= listener;
+    this.setCoalesceWindow(coalesceWindow);
+  }
+
+
+  /**
+   * Sets the time to wait for further events of a file before calling the listener.
+   *
+   * @param coalesceWindow the time to wait for further events of a file
+   */
+  public void setCoalesceWindow(final Duration coalesceWindow) {
+    this.coalesceWindowMillis= (int) Math.min(Integer.MAX_VALUE, Math.max(0, coalesceWindow.toMillis()));
+  }
+
+
+  /**
+   * Starts watching the given file.
+   * <p>
+   * The same file may be watched multiple times. It is then only unwatched after
+   * {@link #unwatch} was called as often.
+   *
+   * @param file the file to watch
+   * @throws IOException if the directory of the file cannot be watched
+   */
+  public synchronized void watch(final Path file) throws IOException {
+    final Path normalized= file.toAbsolutePath().normalize();
+    final Path dir= normalized.getParent();
+
+    WatchedDirectory watchedDir= this.directories.get(dir);
+    if (watchedDir == null) {
+      if (this.watchService == null) {
+        final WatchService newWatchService= dir.getFileSystem().newWatchService();
+        this.watchService= newWatchService;
+        this.eventLoop.post(() -> this.processEvents(newWatchService));
+      }
+      try {
+        watchedDir= new WatchedDirectory(dir.register(this.watchService, ENTRY_CREATE, ENTRY_MODIFY));
+      } catch (IOException | RuntimeException ex) {
+        this.closeWatchServiceIfUnused();
+        throw ex;
+      }
+      this.directories.put(dir, watchedDir);
+      LOGGER.log(Level.FINE, "Watching directory {0}", dir);
+    }
+
+    watchedDir.files.computeIfAbsent(normalized.getFileName(),
+      n -> new WatchedFile(this.notifier.create(() -> this.listener.accept(normalized))))
+      .refCount++;
+  }
+
+
+  /**
+   * Stops watching the given file.
+   * <p>
+   * An already pending notification of the listener about this file is not cancelled.
+   *
+   * @param file the file to stop watching
+   */
+  public synchronized void unwatch(final Path file) {
+    final Path normalized= file.toAbsolutePath().normalize();
+    final Path dir= normalized.getParent();
+
+    final WatchedDirectory watchedDir= this.directories.get(dir);
+    if (watchedDir == null) {
+      return;
+    }
+    final WatchedFile watchedFile= watchedDir.files.get(normalized.getFileName());
+    if (watchedFile == null || --watchedFile.refCount > 0) {
+      return;
+    }
+
+    watchedDir.files.remove(normalized.getFileName());
+    if (watchedDir.files.isEmpty()) {
+      watchedDir.key.cancel();
+      this.directories.remove(dir);
+      LOGGER.log(Level.FINE, "Stopped watching directory {0}", dir);
+      this.closeWatchServiceIfUnused();
+    }
+  }
+
+
+  /**
+   * Returns whether the given file is currently watched.
+   *
+   * @param file the file to check
+   * @return whether the given file is currently watched
+   */
+  public synchronized boolean isWatched(final Path file) {
+    final Path normalized= file.toAbsolutePath().normalize();
+    final WatchedDirectory watchedDir= this.directories.get(normalized.getParent());
+    return watchedDir != null && watchedDir.files.containsKey(normalized.getFileName());
+  }
+
+
+  /**
+   * Stops watching all files.
+   */
+  @Override
+  public synchronized void close() {
+    for (final WatchedDirectory watchedDir : this.directories.values()) {
+      watchedDir.key.cancel();
+    }
+    this.directories.clear();
+    this.closeWatchServiceIfUnused();
+  }
+
+
+  /**
+   * Waits for the events of the given WatchService until it is closed.
+   *
+   * @param watchService the WatchService to process
+   */
+  private void processEvents(final WatchService watchService) {
+    while (true) {
+      final WatchKey key;
+      try {
+        key= watchService.take();
+      } catch (ClosedWatchServiceException | InterruptedException ex) {
+        return;
+      }
+
+      final Path dir= (Path) key.watchable();
+      for (final WatchEvent<?> event : key.pollEvents()) {
+        this.handleEvent(dir, event);
+      }
+      key.reset();
+    }
+  }
+
+
+  /**
+   * Schedules the notification of the listener for the file the given event refers to (if
+   * that file is watched).
+   *
+   * @param dir the directory the event occurred in
+   * @param event the event
+   */
+  private synchronized void handleEvent(final Path dir, final WatchEvent<?> event) {
+    final WatchedDirectory watchedDir= this.directories.get(dir);
+    if (watchedDir == null) {
+      return;
+    }
+
+    if (event.kind() == OVERFLOW) {
+      // some events were lost, so we don't know which files were modified
+      for (final WatchedFile watchedFile : watchedDir.files.values()) {
+        watchedFile.notification.schedule(this.coalesceWindowMillis);
+      }
+      return;
+    }
+
+    final WatchedFile watchedFile= watchedDir.files.get((Path) event.context());
+    if (watchedFile != null) {
+      // rescheduling an already scheduled notification delays it, so that a burst of events
+      // only leads to a single notification
+      watchedFile.notification.schedule(this.coalesceWindowMillis);
+    }
+  }
+
+
+  /**
+   * Closes the WatchService if no directory is watched anymore. This also ends the thread
+   * waiting for its events.
+   */
+  private void closeWatchServiceIfUnused() {
+    if (this.watchService == null || !this.directories.isEmpty()) {
+      return;
+    }
+    try {
+      this.watchService.close();
+    } catch (IOException ex) {
+      LOGGER.log(Level.WARNING, "Error closing WatchService", ex);
+    }
+    this.watchService= null;
+  }
+}
@@ -0,0 +1,223 @@
+/*
+ * Copyright 2019-2026 Marco Herrn.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.poiu.nbee.text;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.text.Document;
+import javax.swing.text.JTextComponent;
+import javax.swing.text.StyledDocument;
+import org.openide.text.NbDocument;
+import org.openide.util.WeakListeners;
+
+
+/**
+ * Caches the caret location (line and column) of a single editor.
+ * Only editors with a {@link StyledDocument} are supported.
+ * <p>
+ * Computing the line and column of the caret requires the read lock of the document and walking
+ * its line elements. This tracker computes them only when they are actually requested (via
+ * {@link #locate}, outside of the EDT) and reuses them as long as neither the caret nor the
+ * document changed. On the EDT {@link #cached} returns them without ever computing them or
+ * locking the document. Moving the caret or modifying the document only marks the cached
+ * snapshot as stale, so the tracker adds no noticeable cost to typing or navigating.
+ * <p>
+ * A tracker is {@link #install installed} once per editor and stays installed for the lifetime
+ * of that editor. The document only references it weakly.
+ *
+ * @author Marco Herrn
+ */
+public final class CaretTracker implements DocumentListener, PropertyChangeListener {
+
+  /** The client property of the editor holding its tracker. */
+  private static final String CLIENT_PROPERTY= CaretTracker.class.getName();
+
+
+  /**
+   * The location of the caret at a certain point in time.
+   *
+   * @param document the document the location refers to
+   * @param version the modification count of the document the location was computed for
+   * @param dot the position of the caret
+   * @param mark the other end of the selection (same as <code>dot</code> if nothing is selected)
+   * @param line0 the line of the caret (0-based)
+   * @param column0 the column of the caret (0-based)
+   */
+  public static record CaretSnapshot(Document document, int version, int dot, int mark, int line0, int column0) {
+  }
+
+
+  private final JTextComponent editor;
+
+  /** The number of modifications of the current document. Incremented on any thread. */
+  private final AtomicInteger version= new AtomicInteger();
+
+  /** The document currently listened to. Only accessed on the EDT. */
+  private Document document;
+
+  /** The weak listener registered on {@link #document}. Only accessed on the EDT. */
+  private DocumentListener weakDocumentListener;
+
+  /** The last computed snapshot or <code>null</code> if it is known to be stale. */
+  private volatile CaretSnapshot snapshot;
+
+
+  private CaretTracker(final JTextComponent editor) {
+    this.editor= editor;
+  }
+
+
+  /**
+   * Returns the tracker of the given editor, installing it if necessary.
+   * <p>
+   * This must be called on the EDT.
+   *
+   * @param editor the editor to track
+   * @return the tracker of the given editor
+   */
+  public static CaretTracker install(final JTextComponent editor) {
+    final Object existing= editor.getClientProperty(CLIENT_PROPERTY);
+    if (existing instanceof CaretTracker) {
+      return (CaretTracker) existing;
+    }
+
+    final CaretTracker tracker= new CaretTracker(editor);
+    editor.putClientProperty(CLIENT_PROPERTY, tracker);
+    editor.addPropertyChangeListener("document", tracker);
+    tracker.listenTo(editor.getDocument());
+    return tracker;
+  }
+
+
+  /**
+   * Returns the cached location of the caret if it is still valid for the given document and
+   * caret.
+   * <p>
+   * This never blocks and never accesses the document, so it can be called on the EDT.
+   *
+   * @param document the current document of the editor
+   * @param dot the current position of the caret
+   * @param mark the current other end of the selection
+   * @return the cached location or <code>null</code> if it is stale
+   */
+  public CaretSnapshot cached(final Document document, final int dot, final int mark) {
+    final CaretSnapshot current= this.snapshot;
+    if (current == null
+      || current.document() != document
+      || current.version() != this.version.get()
+      || current.dot() != dot
+      || current.mark() != mark) {
+      return null;
+    }
+    return current;
+  }
+
+
+  /**
+   * Returns the location of the given caret position, computing it if the cached one is stale.
+   * <p>
+   * Computing the location requires the read lock of the document. Therefore this should not be
+   * called on the EDT (see {@link #cached} instead). It may be called on any other thread.
+   *
+   * @param document the document of the editor
+   * @param dot the position of the caret
+   * @param mark the other end of the selection
+   * @return the location of the caret
+   */
+  public CaretSnapshot locate(final StyledDocument document, final int dot, final int mark) {
+    final CaretSnapshot current= this.cached(document, dot, mark);
+    if (current != null) {
+      return current;
+    }
+
+    final CaretSnapshot computed= this.compute(document, dot, mark);
+    this.snapshot= computed;
+    return computed;
+  }
+
+
+  @Override
+  public void insertUpdate(final DocumentEvent e) {
+    this.modified();
+  }
+
+
+  @Override
+  public void removeUpdate(final DocumentEvent e) {
+    this.modified();
+  }
+
+
+  @Override
+  public void changedUpdate(final DocumentEvent e) {
+    // attribute changes don't influence the caret location
+  }
+
+
+  @Override
+  public void propertyChange(final PropertyChangeEvent evt) {
+    this.listenTo(this.editor.getDocument());
+    this.modified();
+  }
+
+
+  /**
+   * Marks the current snapshot as stale. This may be called on any thread (and under the write
+   * lock of the document).
+   * <p>
+   * Moving the caret needs no such notification, since {@link #cached} compares the caret
+   * position with the cached one anyway.
+   */
+  private void modified() {
+    this.version.incrementAndGet();
+    this.snapshot= null;
+  }
+
+
+  /**
+   * Computes the location of the given caret position.
+   */
+  private CaretSnapshot compute(final StyledDocument doc, final int dot, final int mark) {
+    // the version must be read before computing the location, so that a modification during
+    // the computation invalidates the result
+    final int currentVersion= this.version.get();
+    final int[] location= new int[2];
+    doc.render(() -> {
+      location[0]= NbDocument.findLineNumber(doc, dot);
+      location[1]= NbDocument.findLineColumn(doc, dot);
+    });
+    return new CaretSnapshot(doc, currentVersion, dot, mark, location[0], location[1]);
+  }
+
+
+  private void listenTo(final Document doc) {
+    if (doc == this.document) {
+      return;
+    }
+    if (this.document != null) {
+      this.document.removeDocumentListener(this.weakDocumentListener);
+    }
+    this.document= doc;
+    this.weakDocumentListener= null;
+    if (doc != null) {
+      this.weakDocumentListener= WeakListeners.document(this, doc);
+      doc.addDocumentListener(this.weakDocumentListener);
+    }
+  }
+}
@@ -0,0 +1,217 @@
+/*
+ * Copyright 2019-2026 Marco Herrn.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.poiu.nbee.text;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.text.Segment;
+
+
+/**
+ * Changes the content of a {@link Document} to a new text with as few modifications as
+ * possible.
+ * <p>
+ * Instead of replacing the whole content, only the regions that actually differ (as found by a
+ * {@link LineDiff}, narrowed down to the differing characters) are removed and inserted. This
+ * keeps everything attached to the unchanged parts of the document (positions, the caret,
+ * folds, annotations, etc.) and makes the cost of the modifications (undo information,
+ * re-lexing, re-parsing) proportional to the size of the changes instead of the size of the
+ * document.
+ *
+ * @author Marco Herrn
+ */
+public final class DocumentPatcher {
+
+  /**
+   * A single modification of the document.
+   *
+   * @param offset the offset of the modification in the original document
+   * @param removeLength the number of removed chars
+   * @param insertText the inserted text
+   */
+  public static record Edit(int offset, int removeLength, String insertText) {
+  }
+
+
+  /**
+   * The modifications to apply to a document.
+   */
+  public static final class Patch {
+    private final List<Edit> edits;
+
+    private Patch(final List<Edit> edits) {
+      this.edits= Collections.unmodifiableList(edits);
+    }
+
+
+    /**
+     * Returns the modifications, ordered by their offset in the original document.
+     *
+     * @return the modifications
+     */
+    public List<Edit> edits() {
+      return this.edits;
+    }
+
+
+    /**
+     * Maps an offset in the original document to the corresponding offset in the modified
+     * document.
+     * <p>
+     * An offset inside a removed region is mapped to the same relative position inside the
+     * text inserted instead (or to its end if the inserted text is shorter).
+     *
+     * @param offset the offset in the original document
+     * @return the corresponding offset in the modified document
+     */
+    public int mapOffset(final int offset) {
+      int delta= 0;
+      for (final Edit edit : this.edits) {
+        if (offset < edit.offset()) {
+          break;
+        }
+        if (offset >= edit.offset() + edit.removeLength()) {
+          delta+= edit.insertText().length() - edit.removeLength();
+        } else {
+          return edit.offset() + delta + Math.min(offset - edit.offset(), edit.insertText().length());
+        }
+      }
+      return offset + delta;
+    }
+  }
+
+
+  private DocumentPatcher() {
+  }
+
+
+  /**
+   * Changes the content of the given document to the given text.
+   * <p>
+   * The caller must hold the write lock of the document (e.g. via
+   * {@link org.openide.text.NbDocument#runAtomicAsUser}), so that all modifications are one
+   * atomic (and undoable) edit and the document isn't modified concurrently.
+   *
+   * @param document the document to modify
+   * @param newText the new content of the document
+   * @return the applied modifications
+   * @throws BadLocationException if the document was modified concurrently
+   */
+  public static Patch apply(final Document document, final CharSequence newText) throws BadLocationException {
+    final Segment oldText= new Segment();
+    document.getText(0, document.getLength(), oldText);
+
+    // all edits must be computed before modifying the document, since the segment may refer
+    // to the internal buffer of the document
+    final Patch patch= new Patch(computeEdits(oldText, newText));
+    apply(document, patch);
+    return patch;
+  }
+
+
+  /**
+   * Computes the modifications necessary to change the content of the given document to the
+   * given text without modifying the document.
+   * <p>
+   * The document is only read-locked (via {@link Document#render}) while computing the
+   * modifications, so this can (and should) be called outside of the EDT. The returned patch
+   * is only valid as long as the document is not modified. Detecting this is up to the caller.
+   *
+   * @param document the document to compute the modifications for
+   * @param newText the new content of the document
+   * @return the modifications to apply via {@link #apply(Document, Patch)}
+   */
+  public static Patch compute(final Document document, final CharSequence newText) {
+    final Patch[] patch= new Patch[1];
+    document.render(() -> {
+      final Segment oldText= new Segment();
+      try {
+        document.getText(0, document.getLength(), oldText);
+      } catch (BadLocationException ex) {
+        throw new IllegalStateException("Document modified while holding its read lock", ex);
+      }
+      patch[0]= new Patch(computeEdits(oldText, newText));
+    });
+    return patch[0];
+  }
+
+
+  /**
+   * Applies the given (previously computed) modifications to the given document.
+   * <p>
+   * The caller must hold the write lock of the document (e.g. via
+   * {@link org.openide.text.NbDocument#runAtomicAsUser}) and must make sure that the document
+   * was not modified since the patch was computed.
+   *
+   * @param document the document to modify
+   * @param patch the modifications computed via {@link #compute}
+   * @throws BadLocationException if the document does not match the patch
+   */
+  public static void apply(final Document document, final Patch patch) throws BadLocationException {
+    final List<Edit> edits= patch.edits();
+
+    // apply the edits from the end, so that the offsets of the remaining edits stay valid
+    for (int i= edits.size() - 1; i >= 0; i--) {
+      final Edit edit= edits.get(i);
+      if (edit.removeLength() > 0) {
+        document.remove(edit.offset(), edit.removeLength());
+      }
+      if (!edit.insertText().isEmpty()) {
+        document.insertString(edit.offset(), edit.insertText(), null);
+      }
+    }
+  }
+
+
+  /**
+   * Computes the modifications necessary to change the old text into the new text.
+   *
+   * @param oldText the old text
+   * @param newText the new text
+   * @return the modifications, ordered by their offset in the old text
+   */
+  private static List<Edit> computeEdits(final CharSequence oldText, final CharSequence newText) {
+    final LineDiff diff= LineDiff.compute(oldText, newText);
+    final List<Edit> edits= new ArrayList<>(diff.hunks().size());
+
+    for (final LineDiff.Hunk hunk : diff.hunks()) {
+      int oldFrom= diff.oldOffset(hunk.oldStart());
+      int oldTo= diff.oldOffset(hunk.oldEnd());
+      int newFrom= diff.newOffset(hunk.newStart());
+      int newTo= diff.newOffset(hunk.newEnd());
+
+      // narrow the hunk down to the chars that actually differ
+      while (oldFrom < oldTo && newFrom < newTo && oldText.charAt(oldFrom) == newText.charAt(newFrom)) {
+        oldFrom++;
+        newFrom++;
+      }
+      while (oldTo > oldFrom && newTo > newFrom && oldText.charAt(oldTo - 1) == newText.charAt(newTo - 1)) {
+        oldTo--;
+        newTo--;
+      }
+
+      if (oldFrom == oldTo && newFrom == newTo) {
+        continue;
+      }
+      edits.add(new Edit(oldFrom, oldTo - oldFrom, newText.subSequence(newFrom, newTo).toString()));
+    }
+
+    return edits;
+  }
+}
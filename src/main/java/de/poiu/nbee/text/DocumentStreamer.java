@@ -0,0 +1,183 @@
+/*
+ * Copyright 2019-2026 Marco Herrn.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.poiu.nbee.text;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.util.Objects;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.text.Segment;
+
+
+/**
+ * Writes (a part of) the content of a {@link Document} into a {@link WritableByteChannel}
+ * without ever copying the whole content into a single String.
+ * <p>
+ * The content is read in chunks of a fixed size via {@link Document#getText(int, int, Segment)}
+ * (which usually gives direct access to the document's internal buffer instead of copying it),
+ * encoded into a reusable byte buffer and written to the channel. Therefore the memory needed
+ * is bounded by the chunk size, regardless how large the written content is.
+ * <p>
+ * Each chunk is read under the document's read lock (via {@link Document#render}), but the lock
+ * is released before the chunk is written to the channel. So a slow channel (like the stdin pipe
+ * of a process) never blocks modifications of the document for longer than reading a single
+ * chunk takes. If the document is modified while it is written, the written content may
+ * therefore consist of chunks of different states of the document.
+ * <p>
+ * Instances of this class are not thread-safe.
+ *
+ * @author Marco Herrn
+ */
+public final class DocumentStreamer {
+
+  /** The default number of chars read from the document at once. */
+  public static final int DEFAULT_CHUNK_SIZE= 64 * 1024;
+
+  private final Document document;
+  private final CharsetEncoder encoder;
+  private final int chunkSize;
+  private final ByteBuffer byteBuffer;
+  private final Segment segment= new Segment();
+
+
+  /**
+   * Creates a new DocumentStreamer for the given document using the {@link #DEFAULT_CHUNK_SIZE
+   * default chunk size}.
+   *
+   * @param document the document to write
+   * @param charset the charset to encode the content of the document with
+   */
+  public DocumentStreamer(final Document document, final Charset charset) {
+    this(document, charset, DEFAULT_CHUNK_SIZE);
+  }
+
+
+  /**
+   * Creates a new DocumentStreamer for the given document.
+   *
+   * @param document the document to write
+   * @param charset the charset to encode the content of the document with
+   * @param chunkSize the number of chars to read from the document at once (at least 2 to be
+   *                   able to always read a complete surrogate pair)
+   */
+  public DocumentStreamer(final Document document, final Charset charset, final int chunkSize) {
+    if (chunkSize < 2) {
+      throw new IllegalArgumentException("chunkSize must be at least 2, but is " + chunkSize);
+    }
+    this.document= Objects.requireNonNull(document);
+    this.encoder= charset.newEncoder()
+      .onMalformedInput(CodingErrorAction.REPLACE)
+      .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    this.chunkSize= chunkSize;
+    this.byteBuffer= ByteBuffer.allocate((int) Math.ceil(chunkSize * (double) this.encoder.maxBytesPerChar()));
+    this.segment.setPartialReturn(true);
+  }
+
+
+  /**
+   * Writes the given range of the document into the given channel.
+   * <p>
+   * The channel is not closed by this method.
+   *
+   * @param offset the offset of the first char to write
+   * @param length the number of chars to write
+   * @param channel the channel to write to
+   * @return the number of bytes written
+   * @throws BadLocationException if the given range is not (or no longer) valid in the document
+   * @throws IOException if writing to the channel failed
+   */
+  public long writeTo(final int offset, final int length, final WritableByteChannel channel) throws BadLocationException, IOException {
+    this.encoder.reset();
+    long written= 0;
+    int position= offset;
+    final int end= offset + length;
+
+    while (position < end) {
+      final int chunkLength= this.readChunk(position, Math.min(this.chunkSize, end - position), end);
+      position+= chunkLength;
+      written+= this.flush(channel);
+    }
+
+    return written;
+  }
+
+
+  /**
+   * Reads a chunk of the document (under the read lock of the document) and encodes it into
+   * {@link #byteBuffer}.
+   *
+   * @param offset the offset of the first char of the chunk
+   * @param maxLength the maximum number of chars to read
+   * @param end the end offset (exclusive) of the whole range being written
+   * @return the number of chars actually read
+   * @throws BadLocationException if the given range is not (or no longer) valid in the document
+   */
+  private int readChunk(final int offset, final int maxLength, final int end) throws BadLocationException {
+    final int[] read= new int[1];
+    final BadLocationException[] error= new BadLocationException[1];
+
+    this.document.render(() -> {
+      try {
+        this.document.getText(offset, maxLength, this.segment);
+        int length= this.segment.count;
+        // never split a surrogate pair, since the second half would not be available anymore
+        // when encoding the next chunk (after releasing the read lock)
+        if (length > 1 && offset + length < end && Character.isHighSurrogate(this.segment.array[this.segment.offset + length - 1])) {
+          length--;
+        }
+        this.encode(CharBuffer.wrap(this.segment.array, this.segment.offset, length), offset + length >= end);
+        read[0]= length;
+      } catch (BadLocationException ex) {
+        error[0]= ex;
+      }
+    });
+
+    if (error[0] != null) {
+      throw error[0];
+    }
+    return read[0];
+  }
+
+
+  private void encode(final CharBuffer chars, final boolean endOfInput) {
+    this.byteBuffer.clear();
+    CoderResult result= this.encoder.encode(chars, this.byteBuffer, endOfInput);
+    if (endOfInput && !result.isError()) {
+      result= this.encoder.flush(this.byteBuffer);
+    }
+    if (result.isError() || result.isOverflow()) {
+      // can't happen as the byte buffer is large enough and errors are replaced
+      throw new IllegalStateException("Could not encode document content: " + result);
+    }
+    this.byteBuffer.flip();
+  }
+
+
+  private int flush(final WritableByteChannel channel) throws IOException {
+    final int bytes= this.byteBuffer.remaining();
+    while (this.byteBuffer.hasRemaining()) {
+      channel.write(this.byteBuffer);
+    }
+    return bytes;
+  }
+}
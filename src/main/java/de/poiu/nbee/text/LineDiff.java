@@ -0,0 +1,310 @@
+/*
+ * Copyright 2019-2026 Marco Herrn.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.poiu.nbee.text;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+
+/**
+ * A line-based diff between two texts, computed with Myers' algorithm.
+ * <p>
+ * Lines are compared including their line terminator (<code>\n</code>), so applying the
+ * {@link #hunks() hunks} to the old text exactly reproduces the new text.
+ * <p>
+ * Lines that are equal at the start and the end of both texts are skipped before running the
+ * actual diff algorithm. Therefore the usual case of a few modified lines in a large text only
+ * costs a linear scan over the texts plus a diff of the modified region. If the texts differ too
+ * much (more than {@link #MAX_EDIT_DISTANCE} inserted and deleted lines after skipping the equal
+ * start and end), the whole remaining region is reported as a single hunk instead.
+ * <p>
+ * The texts are not copied. They must not be modified as long as this LineDiff is used.
+ *
+ * @author Marco Herrn
+ */
+public final class LineDiff {
+
+  /**
+   * The maximum number of inserted and deleted lines to compute a minimal diff for. The memory
+   * needed by the diff algorithm grows quadratically with this number.
+   */
+  public static final int MAX_EDIT_DISTANCE= 2048;
+
+
+  /**
+   * A region of lines that differ between the old and the new text.
+   *
+   * @param oldStart the index of the first line of this hunk in the old text
+   * @param oldEnd the index (exclusive) of the last line of this hunk in the old text
+   * @param newStart the index of the first line of this hunk in the new text
+   * @param newEnd the index (exclusive) of the last line of this hunk in the new text
+   */
+  public static record Hunk(int oldStart, int oldEnd, int newStart, int newEnd) {
+  }
+
+
+  private final Lines oldLines;
+  private final Lines newLines;
+  private final List<Hunk> hunks;
+
+
+  private LineDiff(final Lines oldLines, final Lines newLines) {
+    this.oldLines= oldLines;
+    this.newLines= newLines;
+    this.hunks= Collections.unmodifiableList(this.computeHunks());
+  }
+
+
+  /**
+   * Computes the diff between the given texts.
+   *
+   * @param oldText the old text
+   * @param newText the new text
+   * @return the diff between the given texts
+   */
+  public static LineDiff compute(final CharSequence oldText, final CharSequence newText) {
+    return new LineDiff(new Lines(oldText), new Lines(newText));
+  }
+
+
+  /**
+   * Returns the regions of lines that differ between the old and the new text, ordered by their
+   * position.
+   *
+   * @return the differing regions (empty if both texts are equal)
+   */
+  public List<Hunk> hunks() {
+    return this.hunks;
+  }
+
+
+  /**
+   * Returns the offset of the given line in the old text.
+   *
+   * @param line the index of the line (may be the number of lines to get the length of the text)
+   * @return the offset of the given line in the old text
+   */
+  public int oldOffset(final int line) {
+    return this.oldLines.starts[line];
+  }
+
+
+  /**
+   * Returns the offset of the given line in the new text.
+   *
+   * @param line the index of the line (may be the number of lines to get the length of the text)
+   * @return the offset of the given line in the new text
+   */
+  public int newOffset(final int line) {
+    return this.newLines.starts[line];
+  }
+
+
+  private List<Hunk> computeHunks() {
+    final Lines a= this.oldLines;
+    final Lines b= this.newLines;
+
+    // skip the equal lines at the start and the end
+    int start= 0;
+    while (start < a.count && start < b.count && equal(a, start, b, start)) {
+      start++;
+    }
+    int aEnd= a.count;
+    int bEnd= b.count;
+    while (aEnd > start && bEnd > start && equal(a, aEnd - 1, b, bEnd - 1)) {
+      aEnd--;
+      bEnd--;
+    }
+
+    if (start == aEnd && start == bEnd) {
+      return List.of();
+    }
+    if (start == aEnd || start == bEnd) {
+      // pure insertion or deletion
+      return List.of(new Hunk(start, aEnd, start, bEnd));
+    }
+
+    final List<int[]> snakes= myers(a, start, aEnd, b, start, bEnd);
+    if (snakes == null) {
+      return List.of(new Hunk(start, aEnd, start, bEnd));
+    }
+
+    // the hunks are the gaps between the snakes of equal lines
+    final List<Hunk> result= new ArrayList<>();
+    int x= start;
+    int y= start;
+    for (final int[] snake : snakes) {
+      if (snake[0] > x || snake[1] > y) {
+        result.add(new Hunk(x, snake[0], y, snake[1]));
+      }
+      x= snake[0] + snake[2];
+      y= snake[1] + snake[2];
+    }
+    if (x < aEnd || y < bEnd) {
+      result.add(new Hunk(x, aEnd, y, bEnd));
+    }
+    return result;
+  }
+
+
+  /**
+   * Finds the shortest edit script between the given ranges of lines.
+   *
+   * @return the runs of equal lines as <code>{oldLine, newLine, length}</code> in ascending order
+   *          or <code>null</code> if the edit distance exceeds {@link #MAX_EDIT_DISTANCE}
+   */
+  private static List<int[]> myers(final Lines a, final int aStart, final int aEnd,
+                                   final Lines b, final int bStart, final int bEnd) {
+    final int n= aEnd - aStart;
+    final int m= bEnd - bStart;
+    final int max= Math.min(n + m, MAX_EDIT_DISTANCE);
+    final int offset= max + 1;
+    final int[] v= new int[2 * max + 3];
+
+    // the values of v for k in [-d, d] at the start of each step d, needed for backtracking
+    final List<int[]> trace= new ArrayList<>();
+
+    for (int d= 0; d <= max; d++) {
+      trace.add(Arrays.copyOfRange(v, offset - d, offset + d + 1));
+
+      for (int k= -d; k <= d; k+= 2) {
+        int x;
+        if (k == -d || (k != d && v[offset + k - 1] < v[offset + k + 1])) {
+          x= v[offset + k + 1];
+        } else {
+          x= v[offset + k - 1] + 1;
+        }
+        int y= x - k;
+        while (x < n && y < m && equal(a, aStart + x, b, bStart + y)) {
+          x++;
+          y++;
+        }
+        v[offset + k]= x;
+
+        if (x >= n && y >= m) {
+          return backtrack(trace, a, aStart, b, bStart, n, m);
+        }
+      }
+    }
+
+    return null;
+  }
+
+
+  /**
+   * Walks back from the end of both ranges through the recorded steps of {@link #myers} and
+   * collects the runs of equal lines.
+   */
+  private static List<int[]> backtrack(final List<int[]> trace,
+                                       final Lines a, final int aStart,
+                                       final Lines b, final int bStart,
+                                       final int n, final int m) {
+    final List<int[]> snakes= new ArrayList<>();
+    int x= n;
+    int y= m;
+
+    for (int d= trace.size() - 1; d > 0; d--) {
+      final int[] v= trace.get(d);  // holds k in [-d, d] at index k + d
+      final int k= x - y;
+      final int prevK;
+      if (k == -d || (k != d && v[k - 1 + d] < v[k + 1 + d])) {
+        prevK= k + 1;
+      } else {
+        prevK= k - 1;
+      }
+      final int prevX= v[prevK + d];
+      final int prevY= prevX - prevK;
+
+      // the position right after the insertion or deletion of this step
+      final int editX= prevK == k + 1 ? prevX : prevX + 1;
+      final int editY= editX - k;
+      if (x > editX) {
+        snakes.add(new int[]{aStart + editX, bStart + editY, x - editX});
+      }
+      x= prevX;
+      y= prevY;
+    }
+
+    if (x > 0) {
+      snakes.add(new int[]{aStart, bStart, x});
+    }
+
+    Collections.reverse(snakes);
+    return snakes;
+  }
+
+
+  private static boolean equal(final Lines a, final int i, final Lines b, final int j) {
+    if (a.hashes[i] != b.hashes[j]) {
+      return false;
+    }
+    final int aFrom= a.starts[i];
+    final int length= a.starts[i + 1] - aFrom;
+    final int bFrom= b.starts[j];
+    if (b.starts[j + 1] - bFrom != length) {
+      return false;
+    }
+    for (int c= 0; c < length; c++) {
+      if (a.text.charAt(aFrom + c) != b.text.charAt(bFrom + c)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+
+  /** The lines of a text, given by their start offsets, together with their hash codes. */
+  private static final class Lines {
+    final CharSequence text;
+    /** The start offset of each line plus the length of the text as last element. */
+    final int[] starts;
+    final int[] hashes;
+    final int count;
+
+    Lines(final CharSequence text) {
+      this.text= text;
+
+      int[] s= new int[64];
+      int[] h= new int[64];
+      int c= 0;
+      int hash= 0;
+      int lineStart= 0;
+      final int length= text.length();
+      for (int i= 0; i < length; i++) {
+        final char ch= text.charAt(i);
+        hash= 31 * hash + ch;
+        if (ch == '\n' || i == length - 1) {
+          if (c + 1 >= s.length) {
+            s= Arrays.copyOf(s, s.length * 2);
+            h= Arrays.copyOf(h, h.length * 2);
+          }
+          s[c]= lineStart;
+          h[c]= hash;
+          c++;
+          lineStart= i + 1;
+          hash= 0;
+        }
+      }
+      s[c]= length;
+
+      this.starts= s;
+      this.hashes= h;
+      this.count= c;
+    }
+  }
+}
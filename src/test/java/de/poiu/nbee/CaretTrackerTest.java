@@ -0,0 +1,132 @@
+/*
+ * Copyright 2019-2026 Marco Herrn.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.poiu.nbee;
+
+import de.poiu.nbee.text.CaretTracker;
+import de.poiu.nbee.text.CaretTracker.CaretSnapshot;
+import javax.swing.JTextPane;
+import javax.swing.SwingUtilities;
+import javax.swing.text.DefaultStyledDocument;
+import javax.swing.text.StyledDocument;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+
+/**
+ * Tests for {@link CaretTracker}.
+ *
+ * @author Marco Herrn
+ */
+public class CaretTrackerTest {
+
+  @Test
+  public void locationIsComputedOnRequest() throws Exception {
+    onEdt(() -> {
+      final JTextPane editor= editor("first\nsecond line\nthird");
+      final CaretTracker tracker= CaretTracker.install(editor);
+      editor.setCaretPosition(9);
+
+      // never computed on the EDT
+      assertNull(tracker.cached(editor.getDocument(), 9, 9));
+    });
+
+    final JTextPane editor= editor("first\nsecond line\nthird");
+    final CaretTracker tracker= CaretTracker.install(editor);
+    final CaretSnapshot snapshot= tracker.locate((StyledDocument) editor.getDocument(), 9, 9);
+    assertEquals(1, snapshot.line0());
+    assertEquals(3, snapshot.column0());
+    assertSame(snapshot, tracker.cached(editor.getDocument(), 9, 9));
+  }
+
+
+  @Test
+  public void cachedLocationForOtherCaretIsStale() throws Exception {
+    final JTextPane editor= editor("first\nsecond");
+    final CaretTracker tracker= CaretTracker.install(editor);
+    tracker.locate((StyledDocument) editor.getDocument(), 2, 2);
+
+    assertNotNull(tracker.cached(editor.getDocument(), 2, 2));
+    assertNull(tracker.cached(editor.getDocument(), 3, 3));
+    assertNull(tracker.cached(editor.getDocument(), 2, 0));
+    assertNull(tracker.cached(new DefaultStyledDocument(), 2, 2));
+  }
+
+
+  @Test
+  public void modificationMakesCachedLocationStale() throws Exception {
+    final JTextPane editor= editor("first\nsecond");
+    final CaretTracker tracker= CaretTracker.install(editor);
+    final StyledDocument document= (StyledDocument) editor.getDocument();
+    final CaretSnapshot before= tracker.locate(document, 8, 8);
+
+    // inserting after the caret doesn't change its location, but still makes the cached one
+    // stale, since the tracker cannot know that
+    document.insertString(10, "\n\n", null);
+    assertNull(tracker.cached(document, 8, 8));
+
+    final CaretSnapshot after= tracker.locate(document, 8, 8);
+    assertNotSame(before, after);
+    assertEquals(1, after.line0());
+    assertEquals(2, after.column0());
+  }
+
+
+  @Test
+  public void trackerIsInstalledOnlyOnce() throws Exception {
+    onEdt(() -> {
+      final JTextPane editor= editor("text");
+      assertSame(CaretTracker.install(editor), CaretTracker.install(editor));
+    });
+  }
+
+
+  private static JTextPane editor(final String text) throws Exception {
+    final JTextPane editor= new JTextPane(new DefaultStyledDocument());
+    editor.getDocument().insertString(0, text, null);
+    return editor;
+  }
+
+
+  private static void onEdt(final ThrowingRunnable runnable) throws Exception {
+    final Exception[] thrown= new Exception[1];
+    final AssertionError[] failed= new AssertionError[1];
+    SwingUtilities.invokeAndWait(() -> {
+      try {
+        runnable.run();
+      } catch (AssertionError ex) {
+        failed[0]= ex;
+      } catch (Exception ex) {
+        thrown[0]= ex;
+      }
+    });
+    if (failed[0] != null) {
+      throw failed[0];
+    }
+    if (thrown[0] != null) {
+      throw thrown[0];
+    }
+  }
+
+
+  private static interface ThrowingRunnable {
+    void run() throws Exception;
+  }
+}
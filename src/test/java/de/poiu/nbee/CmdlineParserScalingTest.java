@@ -0,0 +1,216 @@
+/*
+ * Copyright 2019-2026 Marco Herrn.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.poiu.nbee;
+
+import de.poiu.nbee.parser.CmdlineParser;
+import de.poiu.nbee.parser.IncrementalCmdlineValidator;
+import de.poiu.nbee.parser.ParseException;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import org.junit.Assume;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+
+/**
+ * Tests {@link CmdlineParser} (and {@link IncrementalCmdlineValidator}) with pathological
+ * inputs, like very long command lines, lots of consecutive escapes or quotes and lots of
+ * placeholders.
+ * <p>
+ * Each input is processed in a small and an eight times larger variant. The allocated memory
+ * may not grow substantially more than eight times. The limit is generous, but a quadratic
+ * behaviour (growing 64 times) would violate it. Unlike the elapsed time, the allocated memory
+ * doesn't depend on the load of the machine.
+ * <p>
+ * The elapsed time is measured by the <code>PathologicalInputBenchmark</code> in the
+ * benchmarks instead.
+ *
+ * @author Marco Herrn
+ */
+public class CmdlineParserScalingTest {
+
+  /** The approximate length of the small variant of each input. */
+  private static final int SMALL= 16 * 1024;
+
+  /** The factor by which the large variant of each input is larger than the small one. */
+  private static final int FACTOR= 8;
+
+  /** The factor by which the allocated memory may grow more than the input. */
+  private static final int TOLERANCE= 3;
+
+  /** Additional memory allowed to account for fixed costs (like the result objects). */
+  private static final long ALLOCATION_SLACK_BYTES= 64 * 1024;
+
+
+  /** The pathological inputs, each given by a function returning a variant of (approximately) the given length. */
+  private static final Map<String, IntFunction<String>> INPUTS= Map.of(
+    "long line",             n -> "cmd " + "a".repeat(n),
+    "consecutive escapes",   n -> "cmd " + "\\a".repeat(n / 2),
+    "alternating quotes",    n -> "cmd " + "'\"'\"'\"".repeat(n / 6),
+    "adjacent placeholders", n -> "cmd " + "${file}".repeat(n / 7),
+    "many arguments",        n -> "cmd " + "${file} a ".repeat(n / 10)
+  );
+
+
+  @Test
+  public void parseScalesLinearly() {
+    final CmdlineParser parser= new CmdlineParser(Map.of("${file}", "/path/to/file"));
+    assertScalesLinearly("parse", parser::parse);
+  }
+
+
+  @Test
+  public void compileScalesLinearly() {
+    assertScalesLinearly("compile", CmdlineParser::compile);
+  }
+
+
+  @Test
+  public void renderScalesLinearly() {
+    final Map<String, String> replacements= Map.of("${file}", "/path/to/file");
+    for (final Map.Entry<String, IntFunction<String>> input : INPUTS.entrySet()) {
+      assertScalesLinearly("render " + input.getKey(),
+        n -> CmdlineParser.compile(input.getValue().apply(n)),
+        template -> template.render(replacements));
+    }
+  }
+
+
+  @Test
+  public void validateScalesLinearly() {
+    assertScalesLinearly("validate", cmdLine -> new IncrementalCmdlineValidator().validate(cmdLine));
+  }
+
+
+  @Test
+  public void unclosedPlaceholderAtEndIsReportedBriefly() {
+    final String cmdLine= "cmd ${" + "a".repeat(1024 * 1024);
+    final ParseException ex= assertParseException(cmdLine);
+    assertTrue(ex.getMessage(), ex.getMessage().startsWith("Unclosed placeholder: ${aaa"));
+    assertTrue(ex.getMessage(), ex.getMessage().length() < 128);
+    // the command line is not copied
+    assertSame(cmdLine, ex.getCmdLine());
+  }
+
+
+  @Test
+  public void invalidCharacterInLongPlaceholderIsReportedBriefly() {
+    final String cmdLine= "cmd ${" + "a".repeat(1024 * 1024) + "$";
+    final ParseException ex= assertParseException(cmdLine);
+    assertTrue(ex.getMessage(), ex.getMessage().startsWith("Invalid character $ found in placeholder ${aaa"));
+    assertTrue(ex.getMessage(), ex.getMessage().length() < 128);
+  }
+
+
+  @Test
+  public void unclosedScatteredPlaceholderIsReportedBriefly() {
+    // the escaped characters don't belong to the placeholder, but make it a scattered one
+    final ParseException ex= assertParseException("cmd ${" + "a\\b".repeat(256 * 1024));
+    assertEquals("Unclosed placeholder: ${" + "a".repeat(62) + "...", ex.getMessage());
+  }
+
+
+  @Test
+  public void errorOnHugeInputDoesNotAllocateProportionally() {
+    Assume.assumeTrue(allocatedBytes(() -> {}) >= 0);
+
+    final String cmdLine= "cmd ${" + "a".repeat(4 * 1024 * 1024);
+    // warm up
+    for (int i= 0; i < 3; i++) {
+      assertParseException(cmdLine);
+    }
+    final long allocatedForError= allocatedBytes(() -> assertParseException(cmdLine));
+    assertTrue("Allocated " + allocatedForError + " bytes for reporting an error in a " + cmdLine.length() + " chars input",
+               allocatedForError < ALLOCATION_SLACK_BYTES);
+  }
+
+
+  /**
+   * Asserts that the given operation scales linearly with the length of all {@link #INPUTS}.
+   *
+   * @param name the name of the operation (for failure messages)
+   * @param operation the operation to apply to the inputs
+   */
+  private static void assertScalesLinearly(final String name, final Consumer<String> operation) {
+    for (final Map.Entry<String, IntFunction<String>> input : INPUTS.entrySet()) {
+      assertScalesLinearly(name + " " + input.getKey(), input.getValue(), operation);
+    }
+  }
+
+
+  /**
+   * Asserts that the given operation scales linearly with the size of the given input.
+   *
+   * @param <T> the type of the input
+   * @param name the name of the input and operation (for failure messages)
+   * @param input returns a variant of the input of (approximately) the given length
+   * @param operation the operation to apply to the input
+   */
+  private static <T> void assertScalesLinearly(final String name, final IntFunction<T> input, final Consumer<T> operation) {
+    final T small= input.apply(SMALL);
+    final T large= input.apply(SMALL * FACTOR);
+
+    // warm up
+    for (int i= 0; i < 5; i++) {
+      operation.accept(small);
+      operation.accept(large);
+    }
+
+    final long smallBytes= allocatedBytes(() -> operation.accept(small));
+    final long largeBytes= allocatedBytes(() -> operation.accept(large));
+    if (smallBytes >= 0 && largeBytes >= 0) {
+      assertTrue(name + ": " + smallBytes + " bytes allocated for the small input, but " + largeBytes + " bytes for the large input",
+                 largeBytes <= TOLERANCE * FACTOR * smallBytes + ALLOCATION_SLACK_BYTES);
+    }
+  }
+
+
+  /**
+   * Returns the number of bytes allocated by the current thread while running the given
+   * operation or -1 if the JVM doesn't support measuring it.
+   */
+  private static long allocatedBytes(final Runnable operation) {
+    if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean)) {
+      return -1;
+    }
+    final com.sun.management.ThreadMXBean threadMXBean= (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    if (!threadMXBean.isThreadAllocatedMemorySupported() || !threadMXBean.isThreadAllocatedMemoryEnabled()) {
+      return -1;
+    }
+
+    final long threadId= Thread.currentThread().getId();
+    final long before= threadMXBean.getThreadAllocatedBytes(threadId);
+    operation.run();
+    return threadMXBean.getThreadAllocatedBytes(threadId) - before;
+  }
+
+
+  private static ParseException assertParseException(final String cmdLine) {
+    try {
+      CmdlineParser.compile(cmdLine);
+      fail("Expected a ParseException");
+      return null;
+    } catch (ParseException ex) {
+      return ex;
+    }
+  }
+}
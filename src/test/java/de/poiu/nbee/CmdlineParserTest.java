@@ -100,6 +100,9 @@ public class CmdlineParserTest {
          new String[]{"AAABBB"}                                                                                                       , null                , null} ,
       {"abc\"def\""                                                                                , new String[]{},
          new String[]{"abcdef"}                                                                                                       , null                , null} ,
+      // an escaped char inside a placeholder is not part of the placeholder name, but of the argument
+      {"vim ${fi\\le}"                                                                            , new String[]{"${fie}", "X"},
+         new String[]{"vim" , "lX"}                                                                                                   , null                , null} ,
       {"vim ${file"                                                                                , new String[]{},
          null                                                                                                                         , ParseException.class, "Unclosed placeholder: ${file"} ,
     });
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2019-2026 Marco Herrn.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.poiu.nbee;
+
+import de.poiu.nbee.parser.CmdlineParser;
+import de.poiu.nbee.parser.CmdlineTemplate;
+import de.poiu.nbee.parser.ParseException;
+import de.poiu.nbee.parser.PlaceholderValues;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+
+/**
+ * Tests for {@link CmdlineTemplate} that are specific to compiling a command line once and
+ * rendering it multiple times. The parsing rules themselves are covered by
+ * {@link CmdlineParserTest}.
+ *
+ * @author Marco Herrn
+ */
+public class CmdlineTemplateTest {
+
+  @Test
+  public void templateCanBeRenderedRepeatedlyWithDifferentValues() {
+    final CmdlineTemplate template= CmdlineParser.compile("vim ${file} \"+${line}G\"");
+
+    assertArrayEquals(new String[]{"vim", "/a.txt", "+1G"},
+                      template.render(Map.of("${file}", "/a.txt", "${line}", "1")).command());
+    assertArrayEquals(new String[]{"vim", "/path with spaces/b.txt", "+42G"},
+                      template.render(Map.of("${file}", "/path with spaces/b.txt", "${line}", "42")).command());
+  }
+
+
+  @Test
+  public void placeholdersAreReportedOnceInEncounterOrder() {
+    final CmdlineTemplate template= CmdlineParser.compile("cmd ${line} ${file} ${line}${column} \\${escaped}");
+
+    assertEquals(List.of("${line}", "${file}", "${column}"), template.placeholders());
+  }
+
+
+  @Test
+  public void emptyArgumentsAreOmitted() {
+    final CmdlineTemplate template= CmdlineParser.compile("cmd ${selectedText} last");
+
+    assertArrayEquals(new String[]{"cmd", "last"},
+                      template.render(Map.of("${selectedText}", "")).command());
+  }
+
+
+  @Test
+  public void unmappedPlaceholdersAreIncludedLiterally() {
+    final CmdlineParser.ParseResult result= CmdlineParser.compile("cmd ${a} ${b} ${a}").render(Map.of("${b}", "B"));
+
+    assertArrayEquals(new String[]{"cmd", "${a}", "B", "${a}"}, result.command());
+    assertEquals(List.of("${a}"), result.unmappedPlaceholders());
+  }
+
+
+  @Test
+  public void whitespaceOnlyCommandLineIsEmpty() {
+    assertTrue(CmdlineParser.compile("  \t ").isEmpty());
+    assertFalse(CmdlineParser.compile("vim").isEmpty());
+  }
+
+
+  @Test
+  public void listPlaceholderIsExpandedIntoOneArgumentPerValue() {
+    final CmdlineTemplate template= CmdlineParser.compile("vim -p ${files} \"--first=${file}\"");
+    final PlaceholderValues values= new PlaceholderValues().put("${file}", "/a.txt");
+
+    assertArrayEquals(new String[]{"vim", "-p", "/a.txt", "/path with spaces/b.txt", "--first=/a.txt"},
+                      template.render(values, "${files}", List.of("/a.txt", "/path with spaces/b.txt")).command());
+  }
+
+
+  @Test
+  public void argumentsReferencingListPlaceholderAreRepeatedPerValue() {
+    final CmdlineTemplate template= CmdlineParser.compile("tool --file=${files} --line=${line}");
+    final PlaceholderValues values= new PlaceholderValues().put("${line}", "3");
+
+    assertArrayEquals(new String[]{"tool", "--file=a", "--file=b", "--line=3"},
+                      template.render(values, "${files}", List.of("a", "b")).command());
+    assertArrayEquals(new String[]{"tool", "--line=3"},
+                      template.render(values, "${files}", List.of()).command());
+  }
+
+
+  @Test
+  public void unmappedPlaceholdersAreReportedWhenRenderingListPlaceholder() {
+    final CmdlineParser.ParseResult result= CmdlineParser.compile("cmd ${files} ${a}")
+      .render(new PlaceholderValues(), "${files}", List.of("x"));
+
+    assertArrayEquals(new String[]{"cmd", "x", "${a}"}, result.command());
+    assertEquals(List.of("${a}"), result.unmappedPlaceholders());
+  }
+
+
+  @Test(expected = ParseException.class)
+  public void invalidCommandLineIsRejectedWhenCompiling() {
+    CmdlineParser.compile("vim \"${file}");
+  }
+
+}
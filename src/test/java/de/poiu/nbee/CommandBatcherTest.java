@@ -0,0 +1,107 @@
+/*
+ * Copyright 2019-2026 Marco Herrn.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.poiu.nbee;
+
+import de.poiu.nbee.launch.CommandBatcher;
+import de.poiu.nbee.launch.CommandBatcher.Batch;
+import de.poiu.nbee.parser.CmdlineParser;
+import de.poiu.nbee.parser.CmdlineTemplate;
+import de.poiu.nbee.parser.PlaceholderValues;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+
+/**
+ * Tests for {@link CommandBatcher}.
+ *
+ * @author Marco Herrn
+ */
+public class CommandBatcherTest {
+
+  private static final CmdlineTemplate TEMPLATE= CmdlineParser.compile("vim -p ${files}");
+
+
+  @Test
+  public void allValuesFitIntoSingleBatch() {
+    final List<Batch> batches= new CommandBatcher(10_000)
+      .split(TEMPLATE, new PlaceholderValues(), "${files}", List.of("a", "b", "c"));
+
+    assertEquals(1, batches.size());
+    assertEquals(List.of("a", "b", "c"), batches.get(0).items());
+    assertArrayEquals(new String[]{"vim", "-p", "a", "b", "c"}, batches.get(0).command());
+  }
+
+
+  @Test
+  public void valuesAreSplitIntoBatchesBelowMaxLength() {
+    final List<String> files= new ArrayList<>();
+    for (int i= 0; i < 500; i++) {
+      files.add(String.format("/some/project/src/main/java/File%03d.java", i));
+    }
+    final long maxLength= 2_000;
+
+    final List<Batch> batches= new CommandBatcher(maxLength)
+      .split(TEMPLATE, new PlaceholderValues(), "${files}", files);
+
+    assertTrue(batches.size() > 1);
+    final List<String> allItems= new ArrayList<>();
+    for (final Batch batch : batches) {
+      assertTrue(CommandBatcher.length(batch.command()) <= maxLength);
+      assertEquals("vim", batch.command()[0]);
+      assertEquals(batch.items().size() + 2, batch.command().length);
+      allItems.addAll(batch.items());
+    }
+    // all values are contained exactly once and in the original order
+    assertEquals(files, allItems);
+    // each batch is filled as far as possible
+    final Batch first= batches.get(0);
+    final long perItem= CommandBatcher.length(new String[]{files.get(0)});
+    assertTrue(CommandBatcher.length(first.command()) + perItem > maxLength);
+  }
+
+
+  @Test
+  public void tooLongValueGetsItsOwnBatch() {
+    final String longValue= "x".repeat(1_000);
+
+    final List<Batch> batches= new CommandBatcher(500)
+      .split(TEMPLATE, new PlaceholderValues(), "${files}", List.of("a", longValue, "b"));
+
+    assertEquals(3, batches.size());
+    assertEquals(List.of(longValue), batches.get(1).items());
+  }
+
+
+  @Test
+  public void templateWithoutListPlaceholderIsNotSplit() {
+    final List<Batch> batches= new CommandBatcher(10)
+      .split(CmdlineParser.compile("vim ${file}"), new PlaceholderValues().put("${file}", "a"), "${files}", List.of("a", "b"));
+
+    assertEquals(1, batches.size());
+    assertArrayEquals(new String[]{"vim", "a"}, batches.get(0).command());
+  }
+
+
+  @Test
+  public void currentPlatformHasPositiveMaxLength() {
+    assertTrue(CommandBatcher.forCurrentPlatform().maxLength() > 0);
+  }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2019-2026 Marco Herrn.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.poiu.nbee;
+
+import de.poiu.nbee.reload.ContentFingerprint;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.CRC32C;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+
+/**
+ * Tests for {@link ContentFingerprint}.
+ *
+ * @author Marco Herrn
+ */
+public class ContentFingerprintTest {
+
+  private Path file;
+
+
+  @Before
+  public void createFile() throws Exception {
+    this.file= Files.createTempFile("nbee-fingerprint-test", ".txt");
+  }
+
+
+  @After
+  public void deleteFile() throws Exception {
+    Files.deleteIfExists(this.file);
+  }
+
+
+  @Test
+  public void rewritingSameContentKeepsFingerprint() throws Exception {
+    Files.writeString(this.file, "some content", StandardCharsets.UTF_8);
+    final ContentFingerprint before= ContentFingerprint.of(this.file);
+
+    Files.writeString(this.file, "some content", StandardCharsets.UTF_8);
+
+    assertEquals(before, ContentFingerprint.of(this.file));
+  }
+
+
+  @Test
+  public void modifiedContentOfSameSizeChangesFingerprint() throws Exception {
+    Files.writeString(this.file, "some content", StandardCharsets.UTF_8);
+    final ContentFingerprint before= ContentFingerprint.of(this.file);
+
+    Files.writeString(this.file, "some CONTENT", StandardCharsets.UTF_8);
+
+    assertNotEquals(before, ContentFingerprint.of(this.file));
+  }
+
+
+  @Test
+  public void fingerprintConsistsOfSizeAndChecksum() throws Exception {
+    final byte[] content= "some content".getBytes(StandardCharsets.UTF_8);
+    Files.write(this.file, content);
+    final CRC32C crc= new CRC32C();
+    crc.update(content);
+
+    assertEquals(new ContentFingerprint(content.length, crc.getValue()), ContentFingerprint.of(this.file));
+  }
+
+
+  @Test
+  public void emptyFileHasFingerprint() throws Exception {
+    assertEquals(new ContentFingerprint(0, new CRC32C().getValue()), ContentFingerprint.of(this.file));
+  }
+}
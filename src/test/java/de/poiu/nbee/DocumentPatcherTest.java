@@ -0,0 +1,142 @@
+/*
+ * Copyright 2019-2026 Marco Herrn.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.poiu.nbee;
+
+import de.poiu.nbee.text.DocumentPatcher;
+import de.poiu.nbee.text.DocumentPatcher.Edit;
+import java.util.List;
+import java.util.Random;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.PlainDocument;
+import javax.swing.text.Position;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+
+/**
+ * Tests for {@link DocumentPatcher}.
+ *
+ * @author Marco Herrn
+ */
+public class DocumentPatcherTest {
+
+  @Test
+  public void onlyTheModifiedCharsAreReplaced() throws Exception {
+    final PlainDocument document= document("first line\nsecond line\nthird line\n");
+
+    final DocumentPatcher.Patch patch= DocumentPatcher.apply(document, "first line\nsecond word\nthird line\n");
+
+    assertEquals("first line\nsecond word\nthird line\n", text(document));
+    assertEquals(List.of(new Edit(18, 4, "word")), patch.edits());
+  }
+
+
+  @Test
+  public void smallChangeInLargeDocumentIsASmallEdit() throws Exception {
+    final StringBuilder sb= new StringBuilder();
+    for (int i= 0; i < 100_000; i++) {
+      sb.append("line ").append(i).append('\n');
+    }
+    final String oldText= sb.toString();
+    final String newText= oldText.replace("line 50000\n", "line 50000 modified\nnew line\n");
+    final PlainDocument document= document(oldText);
+
+    final DocumentPatcher.Patch patch= DocumentPatcher.apply(document, newText);
+
+    assertEquals(newText, text(document));
+    assertEquals(1, patch.edits().size());
+    assertEquals(" modified\nnew line", patch.edits().get(0).insertText());
+  }
+
+
+  @Test
+  public void positionsInUnchangedRegionsAreKept() throws Exception {
+    final PlainDocument document= document("aaa\nbbb\nccc\n");
+    final Position position= document.createPosition(9);  // the second 'c'
+
+    DocumentPatcher.apply(document, "aaa\nxxx\nyyy\nccc\n");
+
+    assertEquals('c', text(document).charAt(position.getOffset()));
+    assertEquals(13, position.getOffset());
+  }
+
+
+  @Test
+  public void offsetsAreMappedThroughThePatch() throws Exception {
+    final PlainDocument document= document("aaa\nbbb\nccc\n");
+
+    final DocumentPatcher.Patch patch= DocumentPatcher.apply(document, "aaa\nxxxxx\nccc\n");
+
+    assertEquals(2, patch.mapOffset(2));    // before the modification
+    assertEquals(5, patch.mapOffset(5));    // inside the modification
+    assertEquals(13, patch.mapOffset(11));  // after the modification
+  }
+
+
+  @Test
+  public void computedPatchIsOnlyAppliedOnRequest() throws Exception {
+    final PlainDocument document= document("aaa\nbbb\nccc\n");
+
+    final DocumentPatcher.Patch patch= DocumentPatcher.compute(document, "aaa\nxxx\nccc\n");
+
+    assertEquals("aaa\nbbb\nccc\n", text(document));
+    assertEquals(List.of(new Edit(4, 3, "xxx")), patch.edits());
+
+    DocumentPatcher.apply(document, patch);
+
+    assertEquals("aaa\nxxx\nccc\n", text(document));
+  }
+
+
+  @Test
+  public void randomModificationsAreAppliedCorrectly() throws Exception {
+    final Random random= new Random(4711);
+    final String[] lines= {"a\n", "b\n", "c\n", "\n", "a longer line\n", "x"};
+
+    for (int run= 0; run < 500; run++) {
+      final String oldText= randomText(random, lines);
+      final String newText= randomText(random, lines);
+      final PlainDocument document= document(oldText);
+
+      DocumentPatcher.apply(document, newText);
+
+      assertEquals("old: " + oldText + "\nnew: " + newText, newText, text(document));
+    }
+  }
+
+
+  private static String randomText(final Random random, final String[] lines) {
+    final StringBuilder sb= new StringBuilder();
+    final int count= random.nextInt(20);
+    for (int i= 0; i < count; i++) {
+      sb.append(lines[random.nextInt(lines.length)]);
+    }
+    return sb.toString();
+  }
+
+
+  private static PlainDocument document(final String content) throws BadLocationException {
+    final PlainDocument document= new PlainDocument();
+    document.insertString(0, content, null);
+    return document;
+  }
+
+
+  private static String text(final PlainDocument document) throws BadLocationException {
+    return document.getText(0, document.getLength());
+  }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2019-2026 Marco Herrn.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.poiu.nbee;
+
+import de.poiu.nbee.text.DocumentStreamer;
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.PlainDocument;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+
+/**
+ * Tests for {@link DocumentStreamer}.
+ *
+ * @author Marco Herrn
+ */
+public class DocumentStreamerTest {
+
+  @Test
+  public void writesWholeDocument() throws Exception {
+    final String content= "Some text\nspanning multiple\nlines.";
+    assertWritten(content, content, 0, content.length(), DocumentStreamer.DEFAULT_CHUNK_SIZE);
+  }
+
+
+  @Test
+  public void writesOnlyTheGivenRange() throws Exception {
+    final String content= "0123456789";
+    assertWritten(content, "3456", 3, 4, 3);
+  }
+
+
+  @Test
+  public void writesContentLargerThanChunkSize() throws Exception {
+    final StringBuilder sb= new StringBuilder();
+    for (int i= 0; i < 1000; i++) {
+      sb.append("line ").append(i).append('\n');
+    }
+    final String content= sb.toString();
+    assertWritten(content, content, 0, content.length(), 7);
+  }
+
+
+  @Test
+  public void neverSplitsSurrogatePairs() throws Exception {
+    // U+1F600 is encoded as a surrogate pair in UTF-16 and as 4 bytes in UTF-8
+    final String content= "ab😀cd😀😀e";
+    for (int chunkSize= 2; chunkSize < content.length() + 2; chunkSize++) {
+      assertWritten(content, content, 0, content.length(), chunkSize);
+    }
+  }
+
+
+  @Test
+  public void writesNothingForEmptyRange() throws Exception {
+    assertWritten("abc", "", 1, 0, 2);
+  }
+
+
+  @Test(expected = BadLocationException.class)
+  public void rejectsRangeBeyondDocument() throws Exception {
+    final PlainDocument document= new PlainDocument();
+    document.insertString(0, "abc", null);
+    new DocumentStreamer(document, StandardCharsets.UTF_8, 2).writeTo(1, 5, Channels.newChannel(new ByteArrayOutputStream()));
+  }
+
+
+  private static void assertWritten(final String content, final String expected,
+                                    final int offset, final int length, final int chunkSize) throws Exception {
+    final PlainDocument document= new PlainDocument();
+    document.insertString(0, content, null);
+
+    final ByteArrayOutputStream out= new ByteArrayOutputStream();
+    final long written;
+    try (final WritableByteChannel channel= Channels.newChannel(out)) {
+      written= new DocumentStreamer(document, StandardCharsets.UTF_8, chunkSize).writeTo(offset, length, channel);
+    }
+
+    final byte[] expectedBytes= expected.getBytes(StandardCharsets.UTF_8);
+    assertArrayEquals(expectedBytes, out.toByteArray());
+    assertEquals(expectedBytes.length, written);
+  }
+
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2019-2026 Marco Herrn.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.poiu.nbee;
+
+import de.poiu.nbee.launch.EditorServerChannel;
+import de.poiu.nbee.launch.EditorServerException;
+import de.poiu.nbee.launch.EditorServerTimeoutException;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetSocketAddress;
+import java.net.UnixDomainSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+
+/**
+ * Tests for {@link EditorServerChannel} against a {@link StandInEditorServer} running in a
+ * separate process.
+ *
+ * @author Marco Herrn
+ */
+public class EditorServerChannelTest {
+
+  private Process server;
+  private EditorServerChannel channel;
+
+
+  @Before
+  public void startServer() throws IOException {
+    final String java= Path.of(System.getProperty("java.home"), "bin", "java").toString();
+    this.server= new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"), StandInEditorServer.class.getName())
+      .redirectError(ProcessBuilder.Redirect.INHERIT)
+      .start();
+    final BufferedReader stdout= new BufferedReader(new InputStreamReader(this.server.getInputStream(), StandardCharsets.UTF_8));
+    final int port= Integer.parseInt(stdout.readLine().trim());
+    this.channel= new EditorServerChannel(new InetSocketAddress("127.0.0.1", port), Duration.ofSeconds(2));
+  }
+
+
+  @After
+  public void stopServer() throws InterruptedException {
+    this.channel.close();
+    this.server.destroy();
+    this.server.waitFor();
+  }
+
+
+  @Test
+  public void requestsAreSentOverPersistentConnection() throws IOException {
+    assertEquals("OK 1 vim /some/file.txt 12", this.channel.send(new String[]{"vim", "/some/file.txt", "12"}));
+    assertEquals("OK 1 vim /other/file.txt 1", this.channel.send(new String[]{"vim", "/other/file.txt", "1"}));
+  }
+
+
+  @Test
+  public void argumentsAreEscaped() throws IOException {
+    assertEquals("OK 1 open /path\\ with\\ spaces/a\\\\b.txt line1\\nline2",
+                 this.channel.send(new String[]{"open", "/path with spaces/a\\b.txt", "line1\nline2"}));
+  }
+
+
+  @Test
+  public void reconnectsWhenServerClosedConnection() throws IOException {
+    assertEquals("OK 1 first", this.channel.send(new String[]{"first"}));
+    assertEquals("OK", this.channel.send(new String[]{"close"}));
+    assertEquals("OK 2 second", this.channel.send(new String[]{"second"}));
+  }
+
+
+  @Test(expected = EditorServerException.class)
+  public void errorResponseIsReported() throws IOException {
+    this.channel.send(new String[]{"fail"});
+  }
+
+
+  @Test
+  public void unreachableServerIsReported() throws IOException, InterruptedException {
+    assertEquals("OK 1 first", this.channel.send(new String[]{"first"}));
+    this.server.destroy();
+    this.server.waitFor();
+
+    try {
+      this.channel.send(new String[]{"second"});
+      fail("Expected an IOException");
+    } catch (EditorServerException ex) {
+      fail("Expected the server to be unreachable, but got " + ex);
+    } catch (IOException ex) {
+      // expected
+    }
+  }
+
+
+  @Test
+  public void slowServerTimesOut() throws IOException {
+    final long start= System.nanoTime();
+    try {
+      this.channel.send(new String[]{"slow"});
+      fail("Expected an EditorServerTimeoutException");
+    } catch (EditorServerTimeoutException ex) {
+      // expected
+    }
+    assertTrue(System.nanoTime() - start < Duration.ofSeconds(4).toNanos());
+
+    // a new connection is used for the next request
+    assertEquals("OK 2 next", this.channel.send(new String[]{"next"}));
+  }
+
+
+  @Test
+  public void unreachableServerIsNoTimeout() throws IOException, InterruptedException {
+    this.server.destroy();
+    this.server.waitFor();
+
+    try {
+      this.channel.send(new String[]{"first"});
+      fail("Expected an IOException");
+    } catch (EditorServerTimeoutException ex) {
+      fail("Expected the request not to be sent, but got " + ex);
+    } catch (IOException ex) {
+      // expected
+    }
+  }
+
+
+  @Test
+  public void addressesAreParsed() {
+    assertEquals(new InetSocketAddress("localhost", 7777), EditorServerChannel.parseAddress("localhost:7777"));
+    assertEquals(UnixDomainSocketAddress.of("/tmp/nvim.sock"), EditorServerChannel.parseAddress(" /tmp/nvim.sock "));
+    assertEquals(UnixDomainSocketAddress.of("/run/user/1000/kak:1"), EditorServerChannel.parseAddress("/run/user/1000/kak:1"));
+  }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2019-2026 Marco Herrn.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.poiu.nbee;
+
+import de.poiu.nbee.reload.FileWatcher;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+
+/**
+ * Tests for {@link FileWatcher} on real files in a temporary directory.
+ *
+ * @author Marco Herrn
+ */
+public class FileWatcherTest {
+
+  private static final Duration COALESCE_WINDOW= Duration.ofMillis(200);
+
+  /** How long to wait for a notification that is expected. Generous to allow for polling WatchServices. */
+  private static final long TIMEOUT_SECONDS= 20;
+
+  private final BlockingQueue<Path> notifications= new LinkedBlockingQueue<>();
+  private final FileWatcher watcher= new FileWatcher(COALESCE_WINDOW, this.notifications::add);
+
+  private Path dir;
+  private Path file;
+
+
+  @Before
+  public void createFiles() throws IOException {
+    this.dir= Files.createTempDirectory("nbee-watcher-test").toRealPath();
+    this.file= write(this.dir.resolve("watched.txt"), "initial");
+  }
+
+
+  @After
+  public void deleteFiles() throws IOException {
+    this.watcher.close();
+    try (final var files= Files.list(this.dir)) {
+      for (final Path p : (Iterable<Path>) files::iterator) {
+        Files.delete(p);
+      }
+    }
+    Files.delete(this.dir);
+  }
+
+
+  @Test
+  public void burstOfModificationsIsReportedOnce() throws Exception {
+    this.watcher.watch(this.file);
+
+    for (int i= 0; i < 5; i++) {
+      write(this.file, "content " + i);
+    }
+
+    assertEquals(this.file, this.notifications.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+    assertNull(this.notifications.poll(COALESCE_WINDOW.toMillis() * 3, TimeUnit.MILLISECONDS));
+  }
+
+
+  @Test
+  public void replacingViaRenameIsReported() throws Exception {
+    this.watcher.watch(this.file);
+
+    final Path temp= write(this.dir.resolve("watched.txt.tmp"), "new content");
+    Files.move(temp, this.file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+    assertEquals(this.file, this.notifications.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+  }
+
+
+  @Test
+  public void otherFilesInSameDirectoryAreIgnored() throws Exception {
+    final Path other= write(this.dir.resolve("other.txt"), "initial");
+    this.watcher.watch(this.file);
+
+    write(other, "modified");
+    write(this.file, "modified");
+
+    // the notification of the watched file is the only one
+    assertEquals(this.file, this.notifications.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+    assertNull(this.notifications.poll(COALESCE_WINDOW.toMillis() * 3, TimeUnit.MILLISECONDS));
+  }
+
+
+  @Test
+  public void fileIsOnlyUnwatchedAfterAllWatchesEnded() throws Exception {
+    this.watcher.watch(this.file);
+    this.watcher.watch(this.dir.resolve(".").resolve("watched.txt"));
+
+    this.watcher.unwatch(this.file);
+    assertTrue(this.watcher.isWatched(this.file));
+
+    this.watcher.unwatch(this.file);
+    assertFalse(this.watcher.isWatched(this.file));
+
+    write(this.file, "modified");
+    assertNull(this.notifications.poll(COALESCE_WINDOW.toMillis() * 3, TimeUnit.MILLISECONDS));
+  }
+
+
+  @Test
+  public void fileCanBeWatchedAgainAfterUnwatching() throws Exception {
+    this.watcher.watch(this.file);
+    this.watcher.unwatch(this.file);
+    this.watcher.watch(this.file);
+
+    write(this.file, "modified");
+
+    assertEquals(this.file, this.notifications.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+  }
+
+
+  private static Path write(final Path file, final String content) throws IOException {
+    return Files.writeString(file, content, StandardCharsets.UTF_8);
+  }
+}
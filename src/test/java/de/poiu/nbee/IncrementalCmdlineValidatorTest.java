@@ -0,0 +1,142 @@
+/*
+ * Copyright 2019-2026 Marco Herrn.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.poiu.nbee;
+
+import de.poiu.nbee.parser.CmdlineParser;
+import de.poiu.nbee.parser.IncrementalCmdlineValidator;
+import de.poiu.nbee.parser.ParseException;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+
+/**
+ * Tests for {@link IncrementalCmdlineValidator}. The validation result after any sequence of
+ * edits must be the same as compiling the whole (trimmed) command line.
+ *
+ * @author Marco Herrn
+ */
+public class IncrementalCmdlineValidatorTest {
+
+  @Test
+  public void typingIntoValidCommandLine() {
+    final IncrementalCmdlineValidator validator= new IncrementalCmdlineValidator();
+    final StringBuilder cmdLine= new StringBuilder("vim ${file}");
+    assertEquals(List.of("${file}"), validator.validate(cmdLine).placeholders());
+
+    this.insert(validator, cmdLine, cmdLine.length(), " +${line");
+    assertEquals("Unclosed placeholder: ${line", validator.validate(cmdLine).error());
+
+    this.insert(validator, cmdLine, cmdLine.length(), "}");
+    assertEquals(List.of("${file}", "${line}"), validator.validate(cmdLine).placeholders());
+
+    this.remove(validator, cmdLine, 4, 8);
+    assertEquals(List.of("${line}"), validator.validate(cmdLine).placeholders());
+  }
+
+
+  @Test
+  public void quoteOpenedBeforeLaterChunks() {
+    final IncrementalCmdlineValidator validator= new IncrementalCmdlineValidator();
+    final StringBuilder cmdLine= new StringBuilder("cmd a ${b} c");
+    assertTrue(validator.validate(cmdLine).isValid());
+
+    this.insert(validator, cmdLine, 4, "\"");
+    assertEquals("Unclosed quote: \"", validator.validate(cmdLine).error());
+
+    this.insert(validator, cmdLine, cmdLine.length(), "\"");
+    final IncrementalCmdlineValidator.Result result= validator.validate(cmdLine);
+    assertTrue(result.isValid());
+    assertEquals(List.of("${b}"), result.placeholders());
+  }
+
+
+  @Test
+  public void escapeCharBeforeTrailingWhitespace() {
+    final IncrementalCmdlineValidator validator= new IncrementalCmdlineValidator();
+    final StringBuilder cmdLine= new StringBuilder("cmd a\\ ");
+    assertEquals("Escape char at end of string", validator.validate(cmdLine).error());
+
+    this.insert(validator, cmdLine, cmdLine.length(), "b");
+    assertTrue(validator.validate(cmdLine).isValid());
+  }
+
+
+  @Test
+  public void randomEditsYieldSameResultAsFullCompilation() {
+    final String alphabet= "ab $${}}\"'\\ \t${file}";
+    final Random random= new Random(4711);
+
+    for (int run= 0; run < 500; run++) {
+      final IncrementalCmdlineValidator validator= new IncrementalCmdlineValidator();
+      final StringBuilder cmdLine= new StringBuilder();
+      for (int step= 0; step < 40; step++) {
+        // sometimes apply several edits before validating again
+        final int edits= 1 + random.nextInt(3);
+        for (int e= 0; e < edits; e++) {
+          if (cmdLine.length() > 0 && random.nextInt(3) == 0) {
+            final int offset= random.nextInt(cmdLine.length());
+            this.remove(validator, cmdLine, offset, 1 + random.nextInt(Math.min(3, cmdLine.length() - offset)));
+          } else {
+            final int offset= random.nextInt(cmdLine.length() + 1);
+            final StringBuilder inserted= new StringBuilder();
+            for (int i= random.nextInt(4); i >= 0; i--) {
+              inserted.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            this.insert(validator, cmdLine, offset, inserted.toString());
+          }
+        }
+
+        assertEquals(cmdLine.toString(), expected(cmdLine.toString()), validator.validate(cmdLine));
+      }
+    }
+  }
+
+
+  @Test
+  public void resetForgetsPreviousCommandLine() {
+    final IncrementalCmdlineValidator validator= new IncrementalCmdlineValidator();
+    assertFalse(validator.validate("cmd \"a").isValid());
+
+    validator.reset();
+    assertTrue(validator.validate("other ${x}").isValid());
+  }
+
+
+  private static IncrementalCmdlineValidator.Result expected(final String cmdLine) {
+    try {
+      return new IncrementalCmdlineValidator.Result(null, CmdlineParser.compile(cmdLine.trim()).placeholders());
+    } catch (ParseException ex) {
+      return new IncrementalCmdlineValidator.Result(ex.getMessage(), List.of());
+    }
+  }
+
+
+  private void insert(final IncrementalCmdlineValidator validator, final StringBuilder cmdLine, final int offset, final String s) {
+    cmdLine.insert(offset, s);
+    validator.inserted(offset, s.length());
+  }
+
+
+  private void remove(final IncrementalCmdlineValidator validator, final StringBuilder cmdLine, final int offset, final int count) {
+    cmdLine.delete(offset, offset + count);
+    validator.removed(offset, count);
+  }
+}
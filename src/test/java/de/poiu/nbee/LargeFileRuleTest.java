@@ -0,0 +1,101 @@
+/*
+ * Copyright 2019-2026 Marco Herrn.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.poiu.nbee;
+
+import de.poiu.nbee.config.LargeFileRule;
+import java.util.function.Supplier;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+
+/**
+ * Tests for {@link LargeFileRule}.
+ *
+ * @author Marco Herrn
+ */
+public class LargeFileRuleTest {
+
+  private static final long MB= 1024 * 1024;
+
+  /** A MIME type supplier that must not be called. */
+  private static final Supplier<String> NO_MIME_TYPE= () -> {
+    fail("MIME type must not be determined");
+    return null;
+  };
+
+
+  @Test
+  public void noRuleWithoutPositiveThreshold() {
+    assertNull(LargeFileRule.compile(0, ""));
+    assertNull(LargeFileRule.compile(-1, "log"));
+  }
+
+
+  @Test
+  public void thresholdIsExclusive() {
+    final LargeFileRule rule= LargeFileRule.compile(10, "");
+
+    assertEquals(10 * MB, rule.threshold());
+    assertFalse(rule.matches(10 * MB, "txt", NO_MIME_TYPE));
+    assertTrue(rule.matches(10 * MB + 1, "txt", NO_MIME_TYPE));
+  }
+
+
+  @Test
+  public void smallFilesDontDetermineMimeType() {
+    final LargeFileRule rule= LargeFileRule.compile(1, "text/plain");
+
+    assertFalse(rule.matches(1024, "log", NO_MIME_TYPE));
+  }
+
+
+  @Test
+  public void extensionsAreMatchedCaseInsensitively() {
+    final LargeFileRule rule= LargeFileRule.compile(1, "log, *.CSV .json");
+
+    assertTrue(rule.matches(2 * MB, "LOG", NO_MIME_TYPE));
+    assertTrue(rule.matches(2 * MB, "csv", NO_MIME_TYPE));
+    assertTrue(rule.matches(2 * MB, "json", NO_MIME_TYPE));
+    assertFalse(rule.matches(2 * MB, "java", NO_MIME_TYPE));
+    assertFalse(rule.matches(2 * MB, "", NO_MIME_TYPE));
+  }
+
+
+  @Test
+  public void mimeTypesAreMatchedExactlyOrByWildcard() {
+    final LargeFileRule rule= LargeFileRule.compile(1, "application/json,text/*");
+
+    assertTrue(rule.matches(2 * MB, "x", () -> "text/plain"));
+    assertTrue(rule.matches(2 * MB, "x", () -> "Application/JSON"));
+    assertFalse(rule.matches(2 * MB, "x", () -> "application/xml"));
+    assertFalse(rule.matches(2 * MB, "x", () -> "textual/plain"));
+    assertFalse(rule.matches(2 * MB, "x", () -> null));
+  }
+
+
+  @Test
+  public void matchingExtensionDoesntDetermineMimeType() {
+    final LargeFileRule rule= LargeFileRule.compile(1, "log text/*");
+
+    assertTrue(rule.matches(2 * MB, "log", NO_MIME_TYPE));
+    assertTrue(rule.matches(2 * MB, "out", () -> "text/x-log"));
+  }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2019-2026 Marco Herrn.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.poiu.nbee;
+
+import de.poiu.nbee.config.Prefs.CmdType;
+import de.poiu.nbee.jfr.LaunchEvents.ProcessSpawnEvent;
+import de.poiu.nbee.jfr.LaunchEvents.ResolveFileEvent;
+import de.poiu.nbee.jfr.LaunchTrace;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+
+/**
+ * Tests for the JFR events of {@link de.poiu.nbee.jfr.LaunchEvents} committed via a
+ * {@link LaunchTrace}.
+ *
+ * @author Marco Herrn
+ */
+public class LaunchEventsTest {
+
+  @Test
+  public void eventsAreDisabledByDefault() throws Exception {
+    final List<RecordedEvent> events;
+    try (final Recording recording= new Recording()) {
+      recording.start();
+      assertFalse(new ResolveFileEvent().isEnabled());
+      emitEvents();
+      recording.stop();
+      events= read(recording);
+    }
+
+    assertTrue(events.stream().noneMatch(e -> e.getEventType().getName().startsWith("de.poiu.nbee.")));
+  }
+
+
+  @Test
+  public void enabledEventsCarryTheCommonAttributes() throws Exception {
+    final List<RecordedEvent> events;
+    try (final Recording recording= new Recording()) {
+      recording.enable("de.poiu.nbee.ProcessSpawn");
+      recording.start();
+      emitEvents();
+      recording.stop();
+      events= read(recording);
+    }
+
+    final List<RecordedEvent> spawnEvents= events.stream()
+      .filter(e -> e.getEventType().getName().equals("de.poiu.nbee.ProcessSpawn"))
+      .toList();
+    assertEquals(1, spawnEvents.size());
+    assertEquals("OPEN_EXTERNALLY_CMD", spawnEvents.get(0).getString("cmdType"));
+    assertEquals(42L, spawnEvents.get(0).getLong("pid"));
+    // ResolveFile was not enabled
+    assertTrue(events.stream().noneMatch(e -> e.getEventType().getName().equals("de.poiu.nbee.ResolveFile")));
+  }
+
+
+  private static void emitEvents() {
+    final LaunchTrace trace= new LaunchTrace();
+    trace.cmdType(CmdType.OPEN_EXTERNALLY_CMD);
+
+    final ResolveFileEvent resolveEvent= new ResolveFileEvent();
+    resolveEvent.begin();
+    trace.commit(resolveEvent);
+
+    final ProcessSpawnEvent spawnEvent= new ProcessSpawnEvent();
+    spawnEvent.begin();
+    spawnEvent.pid(42);
+    trace.commit(spawnEvent);
+  }
+
+
+  private static List<RecordedEvent> read(final Recording recording) throws Exception {
+    final Path file= Files.createTempFile("nbee-launch-events-", ".jfr");
+    try {
+      recording.dump(file);
+      return RecordingFile.readAllEvents(file);
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2019-2026 Marco Herrn.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.poiu.nbee;
+
+import de.poiu.nbee.text.LineDiff;
+import de.poiu.nbee.text.LineDiff.Hunk;
+import java.util.List;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+
+/**
+ * Tests for {@link LineDiff}.
+ *
+ * @author Marco Herrn
+ */
+public class LineDiffTest {
+
+  @Test
+  public void equalTextsHaveNoHunks() {
+    assertTrue(LineDiff.compute("a\nb\nc\n", "a\nb\nc\n").hunks().isEmpty());
+    assertTrue(LineDiff.compute("", "").hunks().isEmpty());
+  }
+
+
+  @Test
+  public void modifiedLineIsASingleHunk() {
+    final LineDiff diff= LineDiff.compute("a\nb\nc\n", "a\nB\nc\n");
+
+    assertEquals(List.of(new Hunk(1, 2, 1, 2)), diff.hunks());
+    assertEquals(2, diff.oldOffset(1));
+    assertEquals(4, diff.oldOffset(2));
+  }
+
+
+  @Test
+  public void insertionsAndDeletionsAreFound() {
+    final LineDiff diff= LineDiff.compute("a\nb\nc\nd\ne\n", "a\nx\nb\nd\ne\ny\n");
+
+    assertEquals(List.of(new Hunk(1, 1, 1, 2),   // x inserted
+                         new Hunk(2, 3, 3, 3),   // c deleted
+                         new Hunk(5, 5, 5, 6)),  // y appended
+                 diff.hunks());
+  }
+
+
+  @Test
+  public void missingFinalLineTerminatorIsADifference() {
+    assertEquals(List.of(new Hunk(1, 2, 1, 2)), LineDiff.compute("a\nb", "a\nb\n").hunks());
+  }
+
+
+  @Test
+  public void emptyTextIsHandled() {
+    assertEquals(List.of(new Hunk(0, 0, 0, 2)), LineDiff.compute("", "a\nb\n").hunks());
+    assertEquals(List.of(new Hunk(0, 2, 0, 0)), LineDiff.compute("a\nb\n", "").hunks());
+  }
+
+
+  @Test
+  public void completelyDifferentTextsAreASingleHunk() {
+    final StringBuilder oldText= new StringBuilder();
+    final StringBuilder newText= new StringBuilder();
+    for (int i= 0; i < LineDiff.MAX_EDIT_DISTANCE; i++) {
+      oldText.append("old ").append(i).append('\n');
+      newText.append("new ").append(i).append('\n');
+    }
+
+    final int lines= LineDiff.MAX_EDIT_DISTANCE;
+    assertEquals(List.of(new Hunk(0, lines, 0, lines)), LineDiff.compute(oldText, newText).hunks());
+  }
+}
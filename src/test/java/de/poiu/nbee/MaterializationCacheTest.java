@@ -0,0 +1,222 @@
+/*
+ * Copyright 2019-2026 Marco Herrn.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.poiu.nbee;
+
+import de.poiu.nbee.launch.MaterializationCache;
+import de.poiu.nbee.launch.MaterializationCache.ContentSource;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+
+/**
+ * Tests for {@link MaterializationCache}.
+ *
+ * @author Marco Herrn
+ */
+public class MaterializationCacheTest {
+
+  private Path dir;
+
+  /** The number of times the content of a file was read. */
+  private final AtomicInteger reads= new AtomicInteger();
+
+
+  @Before
+  public void createDir() throws IOException {
+    this.dir= Files.createTempDirectory("nbee-cache-test").toRealPath();
+  }
+
+
+  @After
+  public void deleteDir() throws IOException {
+    try (final Stream<Path> files= Files.walk(this.dir)) {
+      for (final Path p : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+        p.toFile().setWritable(true);
+        Files.delete(p);
+      }
+    }
+  }
+
+
+  @Test
+  public void copyHasNameAndContentOfOriginal() throws IOException {
+    final MaterializationCache cache= new MaterializationCache(this.dir, 1024);
+
+    final Path copy= cache.materialize("jar:a.jar!/A.java", "A.java", this.content("class A {}"));
+
+    assertEquals("A.java", copy.getFileName().toString());
+    assertEquals("class A {}", Files.readString(copy));
+  }
+
+
+  @Test
+  public void sameKeyIsOnlyReadOnce() throws IOException {
+    final MaterializationCache cache= new MaterializationCache(this.dir, 1024);
+
+    final Path first= cache.materialize("jar:a.jar!/A.java", "A.java", this.content("class A {}"));
+    final Path second= cache.materialize("jar:a.jar!/A.java", "A.java", this.content("class A {}"));
+
+    assertEquals(first, second);
+    assertEquals(1, this.reads.get());
+  }
+
+
+  @Test
+  public void sameContentIsOnlyStoredOnce() throws IOException {
+    final MaterializationCache cache= new MaterializationCache(this.dir, 1024);
+
+    final Path first= cache.materialize("jar:a.jar!/A.java", "A.java", this.content("class A {}"));
+    final Path second= cache.materialize("jar:b.jar!/A.java", "A.java", this.content("class A {}"));
+    final Path renamed= cache.materialize("jar:c.jar!/B.java", "B.java", this.content("class A {}"));
+
+    assertEquals(first, second);
+    assertEquals(first.getParent(), renamed.getParent());
+    assertEquals("B.java", renamed.getFileName().toString());
+    assertEquals("class A {}", Files.readString(renamed));
+    assertEquals(1, countEntries());
+  }
+
+
+  @Test
+  public void leastRecentlyUsedContentIsEvicted() throws IOException {
+    final MaterializationCache cache= new MaterializationCache(this.dir, 25);
+
+    final Path a= cache.materialize("a", "a.txt", this.content("aaaaaaaaaa"));
+    final Path b= cache.materialize("b", "b.txt", this.content("bbbbbbbbbb"));
+    // use a again, so that b is the least recently used one
+    cache.materialize("a", "a.txt", this.content("aaaaaaaaaa"));
+    final Path c= cache.materialize("c", "c.txt", this.content("cccccccccc"));
+
+    assertTrue(Files.exists(a));
+    assertFalse(Files.exists(b));
+    assertTrue(Files.exists(c));
+    assertEquals(2, countEntries());
+
+    // b needs to be read again
+    final int readsBefore= this.reads.get();
+    cache.materialize("b", "b.txt", this.content("bbbbbbbbbb"));
+    assertEquals(readsBefore + 1, this.reads.get());
+  }
+
+
+  @Test
+  public void contentInUseIsNotEvicted() throws IOException {
+    final Set<Path> opened= new HashSet<>();
+    final MaterializationCache cache= new MaterializationCache(this.dir, 15, opened::contains);
+
+    final Path a= cache.materialize("a", "a.txt", this.content("aaaaaaaaaa"));
+    opened.add(a);
+    final Path b= cache.materialize("b", "b.txt", this.content("bbbbbbbbbb"));
+
+    assertTrue(Files.exists(a));
+    assertTrue(Files.exists(b));
+
+    // a is evicted on the next occasion after it is not in use anymore
+    opened.remove(a);
+    final Path c= cache.materialize("c", "c.txt", this.content("cccccccccc"));
+
+    assertFalse(Files.exists(a));
+    assertFalse(Files.exists(b));
+    assertTrue(Files.exists(c));
+  }
+
+
+  @Test
+  public void contentLargerThanMaxSizeIsKept() throws IOException {
+    final MaterializationCache cache= new MaterializationCache(this.dir, 4);
+
+    final Path copy= cache.materialize("a", "a.txt", this.content("aaaaaaaaaa"));
+
+    assertTrue(Files.exists(copy));
+  }
+
+
+  @Test
+  public void existingCopiesArePickedUpByNewInstance() throws IOException {
+    final Path first= new MaterializationCache(this.dir, 1024)
+      .materialize("a", "a.txt", this.content("aaaaaaaaaa"));
+
+    final Path second= new MaterializationCache(this.dir, 1024)
+      .materialize("other key", "a.txt", this.content("aaaaaaaaaa"));
+
+    assertEquals(first, second);
+    assertEquals(1, countEntries());
+  }
+
+
+  @Test
+  public void failedReadLeavesNoTraces() throws IOException {
+    final MaterializationCache cache= new MaterializationCache(this.dir, 1024);
+
+    try {
+      cache.materialize("a", "a.txt", () -> {
+        throw new IOException("unreadable");
+      });
+      fail("Expected IOException");
+    } catch (IOException ex) {
+      assertEquals("unreadable", ex.getMessage());
+    }
+
+    try (final Stream<Path> files= Files.list(this.dir)) {
+      assertEquals(0, files.count());
+    }
+  }
+
+
+  @Test
+  public void differentContentIsStoredSeparately() throws IOException {
+    final MaterializationCache cache= new MaterializationCache(this.dir, 1024);
+
+    final Path a= cache.materialize("a", "x.txt", this.content("first"));
+    final Path b= cache.materialize("b", "x.txt", this.content("second"));
+
+    assertNotEquals(a, b);
+    assertEquals("first", Files.readString(a));
+    assertEquals("second", Files.readString(b));
+  }
+
+
+  private ContentSource content(final String content) {
+    return () -> {
+      this.reads.incrementAndGet();
+      return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    };
+  }
+
+
+  private long countEntries() throws IOException {
+    try (final Stream<Path> files= Files.list(this.dir)) {
+      return files.filter(Files::isDirectory).count();
+    }
+  }
+}
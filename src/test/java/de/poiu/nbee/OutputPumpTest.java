@@ -0,0 +1,118 @@
+/*
+ * Copyright 2019-2026 Marco Herrn.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.poiu.nbee;
+
+import de.poiu.nbee.launch.DecodingOutputSink;
+import de.poiu.nbee.launch.OutputPump;
+import de.poiu.nbee.launch.OutputRingBuffer;
+import java.io.ByteArrayInputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+
+/**
+ * Tests for {@link OutputPump} and the sinks it drains the output into.
+ *
+ * @author Marco Herrn
+ */
+public class OutputPumpTest {
+
+  @Test
+  public void drainsTheWholeOutputIntoAllSinks() throws Exception {
+    final OutputRingBuffer first= new OutputRingBuffer(1024);
+    final OutputRingBuffer second= new OutputRingBuffer(1024);
+
+    OutputPump.start(new ByteArrayInputStream(bytes("unknown option: -x\n")), List.of(first, second))
+      .get(10, TimeUnit.SECONDS);
+
+    assertEquals("unknown option: -x\n", first.tail(StandardCharsets.UTF_8));
+    assertEquals("unknown option: -x\n", second.tail(StandardCharsets.UTF_8));
+  }
+
+
+  @Test
+  public void writerIsNeverBlockedByLargeOutput() throws Exception {
+    // a small pipe would block the writer as soon as nobody reads it anymore
+    final PipedInputStream output= new PipedInputStream(1024);
+    final PipedOutputStream writer= new PipedOutputStream(output);
+    final OutputRingBuffer buffer= new OutputRingBuffer(100);
+    final CompletableFuture<Void> drained= OutputPump.start(output, List.of(buffer));
+
+    final CompletableFuture<Void> writing= CompletableFuture.runAsync(() -> {
+      try (writer) {
+        for (int i= 0; i < 100_000; i++) {
+          writer.write(bytes(String.format("line %06d\n", i)));
+        }
+      } catch (Exception ex) {
+        throw new IllegalStateException(ex);
+      }
+    });
+    writing.get(30, TimeUnit.SECONDS);
+    drained.get(10, TimeUnit.SECONDS);
+
+    assertEquals(1_200_000, buffer.totalWritten());
+    final String tail= buffer.tail(StandardCharsets.UTF_8);
+    assertEquals(100, tail.length());
+    assertFalse(tail.contains("line 099990"));
+    assertEquals("line 099999\n", tail.substring(tail.length() - 12));
+  }
+
+
+  @Test
+  public void charactersSplitBetweenChunksAreDecodedCorrectly() {
+    final StringBuilder text= new StringBuilder();
+    final AtomicBoolean closed= new AtomicBoolean(false);
+    final DecodingOutputSink sink= new DecodingOutputSink(StandardCharsets.UTF_8, text::append, () -> closed.set(true));
+
+    final byte[] bytes= bytes("Grüße €");
+    for (int i= 0; i < bytes.length; i++) {
+      sink.write(bytes, i, 1);
+    }
+    assertFalse(closed.get());
+    sink.close();
+
+    assertEquals("Grüße €", text.toString());
+    assertTrue(closed.get());
+  }
+
+
+  @Test
+  public void incompleteCharacterAtEndIsReplaced() {
+    final StringBuilder text= new StringBuilder();
+    final DecodingOutputSink sink= new DecodingOutputSink(StandardCharsets.UTF_8, text::append, () -> {});
+
+    final byte[] bytes= bytes("a€");
+    sink.write(bytes, 0, bytes.length - 1);
+    sink.close();
+
+    assertEquals("a\uFFFD", text.toString());
+  }
+
+
+  private static byte[] bytes(final String s) {
+    return s.getBytes(StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2019-2026 Marco Herrn.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.poiu.nbee;
+
+import de.poiu.nbee.launch.OutputRingBuffer;
+import java.nio.charset.StandardCharsets;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+
+/**
+ * Tests for {@link OutputRingBuffer}.
+ *
+ * @author Marco Herrn
+ */
+public class OutputRingBufferTest {
+
+  @Test
+  public void keepsEverythingBelowCapacity() {
+    final OutputRingBuffer buffer= new OutputRingBuffer(16);
+    write(buffer, "Hello, ");
+    write(buffer, "World");
+
+    assertEquals("Hello, World", buffer.tail(StandardCharsets.UTF_8));
+    assertEquals(12, buffer.totalWritten());
+  }
+
+
+  @Test
+  public void keepsOnlyTheLastBytesWhenWrappingAround() {
+    final OutputRingBuffer buffer= new OutputRingBuffer(8);
+    write(buffer, "0123456");
+    write(buffer, "789ab");
+
+    assertEquals("456789ab", buffer.tail(StandardCharsets.UTF_8));
+    assertEquals(12, buffer.totalWritten());
+  }
+
+
+  @Test
+  public void keepsTheLastBytesOfAWriteLargerThanTheCapacity() {
+    final OutputRingBuffer buffer= new OutputRingBuffer(4);
+    write(buffer, "ab");
+    write(buffer, "0123456789");
+
+    assertEquals("6789", buffer.tail(StandardCharsets.UTF_8));
+  }
+
+
+  @Test
+  public void exactlyFullBufferIsReturnedInOrder() {
+    final OutputRingBuffer buffer= new OutputRingBuffer(4);
+    write(buffer, "abcd");
+    assertEquals("abcd", buffer.tail(StandardCharsets.UTF_8));
+
+    write(buffer, "efgh");
+    assertEquals("efgh", buffer.tail(StandardCharsets.UTF_8));
+  }
+
+
+  @Test
+  public void emptyBufferHasNoTail() {
+    assertArrayEquals(new byte[0], new OutputRingBuffer(4).tail());
+  }
+
+
+  @Test(expected= IllegalArgumentException.class)
+  public void capacityMustBePositive() {
+    new OutputRingBuffer(0);
+  }
+
+
+  private static void write(final OutputRingBuffer buffer, final String s) {
+    final byte[] bytes= s.getBytes(StandardCharsets.UTF_8);
+    buffer.write(bytes, 0, bytes.length);
+  }
+}
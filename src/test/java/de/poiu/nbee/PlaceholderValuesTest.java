@@ -0,0 +1,100 @@
+/*
+ * Copyright 2019-2026 Marco Herrn.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.poiu.nbee;
+
+import de.poiu.nbee.parser.CmdlineParser;
+import de.poiu.nbee.parser.CmdlineTemplate;
+import de.poiu.nbee.parser.PlaceholderValues;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+
+/**
+ * Tests for {@link PlaceholderValues} and rendering a {@link CmdlineTemplate} with them.
+ *
+ * @author Marco Herrn
+ */
+public class PlaceholderValuesTest {
+
+  @Test
+  public void unreferencedPlaceholdersAreNeverComputed() {
+    final AtomicInteger calls= new AtomicInteger();
+    final PlaceholderValues values= new PlaceholderValues()
+      .put("${file}", "/path/to/file")
+      .supply("${selectedText}", () -> {
+        calls.incrementAndGet();
+        return "expensive";
+      });
+
+    final CmdlineTemplate template= CmdlineParser.compile("vim ${file}");
+
+    assertArrayEquals(new String[]{"vim", "/path/to/file"}, template.render(values).command());
+    assertEquals(0, calls.get());
+  }
+
+
+  @Test
+  public void referencedPlaceholdersAreComputedOnlyOnce() {
+    final AtomicInteger calls= new AtomicInteger();
+    final PlaceholderValues values= new PlaceholderValues()
+      .supply("${line}", () -> String.valueOf(calls.incrementAndGet()));
+
+    final CmdlineTemplate template= CmdlineParser.compile("cmd ${line} +${line} \"${line}:${line}\"");
+
+    assertArrayEquals(new String[]{"cmd", "1", "+1", "1:1"}, template.render(values).command());
+    assertEquals(1, calls.get());
+  }
+
+
+  @Test
+  public void undefinedPlaceholdersAreIncludedLiterally() {
+    final PlaceholderValues values= new PlaceholderValues();
+
+    final CmdlineParser.ParseResult result= CmdlineParser.compile("cmd ${unknown}").render(values);
+
+    assertArrayEquals(new String[]{"cmd", "${unknown}"}, result.command());
+    assertEquals(List.of("${unknown}"), result.unmappedPlaceholders());
+    assertFalse(values.isDefined("${unknown}"));
+    assertNull(values.get("${unknown}"));
+  }
+
+
+  @Test
+  public void isDefinedDoesNotComputeTheValue() {
+    final AtomicInteger calls= new AtomicInteger();
+    final PlaceholderValues values= new PlaceholderValues()
+      .supply("${line}", () -> String.valueOf(calls.incrementAndGet()));
+
+    assertTrue(values.isDefined("${line}"));
+    assertEquals(0, calls.get());
+  }
+
+
+  @Test(expected = NullPointerException.class)
+  public void supplierMustNotReturnNull() {
+    new PlaceholderValues()
+      .supply("${line}", () -> null)
+      .get("${line}");
+  }
+
+}
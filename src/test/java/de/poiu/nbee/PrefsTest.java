@@ -0,0 +1,188 @@
+/*
+ * Copyright 2019-2026 Marco Herrn.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.poiu.nbee;
+
+import de.poiu.nbee.config.LargeFileRule;
+import de.poiu.nbee.config.Prefs;
+import de.poiu.nbee.config.Prefs.CmdType;
+import de.poiu.nbee.config.Prefs.StdinContent;
+import de.poiu.nbee.parser.CmdlineTemplate;
+import de.poiu.nbee.parser.ParseException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.prefs.Preferences;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.openide.util.NbPreferences;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+
+/**
+ * Tests for the snapshot handling of {@link Prefs}.
+ * <p>
+ * These tests use the actual preferences node of this plugin, but restore all values they
+ * touch afterwards.
+ *
+ * @author Marco Herrn
+ */
+public class PrefsTest {
+
+  private static final String KEY= "PrefsTest-key";
+  private static final CmdType CMD_TYPE= CmdType.EDITOR_SERVER_MSG;
+
+  /** The keys of the settings the tests in this class modify. */
+  private static final List<String> TOUCHED_KEYS= List.of(
+    KEY,
+    CMD_TYPE.name(),
+    CmdType.LARGE_FILE_CMD.name(),
+    Prefs.LARGE_FILE_THRESHOLD,
+    Prefs.LARGE_FILE_TYPES,
+    Prefs.stdinKey(CMD_TYPE));
+
+  private final Preferences node= NbPreferences.forModule(Prefs.class);
+  private final Prefs prefs= new Prefs();
+
+  private final Map<String, String> originalValues= new HashMap<>();
+
+
+  @Before
+  public void rememberOriginalValues() {
+    for (final String key : TOUCHED_KEYS) {
+      this.originalValues.put(key, this.node.get(Prefs.PREFS_PREFIX + key, null));
+    }
+  }
+
+
+  @After
+  public void restoreOriginalValues() {
+    for (final String key : TOUCHED_KEYS) {
+      final String originalValue= this.originalValues.get(key);
+      if (originalValue != null) {
+        this.node.put(Prefs.PREFS_PREFIX + key, originalValue);
+      } else {
+        this.node.remove(Prefs.PREFS_PREFIX + key);
+      }
+    }
+  }
+
+
+  @Test
+  public void storedValuesAreVisibleImmediately() {
+    this.prefs.store(KEY, "first");
+    assertEquals("first", this.prefs.load(KEY));
+
+    this.prefs.store(KEY, true);
+    assertTrue(this.prefs.loadBoolean(KEY, false));
+
+    this.prefs.store(KEY, 42);
+    assertEquals(42, this.prefs.loadInt(KEY, 0));
+    assertFalse(this.prefs.loadBoolean(KEY, false));
+  }
+
+
+  @Test
+  public void defaultsAreReturnedForMissingKeys() {
+    assertEquals("default", this.prefs.load(KEY, "default"));
+    assertEquals("", this.prefs.load(KEY));
+    assertTrue(this.prefs.loadBoolean(KEY, true));
+    assertEquals(7, this.prefs.loadInt(KEY, 7));
+  }
+
+
+  @Test
+  public void changesInTheNodeInvalidateTheSnapshot() throws Exception {
+    this.prefs.store(KEY, "before");
+    assertEquals("before", this.prefs.load(KEY));
+
+    // preference change events are delivered asynchronously
+    this.node.put(Prefs.PREFS_PREFIX + KEY, "after");
+    final long end= System.currentTimeMillis() + 10_000;
+    while (!"after".equals(this.prefs.load(KEY)) && System.currentTimeMillis() < end) {
+      Thread.sleep(10);
+    }
+    assertEquals("after", this.prefs.load(KEY));
+  }
+
+
+  @Test
+  public void templateIsOnlyCompiledOncePerChange() {
+    this.prefs.store(CMD_TYPE, "open ${file}");
+    final CmdlineTemplate first= this.prefs.loadTemplate(CMD_TYPE);
+    assertSame(first, this.prefs.loadTemplate(CMD_TYPE));
+
+    this.prefs.store(CMD_TYPE, "open ${file} ${line}");
+    final CmdlineTemplate second= this.prefs.loadTemplate(CMD_TYPE);
+    assertNotSame(first, second);
+    assertEquals(2, second.placeholders().size());
+
+    this.prefs.store(CMD_TYPE, "   ");
+    assertNull(this.prefs.loadTemplate(CMD_TYPE));
+  }
+
+
+  @Test
+  public void invalidTemplateIsReportedOnEachLoad() {
+    this.prefs.store(CMD_TYPE, "open \"${file}");
+    for (int i= 0; i < 2; i++) {
+      try {
+        this.prefs.loadTemplate(CMD_TYPE);
+        fail("Expected ParseException");
+      } catch (ParseException ex) {
+        // expected
+      }
+    }
+  }
+
+
+  @Test
+  public void largeFileRuleRequiresThresholdAndCommand() {
+    this.prefs.store(CmdType.LARGE_FILE_CMD, "less ${file}");
+    this.prefs.store(Prefs.LARGE_FILE_THRESHOLD, 0);
+    assertNull(this.prefs.loadLargeFileRule());
+
+    this.prefs.store(Prefs.LARGE_FILE_THRESHOLD, 100);
+    this.prefs.store(Prefs.LARGE_FILE_TYPES, "log");
+    final LargeFileRule rule= this.prefs.loadLargeFileRule();
+    assertEquals(100L * 1024 * 1024, rule.threshold());
+    assertSame(rule, this.prefs.loadLargeFileRule());
+    assertTrue(rule.matches(rule.threshold() + 1, "log", () -> ""));
+    assertFalse(rule.matches(rule.threshold() + 1, "java", () -> ""));
+
+    this.prefs.store(CmdType.LARGE_FILE_CMD, "");
+    assertNull(this.prefs.loadLargeFileRule());
+  }
+
+
+  @Test
+  public void stdinContentDefaultsToNone() {
+    assertEquals(StdinContent.NONE, this.prefs.loadStdinContent(CMD_TYPE));
+
+    this.prefs.store(CMD_TYPE, StdinContent.SELECTION);
+    assertEquals(StdinContent.SELECTION, this.prefs.loadStdinContent(CMD_TYPE));
+
+    this.prefs.store(Prefs.stdinKey(CMD_TYPE), "UNKNOWN");
+    assertEquals(StdinContent.NONE, this.prefs.loadStdinContent(CMD_TYPE));
+  }
+}
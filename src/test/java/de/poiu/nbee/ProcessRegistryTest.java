@@ -0,0 +1,112 @@
+/*
+ * Copyright 2019-2026 Marco Herrn.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.poiu.nbee;
+
+import de.poiu.nbee.launch.LaunchedProcess;
+import de.poiu.nbee.launch.ProcessRegistry;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+
+/**
+ * Tests for {@link ProcessRegistry} with real (short-lived or long-running) java processes.
+ *
+ * @author Marco Herrn
+ */
+public class ProcessRegistryTest {
+
+  private static final String JAVA= Path.of(System.getProperty("java.home"), "bin", "java").toString();
+
+  private final ProcessRegistry registry= new ProcessRegistry();
+
+
+  @After
+  public void terminateRemainingProcesses() {
+    this.registry.terminateAll();
+  }
+
+
+  @Test
+  public void processIsRemovedWhenItExits() throws Exception {
+    final Path file= Path.of("some", "file.txt");
+    final LaunchedProcess launched= this.registry.register(file, start(JAVA, "-version"), List.of(JAVA, "-version"));
+
+    launched.onExit().get(30, TimeUnit.SECONDS);
+
+    assertFalse(launched.isAlive());
+    assertEquals(OptionalInt.of(0), launched.exitValue());
+    assertFalse(this.registry.isRunning(file));
+    assertTrue(this.registry.getProcesses(file).isEmpty());
+    assertTrue(this.registry.getAll().isEmpty());
+  }
+
+
+  @Test
+  public void processesAreTrackedPerFile() throws Exception {
+    final Path fileA= Path.of("dir", "a.txt");
+    final Path fileB= Path.of("dir", "b.txt");
+    final LaunchedProcess a1= this.registry.register(fileA, startLongRunning(), List.of("a1"));
+    final LaunchedProcess a2= this.registry.register(Path.of("dir", ".", "a.txt"), startLongRunning(), List.of("a2"));
+    final LaunchedProcess b1= this.registry.register(fileB, startLongRunning(), List.of("b1"));
+
+    assertEquals(List.of(a1, a2), this.registry.getProcesses(fileA));
+    assertEquals(List.of(b1), this.registry.getProcesses(fileB.toAbsolutePath()));
+    assertEquals(3, this.registry.getAll().size());
+    assertEquals(fileA.toAbsolutePath(), a2.file());
+    assertEquals(List.of("a2"), a2.command());
+
+    a1.terminate();
+    a1.onExit().get(30, TimeUnit.SECONDS);
+
+    assertEquals(List.of(a2), this.registry.getProcesses(fileA));
+    assertEquals(List.of(b1), this.registry.getProcesses(fileB));
+  }
+
+
+  @Test
+  public void terminateAllTerminatesAllProcesses() throws Exception {
+    final LaunchedProcess a= this.registry.register(Path.of("a.txt"), startLongRunning(), List.of("a"));
+    final LaunchedProcess b= this.registry.register(Path.of("b.txt"), startLongRunning(), List.of("b"));
+
+    this.registry.terminateAll();
+
+    a.onExit().get(30, TimeUnit.SECONDS);
+    b.onExit().get(30, TimeUnit.SECONDS);
+    assertTrue(this.registry.getAll().isEmpty());
+  }
+
+
+  private static Process startLongRunning() throws IOException {
+    return start(JAVA, "-cp", System.getProperty("java.class.path"), StandInEditorServer.class.getName());
+  }
+
+
+  private static Process start(final String... command) throws IOException {
+    return new ProcessBuilder(command)
+      .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+      .redirectError(ProcessBuilder.Redirect.DISCARD)
+      .start();
+  }
+}
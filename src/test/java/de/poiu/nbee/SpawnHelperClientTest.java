@@ -0,0 +1,112 @@
+/*
+ * Copyright 2019-2026 Marco Herrn.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.poiu.nbee;
+
+import de.poiu.nbee.launch.SpawnHelperClient;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+
+/**
+ * Tests for {@link SpawnHelperClient} with a real spawn helper process.
+ *
+ * @author Marco Herrn
+ */
+public class SpawnHelperClientTest {
+
+  private static final String JAVA= Path.of(System.getProperty("java.home"), "bin", "java").toString();
+
+  private static final List<String> LONG_RUNNING=
+    List.of(JAVA, "-cp", System.getProperty("java.class.path"), StandInEditorServer.class.getName());
+
+  private final SpawnHelperClient client= new SpawnHelperClient(Duration.ofSeconds(30));
+
+
+  @After
+  public void closeClient() {
+    this.client.close();
+  }
+
+
+  @Test
+  public void spawnedProcessIsRunning() throws Exception {
+    final ProcessHandle handle= this.spawnLongRunning();
+
+    assertTrue(handle.isAlive());
+    handle.destroy();
+    handle.onExit().get(30, TimeUnit.SECONDS);
+  }
+
+
+  @Test
+  public void helperIsReusedForMultipleRequests() throws Exception {
+    final ProcessHandle first= this.spawnLongRunning();
+    final ProcessHandle second= this.spawnLongRunning();
+
+    assertTrue(first.pid() != second.pid());
+    // both were started by the same helper process
+    assertTrue(first.parent().isPresent());
+    assertTrue(first.parent().equals(second.parent()));
+
+    first.destroy();
+    second.destroy();
+    first.onExit().get(30, TimeUnit.SECONDS);
+    second.onExit().get(30, TimeUnit.SECONDS);
+  }
+
+
+  @Test
+  public void failingCommandIsReportedAndHelperRecovers() throws Exception {
+    try {
+      this.client.spawn(List.of("/non/existing/command"), null);
+      fail("Expected IOException");
+    } catch (IOException ex) {
+      // expected
+    }
+
+    final ProcessHandle handle= this.spawnLongRunning();
+    assertTrue(handle.isAlive());
+    handle.destroy();
+    handle.onExit().get(30, TimeUnit.SECONDS);
+  }
+
+
+  @Test
+  public void helperIsRestartedAfterClose() throws Exception {
+    this.spawnLongRunning().destroy();
+    this.client.close();
+
+    final ProcessHandle handle= this.spawnLongRunning();
+    assertTrue(handle.isAlive());
+    handle.destroy();
+    handle.onExit().get(30, TimeUnit.SECONDS);
+  }
+
+
+  private ProcessHandle spawnLongRunning() throws IOException {
+    final long pid= this.client.spawn(LONG_RUNNING, new File(System.getProperty("java.io.tmpdir")));
+    return ProcessHandle.of(pid).orElseThrow(() -> new AssertionError("Spawned process " + pid + " not found"));
+  }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2019-2026 Marco Herrn.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.poiu.nbee;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/**
+ * A stand-in for an editor server, used by {@link EditorServerChannelTest}.
+ * <p>
+ * This is started as a separate process. It listens on a random local TCP port and prints that
+ * port on stdout. It terminates when its stdin is closed.
+ * <p>
+ * It answers each request line with <code>OK &lt;connection number&gt; &lt;request line&gt;</code>,
+ * except for the following requests:
+ * <dl>
+ *   <dt><code>close</code></dt><dd>answers with <code>OK</code> and closes the connection</dd>
+ *   <dt><code>fail</code></dt><dd>answers with an error</dd>
+ *   <dt><code>slow</code></dt><dd>answers only after 5 seconds</dd>
+ * </dl>
+ *
+ * @author Marco Herrn
+ */
+public class StandInEditorServer {
+
+  public static void main(final String[] args) throws IOException {
+    final ServerSocket serverSocket= new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+    System.out.println(serverSocket.getLocalPort());
+    System.out.flush();
+
+    final Thread stdinWatcher= new Thread(() -> {
+      try {
+        while (System.in.read() >= 0) {
+          // ignore
+        }
+      } catch (IOException ex) {
+        // terminate anyway
+      }
+      System.exit(0);
+    });
+    stdinWatcher.setDaemon(true);
+    stdinWatcher.start();
+
+    final AtomicInteger connections= new AtomicInteger();
+    while (true) {
+      final Socket socket= serverSocket.accept();
+      final int connection= connections.incrementAndGet();
+      final Thread handler= new Thread(() -> handle(socket, connection));
+      handler.setDaemon(true);
+      handler.start();
+    }
+  }
+
+
+  private static void handle(final Socket socket, final int connection) {
+    try (socket;
+         final BufferedReader in= new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8))) {
+      final OutputStream out= socket.getOutputStream();
+      String line;
+      while ((line= in.readLine()) != null) {
+        switch (line) {
+          case "close":
+            respond(out, "OK");
+            return;
+          case "fail":
+            respond(out, "ERR request failed");
+            break;
+          case "slow":
+            Thread.sleep(5_000);
+            respond(out, "OK");
+            break;
+          default:
+            respond(out, "OK " + connection + " " + line);
+        }
+      }
+    } catch (IOException | InterruptedException ex) {
+      // just close the connection
+    }
+  }
+
+
+  private static void respond(final OutputStream out, final String response) throws IOException {
+    out.write((response + "\n").getBytes(StandardCharsets.UTF_8));
+    out.flush();
+  }
+}
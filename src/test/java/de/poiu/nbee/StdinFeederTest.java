@@ -0,0 +1,158 @@
+/*
+ * Copyright 2019-2026 Marco Herrn.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.poiu.nbee;
+
+import de.poiu.nbee.launch.StdinFeeder;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.swing.text.PlainDocument;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+
+/**
+ * Tests for {@link StdinFeeder}.
+ *
+ * @author Marco Herrn
+ */
+public class StdinFeederTest {
+
+  @Test
+  public void writesWholeDocumentAndClosesStream() throws Exception {
+    final ClosingOutputStream stdin= new ClosingOutputStream();
+
+    final long written= StdinFeeder.feed(stdin, StdinFeeder.of(document("line 1\nline 2\n"), StandardCharsets.UTF_8))
+      .get(10, TimeUnit.SECONDS);
+
+    assertEquals("line 1\nline 2\n", stdin.toString(StandardCharsets.UTF_8));
+    assertEquals(14, written);
+    assertTrue(stdin.closed.get());
+  }
+
+
+  @Test
+  public void writesOnlyTheGivenRange() throws Exception {
+    final ClosingOutputStream stdin= new ClosingOutputStream();
+
+    StdinFeeder.feed(stdin, StdinFeeder.of(document("0123456789"), 3, 4, StandardCharsets.UTF_8))
+      .get(10, TimeUnit.SECONDS);
+
+    assertEquals("3456", stdin.toString(StandardCharsets.UTF_8));
+  }
+
+
+  @Test
+  public void slowReaderGetsAllContent() throws Exception {
+    final StringBuilder sb= new StringBuilder();
+    for (int i= 0; i < 50_000; i++) {
+      sb.append("line ").append(i).append('\n');
+    }
+    final String content= sb.toString();
+
+    // a small pipe blocks the writer until the reader catches up
+    final PipedInputStream reader= new PipedInputStream(1024);
+    final CompletableFuture<Long> feeding= StdinFeeder.feed(new PipedOutputStream(reader),
+      StdinFeeder.of(document(content), StandardCharsets.UTF_8));
+
+    final ByteArrayOutputStream read= new ByteArrayOutputStream();
+    final byte[] buffer= new byte[100];
+    int n;
+    while ((n= reader.read(buffer)) != -1) {
+      read.write(buffer, 0, n);
+    }
+
+    assertEquals(content.length(), (long) feeding.get(10, TimeUnit.SECONDS));
+    assertEquals(content, read.toString(StandardCharsets.UTF_8));
+  }
+
+
+  @Test
+  public void failureIsReportedAndStreamClosed() throws Exception {
+    final ClosingOutputStream stdin= new ClosingOutputStream();
+
+    try {
+      StdinFeeder.feed(stdin, channel -> {
+        throw new IOException("Broken pipe");
+      }).get(10, TimeUnit.SECONDS);
+      fail("Expected ExecutionException");
+    } catch (ExecutionException ex) {
+      assertTrue(ex.getCause() instanceof UncheckedIOException);
+      assertEquals("Broken pipe", ex.getCause().getCause().getMessage());
+    }
+    assertTrue(stdin.closed.get());
+  }
+
+
+  @Test
+  public void readerClosingEarlyFailsFeeding() throws Exception {
+    final StringBuilder sb= new StringBuilder();
+    for (int i= 0; i < 50_000; i++) {
+      sb.append("line ").append(i).append('\n');
+    }
+
+    final PipedInputStream reader= new PipedInputStream(1024);
+    final CompletableFuture<Long> feeding= StdinFeeder.feed(new PipedOutputStream(reader),
+      StdinFeeder.of(document(sb.toString()), StandardCharsets.UTF_8));
+    readSome(reader);
+    reader.close();
+
+    try {
+      feeding.get(10, TimeUnit.SECONDS);
+      fail("Expected ExecutionException");
+    } catch (ExecutionException ex) {
+      assertTrue(ex.getCause() instanceof UncheckedIOException);
+    }
+  }
+
+
+  private static PlainDocument document(final String content) throws Exception {
+    final PlainDocument document= new PlainDocument();
+    document.insertString(0, content, null);
+    return document;
+  }
+
+
+  private static void readSome(final InputStream in) throws IOException {
+    final byte[] buffer= new byte[100];
+    if (in.read(buffer) == -1) {
+      fail("Expected some content");
+    }
+  }
+
+
+  /** A ByteArrayOutputStream that remembers whether it was closed. */
+  private static final class ClosingOutputStream extends ByteArrayOutputStream {
+    private final AtomicBoolean closed= new AtomicBoolean();
+
+    @Override
+    public void close() throws IOException {
+      this.closed.set(true);
+      super.close();
+    }
+  }
+}